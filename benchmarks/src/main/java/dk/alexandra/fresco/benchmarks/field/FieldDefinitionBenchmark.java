@@ -0,0 +1,96 @@
+package dk.alexandra.fresco.benchmarks.field;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.builder.numeric.field.MersennePrimeFieldDefinition;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link BigIntegerFieldDefinition} to the {@link MersennePrimeFieldDefinition} on
+ * the arithmetic and serialization done by the arithmetic protocol suites. Both definitions use
+ * the same pseudo Mersenne prime, so only the reduction and representation differ. Each invocation
+ * processes a list of elements.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldDefinitionBenchmark {
+
+  private static final int SIZE = 1000;
+
+  @Param({"BigInteger", "Mersenne"})
+  public String definition;
+
+  @Param({"64", "128", "256"})
+  public int bitLength;
+
+  private FieldDefinition fieldDefinition;
+  private List<FieldElement> left;
+  private List<FieldElement> right;
+  private byte[] serialized;
+
+  @Setup
+  public void setup() {
+    MersennePrimeFieldDefinition mersenne = MersennePrimeFieldDefinition.find(bitLength);
+    if ("Mersenne".equals(definition)) {
+      fieldDefinition = mersenne;
+    } else {
+      fieldDefinition = new BigIntegerFieldDefinition(mersenne.getModulus());
+    }
+    Random random = new Random(42);
+    left = new ArrayList<>(SIZE);
+    right = new ArrayList<>(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      left.add(fieldDefinition.createElement(new BigInteger(bitLength + 8, random)));
+      right.add(fieldDefinition.createElement(new BigInteger(bitLength + 8, random)));
+    }
+    serialized = fieldDefinition.serialize(left);
+  }
+
+  @Benchmark
+  public FieldElement innerProduct() {
+    FieldElement sum = fieldDefinition.createElement(0);
+    for (int i = 0; i < SIZE; i++) {
+      sum = sum.add(left.get(i).multiply(right.get(i)));
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public FieldElement addSubtract() {
+    FieldElement sum = fieldDefinition.createElement(0);
+    for (int i = 0; i < SIZE; i++) {
+      sum = sum.add(left.get(i)).subtract(right.get(i));
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return fieldDefinition.serialize(left);
+  }
+
+  @Benchmark
+  public List<FieldElement> deserialize() {
+    return fieldDefinition.deserializeList(serialized);
+  }
+}
@@ -0,0 +1,64 @@
+package dk.alexandra.fresco.benchmarks.network;
+
+import dk.alexandra.fresco.framework.network.Network;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A network between parties running in the same process, where messages are passed through
+ * unbounded queues. Used to run many evaluations concurrently without opening sockets.
+ */
+public class InMemoryNetwork implements Network {
+
+  private final int myId;
+  private final BlockingQueue<byte[]>[][] queues;
+
+  private InMemoryNetwork(int myId, BlockingQueue<byte[]>[][] queues) {
+    this.myId = myId;
+    this.queues = queues;
+  }
+
+  /**
+   * Creates connected networks for a number of parties.
+   *
+   * @param noOfParties the number of parties
+   * @return the networks of the parties, where the network of party <i>i</i> is at index
+   *     <i>i - 1</i>
+   */
+  @SuppressWarnings("unchecked")
+  public static List<Network> create(int noOfParties) {
+    BlockingQueue<byte[]>[][] queues = new BlockingQueue[noOfParties][noOfParties];
+    for (int from = 0; from < noOfParties; from++) {
+      for (int to = 0; to < noOfParties; to++) {
+        queues[from][to] = new LinkedBlockingQueue<>();
+      }
+    }
+    List<Network> networks = new ArrayList<>(noOfParties);
+    for (int id = 1; id <= noOfParties; id++) {
+      networks.add(new InMemoryNetwork(id, queues));
+    }
+    return networks;
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    queues[myId - 1][partyId - 1].add(data);
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    try {
+      return queues[partyId - 1][myId - 1].take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while receiving from party " + partyId, e);
+    }
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return queues.length;
+  }
+}
@@ -0,0 +1,31 @@
+package dk.alexandra.fresco.benchmarks.network;
+
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * A network where the last message sent to a party is what is received from that party. Used to
+ * measure the cost of a network decorator without any actual communication.
+ */
+class LoopbackNetwork implements Network {
+
+  private final byte[][] messages;
+
+  LoopbackNetwork(int noOfParties) {
+    this.messages = new byte[noOfParties][];
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    messages[partyId - 1] = data;
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    return messages[partyId - 1];
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return messages.length;
+  }
+}
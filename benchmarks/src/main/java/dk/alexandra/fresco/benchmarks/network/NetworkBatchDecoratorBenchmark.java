@@ -0,0 +1,80 @@
+package dk.alexandra.fresco.benchmarks.network;
+
+import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of the framing done by the {@link NetworkBatchDecorator} compared to the
+ * original implementation. Each invocation is one round of a batch: a number of messages are sent
+ * to each party, the decorator is flushed and the messages are received again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkBatchDecoratorBenchmark {
+
+  private static final int PARTIES = 3;
+
+  /**
+   * The size of each message, at most 127 bytes as this is the limit of the original
+   * implementation.
+   */
+  @Param({"8", "32", "127"})
+  public int messageSize;
+
+  @Param({"1", "1000"})
+  public int messagesPerRound;
+
+  private byte[][] messages;
+  private NetworkBatchDecorator decorator;
+  private LegacyNetworkBatchDecorator legacy;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    messages = new byte[messagesPerRound][messageSize];
+    for (byte[] message : messages) {
+      random.nextBytes(message);
+    }
+    decorator = new NetworkBatchDecorator(PARTIES, new LoopbackNetwork(PARTIES));
+    legacy = new LegacyNetworkBatchDecorator(PARTIES, new LoopbackNetwork(PARTIES));
+  }
+
+  @Benchmark
+  public void varintFraming(Blackhole blackhole) {
+    for (byte[] message : messages) {
+      decorator.sendToAll(message);
+    }
+    decorator.flush();
+    for (int i = 0; i < messagesPerRound; i++) {
+      blackhole.consume(decorator.receiveFromAll());
+    }
+  }
+
+  @Benchmark
+  public void legacyFraming(Blackhole blackhole) {
+    for (byte[] message : messages) {
+      legacy.sendToAll(message);
+    }
+    legacy.flush();
+    for (int i = 0; i < messagesPerRound; i++) {
+      blackhole.consume(legacy.receiveFromAll());
+    }
+  }
+}
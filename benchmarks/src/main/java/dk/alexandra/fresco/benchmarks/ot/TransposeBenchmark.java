@@ -0,0 +1,71 @@
+package dk.alexandra.fresco.benchmarks.ot;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.ot.otextension.Transpose;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures transposing the 128 x n bit matrices of an OT extension of n OTs using the flat
+ * representation of {@link Transpose}, the list based method of {@link Transpose} and the original
+ * implementation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransposeBenchmark {
+
+  private static final int ROWS = 128;
+
+  @Param({"65536", "1048576"})
+  public int columns;
+
+  private long[] matrix;
+  private List<StrictBitVector> vectors;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    matrix = new long[ROWS * Transpose.words(columns)];
+    for (int i = 0; i < matrix.length; i++) {
+      matrix[i] = random.nextLong();
+    }
+    vectors = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      byte[] row = new byte[columns / Byte.SIZE];
+      random.nextBytes(row);
+      vectors.add(new StrictBitVector(row));
+    }
+  }
+
+  @Benchmark
+  public long[] flat() {
+    return Transpose.transpose(matrix, ROWS, columns);
+  }
+
+  @Benchmark
+  public List<StrictBitVector> vectors() {
+    return Transpose.transpose(vectors);
+  }
+
+  @Benchmark
+  public List<StrictBitVector> legacy() {
+    return LegacyTranspose.transpose(vectors);
+  }
+}
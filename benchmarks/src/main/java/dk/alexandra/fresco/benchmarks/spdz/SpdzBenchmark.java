@@ -0,0 +1,213 @@
+package dk.alexandra.fresco.benchmarks.spdz;
+
+import dk.alexandra.fresco.benchmarks.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.MersennePrimeFieldDefinition;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.OpenedValueStoreImpl;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.common.collections.sort.OddEvenMerge;
+import dk.alexandra.fresco.lib.common.compare.Comparison;
+import dk.alexandra.fresco.suite.spdz.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end-to-end throughput of the SPDZ online phase on a few typical computations, with
+ * all parties running in this process over in memory networks and using dummy preprocessed data.
+ * Each invocation runs the computation to completion in all parties, including inputs, openings and
+ * the mac checks, so the number of multiplications, comparisons or sorted elements per second is
+ * the score times the size of the computation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpdzBenchmark {
+
+  private static final int MOD_BIT_LENGTH = 128;
+  private static final int MAX_BIT_LENGTH = 64;
+  private static final int MULTIPLICATIONS = 1000;
+  private static final int COMPARISONS = 64;
+  private static final int SORT_SIZE = 16;
+
+  @Param({"2", "3"})
+  public int parties;
+
+  private List<SecureComputationEngine<SpdzResourcePool, ProtocolBuilderNumeric>> engines;
+  private List<SpdzResourcePool> resourcePools;
+  private List<Network> networks;
+
+  @Setup
+  public void setup() throws Exception {
+    MersennePrimeFieldDefinition definition = MersennePrimeFieldDefinition.find(MOD_BIT_LENGTH);
+    BigInteger secretSharedKey =
+        new BigInteger(MOD_BIT_LENGTH, new Random(0)).mod(definition.getModulus());
+    engines = new ArrayList<>();
+    resourcePools = new ArrayList<>();
+    for (int id = 1; id <= parties; id++) {
+      SpdzProtocolSuite suite = new SpdzProtocolSuite(MAX_BIT_LENGTH);
+      engines.add(new SecureComputationEngineImpl<>(suite,
+          new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite)));
+      resourcePools.add(new SpdzResourcePoolImpl(id, parties, new OpenedValueStoreImpl<>(),
+          new SpdzDummyDataSupplier(id, parties, definition, secretSharedKey), AesCtrDrbg::new));
+    }
+    networks = InMemoryNetwork.create(parties);
+    check(run(SpdzBenchmark::multiply), i -> leftInput(i).multiply(rightInput(i)),
+        MULTIPLICATIONS);
+    check(run(SpdzBenchmark::compare),
+        i -> leftInput(i).compareTo(rightInput(i)) < 0 ? BigInteger.ONE : BigInteger.ZERO,
+        COMPARISONS);
+    List<BigInteger> sorted = new ArrayList<>();
+    for (int i = 0; i < SORT_SIZE; i++) {
+      sorted.add(leftInput(i));
+    }
+    sorted.sort(Collections.reverseOrder());
+    check(run(SpdzBenchmark::sort), sorted::get, SORT_SIZE);
+  }
+
+  @TearDown
+  public void tearDown() {
+    engines.forEach(SecureComputationEngine::close);
+  }
+
+  @Benchmark
+  public List<BigInteger> multiplication() throws Exception {
+    return run(SpdzBenchmark::multiply);
+  }
+
+  @Benchmark
+  public List<BigInteger> comparison() throws Exception {
+    return run(SpdzBenchmark::compare);
+  }
+
+  @Benchmark
+  public List<BigInteger> sorting() throws Exception {
+    return run(SpdzBenchmark::sort);
+  }
+
+  private List<BigInteger> run(Application<List<BigInteger>, ProtocolBuilderNumeric> application)
+      throws InterruptedException, ExecutionException {
+    List<Future<List<BigInteger>>> futures = new ArrayList<>();
+    for (int id = 1; id <= parties; id++) {
+      futures.add(engines.get(id - 1).startApplication(application, resourcePools.get(id - 1),
+          networks.get(id - 1)));
+    }
+    List<BigInteger> output = null;
+    for (Future<List<BigInteger>> future : futures) {
+      output = future.get();
+    }
+    return output;
+  }
+
+  private static void check(List<BigInteger> output,
+      IntFunction<BigInteger> expected, int size) {
+    for (int i = 0; i < size; i++) {
+      if (!expected.apply(i).equals(output.get(i))) {
+        throw new IllegalStateException("Unexpected output of SPDZ evaluation at index " + i
+            + ": expected " + expected.apply(i) + " but was " + output.get(i));
+      }
+    }
+  }
+
+  private static BigInteger leftInput(int i) {
+    return BigInteger.valueOf((i * 7919L) % 100003);
+  }
+
+  private static BigInteger rightInput(int i) {
+    return BigInteger.valueOf((i * 104729L) % 99991);
+  }
+
+  private static DRes<List<BigInteger>> multiply(ProtocolBuilderNumeric builder) {
+    return builder.par(par -> input(par, MULTIPLICATIONS)).par((par, inputs) -> {
+      Numeric numeric = par.numeric();
+      List<DRes<SInt>> products = new ArrayList<>(MULTIPLICATIONS);
+      for (int i = 0; i < MULTIPLICATIONS; i++) {
+        products.add(numeric.mult(inputs.getFirst().get(i), inputs.getSecond().get(i)));
+      }
+      return () -> products;
+    }).par(SpdzBenchmark::open);
+  }
+
+  private static DRes<List<BigInteger>> compare(ProtocolBuilderNumeric builder) {
+    return builder.par(par -> input(par, COMPARISONS)).par((par, inputs) -> {
+      List<DRes<SInt>> results = new ArrayList<>(COMPARISONS);
+      for (int i = 0; i < COMPARISONS; i++) {
+        results.add(Comparison.using(par)
+            .compareLT(inputs.getFirst().get(i), inputs.getSecond().get(i)));
+      }
+      return () -> results;
+    }).par(SpdzBenchmark::open);
+  }
+
+  /**
+   * Inputs the left inputs from party 1 and the right inputs from party 2.
+   */
+  private static DRes<Pair<List<DRes<SInt>>, List<DRes<SInt>>>> input(
+      ProtocolBuilderNumeric builder, int size) {
+    Numeric numeric = builder.numeric();
+    List<DRes<SInt>> left = new ArrayList<>(size);
+    List<DRes<SInt>> right = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      left.add(numeric.input(leftInput(i), 1));
+      right.add(numeric.input(rightInput(i), 2));
+    }
+    return () -> new Pair<>(left, right);
+  }
+
+  private static DRes<List<BigInteger>> sort(ProtocolBuilderNumeric builder) {
+    return builder.par(par -> {
+      Numeric numeric = par.numeric();
+      List<Pair<DRes<SInt>, List<DRes<SInt>>>> unsorted = new ArrayList<>(SORT_SIZE);
+      for (int i = 0; i < SORT_SIZE; i++) {
+        unsorted.add(new Pair<>(numeric.input(leftInput(i), 1),
+            Collections.singletonList(numeric.known(i))));
+      }
+      return () -> unsorted;
+    }).seq((seq, unsorted) -> OddEvenMerge.numeric(unsorted).buildComputation(seq))
+        .par((par, sorted) -> open(par,
+            sorted.stream().map(Pair::getFirst).collect(Collectors.toList())));
+  }
+
+  private static DRes<List<BigInteger>> open(ProtocolBuilderNumeric builder,
+      List<DRes<SInt>> values) {
+    Numeric numeric = builder.numeric();
+    List<DRes<BigInteger>> opened = values.stream().map(numeric::open)
+        .collect(Collectors.toList());
+    return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,115 @@
+package dk.alexandra.fresco.benchmarks.spdz2k;
+
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Accumulator;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSIntVector;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the immutable arithmetic of {@link CompUInt128} and {@link Spdz2kSInt} to the in-place
+ * {@link CompUInt128Accumulator} on the inner products done by the SPDZ2k mac check and the linear
+ * combination done by the multiplication protocol. Run with {@code -prof gc} to see the difference
+ * in allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompUInt128Benchmark {
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private List<Spdz2kSInt<CompUInt128>> elements;
+  private Spdz2kSIntVector<CompUInt128> vector;
+  private List<CompUInt128> macShares;
+  private List<CompUInt128> coefficients;
+  private CompUInt128Accumulator accumulator;
+  private CompUInt128 e;
+  private CompUInt128 d;
+  private CompUInt128 macKeyShare;
+  private CompUInt128 zero;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    elements = new ArrayList<>(size);
+    macShares = new ArrayList<>(size);
+    coefficients = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      CompUInt128 macShare = new CompUInt128(new BigInteger(128, random));
+      elements.add(new Spdz2kSInt<>(new CompUInt128(new BigInteger(128, random)), macShare));
+      macShares.add(macShare);
+      coefficients.add(new CompUInt128(new BigInteger(128, random)));
+    }
+    vector = new Spdz2kSIntVector<>(elements);
+    accumulator = new CompUInt128Factory().createAccumulator();
+    e = new CompUInt128(new BigInteger(128, random));
+    d = new CompUInt128(new BigInteger(128, random));
+    macKeyShare = new CompUInt128(new BigInteger(128, random));
+    zero = new CompUInt128Factory().zero();
+  }
+
+  @Benchmark
+  public CompUInt128 innerProductImmutable() {
+    return UInt.innerProduct(macShares, coefficients);
+  }
+
+  @Benchmark
+  public CompUInt128 innerProductAccumulator() {
+    return vector.macShareInnerProduct(coefficients, accumulator);
+  }
+
+  @Benchmark
+  public Spdz2kSInt<CompUInt128> multiplyImmutable() {
+    Spdz2kSInt<CompUInt128> result = null;
+    for (int i = 0; i + 2 < size; i += 3) {
+      result = elements.get(i + 2)
+          .add(elements.get(i + 1).multiply(e))
+          .add(elements.get(i).multiply(d))
+          .addConstant(e.multiply(d), macKeyShare, zero, true);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public Spdz2kSInt<CompUInt128> multiplyAccumulator() {
+    Spdz2kSInt<CompUInt128> result = null;
+    CompUInt128Accumulator macAccumulator = new CompUInt128Accumulator();
+    for (int i = 0; i + 2 < size; i += 3) {
+      CompUInt128 ed = e.multiply(d);
+      accumulator.reset();
+      accumulator.addInPlace(vector.getShare(i + 2));
+      accumulator.multiplyAddInPlace(vector.getShare(i + 1), e);
+      accumulator.multiplyAddInPlace(vector.getShare(i), d);
+      accumulator.addInPlace(ed);
+      macAccumulator.reset();
+      macAccumulator.addInPlace(vector.getMacShare(i + 2));
+      macAccumulator.multiplyAddInPlace(vector.getMacShare(i + 1), e);
+      macAccumulator.multiplyAddInPlace(vector.getMacShare(i), d);
+      macAccumulator.multiplyAddInPlace(ed, macKeyShare);
+      result = new Spdz2kSInt<>(accumulator.get(), macAccumulator.get());
+    }
+    return result;
+  }
+}
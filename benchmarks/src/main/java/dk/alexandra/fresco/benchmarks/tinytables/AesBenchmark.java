@@ -0,0 +1,157 @@
+package dk.alexandra.fresco.benchmarks.tinytables;
+
+import dk.alexandra.fresco.benchmarks.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.binary.Binary;
+import dk.alexandra.fresco.framework.builder.binary.ProtocolBuilderBinary;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.ByteAndBitConverter;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.lib.bristol.BristolCrypto;
+import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
+import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesDummyOt;
+import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
+import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproResourcePool;
+import dk.alexandra.fresco.suite.tinytables.util.Util;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end-to-end throughput of a two party AES encryption using the Bristol AES circuit
+ * on TinyTables, where party 1 inputs the plaintext and party 2 the key. The preprocessing is done
+ * once in the setup and the online phase is evaluated in each invocation, so the score is the
+ * number of online AES encryptions per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AesBenchmark {
+
+  private static final int PARTIES = 2;
+  // The FIPS-197 test vector also used in the Bristol AES tests
+  private static final String KEY = "000102030405060708090a0b0c0d0e0f";
+  private static final String PLAIN_TEXT = "00112233445566778899aabbccddeeff";
+  private static final String CIPHER_TEXT = "69c4e0d86a7b0430d8cdb78070b4c55a";
+
+  private List<File> files;
+  private List<SecureComputationEngine<ResourcePoolImpl, ProtocolBuilderBinary>> engines;
+  private List<Network> networks;
+
+  @Setup
+  public void setup() throws Exception {
+    files = new ArrayList<>();
+    for (int id = 1; id <= PARTIES; id++) {
+      File file = File.createTempFile("tinytables-aes-" + id + "-", ".bin");
+      file.deleteOnExit();
+      files.add(file);
+    }
+    preprocess();
+    engines = new ArrayList<>();
+    for (int id = 1; id <= PARTIES; id++) {
+      TinyTablesProtocolSuite suite = new TinyTablesProtocolSuite(files.get(id - 1));
+      engines.add(new SecureComputationEngineImpl<>(suite,
+          new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite)));
+    }
+    networks = InMemoryNetwork.create(PARTIES);
+    if (!Arrays.asList(ByteAndBitConverter.toBoolean(CIPHER_TEXT)).equals(aes())) {
+      throw new IllegalStateException("Unexpected output of TinyTables AES evaluation");
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    engines.forEach(SecureComputationEngine::close);
+    files.forEach(File::delete);
+  }
+
+  @Benchmark
+  public List<Boolean> aes() throws Exception {
+    List<Future<List<Boolean>>> futures = new ArrayList<>();
+    for (int id = 1; id <= PARTIES; id++) {
+      futures.add(engines.get(id - 1).startApplication(AesBenchmark::circuit,
+          new ResourcePoolImpl(id, PARTIES), networks.get(id - 1)));
+    }
+    List<Boolean> output = null;
+    for (Future<List<Boolean>> future : futures) {
+      output = future.get();
+    }
+    return output;
+  }
+
+  private void preprocess() throws InterruptedException, ExecutionException {
+    List<Network> networks = InMemoryNetwork.create(PARTIES);
+    List<Network> otNetworks = InMemoryNetwork.create(PARTIES);
+    List<SecureComputationEngine<TinyTablesPreproResourcePool, ProtocolBuilderBinary>> parties =
+        new ArrayList<>();
+    List<Future<List<Boolean>>> futures = new ArrayList<>();
+    for (int id = 1; id <= PARTIES; id++) {
+      TinyTablesPreproProtocolSuite suite = new TinyTablesPreproProtocolSuite();
+      SecureComputationEngine<TinyTablesPreproResourcePool, ProtocolBuilderBinary> engine =
+          new SecureComputationEngineImpl<>(suite,
+              new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite));
+      Network otNetwork = otNetworks.get(id - 1);
+      TinyTablesPreproResourcePool resourcePool = new TinyTablesPreproResourcePool(id,
+          new TinyTablesDummyOt(Util.otherPlayerId(id)), new AesCtrDrbg(new byte[32]), 128, 40,
+          0, files.get(id - 1), () -> otNetwork);
+      futures.add(engine.startApplication(AesBenchmark::circuit, resourcePool,
+          networks.get(id - 1)));
+      parties.add(engine);
+    }
+    for (Future<List<Boolean>> future : futures) {
+      future.get();
+    }
+    parties.forEach(SecureComputationEngine::close);
+  }
+
+  private static DRes<List<Boolean>> circuit(ProtocolBuilderBinary builder) {
+    return builder.par(par -> {
+      Binary binary = par.binary();
+      List<DRes<SBool>> plainText = new ArrayList<>();
+      for (Boolean bit : ByteAndBitConverter.toBoolean(PLAIN_TEXT)) {
+        plainText.add(binary.input(bit, 1));
+      }
+      List<DRes<SBool>> key = new ArrayList<>();
+      for (Boolean bit : ByteAndBitConverter.toBoolean(KEY)) {
+        key.add(binary.input(bit, 2));
+      }
+      return () -> Arrays.asList(plainText, key);
+    }).seq((seq, inputs) -> BristolCrypto.using(seq).AES(inputs.get(0), inputs.get(1)))
+        .par((par, cipherText) -> {
+          Binary binary = par.binary();
+          List<DRes<Boolean>> opened = new ArrayList<>();
+          for (SBool bit : cipherText) {
+            opened.add(binary.open(() -> bit));
+          }
+          return () -> {
+            List<Boolean> output = new ArrayList<>();
+            opened.forEach(value -> output.add(value.out()));
+            return output;
+          };
+        });
+  }
+}
@@ -0,0 +1,235 @@
+package dk.alexandra.fresco.benchmarks.tinytables;
+
+import dk.alexandra.fresco.benchmarks.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.binary.Binary;
+import dk.alexandra.fresco.framework.builder.binary.ProtocolBuilderBinary;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.value.SBool;
+import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
+import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesDummyOt;
+import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
+import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproResourcePool;
+import dk.alexandra.fresco.suite.tinytables.util.Util;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of running a number of TinyTables online sessions concurrently in one
+ * process. Each session is a two party evaluation of a small layered circuit of AND gates, using
+ * its own preprocessed TinyTables, protocol suites and in memory networks, as if each session was
+ * a separate job. Each
+ * invocation runs all the sessions to completion, so the number of sessions per second is the
+ * score times the number of sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentSessionsBenchmark {
+
+  private static final int PARTIES = 2;
+  private static final int WIDTH = 64;
+  private static final int DEPTH = 16;
+
+  @Param({"1", "8", "32"})
+  public int sessions;
+
+  private List<File> files;
+  private List<List<SecureComputationEngine<ResourcePoolImpl, ProtocolBuilderBinary>>> engines;
+  private List<Boolean> expected;
+
+  @Setup
+  public void setup() throws Exception {
+    files = new ArrayList<>();
+    engines = new ArrayList<>();
+    for (int session = 0; session < sessions; session++) {
+      List<File> sessionFiles = new ArrayList<>();
+      for (int id = 1; id <= PARTIES; id++) {
+        File file = File.createTempFile("tinytables-" + session + "-" + id + "-", ".bin");
+        file.deleteOnExit();
+        sessionFiles.add(file);
+      }
+      files.addAll(sessionFiles);
+      preprocess(sessionFiles);
+      List<SecureComputationEngine<ResourcePoolImpl, ProtocolBuilderBinary>> parties =
+          new ArrayList<>();
+      for (int id = 1; id <= PARTIES; id++) {
+        TinyTablesProtocolSuite suite = new TinyTablesProtocolSuite(sessionFiles.get(id - 1));
+        parties.add(new SecureComputationEngineImpl<>(suite,
+            new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite)));
+      }
+      engines.add(parties);
+    }
+    expected = evaluateInTheClear();
+    for (List<Boolean> output : runSessions()) {
+      if (!expected.equals(output)) {
+        throw new IllegalStateException("Unexpected output of TinyTables evaluation");
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    for (List<SecureComputationEngine<ResourcePoolImpl, ProtocolBuilderBinary>> parties
+        : engines) {
+      parties.forEach(SecureComputationEngine::close);
+    }
+    files.forEach(File::delete);
+  }
+
+  @Benchmark
+  public List<List<Boolean>> concurrentSessions() throws Exception {
+    return runSessions();
+  }
+
+  private List<List<Boolean>> runSessions() throws InterruptedException, ExecutionException {
+    List<Future<List<Boolean>>> futures = new ArrayList<>();
+    for (List<SecureComputationEngine<ResourcePoolImpl, ProtocolBuilderBinary>> parties
+        : engines) {
+      List<Network> networks = InMemoryNetwork.create(PARTIES);
+      for (int id = 1; id <= PARTIES; id++) {
+        futures.add(parties.get(id - 1).startApplication(
+            ConcurrentSessionsBenchmark::circuit, new ResourcePoolImpl(id, PARTIES),
+            networks.get(id - 1)));
+      }
+    }
+    List<List<Boolean>> outputs = new ArrayList<>();
+    for (Future<List<Boolean>> future : futures) {
+      outputs.add(future.get());
+    }
+    return outputs;
+  }
+
+  private void preprocess(List<File> sessionFiles)
+      throws InterruptedException, ExecutionException, IOException {
+    List<Network> networks = InMemoryNetwork.create(PARTIES);
+    List<Network> otNetworks = InMemoryNetwork.create(PARTIES);
+    List<SecureComputationEngine<TinyTablesPreproResourcePool, ProtocolBuilderBinary>> parties =
+        new ArrayList<>();
+    List<TinyTablesPreproResourcePool> resourcePools = new ArrayList<>();
+    List<Future<List<Boolean>>> futures = new ArrayList<>();
+    for (int id = 1; id <= PARTIES; id++) {
+      TinyTablesPreproProtocolSuite suite = new TinyTablesPreproProtocolSuite();
+      SecureComputationEngine<TinyTablesPreproResourcePool, ProtocolBuilderBinary> engine =
+          new SecureComputationEngineImpl<>(suite,
+              new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite));
+      Network otNetwork = otNetworks.get(id - 1);
+      TinyTablesPreproResourcePool resourcePool = new TinyTablesPreproResourcePool(id,
+          new TinyTablesDummyOt(Util.otherPlayerId(id)), new AesCtrDrbg(new byte[32]), 128, 40,
+          0, sessionFiles.get(id - 1), () -> otNetwork);
+      futures.add(engine.startApplication(ConcurrentSessionsBenchmark::circuit, resourcePool,
+          networks.get(id - 1)));
+      parties.add(engine);
+      resourcePools.add(resourcePool);
+    }
+    for (Future<List<Boolean>> future : futures) {
+      future.get();
+    }
+    parties.forEach(SecureComputationEngine::close);
+    resourcePools.forEach(TinyTablesPreproResourcePool::close);
+  }
+
+  private static boolean leftInput(int i) {
+    return i % 17 != 0;
+  }
+
+  private static boolean rightInput(int i) {
+    return i % 19 != 0;
+  }
+
+  /**
+   * A circuit of layers of independent AND gates, where party 1 and party 2 each input a row of
+   * bits and each layer computes the AND of a bit with the bit below it and with the bit below and
+   * to the right of it.
+   */
+  private static DRes<List<Boolean>> circuit(ProtocolBuilderBinary builder) {
+    List<DRes<SBool>> left = new ArrayList<>();
+    List<DRes<SBool>> right = new ArrayList<>();
+    builder.par(par -> {
+      Binary binary = par.binary();
+      for (int i = 0; i < WIDTH; i++) {
+        left.add(binary.input(leftInput(i), 1));
+        right.add(binary.input(rightInput(i), 2));
+      }
+      return () -> null;
+    });
+    for (int d = 0; d < DEPTH; d++) {
+      builder.par(par -> {
+        Binary binary = par.binary();
+        List<DRes<SBool>> nextLeft = new ArrayList<>();
+        List<DRes<SBool>> nextRight = new ArrayList<>();
+        for (int i = 0; i < WIDTH; i++) {
+          nextLeft.add(binary.and(left.get(i), right.get(i)));
+          nextRight.add(binary.and(left.get(i), right.get((i + 1) % WIDTH)));
+        }
+        left.clear();
+        left.addAll(nextLeft);
+        right.clear();
+        right.addAll(nextRight);
+        return () -> null;
+      });
+    }
+    return builder.par(par -> {
+      Binary binary = par.binary();
+      List<DRes<Boolean>> opened = new ArrayList<>();
+      for (int i = 0; i < WIDTH; i++) {
+        opened.add(binary.open(left.get(i)));
+      }
+      return () -> {
+        List<Boolean> output = new ArrayList<>();
+        opened.forEach(value -> output.add(value.out()));
+        return output;
+      };
+    });
+  }
+
+  private static List<Boolean> evaluateInTheClear() {
+    boolean[] left = new boolean[WIDTH];
+    boolean[] right = new boolean[WIDTH];
+    for (int i = 0; i < WIDTH; i++) {
+      left[i] = leftInput(i);
+      right[i] = rightInput(i);
+    }
+    for (int d = 0; d < DEPTH; d++) {
+      boolean[] nextLeft = new boolean[WIDTH];
+      boolean[] nextRight = new boolean[WIDTH];
+      for (int i = 0; i < WIDTH; i++) {
+        nextLeft[i] = left[i] & right[i];
+        nextRight[i] = left[i] & right[(i + 1) % WIDTH];
+      }
+      left = nextLeft;
+      right = nextRight;
+    }
+    List<Boolean> output = new ArrayList<>();
+    for (boolean value : left) {
+      output.add(value);
+    }
+    return output;
+  }
+}
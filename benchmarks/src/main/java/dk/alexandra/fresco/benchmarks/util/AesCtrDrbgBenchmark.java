@@ -0,0 +1,47 @@
+package dk.alexandra.fresco.benchmarks.util;
+
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the {@link AesCtrDrbg} for requests of different sizes. Small
+ * requests are typical when sampling single field elements and large requests when seeding PRGs
+ * or filling OT extension matrices. The number of bytes per second is the score times the size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AesCtrDrbgBenchmark {
+
+  @Param({"16", "1024", "65536"})
+  public int size;
+
+  private AesCtrDrbg drbg;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() {
+    drbg = new AesCtrDrbg(new byte[32]);
+    bytes = new byte[size];
+  }
+
+  @Benchmark
+  public byte[] nextBytes() {
+    drbg.nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,53 @@
+package dk.alexandra.fresco.benchmarks.util;
+
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the in-place xor of {@link StrictBitVector}, which is done for every
+ * row of the OT extension matrices, and of the conversion to a byte array done when sending them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrictBitVectorBenchmark {
+
+  @Param({"128", "1024", "65536"})
+  public int size;
+
+  private StrictBitVector accumulator;
+  private StrictBitVector other;
+
+  @Setup
+  public void setup() {
+    AesCtrDrbg drbg = new AesCtrDrbg(new byte[32]);
+    accumulator = new StrictBitVector(size, drbg);
+    other = new StrictBitVector(size, drbg);
+  }
+
+  @Benchmark
+  public StrictBitVector xor() {
+    accumulator.xor(other);
+    return accumulator;
+  }
+
+  @Benchmark
+  public byte[] toByteArray() {
+    return other.toByteArray();
+  }
+}
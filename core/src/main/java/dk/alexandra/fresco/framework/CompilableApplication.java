@@ -0,0 +1,32 @@
+package dk.alexandra.fresco.framework;
+
+import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
+import java.util.List;
+
+/**
+ * An application which is run many times on different inputs, and whose native protocols and
+ * their order do not depend on the values of the inputs. Such an application can be recorded once
+ * and replayed with new inputs, see {@link
+ * dk.alexandra.fresco.framework.sce.evaluator.CompiledProtocolEvaluator}.
+ *
+ * <p>The application must only access the inputs through the given deferred results. If it reads
+ * the value of a deferred result while building, which library computations such as comparisons
+ * do, or uses a {@link dk.alexandra.fresco.framework.builder.BuildStep#whileLoop}, this is detected
+ * when it is recorded and the application falls back to being built for every run.</p>
+ *
+ * @param <InputT> The input type
+ * @param <OutputT> The output type
+ * @param <BuilderT> The builder type
+ */
+@FunctionalInterface
+public interface CompilableApplication<InputT, OutputT, BuilderT extends ProtocolBuilder> {
+
+  /**
+   * Builds the computation on the given inputs.
+   *
+   * @param builder the builder to use
+   * @param inputs the inputs of the application, which are only known when evaluating
+   * @return the output of the computation
+   */
+  DRes<OutputT> buildComputation(BuilderT builder, List<DRes<InputT>> inputs);
+}
@@ -29,4 +29,16 @@ public interface ProtocolCollection<ResourcePoolT extends ResourcePool>
    * @return the number of elements
    */
   int size();
+
+  /**
+   * Tells whether producers filling this collection should hand out the protocols on the longest
+   * remaining chain of dependent protocols first, rather than in the order they were declared. This
+   * only matters when there are more protocols ready than the collection can hold, in which case it
+   * may reduce the total number of batches.
+   *
+   * @return true if the critical path should be prioritized
+   */
+  default boolean prioritizeCriticalPath() {
+    return false;
+  }
 }
@@ -30,6 +30,7 @@ public interface ProtocolEvaluator<ResourcePoolT extends ResourcePool> {
 
     private final int nativeProtocols;
     private final int batches;
+    private final int criticalPathLength;
 
     /**
      * Createes a new statistics object.
@@ -38,9 +39,21 @@ public interface ProtocolEvaluator<ResourcePoolT extends ResourcePool> {
      * @param batches the total of batches in the evaluation
      */
     public EvaluationStatistics(int nativeProtocols, int batches) {
+      this(nativeProtocols, batches, 0);
+    }
 
+    /**
+     * Creates a new statistics object.
+     *
+     * @param nativeProtocols the total number of native protocols in evaluation
+     * @param batches the total of batches in the evaluation
+     * @param criticalPathLength the length of the longest chain of dependent native protocols in
+     *     the evaluation, or 0 if unknown
+     */
+    public EvaluationStatistics(int nativeProtocols, int batches, int criticalPathLength) {
       this.nativeProtocols = nativeProtocols;
       this.batches = batches;
+      this.criticalPathLength = criticalPathLength;
     }
 
     /**
@@ -60,5 +73,17 @@ public interface ProtocolEvaluator<ResourcePoolT extends ResourcePool> {
     public int getBatches() {
       return batches;
     }
+
+    /**
+     * Returns the length of the longest chain of dependent native protocols in the evaluation. This
+     * is the least number of batches the evaluation could have been done in with unbounded batch
+     * sizes, and can be compared with {@link #getBatches()} to see how many batches, and hence
+     * rounds of communication, were added by bounding the batch size.
+     *
+     * @return the length of the critical path, or 0 if unknown
+     */
+    public int getCriticalPathLength() {
+      return criticalPathLength;
+    }
   }
 }
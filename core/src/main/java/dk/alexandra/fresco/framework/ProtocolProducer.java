@@ -32,9 +32,52 @@ public interface ProtocolProducer {
   <ResourcePoolT extends ResourcePool> void getNextProtocols(
       ProtocolCollection<ResourcePoolT> protocolCollection);
 
+  /**
+   * Attempt to fill the given protocols array with protocols that do not depend on any of the
+   * protocols handed out by this producer since the last call to {@link #getNextProtocols}, i.e.
+   * protocols that can be evaluated while the previously handed out protocols are still being
+   * evaluated. Implementations must not advance past protocols that may still be under evaluation.
+   *
+   * <p>The default implementation adds no protocols.
+   *
+   * @param protocolCollection destination for protocols.
+   */
+  default <ResourcePoolT extends ResourcePool> void getNextIndependentProtocols(
+      ProtocolCollection<ResourcePoolT> protocolCollection) {
+  }
+
   /**
    * Returns true if there is at least one protocols left in the protocol that has not already been
    * evaluated.
    */
   boolean hasNextProtocols();
+
+  /**
+   * Returns the length of the longest chain of native protocols handed out by this producer so far,
+   * where each protocol depends on the previous. As each protocol in the chain must be evaluated in
+   * a later batch than the previous, this is the least number of batches the protocols handed out
+   * could have been evaluated in.
+   *
+   * <p>The default implementation returns 0, i.e., the depth is unknown.
+   *
+   * @return the depth of the protocols handed out so far
+   */
+  default int getDepth() {
+    return 0;
+  }
+
+  /**
+   * Estimates the length of the longest chain of dependent native protocols that this producer has
+   * yet to hand out, looking only at the part of the computation that has already been built. The
+   * estimate is used to schedule the producers on the critical path first, see {@link
+   * ProtocolCollection#prioritizeCriticalPath()}.
+   *
+   * <p>The default implementation returns 1.
+   *
+   * @param limit the estimate is not computed beyond this value
+   * @return the estimated remaining depth, at most {@code limit}
+   */
+  default int estimateRemainingDepth(int limit) {
+    return Math.min(1, limit);
+  }
 }
@@ -25,6 +25,8 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
       InputT input,
       BuilderFactory<BuilderT> factory,
       BuildStep<InputT, BuilderT, ?> next) {
+    // the number of iterations depends on the values tested by the predicate
+    DataDependenceTracker.markDependent();
     LoopProtocolProducer<BuilderT, InputT> loopProtocolProducer =
         new LoopProtocolProducer<>(factory, input, predicate, function, next);
     return new Pair<>(loopProtocolProducer, loopProtocolProducer);
@@ -43,6 +45,8 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
     private Predicate<InputT> predicate;
     private FrescoLambda<InputT, BuilderT, InputT> function;
     private BuildStep<InputT, BuilderT, ?> next;
+    // The summed depth of the iterations that are done
+    private int completedDepth;
 
     LoopProtocolProducer(
         BuilderFactory<BuilderT> factory,
@@ -67,6 +71,14 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
       currentProducer.getNextProtocols(protocolCollection);
     }
 
+    @Override
+    public <ResourcePoolT extends ResourcePool> void getNextIndependentProtocols(
+        ProtocolCollection<ResourcePoolT> protocolCollection) {
+      if (currentProducer != null) {
+        currentProducer.getNextIndependentProtocols(protocolCollection);
+      }
+    }
+
     private void next() {
       while (!isDone && !currentProducer.hasNextProtocols()) {
         updateToNextProducer(out());
@@ -80,23 +92,45 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
         if (predicate.test(input)) {
           BuilderT builder = factory.createSequential();
           currentResult = function.buildComputation(builder, input);
-          currentProducer = builder.build();
+          replaceProducer(builder.build());
         } else {
           doneWithOwn = true;
           if (next != null) {
-            currentProducer = next.createProducer(input, factory);
+            replaceProducer(next.createProducer(input, factory));
             next = null;
           }
         }
       }
     }
 
+    private void replaceProducer(ProtocolProducer producer) {
+      if (currentProducer != null) {
+        completedDepth += currentProducer.getDepth();
+      }
+      currentProducer = producer;
+    }
+
     @Override
     public boolean hasNextProtocols() {
       next();
       return !isDone;
     }
 
+    @Override
+    public int getDepth() {
+      return completedDepth + (currentProducer == null ? 0 : currentProducer.getDepth());
+    }
+
+    @Override
+    public int estimateRemainingDepth(int limit) {
+      if (isDone || currentProducer == null) {
+        return isDone ? 0 : Math.min(1, limit);
+      }
+      int depth = currentProducer.estimateRemainingDepth(limit);
+      // unless the loop is done, at least one more step follows the current producer
+      return doneWithOwn ? depth : Math.min(depth + 1, limit);
+    }
+
     @Override
     public InputT out() {
       return currentResult.out();
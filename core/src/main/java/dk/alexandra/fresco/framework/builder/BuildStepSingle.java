@@ -31,13 +31,13 @@ class BuildStepSingle<BuilderT extends ProtocolBuilderImpl<BuilderT>, OutputT, I
     if (next != null) {
       List<ProtocolProducer> protocols = Arrays.asList(
           builder.build(),
-          new LazyProtocolProducerDecorator(() -> {
+          new LazyProtocolProducerDecorator(() -> DataDependenceTracker.whileBuilding(() -> {
             OutputT out = null;
             if (output != null) {
               out = output.out();
             }
             return next.createProducer(out, factory);
-          }));
+          })));
       SequentialProtocolProducer protocolProducer = new SequentialProtocolProducer(protocols);
       return new Pair<>(protocolProducer, null);
     } else {
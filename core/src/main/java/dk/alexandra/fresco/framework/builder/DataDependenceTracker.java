@@ -0,0 +1,114 @@
+package dk.alexandra.fresco.framework.builder;
+
+import java.util.function.Supplier;
+
+/**
+ * Tracks whether the shape of the computations built by the current thread depends on the values
+ * computed, such that they cannot be recorded once and replayed with other inputs.
+ *
+ * <p>A computation is data dependent if a {@link BuildStep#whileLoop} tests a value to decide
+ * whether to build another iteration, or if a value is read while building, e.g., when a build
+ * step turns an opened value into a public constant of the protocols it builds. Values are read
+ * while building if the result of a native protocol or an input of the computation is read while
+ * a build step is created, see {@link #whileBuilding(Supplier)} and {@link #valueRead()}.</p>
+ */
+public final class DataDependenceTracker {
+
+  private static final ThreadLocal<State> state = new ThreadLocal<>();
+
+  private DataDependenceTracker() {
+  }
+
+  /**
+   * Starts tracking the computations built by the current thread.
+   */
+  public static void start() {
+    state.set(new State());
+  }
+
+  /**
+   * Stops tracking the computations built by the current thread.
+   *
+   * @return true if a data dependent computation was built since tracking was started
+   */
+  public static boolean stop() {
+    State result = state.get();
+    state.remove();
+    return result != null && result.dependent;
+  }
+
+  /**
+   * Builds a computation, such that any value read while building marks the computation as data
+   * dependent.
+   *
+   * @param builder builds the computation
+   * @return the computation built
+   */
+  public static <T> T whileBuilding(Supplier<T> builder) {
+    State current = state.get();
+    if (current == null) {
+      return builder.get();
+    }
+    current.building++;
+    try {
+      return builder.get();
+    } finally {
+      current.building--;
+    }
+  }
+
+  /**
+   * Runs an action without tracking, e.g., a computation of the protocol suite evaluated between
+   * the batches of a tracked computation, whose values do not affect the shape of the tracked
+   * computation.
+   *
+   * @param action the action to run
+   */
+  public static void untracked(Runnable action) {
+    State current = state.get();
+    state.remove();
+    try {
+      action.run();
+    } finally {
+      if (current != null) {
+        state.set(current);
+      }
+    }
+  }
+
+  /**
+   * Signals that a value, which may differ between evaluations, is read. Marks the computation
+   * currently being built as data dependent if this happens while building. Has no effect if the
+   * current thread is not tracked.
+   */
+  public static void valueRead() {
+    State current = state.get();
+    if (current != null && current.building > 0) {
+      current.dependent = true;
+    }
+  }
+
+  /**
+   * Tells whether the computations built by the current thread are tracked.
+   */
+  static boolean isTracking() {
+    return state.get() != null;
+  }
+
+  /**
+   * Marks the computation currently being built as data dependent. Has no effect if the current
+   * thread is not tracked.
+   */
+  static void markDependent() {
+    State current = state.get();
+    if (current != null) {
+      current.dependent = true;
+    }
+  }
+
+  private static final class State {
+
+    private boolean dependent;
+    private int building;
+  }
+}
@@ -42,8 +42,16 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
    * @return a computation that resolves to the result of the native protocol once evaluated
    */
   public <T> DRes<T> append(NativeProtocol<T, ?> nativeProtocol) {
-    SingleProtocolProducer<T> producer = new SingleProtocolProducer<>(nativeProtocol);
+    // protocols of a tracked computation may be replayed, so their results must not be cached
+    boolean tracking = DataDependenceTracker.isTracking();
+    SingleProtocolProducer<T> producer = new SingleProtocolProducer<>(nativeProtocol, !tracking);
     createAndAppend(producer);
+    if (tracking) {
+      return () -> {
+        DataDependenceTracker.valueRead();
+        return producer.out();
+      };
+    }
     return producer;
   }
 
@@ -76,7 +84,8 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
         (inner, ignored) -> function.buildComputation(inner);
     BuildStep<Void, BuilderT, R> builder =
         new BuildStep<>(new BuildStepSingle<>(innerBuilder, false));
-    createAndAppend(new LazyProtocolProducerDecorator(() -> builder.createProducer(null, factory)));
+    createAndAppend(new LazyProtocolProducerDecorator(() -> DataDependenceTracker.whileBuilding(
+        () -> builder.createProducer(null, factory))));
     return builder;
   }
 
@@ -90,7 +99,8 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
     FrescoLambda<Void, BuilderT, R> innerBuilder = (inner, ignored) -> f.buildComputation(inner);
     BuildStep<Void, BuilderT, R> builder =
         new BuildStep<>(new BuildStepSingle<>(innerBuilder, true));
-    createAndAppend(new LazyProtocolProducerDecorator(() -> builder.createProducer(null, factory)));
+    createAndAppend(new LazyProtocolProducerDecorator(() -> DataDependenceTracker.whileBuilding(
+        () -> builder.createProducer(null, factory))));
     return builder;
   }
 }
@@ -4,6 +4,8 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.ComputationDirectory;
 import dk.alexandra.fresco.framework.value.SInt;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Basic interface for numeric applications. This is the interface which an arithmetic protocol
@@ -104,6 +106,30 @@ public interface Numeric extends ComputationDirectory {
     return mult(BigInteger.valueOf(a), b);
   }
 
+  /**
+   * Multiplies two lists of secret values entry-wise and returns the products.
+   *
+   * <p>
+   * The default implementation calls {@link #mult(DRes, DRes)} for each pair of entries. Protocol
+   * suites may override this to compute all products in a single native protocol.
+   * </p>
+   *
+   * @param a Secret values 1
+   * @param b Secret values 2, must have the same size as {@code a}
+   * @return A deferred result computing the list of products a[i]*b[i]
+   */
+  default DRes<List<DRes<SInt>>> mult(List<DRes<SInt>> a, List<DRes<SInt>> b) {
+    if (a.size() != b.size()) {
+      throw new IllegalArgumentException(
+          "Lists must have the same size, was " + a.size() + " and " + b.size());
+    }
+    List<DRes<SInt>> products = new ArrayList<>(a.size());
+    for (int i = 0; i < a.size(); i++) {
+      products.add(mult(a.get(i), b.get(i)));
+    }
+    return () -> products;
+  }
+
   /**
    * Returns a deferred result which creates a secret shared random bit. (This should be computed
    * beforehand to increase the speed of the application)
@@ -161,6 +187,25 @@ public interface Numeric extends ComputationDirectory {
    */
   DRes<BigInteger> open(DRes<SInt> secretShare);
 
+  /**
+   * Opens a list of values to all MPC parties.
+   *
+   * <p>
+   * The default implementation calls {@link #open(DRes)} for each value. Protocol suites may
+   * override this to open all values in a single native protocol.
+   * </p>
+   *
+   * @param secretShares The values to open.
+   * @return The opened values represented by the closed values.
+   */
+  default DRes<List<DRes<BigInteger>>> open(List<DRes<SInt>> secretShares) {
+    List<DRes<BigInteger>> opened = new ArrayList<>(secretShares.size());
+    for (DRes<SInt> secretShare : secretShares) {
+      opened.add(open(secretShare));
+    }
+    return () -> opened;
+  }
+
   /**
    * Opens a value to a single given party.
    *
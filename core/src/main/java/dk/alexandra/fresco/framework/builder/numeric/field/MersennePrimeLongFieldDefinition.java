@@ -0,0 +1,148 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A finite field where the modulus is known to be pseudo Mersenne prime, with elements represented
+ * as fixed width arrays of longs rather than as {@link BigInteger}.
+ *
+ * <p>
+ * Addition, subtraction and multiplication are done directly on the limbs with the reduction
+ * tailored to the modulus structure, and only allocate the array holding the result. Elements are
+ * serialized in the same format as by {@link MersennePrimeFieldDefinition}, so the two definitions
+ * can be used interchangeably by different parties.
+ * </p>
+ */
+public final class MersennePrimeLongFieldDefinition implements FieldDefinition {
+
+  /**
+   * Default field definition for a few bit lengths.
+   */
+  private static final Map<Integer, Integer> precomputed = createPrecomputedModuli();
+  private final MersennePrimeLongModulus modulus;
+  private final BigInteger modulusHalf;
+  private final int modulusBitLength;
+  private final int modulusLength;
+
+  /**
+   * Construct a new field definition for a pseudo Mersenne prime.
+   *
+   * @param bitLength the bitlength of the prime
+   * @param constant  the constant subtracted from 2^bitLength
+   */
+  MersennePrimeLongFieldDefinition(int bitLength, int constant) {
+    this.modulus = new MersennePrimeLongModulus(bitLength, constant);
+    this.modulusHalf = modulus.getPrime().shiftRight(1);
+    this.modulusBitLength = bitLength;
+    this.modulusLength = 1 + ((bitLength - 1) / 8);
+  }
+
+  /** Try to find a pseudo-Mersenne prime with the given bit length. */
+  public static MersennePrimeLongFieldDefinition find(int bitlength) {
+    if (!precomputed.containsKey(bitlength)) {
+      throw new IllegalArgumentException("Unknown bit length. Possible choices are "
+          + precomputed.keySet() + ".");
+    }
+    return new MersennePrimeLongFieldDefinition(bitlength, precomputed.get(bitlength));
+  }
+
+  @Override
+  public FieldElement createElement(long value) {
+    return MersennePrimeLongFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public FieldElement createElement(String value) {
+    return MersennePrimeLongFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public FieldElement createElement(BigInteger value) {
+    return MersennePrimeLongFieldElement.create(value, modulus);
+  }
+
+  @Override
+  public BigInteger getModulus() {
+    return modulus.getPrime();
+  }
+
+  @Override
+  public int getBitLength() {
+    return modulusBitLength;
+  }
+
+  @Override
+  public StrictBitVector convertToBitVector(FieldElement fieldElement) {
+    return new StrictBitVector(serialize(fieldElement));
+  }
+
+  @Override
+  public BigInteger convertToUnsigned(FieldElement value) {
+    return value.toBigInteger();
+  }
+
+  @Override
+  public BigInteger convertToSigned(BigInteger asUnsigned) {
+    return FieldUtils.convertRepresentation(asUnsigned, getModulus(), modulusHalf);
+  }
+
+  @Override
+  public byte[] serialize(FieldElement fieldElement) {
+    byte[] bytes = new byte[modulusLength];
+    serializeWithOffset(fieldElement, bytes, 0);
+    return bytes;
+  }
+
+  @Override
+  public byte[] serialize(List<FieldElement> fieldElements) {
+    byte[] bytes = new byte[modulusLength * fieldElements.size()];
+    for (int i = 0; i < fieldElements.size(); i++) {
+      serializeWithOffset(fieldElements.get(i), bytes, i * modulusLength);
+    }
+    return bytes;
+  }
+
+  private void serializeWithOffset(FieldElement fieldElement, byte[] bytes, int offset) {
+    long[] limbs;
+    if (fieldElement instanceof MersennePrimeLongFieldElement) {
+      limbs = ((MersennePrimeLongFieldElement) fieldElement).getLimbs();
+    } else {
+      limbs = modulus.fromBigInteger(fieldElement.toBigInteger());
+    }
+    modulus.serialize(limbs, bytes, offset, modulusLength);
+  }
+
+  @Override
+  public FieldElement deserialize(byte[] bytes) {
+    return MersennePrimeLongFieldElement.create(
+        modulus.deserialize(bytes, 0, modulusLength), modulus);
+  }
+
+  @Override
+  public List<FieldElement> deserializeList(byte[] bytes) {
+    List<FieldElement> elements = new ArrayList<>(bytes.length / modulusLength);
+    for (int i = 0; i < bytes.length; i += modulusLength) {
+      elements.add(MersennePrimeLongFieldElement.create(
+          modulus.deserialize(bytes, i, modulusLength), modulus));
+    }
+    return elements;
+  }
+
+  private static Map<Integer, Integer> createPrecomputedModuli() {
+    return new HashMap<Integer, Integer>() {{
+      put(512, 569);
+      put(384, 317);
+      put(256, 587);
+      put(128, 173);
+      put(64, 59);
+      put(32, 5);
+      put(16, 17);
+      put(8, 5);
+    }};
+  }
+}
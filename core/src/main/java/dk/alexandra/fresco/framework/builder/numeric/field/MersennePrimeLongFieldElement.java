@@ -0,0 +1,114 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import dk.alexandra.fresco.framework.util.MathUtils;
+import java.math.BigInteger;
+
+final class MersennePrimeLongFieldElement implements FieldElement {
+
+  private final long[] value;
+  private final MersennePrimeLongModulus modulus;
+
+  private MersennePrimeLongFieldElement(long[] value, MersennePrimeLongModulus modulus) {
+    this.value = value;
+    this.modulus = modulus;
+  }
+
+  private FieldElement create(long[] value) {
+    return new MersennePrimeLongFieldElement(value, modulus);
+  }
+
+  private FieldElement create(BigInteger value) {
+    return create(value, modulus);
+  }
+
+  static FieldElement create(long[] value, MersennePrimeLongModulus modulus) {
+    return new MersennePrimeLongFieldElement(value, modulus);
+  }
+
+  static FieldElement create(BigInteger value, MersennePrimeLongModulus modulus) {
+    return new MersennePrimeLongFieldElement(modulus.fromBigInteger(value), modulus);
+  }
+
+  static FieldElement create(long value, MersennePrimeLongModulus modulus) {
+    return create(BigInteger.valueOf(value), modulus);
+  }
+
+  static FieldElement create(String string, MersennePrimeLongModulus modulus) {
+    return create(new BigInteger(string), modulus);
+  }
+
+  /**
+   * Gets the limbs of this element. The array must not be modified.
+   */
+  long[] getLimbs() {
+    return value;
+  }
+
+  private long[] limbsOf(FieldElement operand) {
+    if (operand instanceof MersennePrimeLongFieldElement) {
+      return ((MersennePrimeLongFieldElement) operand).value;
+    } else {
+      return modulus.fromBigInteger(operand.toBigInteger());
+    }
+  }
+
+  @Override
+  public FieldElement add(FieldElement operand) {
+    long[] result = new long[value.length];
+    modulus.add(value, limbsOf(operand), result);
+    return create(result);
+  }
+
+  @Override
+  public FieldElement subtract(FieldElement operand) {
+    long[] result = new long[value.length];
+    modulus.subtract(value, limbsOf(operand), result);
+    return create(result);
+  }
+
+  @Override
+  public FieldElement negate() {
+    long[] result = new long[value.length];
+    modulus.negate(value, result);
+    return create(result);
+  }
+
+  @Override
+  public FieldElement multiply(FieldElement operand) {
+    long[] result = new long[value.length];
+    modulus.multiply(value, limbsOf(operand), result);
+    return create(result);
+  }
+
+  @Override
+  public FieldElement sqrt() {
+    return create(MathUtils.modularSqrt(toBigInteger(), getModulus()));
+  }
+
+  @Override
+  public FieldElement modInverse() {
+    return create(modulus.getBigModulus().inverse(toBigInteger()));
+  }
+
+  @Override
+  public boolean isZero() {
+    return modulus.isZero(value);
+  }
+
+  @Override
+  public BigInteger toBigInteger() {
+    return modulus.toBigInteger(value);
+  }
+
+  private BigInteger getModulus() {
+    return modulus.getPrime();
+  }
+
+  @Override
+  public String toString() {
+    return "MersennePrimeLongFieldElement{"
+        + "value=" + toBigInteger()
+        + ", modulus =" + modulus
+        + '}';
+  }
+}
@@ -0,0 +1,366 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * A psuedo Mersenne prime modulus, <code>2<sup>bitLength</sup>-constant</code>, with arithmetic on
+ * values represented as a fixed number of 64 bit limbs, least significant limb first.
+ *
+ * <p>
+ * All values given to and computed by the arithmetic methods are in <i>0, ..., p - 1</i> and
+ * results are written to an array supplied by the caller, so apart from that array no memory is
+ * allocated. The product of two values is reduced by repeatedly folding the bits above the bit
+ * length back onto the lower bits, using that <code>2<sup>bitLength</sup> = constant mod p</code>.
+ * </p>
+ */
+final class MersennePrimeLongModulus implements Serializable {
+
+  private static final long serialVersionUID = -2871508287232155720L;
+  private static final long LOW_MASK = 0xFFFFFFFFL;
+  /**
+   * Scratch space for products, shared by all moduli used by a thread.
+   */
+  private static final ThreadLocal<long[]> scratch = ThreadLocal.withInitial(() -> new long[0]);
+
+  private final int bitLength;
+  private final long constant;
+  private final int limbs;
+  private final long topMask;
+  private final long[] prime;
+  private final MersennePrimeModulus bigModulus;
+
+  /**
+   * Creates a modulus <code>2<sup>bitLength</sup>-constant</code>. Users must choose constant
+   * adequately for the modulus to actually be a prime.
+   *
+   * @param bitLength the bitlength of the psuedo Mersenne
+   * @param constant the (small) constant
+   */
+  MersennePrimeLongModulus(int bitLength, int constant) {
+    this.bigModulus = new MersennePrimeModulus(bitLength, constant);
+    this.bitLength = bitLength;
+    this.constant = constant;
+    this.limbs = (bitLength + Long.SIZE - 1) / Long.SIZE;
+    int topBits = bitLength - (limbs - 1) * Long.SIZE;
+    this.topMask = topBits == Long.SIZE ? -1L : (1L << topBits) - 1;
+    this.prime = fromNonNegative(bigModulus.getPrime());
+  }
+
+  /**
+   * Gets the prime used for modulus as a BigInteger.
+   *
+   * @return the BigInteger equivalent
+   */
+  BigInteger getPrime() {
+    return bigModulus.getPrime();
+  }
+
+  /**
+   * Gets the equivalent {@link BigInteger} based modulus, used for the rarely used operations not
+   * implemented on limbs.
+   */
+  MersennePrimeModulus getBigModulus() {
+    return bigModulus;
+  }
+
+  /**
+   * Gets the number of limbs in the representation of a value.
+   */
+  int getLimbs() {
+    return limbs;
+  }
+
+  /**
+   * Converts a value to limbs, reducing it modulo the prime.
+   */
+  long[] fromBigInteger(BigInteger value) {
+    BigInteger reduced;
+    if (value.signum() < 0) {
+      BigInteger positiveValue = bigModulus.ensureInField(value.abs());
+      reduced = positiveValue.signum() == 0 ? positiveValue : getPrime().subtract(positiveValue);
+    } else {
+      reduced = bigModulus.ensureInField(value);
+    }
+    return fromNonNegative(reduced);
+  }
+
+  private long[] fromNonNegative(BigInteger value) {
+    long[] result = new long[limbs];
+    for (int i = 0; i < limbs; i++) {
+      result[i] = value.shiftRight(i * Long.SIZE).longValue();
+    }
+    return result;
+  }
+
+  /**
+   * Converts limbs to a non-negative {@link BigInteger}.
+   */
+  BigInteger toBigInteger(long[] value) {
+    byte[] bytes = new byte[limbs * Long.BYTES];
+    for (int i = 0; i < limbs; i++) {
+      long limb = value[i];
+      int end = bytes.length - i * Long.BYTES;
+      for (int j = 1; j <= Long.BYTES; j++) {
+        bytes[end - j] = (byte) limb;
+        limb >>>= Byte.SIZE;
+      }
+    }
+    return new BigInteger(1, bytes);
+  }
+
+  /**
+   * Writes a value as an unsigned big endian number of exactly {@code length} bytes, the same
+   * format as used by {@link FieldUtils}.
+   */
+  void serialize(long[] value, byte[] bytes, int offset, int length) {
+    for (int j = 0; j < length; j++) {
+      int bit = j * Byte.SIZE;
+      int limb = bit / Long.SIZE;
+      long b = limb < limbs ? value[limb] >>> (bit % Long.SIZE) : 0;
+      bytes[offset + length - 1 - j] = (byte) b;
+    }
+  }
+
+  /**
+   * Reads an unsigned big endian number of {@code length} bytes and reduces it modulo the prime.
+   */
+  long[] deserialize(byte[] bytes, int offset, int length) {
+    int words = Math.max(limbs, (length + Long.BYTES - 1) / Long.BYTES);
+    long[] value = new long[words];
+    for (int j = 0; j < length; j++) {
+      int bit = j * Byte.SIZE;
+      value[bit / Long.SIZE] |= (bytes[offset + length - 1 - j] & 0xFFL) << (bit % Long.SIZE);
+    }
+    if (words > limbs || exceedsBitLength(value, words)) {
+      reduce(value, words, new long[words]);
+    } else if (compare(value, prime) >= 0) {
+      subtractPrime(value);
+    }
+    if (words > limbs) {
+      long[] result = new long[limbs];
+      System.arraycopy(value, 0, result, 0, limbs);
+      return result;
+    }
+    return value;
+  }
+
+  boolean isZero(long[] value) {
+    for (int i = 0; i < limbs; i++) {
+      if (value[i] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Computes <code>result = left + right mod p</code>.
+   */
+  void add(long[] left, long[] right, long[] result) {
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long sum = left[i] + right[i];
+      long carryOut = Long.compareUnsigned(sum, left[i]) < 0 ? 1 : 0;
+      long total = sum + carry;
+      carryOut += Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+      result[i] = total;
+      carry = carryOut;
+    }
+    if (carry != 0 || compare(result, prime) >= 0) {
+      subtractPrime(result);
+    }
+  }
+
+  /**
+   * Computes <code>result = left - right mod p</code>.
+   */
+  void subtract(long[] left, long[] right, long[] result) {
+    long borrow = 0;
+    for (int i = 0; i < limbs; i++) {
+      long difference = left[i] - right[i];
+      long borrowOut = Long.compareUnsigned(left[i], right[i]) < 0 ? 1 : 0;
+      long total = difference - borrow;
+      borrowOut += Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+      result[i] = total;
+      borrow = borrowOut;
+    }
+    if (borrow != 0) {
+      addPrime(result);
+    }
+  }
+
+  /**
+   * Computes <code>result = -value mod p</code>.
+   */
+  void negate(long[] value, long[] result) {
+    if (isZero(value)) {
+      System.arraycopy(value, 0, result, 0, limbs);
+    } else {
+      long borrow = 0;
+      for (int i = 0; i < limbs; i++) {
+        long difference = prime[i] - value[i];
+        long borrowOut = Long.compareUnsigned(prime[i], value[i]) < 0 ? 1 : 0;
+        long total = difference - borrow;
+        borrowOut += Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+        result[i] = total;
+        borrow = borrowOut;
+      }
+    }
+  }
+
+  /**
+   * Computes <code>result = left * right mod p</code>.
+   */
+  void multiply(long[] left, long[] right, long[] result) {
+    int length = 2 * limbs;
+    long[] work = scratch.get();
+    if (work.length < 2 * length) {
+      work = new long[2 * length];
+      scratch.set(work);
+    }
+    for (int i = 0; i < length; i++) {
+      work[i] = 0;
+    }
+    for (int i = 0; i < limbs; i++) {
+      long carry = 0;
+      long a = left[i];
+      for (int j = 0; j < limbs; j++) {
+        long b = right[j];
+        long low = a * b;
+        long high = multiplyHighUnsigned(a, b);
+        low += work[i + j];
+        if (Long.compareUnsigned(low, work[i + j]) < 0) {
+          high++;
+        }
+        low += carry;
+        if (Long.compareUnsigned(low, carry) < 0) {
+          high++;
+        }
+        work[i + j] = low;
+        carry = high;
+      }
+      work[i + limbs] = carry;
+    }
+    reduce(work, length, work, length);
+    System.arraycopy(work, 0, result, 0, limbs);
+  }
+
+  private void reduce(long[] value, int length, long[] high) {
+    reduce(value, length, high, 0);
+  }
+
+  /**
+   * Reduces the first {@code length} limbs of {@code value} modulo the prime. The reduced value is
+   * left in the lowest limbs of {@code value}. The {@code length} limbs of {@code high} starting
+   * at {@code highOffset} are used as scratch space.
+   */
+  private void reduce(long[] value, int length, long[] high, int highOffset) {
+    int limbShift = bitLength / Long.SIZE;
+    int bitShift = bitLength % Long.SIZE;
+    while (exceedsBitLength(value, length)) {
+      // high = value >> bitLength
+      for (int i = 0; i < length; i++) {
+        int index = i + limbShift;
+        long limb = index < length ? value[index] >>> bitShift : 0;
+        if (bitShift != 0 && index + 1 < length) {
+          limb |= value[index + 1] << (Long.SIZE - bitShift);
+        }
+        high[highOffset + i] = limb;
+      }
+      // value = value mod 2^bitLength
+      value[limbs - 1] &= topMask;
+      for (int i = limbs; i < length; i++) {
+        value[i] = 0;
+      }
+      // value = value + constant * high
+      long carry = 0;
+      for (int i = 0; i < length; i++) {
+        long h = high[highOffset + i];
+        long low = h * constant;
+        long upper = multiplyHighUnsigned(h, constant);
+        low += carry;
+        if (Long.compareUnsigned(low, carry) < 0) {
+          upper++;
+        }
+        long sum = value[i] + low;
+        if (Long.compareUnsigned(sum, low) < 0) {
+          upper++;
+        }
+        value[i] = sum;
+        carry = upper;
+      }
+    }
+    if (compare(value, prime) >= 0) {
+      subtractPrime(value);
+    }
+  }
+
+  private boolean exceedsBitLength(long[] value, int length) {
+    if ((value[limbs - 1] & ~topMask) != 0) {
+      return true;
+    }
+    for (int i = limbs; i < length; i++) {
+      if (value[i] != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int compare(long[] value, long[] other) {
+    for (int i = limbs - 1; i >= 0; i--) {
+      int comparison = Long.compareUnsigned(value[i], other[i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  private void subtractPrime(long[] value) {
+    long borrow = 0;
+    for (int i = 0; i < limbs; i++) {
+      long difference = value[i] - prime[i];
+      long borrowOut = Long.compareUnsigned(value[i], prime[i]) < 0 ? 1 : 0;
+      long total = difference - borrow;
+      borrowOut += Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+      value[i] = total;
+      borrow = borrowOut;
+    }
+  }
+
+  private void addPrime(long[] value) {
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long sum = value[i] + prime[i];
+      long carryOut = Long.compareUnsigned(sum, value[i]) < 0 ? 1 : 0;
+      long total = sum + carry;
+      carryOut += Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+      value[i] = total;
+      carry = carryOut;
+    }
+  }
+
+  /**
+   * Computes the upper 64 bits of the unsigned 128 bit product of two longs. This is
+   * <code>Math.multiplyHigh</code> for unsigned values, which is not available on Java 8.
+   */
+  static long multiplyHighUnsigned(long x, long y) {
+    long x0 = x & LOW_MASK;
+    long x1 = x >>> 32;
+    long y0 = y & LOW_MASK;
+    long y1 = y >>> 32;
+    long w0 = x0 * y0;
+    long t = x1 * y0 + (w0 >>> 32);
+    long w1 = (t & LOW_MASK) + x0 * y1;
+    return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+  }
+
+  @Override
+  public String toString() {
+    return "MersennePrimeLongModulus{"
+        + "value=" + getPrime()
+        + '}';
+  }
+}
@@ -0,0 +1,66 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.channels.SocketChannel;
+import javax.net.SocketFactory;
+
+/**
+ * A socket factory creating sockets backed by a {@link SocketChannel}.
+ *
+ * <p>
+ * This allows the {@link Connector} to be used for connecting a {@link NioNetwork}, as the channel
+ * of the sockets can be retrieved using {@link Socket#getChannel()}.
+ * </p>
+ */
+class ChannelSocketFactory extends SocketFactory {
+
+  @Override
+  public Socket createSocket() throws IOException {
+    return SocketChannel.open().socket();
+  }
+
+  @Override
+  public Socket createSocket(String host, int port) throws IOException {
+    return connect(new InetSocketAddress(host, port));
+  }
+
+  @Override
+  public Socket createSocket(InetAddress host, int port) throws IOException {
+    return connect(new InetSocketAddress(host, port));
+  }
+
+  @Override
+  public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+      throws IOException {
+    return connect(new InetSocketAddress(host, port), new InetSocketAddress(localHost, localPort));
+  }
+
+  @Override
+  public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+      int localPort) throws IOException {
+    return connect(new InetSocketAddress(address, port),
+        new InetSocketAddress(localAddress, localPort));
+  }
+
+  private Socket connect(SocketAddress remote) throws IOException {
+    return connect(remote, null);
+  }
+
+  private Socket connect(SocketAddress remote, SocketAddress local) throws IOException {
+    SocketChannel channel = SocketChannel.open();
+    try {
+      if (local != null) {
+        channel.bind(local);
+      }
+      channel.connect(remote);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return channel.socket();
+  }
+}
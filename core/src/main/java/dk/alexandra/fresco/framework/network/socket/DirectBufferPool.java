@@ -0,0 +1,74 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct byte buffers of a fixed size.
+ *
+ * <p>
+ * Allocating direct buffers is expensive and their memory is only reclaimed when the buffer is
+ * garbage collected, so buffers are kept in the pool when released and handed out again. At most a
+ * given number of buffers are kept, buffers released when the pool is full are left to the garbage
+ * collector.
+ * </p>
+ */
+class DirectBufferPool {
+
+  private final int bufferSize;
+  private final int maxPooled;
+  private final Queue<ByteBuffer> buffers;
+  private final AtomicInteger pooled;
+
+  /**
+   * Creates a new pool.
+   *
+   * @param bufferSize the capacity of the buffers in the pool
+   * @param maxPooled the maximum number of buffers kept in the pool
+   */
+  DirectBufferPool(int bufferSize, int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+    this.buffers = new ConcurrentLinkedQueue<>();
+    this.pooled = new AtomicInteger();
+  }
+
+  /**
+   * Takes a cleared buffer from the pool, allocating a new buffer if the pool is empty.
+   *
+   * @return a direct buffer
+   */
+  ByteBuffer take() {
+    ByteBuffer buffer = buffers.poll();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(bufferSize);
+    }
+    pooled.decrementAndGet();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer to the pool. The buffer must not be used after it is released.
+   *
+   * @param buffer a buffer taken from this pool
+   */
+  void release(ByteBuffer buffer) {
+    if (pooled.incrementAndGet() <= maxPooled) {
+      buffers.add(buffer);
+    } else {
+      pooled.decrementAndGet();
+    }
+  }
+
+  /**
+   * Gets the capacity of the buffers in this pool.
+   *
+   * @return the buffer size
+   */
+  int getBufferSize() {
+    return bufferSize;
+  }
+}
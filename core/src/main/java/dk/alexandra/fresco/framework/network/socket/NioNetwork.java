@@ -0,0 +1,487 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.ValidationUtils;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CloseableNetwork} implementation based on Java's nio API.
+ *
+ * <p>
+ * All communication with the other parties is handled by a single thread multiplexing the channels
+ * of all parties using a {@link Selector}. Hence, the number of threads used does not grow with the
+ * number of parties. Incoming data is read into pooled direct buffers and split into messages,
+ * outgoing messages are framed into a few pooled direct buffers per party which are written to the
+ * channel using a single gather write. Receiving blocks until a message arrives or the connection
+ * to the party is lost.
+ * </p>
+ * <p>
+ * The message format is the same as the one used by the {@link SocketNetwork}, i.e., each message
+ * is prefixed by an integer indicating the byte length of the message and a negative length
+ * signals that the sending party has stopped. Like the {@link SocketNetwork} this class only
+ * handles the communication over a set of given sockets, however, the sockets must be backed by a
+ * {@link SocketChannel} (see {@link Socket#getChannel()}). This means that this network can not be
+ * used with e.g. {@link javax.net.ssl.SSLSocket}.
+ * </p>
+ */
+public class NioNetwork implements CloseableNetwork {
+
+  private static final Logger logger = LoggerFactory.getLogger(NioNetwork.class);
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int WRITE_BUFFERS = 4;
+  private static final int MAX_POOLED_BUFFERS = 256;
+  private static final DirectBufferPool BUFFER_POOL =
+      new DirectBufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+  /**
+   * Put in the inbox of a party when no more messages will be received from the party.
+   */
+  private static final byte[] CLOSED = new byte[0];
+
+  private final BlockingQueue<byte[]> selfQueue;
+  private final NetworkConfiguration conf;
+  private final Map<Integer, Peer> peers;
+  private final Queue<Peer> writeRequests;
+  private final Selector selector;
+  private final Thread thread;
+  private volatile boolean alive;
+  private volatile boolean stopping;
+
+  /**
+   * Creates a network with the given a configuration and a mapping from party ids to sockets.
+   *
+   * <p>
+   * The mapping of party ids to sockets must be consistent with the network configuration. I.e.,
+   * there should be exactly one mapping for each opposing party (but not for the local party).
+   * Also, the sockets must be connected, open and backed by a {@link SocketChannel}.
+   * </p>
+   *
+   * @param conf the network configuration
+   * @param socketMap a mapping from party ids to the socket to be used for communicating with
+   *     the given party.
+   * @throws IllegalArgumentException if {@code socketMap} and {@code conf} are inconsistent or
+   *     the sockets are not open, connected and backed by a channel.
+   */
+  public NioNetwork(NetworkConfiguration conf, Map<Integer, Socket> socketMap) {
+    Objects.requireNonNull(conf);
+    Objects.requireNonNull(socketMap);
+    for (int i = 1; i < conf.noOfParties() + 1; i++) {
+      if (i == conf.getMyId()) {
+        continue;
+      }
+      if (!socketMap.containsKey(i)) {
+        throw new IllegalArgumentException("Missing socket for P" + i);
+      }
+      Socket s = socketMap.get(i);
+      if (s.isClosed()) {
+        throw new IllegalArgumentException("Closed socket for P" + i);
+      }
+      if (!s.isConnected()) {
+        throw new IllegalArgumentException("Unconnected socket for P" + i);
+      }
+      if (s.getChannel() == null) {
+        throw new IllegalArgumentException("Socket for P" + i + " is not backed by a channel");
+      }
+    }
+    for (Integer id : socketMap.keySet()) {
+      ValidationUtils.assertValidId(id, conf.noOfParties());
+    }
+    this.conf = conf;
+    this.peers = new HashMap<>(conf.noOfParties() - 1);
+    this.writeRequests = new ConcurrentLinkedQueue<>();
+    this.selfQueue = new LinkedBlockingQueue<>();
+    this.alive = true;
+    if (conf.noOfParties() > 1) {
+      this.selector = ExceptionConverter.safe(Selector::open, "Unable to open selector");
+      ExceptionConverter.safe(() -> {
+        register(socketMap);
+        return null;
+      }, "Unable to register channels");
+      this.thread = new Thread(this::run);
+      this.thread.setDaemon(true);
+      this.thread.setName("NioNetwork-P" + conf.getMyId());
+      this.thread.start();
+    } else {
+      this.selector = null;
+      this.thread = null;
+    }
+  }
+
+  /**
+   * Default constructor using one minute timeout.
+   *
+   * @param conf the configuration to load the network from.
+   */
+  public NioNetwork(NetworkConfiguration conf) {
+    this(conf, Connector.DEFAULT_CONNECTION_TIMEOUT);
+  }
+
+  /**
+   * Construct a network with a specific timeout. The network is connected using the
+   * {@link Connector} with sockets backed by channels.
+   *
+   * @param conf the configuration to load the network from.
+   * @param timeout duration to wait until timeout when connecting the network.
+   */
+  public NioNetwork(NetworkConfiguration conf, Duration timeout) {
+    this(conf, new Connector(conf, timeout, new ChannelSocketFactory(),
+        new ChannelServerSocketFactory()).getSocketMap());
+  }
+
+  private void register(Map<Integer, Socket> socketMap) throws IOException {
+    for (Entry<Integer, Socket> entry : socketMap.entrySet()) {
+      SocketChannel channel = entry.getValue().getChannel();
+      channel.socket().setTcpNoDelay(true);
+      channel.configureBlocking(false);
+      Peer peer = new Peer(entry.getKey(), channel);
+      peer.key = channel.register(selector, SelectionKey.OP_READ, peer);
+      peers.put(entry.getKey(), peer);
+    }
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    if (partyId == conf.getMyId()) {
+      this.selfQueue.add(data);
+      return;
+    }
+    assertPartyIdInRange(partyId);
+    Peer peer = peers.get(partyId);
+    if (!alive || peer.failed) {
+      throw new RuntimeException(
+          "P" + conf.getMyId() + ": Unable to send to P" + partyId + ". Network not running");
+    }
+    peer.outgoing.add(data);
+    if (peer.writeRequested.compareAndSet(false, true)) {
+      writeRequests.add(peer);
+      selector.wakeup();
+    }
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    if (partyId == conf.getMyId()) {
+      return ExceptionConverter.safe(selfQueue::take, "Receiving from self failed");
+    }
+    assertPartyIdInRange(partyId);
+    if (!alive) {
+      throw new RuntimeException(
+          "P" + conf.getMyId() + ": Unable to receive from P" + partyId + ". Network closed");
+    }
+    Peer peer = peers.get(partyId);
+    byte[] data = ExceptionConverter.safe(peer.inbox::take, "Receive interrupted");
+    if (data == CLOSED) {
+      // Leave the marker for subsequent calls
+      peer.inbox.add(CLOSED);
+      throw new RuntimeException("P" + conf.getMyId() + ": Unable to receive from P" + partyId
+          + ". Connection closed");
+    }
+    return data;
+  }
+
+  /**
+   * Check if a party ID is in the range of known parties.
+   *
+   * @param partyId an ID for a party
+   */
+  private void assertPartyIdInRange(final int partyId) {
+    ValidationUtils.assertValidId(partyId, getNoOfParties());
+  }
+
+  /**
+   * The loop of the selector thread. Runs until the network is closed and all messages sent before
+   * closing have been written.
+   */
+  private void run() {
+    try {
+      while (!stopping || !isFlushed()) {
+        selector.select();
+        Peer requested;
+        while ((requested = writeRequests.poll()) != null) {
+          requested.writeRequested.set(false);
+          requested.write();
+        }
+        if (stopping) {
+          for (Peer peer : peers.values()) {
+            peer.write();
+          }
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          Peer peer = (Peer) key.attachment();
+          if (key.isValid() && key.isReadable()) {
+            peer.read();
+          }
+          if (key.isValid() && key.isWritable()) {
+            peer.write();
+          }
+        }
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      logger.error("P" + conf.getMyId() + ": Network selector failed unexpectedly", e);
+    } finally {
+      for (Peer peer : peers.values()) {
+        peer.close();
+      }
+      try {
+        selector.close();
+      } catch (IOException ignored) {
+        // We are shutting down anyway
+      }
+    }
+  }
+
+  private boolean isFlushed() {
+    for (Peer peer : peers.values()) {
+      if (!peer.isFlushed()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Closes the network down and releases held resources. Messages sent before closing are written
+   * before the connections are closed.
+   */
+  @Override
+  public void close() {
+    if (alive) {
+      alive = false;
+      if (conf.noOfParties() < 2) {
+        logger.info("P{}: Network closed", conf.getMyId());
+        return;
+      }
+      ExceptionConverter.safe(() -> {
+        stopping = true;
+        selector.wakeup();
+        thread.join();
+        logger.info("P{}: Network closed", conf.getMyId());
+        return null;
+      }, "Unable to properly close the network.");
+    } else {
+      logger.info("P{}: Network already closed", conf.getMyId());
+    }
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return this.conf.noOfParties();
+  }
+
+  /**
+   * The connection to a single party. Apart from the queues and flags used to hand over messages
+   * all state is only accessed by the selector thread.
+   */
+  private class Peer {
+
+    private final int id;
+    private final SocketChannel channel;
+    private final Queue<byte[]> outgoing;
+    private final BlockingQueue<byte[]> inbox;
+    private final AtomicBoolean writeRequested;
+    private final ByteBuffer readBuffer;
+    private final ByteBuffer[] writeBuffers;
+    private volatile boolean failed;
+    private SelectionKey key;
+    private int writeCount;
+    private byte[] pending;
+    private int pendingOffset;
+    private byte[] message;
+    private int messageOffset;
+    private boolean terminated;
+    private boolean released;
+
+    private Peer(int id, SocketChannel channel) {
+      this.id = id;
+      this.channel = channel;
+      this.outgoing = new ConcurrentLinkedQueue<>();
+      this.inbox = new LinkedBlockingQueue<>();
+      this.writeRequested = new AtomicBoolean();
+      this.readBuffer = BUFFER_POOL.take();
+      this.writeBuffers = new ByteBuffer[WRITE_BUFFERS];
+      for (int i = 0; i < WRITE_BUFFERS; i++) {
+        writeBuffers[i] = BUFFER_POOL.take();
+      }
+    }
+
+    /**
+     * Reads the available data and adds the completed messages to the inbox.
+     */
+    private void read() {
+      try {
+        if (channel.read(readBuffer) < 0) {
+          endOfInput();
+          return;
+        }
+      } catch (IOException e) {
+        fail(e);
+        return;
+      }
+      readBuffer.flip();
+      while (true) {
+        if (message == null) {
+          if (readBuffer.remaining() < Integer.BYTES) {
+            break;
+          }
+          int length = readBuffer.getInt();
+          if (length < 0) {
+            readBuffer.clear();
+            endOfInput();
+            return;
+          }
+          message = new byte[length];
+          messageOffset = 0;
+        }
+        int length = Math.min(readBuffer.remaining(), message.length - messageOffset);
+        readBuffer.get(message, messageOffset, length);
+        messageOffset += length;
+        if (messageOffset < message.length) {
+          break;
+        }
+        inbox.add(message);
+        message = null;
+      }
+      readBuffer.compact();
+    }
+
+    private void endOfInput() {
+      key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+      inbox.add(CLOSED);
+    }
+
+    /**
+     * Writes as many of the outgoing messages as possible without blocking. If the channel can not
+     * take all messages the selector is asked to tell when the channel is writable again.
+     */
+    private void write() {
+      if (failed) {
+        return;
+      }
+      try {
+        while (writeRemaining() || frame()) {
+          channel.write(writeBuffers, 0, writeCount);
+          if (writeRemaining()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            return;
+          }
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+      } catch (IOException e) {
+        fail(e);
+      }
+    }
+
+    /**
+     * Frames outgoing messages into the write buffers, which are then written by a single gather
+     * write.
+     *
+     * @return true if anything was framed
+     */
+    private boolean frame() {
+      writeCount = 0;
+      for (ByteBuffer buffer : writeBuffers) {
+        buffer.clear();
+        fill(buffer);
+        buffer.flip();
+        if (!buffer.hasRemaining()) {
+          break;
+        }
+        writeCount++;
+      }
+      return writeCount > 0;
+    }
+
+    /**
+     * Fills a buffer with outgoing messages. Messages not fitting in the buffer are continued in the
+     * next buffer. When stopping the termination signal is put after the last message.
+     */
+    private void fill(ByteBuffer buffer) {
+      while (true) {
+        if (pending != null) {
+          int length = Math.min(buffer.remaining(), pending.length - pendingOffset);
+          buffer.put(pending, pendingOffset, length);
+          pendingOffset += length;
+          if (pendingOffset < pending.length) {
+            return;
+          }
+          pending = null;
+        }
+        if (buffer.remaining() < Integer.BYTES) {
+          return;
+        }
+        byte[] next = outgoing.poll();
+        if (next == null) {
+          if (stopping && !terminated) {
+            buffer.putInt(-1);
+            terminated = true;
+          }
+          return;
+        }
+        buffer.putInt(next.length);
+        pending = next;
+        pendingOffset = 0;
+      }
+    }
+
+    private boolean writeRemaining() {
+      return writeCount > 0 && writeBuffers[writeCount - 1].hasRemaining();
+    }
+
+    private boolean isFlushed() {
+      return failed || terminated && !writeRemaining();
+    }
+
+    private void fail(IOException e) {
+      if (!stopping) {
+        logger.error("P" + conf.getMyId() + ": Connection to P" + id + " failed unexpectedly", e);
+      }
+      failed = true;
+      key.cancel();
+      inbox.add(CLOSED);
+    }
+
+    /**
+     * Closes the channel and releases the buffers. Called by the selector thread when it stops.
+     */
+    private void close() {
+      failed = true;
+      inbox.add(CLOSED);
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // We are closing anyway
+      }
+      if (!released) {
+        released = true;
+        pending = null;
+        BUFFER_POOL.release(readBuffer);
+        for (ByteBuffer buffer : writeBuffers) {
+          BUFFER_POOL.release(buffer);
+        }
+      }
+    }
+  }
+}
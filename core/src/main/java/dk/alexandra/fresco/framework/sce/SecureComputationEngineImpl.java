@@ -83,7 +83,8 @@ public class SecureComputationEngineImpl
 
     logger.debug("Evaluator done."
         + " Evaluated a total of " + eval.getNativeProtocols()
-        + " native protocols in " + eval.getBatches() + " batches.");
+        + " native protocols in " + eval.getBatches() + " batches,"
+        + " the critical path has length " + eval.getCriticalPathLength() + ".");
 
     long now = System.currentTimeMillis();
     long timeSpent = now - then;
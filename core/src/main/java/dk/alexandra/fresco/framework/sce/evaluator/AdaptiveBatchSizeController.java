@@ -0,0 +1,179 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.logging.PerformanceLogger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adapts the size of the batches of a {@link BatchedProtocolEvaluator} to the network, using
+ * additive increase, multiplicative decrease (AIMD).
+ *
+ * <p>On a network with high latency, each batch costs at least a round trip, so larger batches
+ * means fewer round trips. On a fast network, very large batches only cost memory and large network
+ * buffers. The controller is therefore told the time, the number of bytes sent and the number of
+ * native protocols of each batch evaluated. As long as the batches are full, the batch size is
+ * increased by a fixed increment, until either a batch sends more than the byte budget, or the time
+ * spent per native protocol grows, in which case the batch size is halved. The batch size is kept
+ * within the configured bounds.</p>
+ *
+ * <p>All parties must evaluate the same batches, but measure different times and bytes sent.
+ * When used by an evaluator, only party 1 therefore adjusts the batch size from its measurements,
+ * using {@link #decideBatchSize(int, long, long)}, and the new batch size is applied by all parties
+ * with {@link #setBatchSize(int)} once it has been agreed on, see {@link
+ * BatchedProtocolEvaluator}. A controller holds the state of a single evaluation, so an evaluator
+ * creates a new controller for each evaluation.</p>
+ *
+ * <p>The controller logs the batch size currently used and the number of adjustments made as a
+ * {@link PerformanceLogger}.</p>
+ */
+public class AdaptiveBatchSizeController implements PerformanceLogger {
+
+  public static final String BATCH_SIZE = "Adaptive batch size";
+  public static final String BATCH_SIZE_INCREASES = "Adaptive batch size increases";
+  public static final String BATCH_SIZE_DECREASES = "Adaptive batch size decreases";
+  public static final String BATCHES_MEASURED = "Adaptive batch size full batches measured";
+
+  /**
+   * The relative growth in time per native protocol, compared to the previous full batch, which
+   * makes the controller decrease the batch size.
+   */
+  static final double SLOWDOWN_TOLERANCE = 0.25;
+  private static final int DEFAULT_INCREMENT = 1024;
+  private static final long DEFAULT_MAX_BYTES_PER_BATCH = 64L * 1024 * 1024;
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final int increment;
+  private final long maxBytesPerBatch;
+  private int batchSize;
+  private double previousNanosPerProtocol;
+  private long increases;
+  private long decreases;
+  private long measured;
+
+  /**
+   * Creates a controller starting at the minimal batch size, with an increment of 1024 protocols
+   * and a byte budget of 64 MB per batch.
+   *
+   * @param minBatchSize the minimal batch size
+   * @param maxBatchSize the maximal batch size
+   */
+  public AdaptiveBatchSizeController(int minBatchSize, int maxBatchSize) {
+    this(minBatchSize, maxBatchSize, minBatchSize, DEFAULT_INCREMENT,
+        DEFAULT_MAX_BYTES_PER_BATCH);
+  }
+
+  /**
+   * Creates a controller.
+   *
+   * @param minBatchSize the minimal batch size
+   * @param maxBatchSize the maximal batch size
+   * @param initialBatchSize the batch size to start with
+   * @param increment the number of protocols added to the batch size when increasing it
+   * @param maxBytesPerBatch the number of bytes a batch may send before the batch size is decreased
+   */
+  public AdaptiveBatchSizeController(int minBatchSize, int maxBatchSize, int initialBatchSize,
+      int increment, long maxBytesPerBatch) {
+    if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+      throw new IllegalArgumentException(
+          "Invalid batch size bounds [" + minBatchSize + ", " + maxBatchSize + "]");
+    }
+    if (initialBatchSize < minBatchSize || initialBatchSize > maxBatchSize) {
+      throw new IllegalArgumentException("Initial batch size " + initialBatchSize
+          + " is not within [" + minBatchSize + ", " + maxBatchSize + "]");
+    }
+    if (increment < 1 || maxBytesPerBatch < 1) {
+      throw new IllegalArgumentException("Increment and byte budget must be positive");
+    }
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.increment = increment;
+    this.maxBytesPerBatch = maxBytesPerBatch;
+    this.batchSize = initialBatchSize;
+    this.previousNanosPerProtocol = Double.NaN;
+  }
+
+  /**
+   * Gets the batch size to use for the next batch.
+   *
+   * @return the batch size
+   */
+  public synchronized int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Adjusts the batch size to the measurements of a batch. Batches that are not full tell nothing
+   * about the batch size, and are ignored.
+   *
+   * @param protocols the number of native protocols in the batch
+   * @param nanos the time spent evaluating the batch in nanoseconds
+   * @param bytes the number of bytes sent while evaluating the batch
+   */
+  public synchronized void batchEvaluated(int protocols, long nanos, long bytes) {
+    if (protocols < batchSize) {
+      return;
+    }
+    setBatchSize(decideBatchSize(protocols, nanos, bytes));
+  }
+
+  /**
+   * Decides the next batch size from the measurements of a full batch, without using it yet. The
+   * batch size is increased by the increment, unless the batch sent more than the byte budget or
+   * the time spent per native protocol grew by more than the tolerance compared to the previously
+   * measured batch, in which case it is halved.
+   *
+   * @param protocols the number of native protocols in the batch
+   * @param nanos the time spent evaluating the batch in nanoseconds
+   * @param bytes the number of bytes sent while evaluating the batch
+   * @return the next batch size
+   */
+  public synchronized int decideBatchSize(int protocols, long nanos, long bytes) {
+    double nanosPerProtocol = (double) nanos / protocols;
+    boolean slowdown = !Double.isNaN(previousNanosPerProtocol)
+        && nanosPerProtocol > previousNanosPerProtocol * (1 + SLOWDOWN_TOLERANCE);
+    previousNanosPerProtocol = nanosPerProtocol;
+    if (bytes > maxBytesPerBatch || slowdown) {
+      return Math.max(minBatchSize, batchSize / 2);
+    } else {
+      return (int) Math.min(maxBatchSize, (long) batchSize + increment);
+    }
+  }
+
+  /**
+   * Uses a new batch size, decided from the measurements of a full batch, and counts the
+   * adjustment.
+   *
+   * @param newBatchSize the batch size to use
+   */
+  public synchronized void setBatchSize(int newBatchSize) {
+    if (newBatchSize < minBatchSize || newBatchSize > maxBatchSize) {
+      throw new IllegalArgumentException("Batch size " + newBatchSize + " is not within ["
+          + minBatchSize + ", " + maxBatchSize + "]");
+    }
+    measured++;
+    if (newBatchSize > batchSize) {
+      increases++;
+    } else if (newBatchSize < batchSize) {
+      decreases++;
+    }
+    batchSize = newBatchSize;
+  }
+
+  @Override
+  public synchronized void reset() {
+    increases = 0;
+    decreases = 0;
+    measured = 0;
+  }
+
+  @Override
+  public synchronized Map<String, Long> getLoggedValues() {
+    Map<String, Long> values = new HashMap<>();
+    values.put(BATCH_SIZE, (long) batchSize);
+    values.put(BATCH_SIZE_INCREASES, increases);
+    values.put(BATCH_SIZE_DECREASES, decreases);
+    values.put(BATCHES_MEASURED, measured);
+    return values;
+  }
+}
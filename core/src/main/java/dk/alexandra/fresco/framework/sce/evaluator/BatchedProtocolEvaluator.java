@@ -5,7 +5,9 @@ import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +16,20 @@ import org.slf4j.LoggerFactory;
  * certain batch size. How each batch is evaluated is up to the given batch evaluation strategy.
  * Each batch is required to contain only functionally independent native protocols.
  *
+ * <p>By default batches are filled in the order the protocols are declared. Optionally, the
+ * evaluator can ask the producers to prioritize the protocols on the critical path, i.e., the
+ * longest remaining chain of dependent protocols, which may reduce the number of batches when these
+ * overflow. The resulting number of batches can be compared to the length of the critical path in
+ * the returned {@link EvaluationStatistics}.</p>
+ *
+ * <p>Instead of a fixed maximal batch size, the evaluator can be given a supplier of {@link
+ * AdaptiveBatchSizeController}s, which creates a controller for each evaluation. After each full
+ * batch, party 1 decides the next batch size from its own measurements of the batch. The decision
+ * is sent as a header along with the messages of party 1 in the next batch, see {@link
+ * NetworkBatchDecorator#expectHeader(int)}, and all parties use the new batch size from the batch
+ * after that. Since all parties evaluate the same batches, they agree on which batches are full
+ * and carry a decision, without any extra messages.</p>
+ *
  * @param <ResourcePoolT> The resource pool type to use
  */
 public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
@@ -25,6 +41,8 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   private final BatchEvaluationStrategy<ResourcePoolT> batchEvaluator;
   private final ProtocolSuite<ResourcePoolT, ?> protocolSuite;
   private final int maxBatchSize;
+  private final Supplier<AdaptiveBatchSizeController> batchSizeControllers;
+  private final boolean prioritizeCriticalPath;
 
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
@@ -35,9 +53,54 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
       ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize) {
+    this(batchEvaluator, protocolSuite, maxBatchSize, false);
+  }
+
+  /**
+   * Creates a new evaluator.
+   *
+   * @param batchEvaluator the strategy evaluating each batch
+   * @param protocolSuite the protocol suite
+   * @param maxBatchSize the maximal number of native protocols in a batch
+   * @param prioritizeCriticalPath whether to fill batches with the protocols on the critical path
+   *     first
+   */
+  public BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize,
+      boolean prioritizeCriticalPath) {
+    this(batchEvaluator, protocolSuite, maxBatchSize, null, prioritizeCriticalPath);
+  }
+
+  /**
+   * Creates a new evaluator with adaptive batch sizes.
+   *
+   * @param batchEvaluator the strategy evaluating each batch
+   * @param protocolSuite the protocol suite
+   * @param batchSizeControllers creates the controller deciding the size of each batch, for each
+   *     evaluation
+   * @param prioritizeCriticalPath whether to fill batches with the protocols on the critical path
+   *     first
+   */
+  public BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite,
+      Supplier<AdaptiveBatchSizeController> batchSizeControllers,
+      boolean prioritizeCriticalPath) {
+    this(batchEvaluator, protocolSuite, 0, Objects.requireNonNull(batchSizeControllers),
+        prioritizeCriticalPath);
+  }
+
+  private BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize,
+      Supplier<AdaptiveBatchSizeController> batchSizeControllers,
+      boolean prioritizeCriticalPath) {
     this.batchEvaluator = Objects.requireNonNull(batchEvaluator);
     this.maxBatchSize = maxBatchSize;
     this.protocolSuite = Objects.requireNonNull(protocolSuite);
+    this.batchSizeControllers = batchSizeControllers;
+    this.prioritizeCriticalPath = prioritizeCriticalPath;
   }
 
   @Override
@@ -50,13 +113,38 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
     NetworkBatchDecorator networkBatchDecorator = createSceNetwork(resourcePool, network);
     ProtocolSuite.RoundSynchronization<ResourcePoolT> roundSynchronization =
         protocolSuite.createRoundSynchronization();
+    AdaptiveBatchSizeController batchSizeController =
+        batchSizeControllers == null ? null : batchSizeControllers.get();
+    // The batch size decided after the last full batch, waiting to be sent with the next batch
+    boolean decided = false;
+    int decidedBatchSize = 0;
     do {
-      ProtocolCollectionList<ResourcePoolT> protocols = new ProtocolCollectionList<>(maxBatchSize);
+      int batchSize =
+          batchSizeController == null ? maxBatchSize : batchSizeController.getBatchSize();
+      ProtocolCollectionList<ResourcePoolT> protocols =
+          new ProtocolCollectionList<>(batchSize, prioritizeCriticalPath);
       protocolProducer.getNextProtocols(protocols);
       int size = protocols.size();
+      boolean carriesDecision = decided && size > 0;
 
       roundSynchronization.beforeBatch(protocols, resourcePool, network);
+      if (carriesDecision) {
+        sendDecision(decidedBatchSize, resourcePool, networkBatchDecorator);
+      }
+      long bytesBefore = networkBatchDecorator.getBytesSent();
+      long then = System.nanoTime();
       batchEvaluator.processBatch(protocols, resourcePool, networkBatchDecorator);
+      if (carriesDecision) {
+        batchSizeController.setBatchSize(
+            receiveDecision(decidedBatchSize, resourcePool, networkBatchDecorator));
+        decided = false;
+      } else if (batchSizeController != null && size >= batchSize) {
+        if (resourcePool.getMyId() == 1) {
+          decidedBatchSize = batchSizeController.decideBatchSize(size, System.nanoTime() - then,
+              networkBatchDecorator.getBytesSent() - bytesBefore);
+        }
+        decided = true;
+      }
       logger.trace("Done evaluating batch: " + batch++ + " with " + size + " native protocols");
       if (size == 0) {
         logger.debug("Batch " + batch + " is empty");
@@ -67,7 +155,35 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
     } while (protocolProducer.hasNextProtocols());
 
     roundSynchronization.finishedEval(resourcePool, network);
-    return new EvaluationStatistics(totalProtocols, totalBatches);
+    return new EvaluationStatistics(totalProtocols, totalBatches, protocolProducer.getDepth());
+  }
+
+  /**
+   * Sends the batch size decided by party 1 as a header along with the next batch, or announces
+   * that the header is expected from party 1.
+   */
+  private void sendDecision(int batchSize, ResourcePoolT resourcePool,
+      NetworkBatchDecorator networkBatchDecorator) {
+    if (resourcePool.getMyId() == 1) {
+      byte[] header = ByteBuffer.allocate(Integer.BYTES).putInt(batchSize).array();
+      for (int partyId = 2; partyId <= resourcePool.getNoOfParties(); partyId++) {
+        networkBatchDecorator.send(partyId, header);
+      }
+    } else {
+      networkBatchDecorator.expectHeader(1);
+    }
+  }
+
+  /**
+   * Gets the batch size decided by party 1, after the batch it was sent with.
+   */
+  private int receiveDecision(int batchSize, ResourcePoolT resourcePool,
+      NetworkBatchDecorator networkBatchDecorator) {
+    if (resourcePool.getMyId() == 1) {
+      return batchSize;
+    } else {
+      return ByteBuffer.wrap(networkBatchDecorator.takeHeader()).getInt();
+    }
   }
 
   private NetworkBatchDecorator createSceNetwork(ResourcePool resourcePool, Network network) {
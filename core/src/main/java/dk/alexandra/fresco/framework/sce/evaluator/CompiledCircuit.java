@@ -0,0 +1,207 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.builder.DataDependenceTracker;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A recorded evaluation of a {@link dk.alexandra.fresco.framework.CompilableApplication}. The
+ * circuit consists of the native protocols of the application grouped in the batches they were
+ * evaluated in, and of input wires, numbered from 0, holding the inputs of the application.
+ *
+ * <p>The circuit is replayed by binding new values to the input wires and evaluating the same
+ * native protocols again, batch by batch. This relies on native protocols reading their inputs and
+ * taking any preprocessed material when evaluated, rather than when constructed, and on the results
+ * of native protocols appended while recording not being cached. A circuit is replayed by one
+ * thread at a time.</p>
+ *
+ * @param <InputT> the type of the inputs
+ * @param <OutputT> the type of the output
+ * @param <ResourcePoolT> the type of resource pool the native protocols are evaluated with
+ */
+public final class CompiledCircuit<InputT, OutputT, ResourcePoolT extends ResourcePool> {
+
+  private final List<Wire<InputT>> inputs;
+  private final List<List<NativeProtocol<?, ResourcePoolT>>> batches;
+  private DRes<OutputT> output;
+  private int nativeProtocols;
+  private int criticalPathLength;
+
+  CompiledCircuit(int numberOfInputs) {
+    this.inputs = new ArrayList<>(numberOfInputs);
+    for (int i = 0; i < numberOfInputs; i++) {
+      inputs.add(new Wire<>());
+    }
+    this.batches = new ArrayList<>();
+  }
+
+  /**
+   * Gets the input wires, which the application is built on.
+   */
+  List<DRes<InputT>> getInputWires() {
+    return Collections.unmodifiableList(inputs);
+  }
+
+  /**
+   * Binds the given values to the input wires.
+   */
+  void bind(List<? extends InputT> values) {
+    if (values.size() != inputs.size()) {
+      throw new IllegalArgumentException(
+          "Circuit has " + inputs.size() + " inputs, but got " + values.size());
+    }
+    for (int i = 0; i < values.size(); i++) {
+      inputs.get(i).value = values.get(i);
+    }
+  }
+
+  void setOutput(DRes<OutputT> output) {
+    this.output = output;
+  }
+
+  DRes<OutputT> getOutput() {
+    return output;
+  }
+
+  void setCriticalPathLength(int criticalPathLength) {
+    this.criticalPathLength = criticalPathLength;
+  }
+
+  List<List<NativeProtocol<?, ResourcePoolT>>> getBatchList() {
+    return batches;
+  }
+
+  /**
+   * Wraps the producer of the application such that the protocols it hands out are recorded in
+   * this circuit. Every call to {@link ProtocolProducer#getNextProtocols} starts a new batch.
+   */
+  ProtocolProducer record(ProtocolProducer producer) {
+    return new ProtocolProducer() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <ResourcePoolS extends ResourcePool> void getNextProtocols(
+          ProtocolCollection<ResourcePoolS> protocolCollection) {
+        List<NativeProtocol<?, ResourcePoolT>> batch = new ArrayList<>();
+        batches.add(batch);
+        producer.getNextProtocols(new RecordingCollection<>(protocolCollection,
+            (List<NativeProtocol<?, ResourcePoolS>>) (List<?>) batch));
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public <ResourcePoolS extends ResourcePool> void getNextIndependentProtocols(
+          ProtocolCollection<ResourcePoolS> protocolCollection) {
+        // independent protocols may be evaluated together with the current batch
+        List<NativeProtocol<?, ResourcePoolT>> batch = batches.get(batches.size() - 1);
+        producer.getNextIndependentProtocols(new RecordingCollection<>(protocolCollection,
+            (List<NativeProtocol<?, ResourcePoolS>>) (List<?>) batch));
+      }
+
+      @Override
+      public boolean hasNextProtocols() {
+        return producer.hasNextProtocols();
+      }
+
+      @Override
+      public int getDepth() {
+        return producer.getDepth();
+      }
+
+      @Override
+      public int estimateRemainingDepth(int limit) {
+        return producer.estimateRemainingDepth(limit);
+      }
+    };
+  }
+
+  /**
+   * Finishes recording.
+   */
+  void seal() {
+    for (int i = 0; i < batches.size(); i++) {
+      List<NativeProtocol<?, ResourcePoolT>> batch = batches.get(i);
+      nativeProtocols += batch.size();
+      batches.set(i, Collections.unmodifiableList(new ArrayList<>(batch)));
+    }
+  }
+
+  /**
+   * Gets the number of inputs of the circuit.
+   */
+  public int getNumberOfInputs() {
+    return inputs.size();
+  }
+
+  /**
+   * Gets the number of batches the circuit is evaluated in.
+   */
+  public int getBatches() {
+    return batches.size();
+  }
+
+  /**
+   * Gets the number of native protocols in the circuit.
+   */
+  public int getNativeProtocols() {
+    return nativeProtocols;
+  }
+
+  /**
+   * Gets the length of the longest chain of dependent native protocols in the circuit.
+   */
+  public int getCriticalPathLength() {
+    return criticalPathLength;
+  }
+
+  private static final class Wire<T> implements DRes<T> {
+
+    private T value;
+
+    @Override
+    public T out() {
+      DataDependenceTracker.valueRead();
+      return value;
+    }
+  }
+
+  private static final class RecordingCollection<ResourcePoolS extends ResourcePool>
+      implements ProtocolCollection<ResourcePoolS> {
+
+    private final ProtocolCollection<ResourcePoolS> delegate;
+    private final List<NativeProtocol<?, ResourcePoolS>> recorded;
+
+    private RecordingCollection(ProtocolCollection<ResourcePoolS> delegate,
+        List<NativeProtocol<?, ResourcePoolS>> recorded) {
+      this.delegate = delegate;
+      this.recorded = recorded;
+    }
+
+    @Override
+    public void addProtocol(NativeProtocol<?, ResourcePoolS> protocol) {
+      recorded.add(protocol);
+      delegate.addProtocol(protocol);
+    }
+
+    @Override
+    public boolean hasFreeCapacity() {
+      return delegate.hasFreeCapacity();
+    }
+
+    @Override
+    public int size() {
+      return delegate.size();
+    }
+
+    @Override
+    public Iterator<NativeProtocol<?, ResourcePoolS>> iterator() {
+      return delegate.iterator();
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.BuilderFactory;
+import dk.alexandra.fresco.framework.CompilableApplication;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.ProtocolEvaluator.EvaluationStatistics;
+import dk.alexandra.fresco.framework.builder.DataDependenceTracker;
+import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluator for applications which are run many times with different inputs. The first time a
+ * {@link CompilableApplication} is run, it is built and evaluated as usual, and the native
+ * protocols evaluated are recorded as a {@link CompiledCircuit}. Later runs replay the circuit with
+ * the new inputs, skipping the building of the application and the traversal of its protocol
+ * producers.
+ *
+ * <p>If the application uses a {@link dk.alexandra.fresco.framework.builder.BuildStep#whileLoop},
+ * or reads a value while it is being built, e.g., to use an opened value as a public constant, its
+ * protocols may differ between runs, so it is not compiled, and is built and evaluated as usual
+ * every time it is run, see {@link DataDependenceTracker}.</p>
+ *
+ * <p>Only protocol suites which {@link ProtocolSuite#supportsReplay() support replay} can be used,
+ * since the native protocols of a compiled circuit are evaluated more than once.</p>
+ *
+ * <p>Circuits are cached per application instance. All parties must run the same applications in
+ * the same order, using the same maximum batch size, such that all parties evaluate the same
+ * batches.</p>
+ *
+ * @param <ResourcePoolT> The resource pool type to use
+ * @param <BuilderT> The builder type to use
+ */
+public class CompiledProtocolEvaluator<ResourcePoolT extends ResourcePool,
+    BuilderT extends ProtocolBuilder> {
+
+  private static final Logger logger = LoggerFactory.getLogger(CompiledProtocolEvaluator.class);
+  private final ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite;
+  private final BatchEvaluationStrategy<ResourcePoolT> batchEvaluator;
+  private final BatchedProtocolEvaluator<ResourcePoolT> evaluator;
+  private final Map<CompilableApplication<?, ?, BuilderT>,
+      Optional<CompiledCircuit<?, ?, ResourcePoolT>>> circuits;
+
+  /**
+   * Creates a new evaluator using the default maximum batch size.
+   *
+   * @param batchEvaluator the strategy evaluating each batch
+   * @param protocolSuite the protocol suite to build and evaluate with
+   */
+  public CompiledProtocolEvaluator(BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite) {
+    this(batchEvaluator, protocolSuite, 4096);
+  }
+
+  /**
+   * Creates a new evaluator.
+   *
+   * @param batchEvaluator the strategy evaluating each batch
+   * @param protocolSuite the protocol suite to build and evaluate with
+   * @param maxBatchSize the maximum number of native protocols in a batch when recording
+   * @throws IllegalArgumentException if the protocol suite does not support replay
+   */
+  public CompiledProtocolEvaluator(BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite, int maxBatchSize) {
+    this.batchEvaluator = Objects.requireNonNull(batchEvaluator);
+    this.protocolSuite = Objects.requireNonNull(protocolSuite);
+    if (!protocolSuite.supportsReplay()) {
+      throw new IllegalArgumentException(
+          "Protocol suite " + protocolSuite + " does not support replaying native protocols");
+    }
+    this.evaluator = new BatchedProtocolEvaluator<>(batchEvaluator,
+        new UntrackedSynchronizationSuite<>(protocolSuite), maxBatchSize);
+    this.circuits = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Runs an application on the given inputs, replaying its compiled circuit if it has been run
+   * before.
+   *
+   * @param application the application to run
+   * @param inputs the inputs of the application
+   * @param resourcePool the resource pool
+   * @param network the network
+   * @return the output of the application
+   */
+  public <InputT, OutputT> OutputT run(
+      CompilableApplication<InputT, OutputT, BuilderT> application, List<? extends InputT> inputs,
+      ResourcePoolT resourcePool, Network network) {
+    Optional<CompiledCircuit<?, ?, ResourcePoolT>> cached = circuits.get(application);
+    if (cached == null) {
+      return record(application, inputs, resourcePool, network);
+    } else if (!cached.isPresent()) {
+      return evaluate(application, inputs, resourcePool, network);
+    } else {
+      @SuppressWarnings("unchecked")
+      CompiledCircuit<InputT, OutputT, ResourcePoolT> circuit =
+          (CompiledCircuit<InputT, OutputT, ResourcePoolT>) cached.get();
+      synchronized (circuit) {
+        circuit.bind(inputs);
+        EvaluationStatistics statistics = replay(circuit, resourcePool, network);
+        logger.debug("Replayed " + statistics.getNativeProtocols() + " native protocols in "
+            + statistics.getBatches() + " batches.");
+        return circuit.getOutput().out();
+      }
+    }
+  }
+
+  /**
+   * Gets the compiled circuit of an application, if it has been run and could be compiled.
+   *
+   * @param application the application
+   * @return the circuit of the application, if any
+   */
+  public Optional<CompiledCircuit<?, ?, ResourcePoolT>> getCircuit(
+      CompilableApplication<?, ?, BuilderT> application) {
+    return circuits.getOrDefault(application, Optional.empty());
+  }
+
+  private <InputT, OutputT> OutputT record(
+      CompilableApplication<InputT, OutputT, BuilderT> application, List<? extends InputT> inputs,
+      ResourcePoolT resourcePool, Network network) {
+    CompiledCircuit<InputT, OutputT, ResourcePoolT> circuit =
+        new CompiledCircuit<>(inputs.size());
+    circuit.bind(inputs);
+    BuilderT builder = protocolSuite.init(resourcePool).createSequential();
+    DataDependenceTracker.start();
+    boolean dependent;
+    try {
+      circuit.setOutput(DataDependenceTracker.whileBuilding(
+          () -> application.buildComputation(builder, circuit.getInputWires())));
+      EvaluationStatistics statistics =
+          evaluator.eval(circuit.record(builder.build()), resourcePool, network);
+      circuit.setCriticalPathLength(statistics.getCriticalPathLength());
+    } finally {
+      dependent = DataDependenceTracker.stop();
+    }
+    if (dependent) {
+      logger.debug("Application " + application + " is data dependent and is not compiled");
+      circuits.put(application, Optional.empty());
+    } else {
+      circuit.seal();
+      logger.debug("Compiled application " + application + " to " + circuit.getNativeProtocols()
+          + " native protocols in " + circuit.getBatches() + " batches.");
+      circuits.put(application, Optional.of(circuit));
+    }
+    return circuit.getOutput().out();
+  }
+
+  private <InputT, OutputT> OutputT evaluate(
+      CompilableApplication<InputT, OutputT, BuilderT> application, List<? extends InputT> inputs,
+      ResourcePoolT resourcePool, Network network) {
+    BuilderT builder = protocolSuite.init(resourcePool).createSequential();
+    List<DRes<InputT>> wrapped = inputs.stream().map(DRes::<InputT>of)
+        .collect(Collectors.toList());
+    DRes<OutputT> output = application.buildComputation(builder, wrapped);
+    evaluator.eval(builder.build(), resourcePool, network);
+    return output.out();
+  }
+
+  private EvaluationStatistics replay(CompiledCircuit<?, ?, ResourcePoolT> circuit,
+      ResourcePoolT resourcePool, Network network) {
+    NetworkBatchDecorator networkBatchDecorator =
+        new NetworkBatchDecorator(resourcePool.getNoOfParties(), network);
+    ProtocolSuite.RoundSynchronization<ResourcePoolT> roundSynchronization =
+        protocolSuite.createRoundSynchronization();
+    for (List<NativeProtocol<?, ResourcePoolT>> batch : circuit.getBatchList()) {
+      ProtocolCollectionList<ResourcePoolT> protocols = new ProtocolCollectionList<>(batch.size());
+      for (NativeProtocol<?, ResourcePoolT> protocol : batch) {
+        protocols.addProtocol(protocol);
+      }
+      roundSynchronization.beforeBatch(protocols, resourcePool, network);
+      batchEvaluator.processBatch(protocols, resourcePool, networkBatchDecorator);
+      roundSynchronization.finishedBatch(batch.size(), resourcePool, network);
+    }
+    roundSynchronization.finishedEval(resourcePool, network);
+    return new EvaluationStatistics(circuit.getNativeProtocols(), circuit.getBatches(),
+        circuit.getCriticalPathLength());
+  }
+
+  /**
+   * Wraps a protocol suite such that its round synchronization is not tracked while recording. The
+   * round synchronization may build and evaluate computations of its own, e.g., a MAC check, whose
+   * values would otherwise mark the recorded application as data dependent.
+   */
+  private static final class UntrackedSynchronizationSuite<ResourcePoolT extends ResourcePool,
+      BuilderT extends ProtocolBuilder> implements ProtocolSuite<ResourcePoolT, BuilderT> {
+
+    private final ProtocolSuite<ResourcePoolT, BuilderT> delegate;
+
+    private UntrackedSynchronizationSuite(ProtocolSuite<ResourcePoolT, BuilderT> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public BuilderFactory<BuilderT> init(ResourcePoolT resourcePool) {
+      return delegate.init(resourcePool);
+    }
+
+    @Override
+    public RoundSynchronization<ResourcePoolT> createRoundSynchronization() {
+      RoundSynchronization<ResourcePoolT> roundSynchronization =
+          delegate.createRoundSynchronization();
+      return new RoundSynchronization<ResourcePoolT>() {
+        @Override
+        public void beforeBatch(ProtocolCollection<ResourcePoolT> protocols,
+            ResourcePoolT resourcePool, Network network) {
+          DataDependenceTracker.untracked(
+              () -> roundSynchronization.beforeBatch(protocols, resourcePool, network));
+        }
+
+        @Override
+        public void finishedBatch(int gatesEvaluated, ResourcePoolT resourcePool,
+            Network network) {
+          DataDependenceTracker.untracked(
+              () -> roundSynchronization.finishedBatch(gatesEvaluated, resourcePool, network));
+        }
+
+        @Override
+        public void finishedEval(ResourcePoolT resourcePool, Network network) {
+          DataDependenceTracker.untracked(
+              () -> roundSynchronization.finishedEval(resourcePool, network));
+        }
+      };
+    }
+
+    @Override
+    public boolean supportsReplay() {
+      return delegate.supportsReplay();
+    }
+  }
+}
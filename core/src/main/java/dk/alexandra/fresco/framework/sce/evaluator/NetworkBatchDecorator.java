@@ -1,10 +1,7 @@
 package dk.alexandra.fresco.framework.sce.evaluator;
 
 import dk.alexandra.fresco.framework.network.Network;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Default network for the evaluators, this interface bridges the raw network4
@@ -13,34 +10,71 @@ import java.util.Map;
  * on the network.
  * <br>
  * It is important to call flush to empty all buffers after sending and before receiving data
+ * <p>
+ * The messages sent to a party between two flushes are collected in a single message, where each
+ * message is prefixed by its length encoded as a varint, i.e., in groups of seven bits, least
+ * significant group first, with the high bit of each byte set if more bytes follow. Hence, messages
+ * shorter than 128 bytes are prefixed by a single byte holding the length. The buffers collecting
+ * the outgoing messages are kept and reused after each flush.
+ * </p>
+ * <p>
+ * A party may send a header along with its first messages of a batch, by sending it before any
+ * other message of the batch. The receiving party announces this with {@link #expectHeader(int)}
+ * before the batch, and takes the header with {@link #takeHeader()} after the batch. The header is
+ * in the first collected message received after the first flush of the batch, and is read before
+ * any other message from the sending party, or at the latest at the following flush, such that
+ * the header does not need a message of its own.
+ * </p>
  */
 public class NetworkBatchDecorator implements Network {
 
-  private int noOfParties;
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  private final int noOfParties;
   private final Network network;
-  private Map<Integer, ByteArrayOutputStream> output;
-  private Map<Integer, ByteArrayInputStream> input;
+  private final byte[][] output;
+  private final int[] outputLength;
+  private final byte[][] input;
+  private final int[] inputOffset;
+  private long bytesSent;
+  private int headerParty;
+  private boolean headerSent;
+  private byte[] header;
 
   public NetworkBatchDecorator(int noOfParties, Network network) {
     this.noOfParties = noOfParties;
     this.network = network;
-    this.output = new HashMap<>();
-    this.input = new HashMap<>();
+    this.output = new byte[noOfParties][];
+    this.outputLength = new int[noOfParties];
+    this.input = new byte[noOfParties][];
+    this.inputOffset = new int[noOfParties];
   }
 
   @Override
   public byte[] receive(int id) {
-    ByteArrayInputStream byteInputStream = input.get(id);
-    if (byteInputStream == null) {
-      byte[] partyData = network.receive(id);
-      byteInputStream = new ByteArrayInputStream(partyData);
-      input.put(id, byteInputStream);
+    if (id == headerParty && headerSent && header == null) {
+      header = receiveNext(id);
     }
+    return receiveNext(id);
+  }
 
-    int count = byteInputStream.read();
-    byte[] bytes = new byte[count];
-    byteInputStream.read(bytes, 0, count);
-    return bytes;
+  private byte[] receiveNext(int id) {
+    byte[] partyData = input[id - 1];
+    if (partyData == null) {
+      partyData = network.receive(id);
+      input[id - 1] = partyData;
+      inputOffset[id - 1] = 0;
+    }
+    int offset = inputOffset[id - 1];
+    int count = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = partyData[offset++];
+      count |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    inputOffset[id - 1] = offset + count;
+    return Arrays.copyOfRange(partyData, offset, offset + count);
   }
 
   @Override
@@ -50,14 +84,72 @@ public class NetworkBatchDecorator implements Network {
 
   @Override
   public void send(int id, byte[] data) {
-    ByteArrayOutputStream buffer = this.output
-        .computeIfAbsent(id, (i) -> new ByteArrayOutputStream());
-    if (data.length > Byte.MAX_VALUE) {
-      throw new IllegalStateException(
-          "Current implementation only supports small packages, data.length=" + data.length);
+    int length = outputLength[id - 1];
+    byte[] buffer = ensureCapacity(id - 1, length + 5 + data.length);
+    int count = data.length;
+    while ((count & ~0x7F) != 0) {
+      buffer[length++] = (byte) (count | 0x80);
+      count >>>= 7;
+    }
+    buffer[length++] = (byte) count;
+    System.arraycopy(data, 0, buffer, length, data.length);
+    outputLength[id - 1] = length + data.length;
+  }
+
+  private byte[] ensureCapacity(int index, int capacity) {
+    byte[] buffer = output[index];
+    if (buffer == null) {
+      buffer = new byte[Math.max(INITIAL_BUFFER_SIZE, capacity)];
+      output[index] = buffer;
+    } else if (buffer.length < capacity) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, capacity));
+      output[index] = buffer;
+    }
+    return buffer;
+  }
+
+  /**
+   * Gets the total number of bytes sent by this decorator, counting the length prefixes.
+   *
+   * @return the number of bytes sent
+   */
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  /**
+   * Announces that the given party sends a header along with its first messages of the next
+   * batch.
+   *
+   * @param id the id of the party sending the header
+   */
+  public void expectHeader(int id) {
+    if (headerParty != 0) {
+      throw new IllegalStateException("Already expecting a header from party " + headerParty);
     }
-    buffer.write(data.length);
-    buffer.write(data, 0, data.length);
+    headerParty = id;
+    headerSent = false;
+    header = null;
+  }
+
+  /**
+   * Takes the header announced with {@link #expectHeader(int)}, after the batch it was sent with
+   * has been evaluated.
+   *
+   * @return the header
+   */
+  public byte[] takeHeader() {
+    if (headerParty == 0 || !headerSent) {
+      throw new IllegalStateException("No header has been sent");
+    }
+    if (header == null) {
+      header = receiveNext(headerParty);
+      input[headerParty - 1] = null;
+    }
+    byte[] result = header;
+    headerParty = 0;
+    header = null;
+    return result;
   }
 
   /**
@@ -65,13 +157,20 @@ public class NetworkBatchDecorator implements Network {
    */
   public void flush() {
     for (int i = 1; i <= noOfParties; i++) {
-      if (output.containsKey(i)) {
-        ByteArrayOutputStream byteArrayOutputStream = output.get(i);
-        byte[] data = byteArrayOutputStream.toByteArray();
-        network.send(i, data);
+      if (outputLength[i - 1] > 0) {
+        network.send(i, Arrays.copyOf(output[i - 1], outputLength[i - 1]));
+        bytesSent += outputLength[i - 1];
+        outputLength[i - 1] = 0;
+      }
+    }
+    if (headerParty != 0 && header == null) {
+      if (headerSent) {
+        // no message from the sender was read since the first flush
+        header = receiveNext(headerParty);
+      } else {
+        headerSent = true;
       }
-      output.remove(i);
     }
-    input.clear();
+    Arrays.fill(input, null);
   }
 }
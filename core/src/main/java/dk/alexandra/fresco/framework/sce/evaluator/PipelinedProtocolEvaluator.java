@@ -0,0 +1,159 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import dk.alexandra.fresco.suite.ProtocolSuite.RoundSynchronization;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Protocol evaluator which pipelines the evaluation of batches. Like the
+ * {@link BatchedProtocolEvaluator} native protocols are evaluated in batches, round by round, with
+ * the communication of each round collected and sent together. However, while a batch is still
+ * being evaluated, the evaluator asks the protocol producer for a new batch of protocols that are
+ * independent of the ones being evaluated (see
+ * {@link ProtocolProducer#getNextIndependentProtocols}). The rounds of the new batch are evaluated
+ * alongside the rounds of the batches already in the pipeline, hence the network latency of one
+ * round is shared by all batches in the pipeline.
+ * <p>
+ * The round synchronization of the protocol suite is notified before and after each batch. For
+ * each batch {@link RoundSynchronization#beforeBatch} is called before any of its protocols are
+ * evaluated and {@link RoundSynchronization#finishedBatch} is called once it is done, in the same
+ * order as the batches were started. Both calls are made at a point where all messages sent in the
+ * previous round have been received and the messages of the current round have not been sent yet,
+ * so the round synchronization can use the network as usual.
+ * </p>
+ *
+ * @param <ResourcePoolT> The resource pool type to use
+ */
+public class PipelinedProtocolEvaluator<ResourcePoolT extends ResourcePool>
+    implements ProtocolEvaluator<ResourcePoolT> {
+
+  private static final Logger logger = LoggerFactory.getLogger(PipelinedProtocolEvaluator.class);
+  private static final int DEFAULT_MAX_BATCH_SIZE = 4096;
+  private static final int DEFAULT_PIPELINE_DEPTH = 2;
+
+  private final ProtocolSuite<ResourcePoolT, ?> protocolSuite;
+  private final int maxBatchSize;
+  private final int pipelineDepth;
+
+  public PipelinedProtocolEvaluator(ProtocolSuite<ResourcePoolT, ?> protocolSuite) {
+    this(protocolSuite, DEFAULT_MAX_BATCH_SIZE, DEFAULT_PIPELINE_DEPTH);
+  }
+
+  /**
+   * Creates a new pipelined evaluator.
+   *
+   * @param protocolSuite the protocol suite
+   * @param maxBatchSize the maximum number of native protocols in a batch
+   * @param pipelineDepth the maximum number of batches being evaluated at the same time. A depth of
+   *     one gives the same evaluation as the {@link BatchedProtocolEvaluator}.
+   */
+  public PipelinedProtocolEvaluator(ProtocolSuite<ResourcePoolT, ?> protocolSuite,
+      int maxBatchSize, int pipelineDepth) {
+    if (pipelineDepth < 1) {
+      throw new IllegalArgumentException("Pipeline depth must be positive, was " + pipelineDepth);
+    }
+    this.protocolSuite = Objects.requireNonNull(protocolSuite);
+    this.maxBatchSize = maxBatchSize;
+    this.pipelineDepth = pipelineDepth;
+  }
+
+  @Override
+  public EvaluationStatistics eval(ProtocolProducer protocolProducer, ResourcePoolT resourcePool,
+      Network network) {
+    NetworkBatchDecorator networkBatchDecorator =
+        new NetworkBatchDecorator(resourcePool.getNoOfParties(), network);
+    RoundSynchronization<ResourcePoolT> roundSynchronization =
+        protocolSuite.createRoundSynchronization();
+    Deque<Batch<ResourcePoolT>> pipeline = new ArrayDeque<>();
+    int totalProtocols = 0;
+    int totalBatches = 0;
+    boolean hasMoreProtocols = true;
+    while (hasMoreProtocols) {
+      for (Batch<ResourcePoolT> batch : pipeline) {
+        batch.evaluateRound(resourcePool, networkBatchDecorator);
+      }
+      finishBatches(pipeline, roundSynchronization, resourcePool, network);
+      Batch<ResourcePoolT> batch = null;
+      if (pipeline.isEmpty()) {
+        hasMoreProtocols = protocolProducer.hasNextProtocols();
+        if (hasMoreProtocols) {
+          ProtocolCollectionList<ResourcePoolT> protocols =
+              new ProtocolCollectionList<>(maxBatchSize);
+          protocolProducer.getNextProtocols(protocols);
+          batch = new Batch<>(protocols);
+        }
+      } else if (pipeline.size() < pipelineDepth) {
+        ProtocolCollectionList<ResourcePoolT> protocols =
+            new ProtocolCollectionList<>(maxBatchSize);
+        protocolProducer.getNextIndependentProtocols(protocols);
+        if (protocols.size() > 0) {
+          batch = new Batch<>(protocols);
+        }
+      }
+      if (batch != null) {
+        logger.trace("Starting batch " + totalBatches + " with " + batch.size
+            + " native protocols, " + pipeline.size() + " batches in pipeline");
+        totalProtocols += batch.size;
+        totalBatches++;
+        roundSynchronization.beforeBatch(batch.protocols, resourcePool, network);
+        batch.evaluateRound(resourcePool, networkBatchDecorator);
+        pipeline.addLast(batch);
+        finishBatches(pipeline, roundSynchronization, resourcePool, network);
+      }
+      networkBatchDecorator.flush();
+    }
+    roundSynchronization.finishedEval(resourcePool, network);
+    return new EvaluationStatistics(totalProtocols, totalBatches, protocolProducer.getDepth());
+  }
+
+  private void finishBatches(Deque<Batch<ResourcePoolT>> pipeline,
+      RoundSynchronization<ResourcePoolT> roundSynchronization, ResourcePoolT resourcePool,
+      Network network) {
+    while (!pipeline.isEmpty() && pipeline.peekFirst().isDone()) {
+      Batch<ResourcePoolT> batch = pipeline.removeFirst();
+      roundSynchronization.finishedBatch(batch.size, resourcePool, network);
+    }
+  }
+
+  /**
+   * A batch in the pipeline together with its current round.
+   */
+  private static class Batch<ResourcePoolT extends ResourcePool> {
+
+    private final ProtocolCollectionList<ResourcePoolT> protocols;
+    private final int size;
+    private int round;
+
+    private Batch(ProtocolCollectionList<ResourcePoolT> protocols) {
+      this.protocols = protocols;
+      this.size = protocols.size();
+    }
+
+    private void evaluateRound(ResourcePoolT resourcePool, Network network) {
+      Iterator<NativeProtocol<?, ResourcePoolT>> iterator = protocols.iterator();
+      while (iterator.hasNext()) {
+        NativeProtocol<?, ResourcePoolT> protocol = iterator.next();
+        EvaluationStatus status = protocol.evaluate(round, resourcePool, network);
+        if (status.equals(EvaluationStatus.IS_DONE)) {
+          iterator.remove();
+        }
+      }
+      round++;
+    }
+
+    private boolean isDone() {
+      return protocols.size() == 0;
+    }
+  }
+}
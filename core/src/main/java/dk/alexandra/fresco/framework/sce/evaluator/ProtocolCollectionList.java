@@ -11,10 +11,23 @@ public class ProtocolCollectionList<ResourcePoolT extends ResourcePool>
     implements ProtocolCollection<ResourcePoolT> {
 
   private int capacity;
+  private final boolean prioritizeCriticalPath;
   private List<NativeProtocol<?, ResourcePoolT>> protocols;
 
   public ProtocolCollectionList(int capacity) {
+    this(capacity, false);
+  }
+
+  /**
+   * Creates an empty collection.
+   *
+   * @param capacity the maximal number of protocols in the collection
+   * @param prioritizeCriticalPath whether producers should hand out protocols on the critical path
+   *     first, see {@link ProtocolCollection#prioritizeCriticalPath()}
+   */
+  public ProtocolCollectionList(int capacity, boolean prioritizeCriticalPath) {
     this.capacity = capacity;
+    this.prioritizeCriticalPath = prioritizeCriticalPath;
     this.protocols = new LinkedList<>();
   }
 
@@ -36,4 +49,9 @@ public class ProtocolCollectionList<ResourcePoolT extends ResourcePool>
   public int size() {
     return protocols.size();
   }
+
+  @Override
+  public boolean prioritizeCriticalPath() {
+    return prioritizeCriticalPath;
+  }
 }
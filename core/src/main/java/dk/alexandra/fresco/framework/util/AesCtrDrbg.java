@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.framework.util;
 
 import java.security.SecureRandom;
+import java.util.Arrays;
 import javax.crypto.Cipher;
 import javax.crypto.ShortBufferException;
 import javax.crypto.spec.IvParameterSpec;
@@ -56,22 +57,44 @@ public class AesCtrDrbg implements Drbg {
 
   @Override
   public void nextBytes(byte[] bytes) {
-    if (bytes.length <= UPDATE_LIMIT) {
-      nextBytesBounded(new byte[bytes.length], bytes);
-    } else {
-      int offset = 0;
-      byte[] temp = new byte[UPDATE_LIMIT];
-      byte[] zeroes = new byte[temp.length];
-      while (bytes.length - offset > UPDATE_LIMIT) {
-        nextBytesBounded(zeroes, temp);
-        System.arraycopy(temp, 0, bytes, offset, temp.length);
-        offset += UPDATE_LIMIT;
-      }
-      temp = new byte[bytes.length - offset];
-      zeroes = new byte[bytes.length - offset];
-      nextBytesBounded(zeroes, temp);
-      System.arraycopy(temp, 0, bytes, offset, temp.length);
+    nextBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Fills part of the given byte array with pseudo-random bytes without allocating any memory. The
+   * bytes generated are the same as the bytes generated by {@link #nextBytes(byte[])} for an array
+   * of the same length.
+   *
+   * @param bytes The byte array which will be partly overwritten with random data.
+   * @param offset The index of the first byte to overwrite
+   * @param length The number of bytes to overwrite
+   */
+  @Override
+  public void nextBytes(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > bytes.length) {
+      throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length)
+          + ") out of bounds for length " + bytes.length);
+    }
+    // In counter mode encrypting zeroes gives the key stream, so the bytes are encrypted in place
+    Arrays.fill(bytes, offset, offset + length, (byte) 0);
+    int end = offset + length;
+    while (end - offset > UPDATE_LIMIT) {
+      nextBytesInPlace(bytes, offset, UPDATE_LIMIT);
+      offset += UPDATE_LIMIT;
+    }
+    nextBytesInPlace(bytes, offset, end - offset);
+  }
+
+  private void nextBytesInPlace(byte[] bytes, int offset, int length) {
+    if (generatedBytes + length > UPDATE_LIMIT) {
+      update();
+    }
+    try {
+      this.cipher.update(bytes, offset, length, bytes, offset);
+    } catch (ShortBufferException e) {
+      throw new IllegalArgumentException("Exception generating bits", e);
     }
+    generatedBytes += length;
   }
 
   /**
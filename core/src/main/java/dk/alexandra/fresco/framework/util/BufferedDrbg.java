@@ -0,0 +1,73 @@
+package dk.alexandra.fresco.framework.util;
+
+import java.util.Objects;
+
+/**
+ * A {@link Drbg} serving requests for a few bytes from a buffer, which is filled using bulk
+ * requests to an underlying {@link Drbg}. This avoids the overhead of the underlying generator per
+ * request when sampling many small values, e.g., field elements.
+ *
+ * <p>
+ * Note that the bytes generated differ from the bytes generated by the underlying generator when
+ * used directly, so all parties expecting the same pseudo-random bytes must use the same buffer
+ * size.
+ * </p>
+ */
+public class BufferedDrbg implements Drbg {
+
+  /**
+   * The default size of the buffer in bytes.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 1 << 12;
+  private final Drbg drbg;
+  private final byte[] buffer;
+  private int position;
+
+  /**
+   * Creates a new buffered DRBG with a buffer of {@value #DEFAULT_BUFFER_SIZE} bytes.
+   *
+   * @param drbg the underlying DRBG
+   */
+  public BufferedDrbg(Drbg drbg) {
+    this(drbg, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a new buffered DRBG.
+   *
+   * @param drbg the underlying DRBG
+   * @param bufferSize the size of the buffer in bytes
+   */
+  public BufferedDrbg(Drbg drbg, int bufferSize) {
+    if (bufferSize < 1) {
+      throw new IllegalArgumentException("Buffer size must be positive, but is " + bufferSize);
+    }
+    this.drbg = Objects.requireNonNull(drbg);
+    this.buffer = new byte[bufferSize];
+    this.position = bufferSize;
+  }
+
+  @Override
+  public void nextBytes(byte[] bytes) {
+    nextBytes(bytes, 0, bytes.length);
+  }
+
+  @Override
+  public void nextBytes(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > bytes.length) {
+      throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length)
+          + ") out of bounds for length " + bytes.length);
+    }
+    while (length > 0) {
+      if (position == buffer.length) {
+        drbg.nextBytes(buffer, 0, buffer.length);
+        position = 0;
+      }
+      int copied = Math.min(length, buffer.length - position);
+      System.arraycopy(buffer, position, bytes, offset, copied);
+      position += copied;
+      offset += copied;
+      length -= copied;
+    }
+  }
+}
@@ -25,4 +25,22 @@ public interface Drbg {
    * @param bytes The byte array which will be overwritten with random data.
    */
   void nextBytes(byte[] bytes);
+
+  /**
+   * Fills part of the given byte array with deterministic pseudo-random bytes. Implementations
+   * supporting bulk generation should override this to write directly to the array.
+   *
+   * @param bytes The byte array which will be partly overwritten with random data.
+   * @param offset The index of the first byte to overwrite
+   * @param length The number of bytes to overwrite
+   */
+  default void nextBytes(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > bytes.length) {
+      throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length)
+          + ") out of bounds for length " + bytes.length);
+    }
+    byte[] temp = new byte[length];
+    nextBytes(temp);
+    System.arraycopy(temp, 0, bytes, offset, length);
+  }
 }
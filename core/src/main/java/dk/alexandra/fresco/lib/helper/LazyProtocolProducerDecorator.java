@@ -25,11 +25,33 @@ public class LazyProtocolProducerDecorator implements ProtocolProducer {
     getInnerProtocolProducer().getNextProtocols(protocolCollection);
   }
 
+  @Override
+  public <ResourcePoolT extends ResourcePool> void getNextIndependentProtocols(
+      ProtocolCollection<ResourcePoolT> protocolCollection) {
+    if (innerProtocolProducer != null) {
+      innerProtocolProducer.getNextIndependentProtocols(protocolCollection);
+    }
+  }
+
   @Override
   public boolean hasNextProtocols() {
     return getInnerProtocolProducer().hasNextProtocols();
   }
 
+  @Override
+  public int getDepth() {
+    return innerProtocolProducer == null ? 0 : innerProtocolProducer.getDepth();
+  }
+
+  @Override
+  public int estimateRemainingDepth(int limit) {
+    if (innerProtocolProducer == null) {
+      // the inner producer cannot be created before the protocols it depends on are evaluated
+      return Math.min(1, limit);
+    }
+    return innerProtocolProducer.estimateRemainingDepth(limit);
+  }
+
   ProtocolProducer getInnerProtocolProducer() {
     if (innerProtocolProducer == null) {
       innerProtocolProducer = child.get();
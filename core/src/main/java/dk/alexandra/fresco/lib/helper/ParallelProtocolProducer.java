@@ -4,6 +4,8 @@ import dk.alexandra.fresco.framework.ProtocolCollection;
 import dk.alexandra.fresco.framework.ProtocolProducer;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
@@ -13,10 +15,37 @@ import java.util.List;
  * eagerly. Given some of the producers are lazy initialized this performs best - and hence does a
  * breadth first search for more protocols. THis skews the evalueration of the protocols in favor of
  * the first, but delivers the best performance in terms of memory.
+ * <p>
+ * The sub producers are independent of each other, so sub producers that have not handed out any
+ * protocols since the last call to {@link #getNextProtocols} can be asked for more protocols
+ * through {@link #getNextIndependentProtocols} while the protocols of the others are still being
+ * evaluated.
+ * </p>
+ * <p>
+ * If the collection asks to {@link ProtocolCollection#prioritizeCriticalPath() prioritize the
+ * critical path}, the sub producers are instead asked in order of decreasing estimated remaining
+ * depth, such that the longest chains of dependent protocols are not pushed to later batches when
+ * the collection overflows. The sub producers are sorted the first time this happens, so the
+ * remaining depth of each sub producer is only estimated once. Sub producers are only removed, not
+ * added, after that, which keeps the remaining ones in order.
+ * </p>
  */
 public class ParallelProtocolProducer implements ProtocolProducer {
 
+  /**
+   * How far ahead the remaining depth of the sub producers is estimated when prioritizing the
+   * critical path.
+   */
+  static final int LOOKAHEAD = 64;
+
   private final Deque<ProtocolProducer> subProducers;
+  // The number of sub producers, counted from the head of the deque, that has been asked for
+  // protocols since the last call to getNextProtocols
+  private int touched;
+  // The maximal depth of the sub producers that are done and have been removed
+  private int completedDepth;
+  // Whether the sub producers have been sorted by their remaining depth
+  private boolean sorted;
 
   public ParallelProtocolProducer(List<ProtocolProducer> protocols) {
     subProducers = new ArrayDeque<>(protocols);
@@ -29,7 +58,7 @@ public class ParallelProtocolProducer implements ProtocolProducer {
       if (producer.hasNextProtocols()) {
         return true;
       } else {
-        iterator.remove();
+        remove(iterator, producer);
       }
     }
     return false;
@@ -38,18 +67,82 @@ public class ParallelProtocolProducer implements ProtocolProducer {
   @Override
   public <ResourcePoolT extends ResourcePool> void getNextProtocols(
       ProtocolCollection<ResourcePoolT> protocolCollection) {
+    touched = 0;
+    if (!sorted && protocolCollection.prioritizeCriticalPath()) {
+      sorted = true;
+      if (subProducers.size() > 1) {
+        sortByRemainingDepth();
+      }
+    }
     iterate(subProducers.iterator(), protocolCollection);
   }
 
+  @Override
+  public <ResourcePoolT extends ResourcePool> void getNextIndependentProtocols(
+      ProtocolCollection<ResourcePoolT> protocolCollection) {
+    Iterator<ProtocolProducer> iterator = subProducers.iterator();
+    for (int i = 0; i < touched && iterator.hasNext() && protocolCollection.hasFreeCapacity();
+        i++) {
+      iterator.next().getNextIndependentProtocols(protocolCollection);
+    }
+    if (protocolCollection.hasFreeCapacity()) {
+      iterate(iterator, protocolCollection);
+    }
+  }
+
   protected <ResourcePoolT extends ResourcePool> void iterate(
       Iterator<ProtocolProducer> iterator, ProtocolCollection<ResourcePoolT> protocolCollection) {
     while (iterator.hasNext() && protocolCollection.hasFreeCapacity()) {
       ProtocolProducer producer = iterator.next();
       if (producer.hasNextProtocols()) {
         producer.getNextProtocols(protocolCollection);
+        touched++;
       } else {
-        iterator.remove();
+        remove(iterator, producer);
       }
     }
   }
+
+  private void remove(Iterator<ProtocolProducer> iterator, ProtocolProducer producer) {
+    completedDepth = Math.max(completedDepth, producer.getDepth());
+    iterator.remove();
+  }
+
+  private void sortByRemainingDepth() {
+    List<ProtocolProducer> producers = new ArrayList<>(subProducers.size());
+    List<Integer> depths = new ArrayList<>(subProducers.size());
+    for (ProtocolProducer producer : subProducers) {
+      producers.add(producer);
+      depths.add(producer.estimateRemainingDepth(LOOKAHEAD));
+    }
+    List<Integer> order = new ArrayList<>(producers.size());
+    for (int i = 0; i < producers.size(); i++) {
+      order.add(i);
+    }
+    // the sort is stable, so producers of equal depth keep their declaration order
+    order.sort(Comparator.comparing(depths::get, Comparator.reverseOrder()));
+    subProducers.clear();
+    for (int index : order) {
+      subProducers.addLast(producers.get(index));
+    }
+  }
+
+  @Override
+  public int getDepth() {
+    int depth = completedDepth;
+    for (ProtocolProducer producer : subProducers) {
+      depth = Math.max(depth, producer.getDepth());
+    }
+    return depth;
+  }
+
+  @Override
+  public int estimateRemainingDepth(int limit) {
+    int depth = 0;
+    for (Iterator<ProtocolProducer> iterator = subProducers.iterator();
+        iterator.hasNext() && depth < limit; ) {
+      depth = Math.max(depth, iterator.next().estimateRemainingDepth(limit));
+    }
+    return depth;
+  }
 }
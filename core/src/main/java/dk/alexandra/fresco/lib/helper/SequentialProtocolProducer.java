@@ -12,6 +12,8 @@ public class SequentialProtocolProducer implements ProtocolProducer {
 
   private ProtocolProducer currentProducer;
   private final Deque<ProtocolProducer> protocolProducers;
+  // The summed depth of the producers that are done and have been removed
+  private int completedDepth;
 
   public SequentialProtocolProducer(List<ProtocolProducer> protocols) {
     protocolProducers = new ArrayDeque<>(protocols);
@@ -30,6 +32,14 @@ public class SequentialProtocolProducer implements ProtocolProducer {
     currentProducer.getNextProtocols(protocolCollection);
   }
 
+  @Override
+  public <ResourcePoolT extends ResourcePool> void getNextIndependentProtocols(
+      ProtocolCollection<ResourcePoolT> protocolCollection) {
+    if (currentProducer != null) {
+      currentProducer.getNextIndependentProtocols(protocolCollection);
+    }
+  }
+
   private ProtocolProducer inline() {
     if (protocolProducers.isEmpty()) {
       return null;
@@ -43,6 +53,7 @@ public class SequentialProtocolProducer implements ProtocolProducer {
     } else if (current instanceof SequentialProtocolProducer) {
       SequentialProtocolProducer seq = (SequentialProtocolProducer) current;
       protocolProducers.removeFirst();
+      completedDepth += seq.completedDepth;
       for (Iterator<ProtocolProducer> iterator = seq.protocolProducers.descendingIterator();
           iterator.hasNext(); ) {
         ProtocolProducer protocolProducer = iterator.next();
@@ -60,12 +71,31 @@ public class SequentialProtocolProducer implements ProtocolProducer {
       return true;
     }
     while (!protocolProducers.isEmpty() && !protocolProducers.getFirst().hasNextProtocols()) {
-      protocolProducers.removeFirst();
+      completedDepth += protocolProducers.removeFirst().getDepth();
       currentProducer = null;
     }
     return !protocolProducers.isEmpty();
   }
 
+  @Override
+  public int getDepth() {
+    int depth = completedDepth;
+    for (ProtocolProducer producer : protocolProducers) {
+      depth += producer.getDepth();
+    }
+    return depth;
+  }
+
+  @Override
+  public int estimateRemainingDepth(int limit) {
+    int depth = 0;
+    for (Iterator<ProtocolProducer> iterator = protocolProducers.iterator();
+        iterator.hasNext() && depth < limit; ) {
+      depth += iterator.next().estimateRemainingDepth(limit - depth);
+    }
+    return depth;
+  }
+
   @Override
   public String toString() {
     return "SequentialProtocolProducer{"
@@ -12,11 +12,25 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 public class SingleProtocolProducer<T> implements ProtocolProducer, DRes<T> {
 
   private NativeProtocol<T, ?> protocol;
+  private final boolean cacheResult;
   private boolean evaluated = false;
   private T result;
 
   public SingleProtocolProducer(NativeProtocol<T, ?> protocol) {
+    this(protocol, true);
+  }
+
+  /**
+   * Creates a producer for a single protocol.
+   *
+   * @param protocol the protocol
+   * @param cacheResult whether to cache the result and release the protocol once the result is
+   *     read. Must be false if the protocol is evaluated more than once, as when replaying a
+   *     {@link dk.alexandra.fresco.framework.sce.evaluator.CompiledCircuit}.
+   */
+  public SingleProtocolProducer(NativeProtocol<T, ?> protocol, boolean cacheResult) {
     this.protocol = protocol;
+    this.cacheResult = cacheResult;
   }
 
   @SuppressWarnings({"unchecked"})
@@ -32,6 +46,16 @@ public class SingleProtocolProducer<T> implements ProtocolProducer, DRes<T> {
     return !evaluated;
   }
 
+  @Override
+  public int getDepth() {
+    return evaluated ? 1 : 0;
+  }
+
+  @Override
+  public int estimateRemainingDepth(int limit) {
+    return evaluated ? 0 : Math.min(1, limit);
+  }
+
   @Override
   public String toString() {
     return "SingleProtocolProducer{"
@@ -41,6 +65,9 @@ public class SingleProtocolProducer<T> implements ProtocolProducer, DRes<T> {
 
   @Override
   public T out() {
+    if (!cacheResult) {
+      return protocol.out();
+    }
     if (result == null) {
       result = protocol.out();
       // Break chain of native protocols to ensure garbage collection
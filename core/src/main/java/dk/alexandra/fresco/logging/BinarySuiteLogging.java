@@ -51,6 +51,11 @@ public class BinarySuiteLogging<ResourcePoolT extends ResourcePool>
     };
   }
 
+  @Override
+  public boolean supportsReplay() {
+    return delegateSuite.supportsReplay();
+  }
+
   @Override
   public RoundSynchronization<ResourcePoolT> createRoundSynchronization() {
     return delegateSuite.createRoundSynchronization();
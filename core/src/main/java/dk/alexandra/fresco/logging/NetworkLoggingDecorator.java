@@ -11,6 +11,9 @@ public class NetworkLoggingDecorator implements Network, PerformanceLogger, Clos
   public static final String NETWORK_PARTY_BYTES = "Amount of bytes received pr. party";
   public static final String NETWORK_TOTAL_BYTES = "Total amount of bytes received";
   public static final String NETWORK_TOTAL_BATCHES = "Total amount of batches received";
+  public static final String NETWORK_PARTY_SENT_BYTES = "Amount of bytes sent pr. party";
+  public static final String NETWORK_TOTAL_SENT_BYTES = "Total amount of bytes sent";
+  public static final String NETWORK_TOTAL_SENT_BATCHES = "Total amount of batches sent";
 
   private Network delegate;
   private Map<Integer, PartyStats> partyStatsMap;
@@ -40,6 +43,7 @@ public class NetworkLoggingDecorator implements Network, PerformanceLogger, Clos
   @Override
   public void send(int partyId, byte[] data) {
     this.delegate.send(partyId, data);
+    partyStatsMap.computeIfAbsent(partyId, (i) -> new PartyStats()).recordSent(data.length);
   }
 
   @Override
@@ -57,11 +61,18 @@ public class NetworkLoggingDecorator implements Network, PerformanceLogger, Clos
   class PartyStats {
     private long count;
     private long noBytes;
+    private long sentCount;
+    private long sentBytes;
 
     public void recordTransmission(int noBytes) {
       this.count++;
       this.noBytes += noBytes;
     }
+
+    public void recordSent(int noBytes) {
+      this.sentCount++;
+      this.sentBytes += noBytes;
+    }
   }
 
   @Override
@@ -70,14 +81,21 @@ public class NetworkLoggingDecorator implements Network, PerformanceLogger, Clos
     
     long totalNoBytes = 0;
     long noNetworkBatches = 0;
+    long totalSentBytes = 0;
+    long noSentBatches = 0;
     for (Integer partyId : partyStatsMap.keySet()) {
       PartyStats partyStats = partyStatsMap.get(partyId);
       values.put(NETWORK_PARTY_BYTES + "_" + partyId, partyStats.noBytes);
+      values.put(NETWORK_PARTY_SENT_BYTES + "_" + partyId, partyStats.sentBytes);
       totalNoBytes += partyStats.noBytes;
       noNetworkBatches += partyStats.count;
+      totalSentBytes += partyStats.sentBytes;
+      noSentBatches += partyStats.sentCount;
     }
     values.put(NETWORK_TOTAL_BYTES, totalNoBytes);
     values.put(NETWORK_TOTAL_BATCHES, noNetworkBatches);
+    values.put(NETWORK_TOTAL_SENT_BYTES, totalSentBytes);
+    values.put(NETWORK_TOTAL_SENT_BATCHES, noSentBatches);
     return values;
   }
 
@@ -56,6 +56,11 @@ public class NumericSuiteLogging<ResourcePoolT extends NumericResourcePool>
     };
   }
 
+  @Override
+  public boolean supportsReplay() {
+    return delegateSuite.supportsReplay();
+  }
+
   @Override
   public RoundSynchronization<ResourcePoolT> createRoundSynchronization() {
     return delegateSuite.createRoundSynchronization();
@@ -6,6 +6,7 @@ import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.logging.PerformanceLogger;
 import java.math.BigInteger;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class NumericLoggingDecorator implements Numeric, PerformanceLogger {
@@ -60,6 +61,12 @@ public class NumericLoggingDecorator implements Numeric, PerformanceLogger {
     return this.delegate.mult(a, b);
   }
 
+  @Override
+  public DRes<List<DRes<SInt>>> mult(List<DRes<SInt>> a, List<DRes<SInt>> b) {
+    this.multCount += a.size();
+    return this.delegate.mult(a, b);
+  }
+
   @Override
   public DRes<SInt> mult(BigInteger a, DRes<SInt> b) {
     return this.delegate.mult(a, b);
@@ -92,6 +99,11 @@ public class NumericLoggingDecorator implements Numeric, PerformanceLogger {
     return this.delegate.open(secretShare);
   }
 
+  @Override
+  public DRes<List<DRes<BigInteger>>> open(List<DRes<SInt>> secretShares) {
+    return this.delegate.open(secretShares);
+  }
+
   @Override
   public DRes<BigInteger> open(DRes<SInt> secretShare, int outputParty) {
     return this.delegate.open(secretShare, outputParty);
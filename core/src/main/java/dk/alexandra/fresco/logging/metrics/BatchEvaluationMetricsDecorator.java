@@ -0,0 +1,47 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+
+/**
+ * Records the distribution of the size of the batches evaluated, and of the time spent evaluating
+ * them, in a {@link MetricsRegistry}. Each batch is also a {@link FlightRecorderEvents Flight
+ * Recorder event}.
+ *
+ * @param <ResourcePoolT> the type of resource pool
+ */
+public class BatchEvaluationMetricsDecorator<ResourcePoolT extends ResourcePool>
+    implements BatchEvaluationStrategy<ResourcePoolT> {
+
+  public static final String BATCH_SIZE = "evaluator.batch.size";
+  public static final String BATCH_NANOS = "evaluator.batch.nanos";
+
+  private final BatchEvaluationStrategy<ResourcePoolT> delegate;
+  private final Histogram batchSizes;
+  private final Histogram batchNanos;
+
+  /**
+   * Creates a new decorator.
+   *
+   * @param delegate the strategy evaluating the batches
+   * @param registry the registry to record in
+   */
+  public BatchEvaluationMetricsDecorator(BatchEvaluationStrategy<ResourcePoolT> delegate,
+      MetricsRegistry registry) {
+    this.delegate = delegate;
+    this.batchSizes = registry.histogram(BATCH_SIZE);
+    this.batchNanos = registry.histogram(BATCH_NANOS);
+  }
+
+  @Override
+  public void processBatch(ProtocolCollection<ResourcePoolT> protocols,
+      ResourcePoolT resourcePool, NetworkBatchDecorator network) {
+    batchSizes.record(protocols.size());
+    long then = System.nanoTime();
+    FlightRecorderEvents.recordBatch(protocols.size(),
+        () -> delegate.processBatch(protocols, resourcePool, network));
+    batchNanos.record(System.nanoTime() - then);
+  }
+}
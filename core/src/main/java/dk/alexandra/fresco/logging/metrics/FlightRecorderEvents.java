@@ -0,0 +1,136 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import java.util.function.Supplier;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emits JDK Flight Recorder events for the batches evaluated, the time blocked receiving from the
+ * network and the time stalled waiting for preprocessed data, such that these can be seen on the
+ * timeline of a recording next to garbage collections and thread activity.
+ *
+ * <p>Events are only recorded while a recording with the events enabled is running, and cost
+ * little otherwise. The <code>jdk.jfr</code> API is part of OpenJDK 8 since 8u262 and of all later
+ * versions. On runtimes without it, the actions are run without emitting events.</p>
+ */
+public final class FlightRecorderEvents {
+
+  private static final String CATEGORY = "FRESCO";
+  private static final boolean AVAILABLE = isJfrPresent();
+
+  private FlightRecorderEvents() {
+  }
+
+  /**
+   * Tells whether Flight Recorder events can be emitted on this runtime.
+   *
+   * @return true if the <code>jdk.jfr</code> API is available
+   */
+  public static boolean isAvailable() {
+    return AVAILABLE;
+  }
+
+  /**
+   * Evaluates a batch within a batch event.
+   *
+   * @param protocols the number of native protocols in the batch
+   * @param batch evaluates the batch
+   */
+  public static void recordBatch(int protocols, Runnable batch) {
+    if (!AVAILABLE) {
+      batch.run();
+      return;
+    }
+    BatchEvent event = new BatchEvent();
+    event.begin();
+    batch.run();
+    event.end();
+    if (event.shouldCommit()) {
+      event.protocols = protocols;
+      event.commit();
+    }
+  }
+
+  /**
+   * Receives from a party within a receive event.
+   *
+   * @param partyId the id of the party received from
+   * @param receive receives from the party
+   * @return the data received
+   */
+  public static byte[] recordReceive(int partyId, Supplier<byte[]> receive) {
+    if (!AVAILABLE) {
+      return receive.get();
+    }
+    ReceiveEvent event = new ReceiveEvent();
+    event.begin();
+    byte[] data = receive.get();
+    event.end();
+    if (event.shouldCommit()) {
+      event.partyId = partyId;
+      event.bytes = data.length;
+      event.commit();
+    }
+    return data;
+  }
+
+  /**
+   * Waits for preprocessed data within a stall event.
+   *
+   * @param stall waits for the data
+   */
+  public static void recordStall(Runnable stall) {
+    if (!AVAILABLE) {
+      stall.run();
+      return;
+    }
+    PreprocessingStallEvent event = new PreprocessingStallEvent();
+    event.begin();
+    stall.run();
+    event.commit();
+  }
+
+  private static boolean isJfrPresent() {
+    try {
+      Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  @Name("dk.alexandra.fresco.Batch")
+  @Label("Batch")
+  @Category(CATEGORY)
+  @Description("Evaluation of a batch of native protocols")
+  static class BatchEvent extends Event {
+
+    @Label("Protocols")
+    int protocols;
+  }
+
+  @Name("dk.alexandra.fresco.NetworkReceive")
+  @Label("Network Receive")
+  @Category(CATEGORY)
+  @Description("Time blocked receiving a message from another party")
+  static class ReceiveEvent extends Event {
+
+    @Label("Party")
+    int partyId;
+
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+  }
+
+  @Name("dk.alexandra.fresco.PreprocessingStall")
+  @Label("Preprocessing Stall")
+  @Category(CATEGORY)
+  @Description("Time waiting for preprocessed data that has not been produced yet")
+  static class PreprocessingStallEvent extends Event {
+  }
+}
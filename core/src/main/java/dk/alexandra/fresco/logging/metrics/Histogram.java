@@ -0,0 +1,154 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative long values, such as latencies in nanoseconds or sizes in bytes,
+ * with a bounded relative error and a fixed memory footprint.
+ *
+ * <p>The values are counted in log-linear buckets, as in HdrHistogram: values below 64 are counted
+ * exactly, and each range <code>[2<sup>k</sup>, 2<sup>k+1</sup>)</code> above is split into 32
+ * buckets of equal width. Percentiles are thus reported with a relative error of at most 1/32.
+ * Recording a value costs a few arithmetic operations and an atomic increment, and may be done
+ * concurrently from several threads.</p>
+ */
+public final class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int EXACT = 2 * SUB_BUCKETS;
+  private static final int BUCKETS = EXACT + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final AtomicLong count;
+  private final AtomicLong sum;
+  private final AtomicLong min;
+  private final AtomicLong max;
+
+  /**
+   * Creates an empty histogram.
+   */
+  public Histogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new AtomicLong();
+    this.sum = new AtomicLong();
+    this.min = new AtomicLong(Long.MAX_VALUE);
+    this.max = new AtomicLong(Long.MIN_VALUE);
+  }
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   *
+   * @param value the value to record
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts.incrementAndGet(bucketOf(v));
+    count.incrementAndGet();
+    sum.addAndGet(v);
+    long current;
+    while (v < (current = min.get()) && !min.compareAndSet(current, v)) {
+      // retry
+    }
+    while (v > (current = max.get()) && !max.compareAndSet(current, v)) {
+      // retry
+    }
+  }
+
+  /**
+   * Gets the number of values recorded.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Gets the sum of the values recorded.
+   */
+  public long getSum() {
+    return sum.get();
+  }
+
+  /**
+   * Gets the smallest value recorded, or 0 if no values are recorded.
+   */
+  public long getMin() {
+    return getCount() == 0 ? 0 : min.get();
+  }
+
+  /**
+   * Gets the largest value recorded, or 0 if no values are recorded.
+   */
+  public long getMax() {
+    return getCount() == 0 ? 0 : max.get();
+  }
+
+  /**
+   * Gets the mean of the values recorded, or 0 if no values are recorded.
+   */
+  public double getMean() {
+    long n = getCount();
+    return n == 0 ? 0 : (double) getSum() / n;
+  }
+
+  /**
+   * Gets the value at the given percentile, i.e., the smallest value such that the given percentage
+   * of the values recorded are at most this value, up to the precision of the histogram.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @return the value at the percentile, or 0 if no values are recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100, was "
+          + percentile);
+    }
+    long n = getCount();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.max(getMin(), Math.min(getMax(), highestValueIn(i)));
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Clears the histogram. Values recorded concurrently with clearing may be partially lost.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    min.set(Long.MAX_VALUE);
+    max.set(Long.MIN_VALUE);
+  }
+
+  static int bucketOf(long value) {
+    if (value < EXACT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+    return EXACT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long highestValueIn(int bucket) {
+    if (bucket < EXACT) {
+      return bucket;
+    }
+    int exponent = (bucket - EXACT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+    int shift = exponent - SUB_BUCKET_BITS;
+    long lowest = (long) ((bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
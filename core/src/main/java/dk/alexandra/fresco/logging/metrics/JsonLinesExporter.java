@@ -0,0 +1,102 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Exports metrics as JSON lines, i.e., one JSON object on a single line per export, such that
+ * periodic exports can be appended to a file and processed line by line. For example:
+ *
+ * <pre>
+ * {"timestamp":1514764800000,"counters":{"preprocessing.triples":1024},"partyCounters":{
+ * "network.sent.bytes":{"1":0,"2":1024}},"histograms":{
+ * "evaluator.batch.nanos":{"count":2,"min":10,"max":20,"mean":15.0,"p50":10,"p90":20,...}}}
+ * </pre>
+ *
+ * <p>(without the line breaks), where the counters kept per party are keyed by party id.</p>
+ */
+public class JsonLinesExporter implements MetricsExporter {
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  @Override
+  public void export(MetricsRegistry registry, Appendable out) throws IOException {
+    out.append("{\"timestamp\":").append(Long.toString(System.currentTimeMillis()));
+    out.append(",\"counters\":{");
+    boolean first = true;
+    for (Map.Entry<String, Long> counter : registry.getCounters().entrySet()) {
+      if (!first) {
+        out.append(',');
+      }
+      first = false;
+      appendString(out, counter.getKey());
+      out.append(':').append(Long.toString(counter.getValue()));
+    }
+    out.append("},\"partyCounters\":{");
+    first = true;
+    SortedMap<String, SortedMap<Integer, Long>> partyCounters = registry.getPartyCounters();
+    for (Map.Entry<String, SortedMap<Integer, Long>> family : partyCounters.entrySet()) {
+      if (!first) {
+        out.append(',');
+      }
+      first = false;
+      appendString(out, family.getKey());
+      out.append(":{");
+      boolean firstParty = true;
+      for (Map.Entry<Integer, Long> counter : family.getValue().entrySet()) {
+        if (!firstParty) {
+          out.append(',');
+        }
+        firstParty = false;
+        appendString(out, Integer.toString(counter.getKey()));
+        out.append(':').append(Long.toString(counter.getValue()));
+      }
+      out.append('}');
+    }
+    out.append("},\"histograms\":{");
+    first = true;
+    for (Map.Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+      if (!first) {
+        out.append(',');
+      }
+      first = false;
+      Histogram histogram = entry.getValue();
+      appendString(out, entry.getKey());
+      out.append(":{\"count\":").append(Long.toString(histogram.getCount()));
+      out.append(",\"min\":").append(Long.toString(histogram.getMin()));
+      out.append(",\"max\":").append(Long.toString(histogram.getMax()));
+      out.append(",\"mean\":").append(Double.toString(histogram.getMean()));
+      for (double percentile : PERCENTILES) {
+        out.append(",\"p").append(formatPercentile(percentile)).append("\":");
+        out.append(Long.toString(histogram.getValueAtPercentile(percentile)));
+      }
+      out.append('}');
+    }
+    out.append("}}\n");
+  }
+
+  private static String formatPercentile(double percentile) {
+    // 50 -> "50", 99.9 -> "999"
+    String formatted = Double.toString(percentile);
+    if (formatted.endsWith(".0")) {
+      formatted = formatted.substring(0, formatted.length() - 2);
+    }
+    return formatted.replace(".", "");
+  }
+
+  private static void appendString(Appendable out, String value) throws IOException {
+    out.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\').append(c);
+      } else if (c < 0x20) {
+        out.append(String.format("\\u%04x", (int) c));
+      } else {
+        out.append(c);
+      }
+    }
+    out.append('"');
+  }
+}
@@ -0,0 +1,19 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import java.io.IOException;
+
+/**
+ * Writes a snapshot of the metrics in a {@link MetricsRegistry} in some text format.
+ */
+@FunctionalInterface
+public interface MetricsExporter {
+
+  /**
+   * Writes the current values of the metrics.
+   *
+   * @param registry the registry holding the metrics
+   * @param out the destination
+   * @throws IOException if writing to the destination fails
+   */
+  void export(MetricsRegistry registry, Appendable out) throws IOException;
+}
@@ -0,0 +1,141 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import dk.alexandra.fresco.logging.PerformanceLogger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named collection of counters and {@link Histogram}s, shared by the metrics decorators of an
+ * application and exported by a {@link MetricsExporter}.
+ *
+ * <p>A counter may also be kept per party, as a family of counters sharing a name and labelled
+ * by the id of the party, such that exporters can label the values instead of encoding the party
+ * in the name.</p>
+ *
+ * <p>Counters and histograms are created on first use and may be updated concurrently. The
+ * registry is also a {@link PerformanceLogger}, logging the counters and a summary of each
+ * histogram, such that it can be used where the other loggers are.</p>
+ */
+public class MetricsRegistry implements PerformanceLogger {
+
+  private final ConcurrentMap<String, LongAdder> counters;
+  private final ConcurrentMap<String, ConcurrentMap<Integer, LongAdder>> partyCounters;
+  private final ConcurrentMap<String, Histogram> histograms;
+
+  /**
+   * Creates an empty registry.
+   */
+  public MetricsRegistry() {
+    this.counters = new ConcurrentHashMap<>();
+    this.partyCounters = new ConcurrentHashMap<>();
+    this.histograms = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Gets the counter of the given name, creating it if needed.
+   *
+   * @param name the name of the counter
+   * @return the counter
+   */
+  public LongAdder counter(String name) {
+    return counters.computeIfAbsent(name, n -> new LongAdder());
+  }
+
+  /**
+   * Gets the counter of the given name for the given party, creating it if needed.
+   *
+   * @param name the name of the counter family
+   * @param partyId the id of the party
+   * @return the counter
+   */
+  public LongAdder counter(String name, int partyId) {
+    return partyCounters.computeIfAbsent(name, n -> new ConcurrentHashMap<>())
+        .computeIfAbsent(partyId, id -> new LongAdder());
+  }
+
+  /**
+   * Gets the histogram of the given name, creating it if needed.
+   *
+   * @param name the name of the histogram
+   * @return the histogram
+   */
+  public Histogram histogram(String name) {
+    return histograms.computeIfAbsent(name, n -> new Histogram());
+  }
+
+  /**
+   * Registers a histogram maintained elsewhere, e.g., by a data supplier, under the given name.
+   *
+   * @param name the name of the histogram
+   * @param histogram the histogram
+   * @throws IllegalArgumentException if another histogram is registered under the name
+   */
+  public void register(String name, Histogram histogram) {
+    Histogram existing = histograms.putIfAbsent(name, histogram);
+    if (existing != null && existing != histogram) {
+      throw new IllegalArgumentException("A histogram named " + name + " is already registered");
+    }
+  }
+
+  /**
+   * Gets the current values of the counters, sorted by name.
+   *
+   * @return the counter values
+   */
+  public SortedMap<String, Long> getCounters() {
+    SortedMap<String, Long> values = new TreeMap<>();
+    counters.forEach((name, counter) -> values.put(name, counter.sum()));
+    return values;
+  }
+
+  /**
+   * Gets the current values of the counters kept per party, sorted by name and party id.
+   *
+   * @return the counter values of each party by name
+   */
+  public SortedMap<String, SortedMap<Integer, Long>> getPartyCounters() {
+    SortedMap<String, SortedMap<Integer, Long>> values = new TreeMap<>();
+    partyCounters.forEach((name, family) -> {
+      SortedMap<Integer, Long> familyValues = new TreeMap<>();
+      family.forEach((partyId, counter) -> familyValues.put(partyId, counter.sum()));
+      values.put(name, familyValues);
+    });
+    return values;
+  }
+
+  /**
+   * Gets the histograms, sorted by name.
+   *
+   * @return the histograms
+   */
+  public SortedMap<String, Histogram> getHistograms() {
+    return Collections.unmodifiableSortedMap(new TreeMap<>(histograms));
+  }
+
+  @Override
+  public void reset() {
+    counters.values().forEach(LongAdder::reset);
+    partyCounters.values().forEach(family -> family.values().forEach(LongAdder::reset));
+    histograms.values().forEach(Histogram::reset);
+  }
+
+  @Override
+  public Map<String, Long> getLoggedValues() {
+    Map<String, Long> values = new HashMap<>(getCounters());
+    getPartyCounters().forEach((name, family) -> family.forEach(
+        (partyId, value) -> values.put(name + " party " + partyId, value)));
+    histograms.forEach((name, histogram) -> {
+      values.put(name + " count", histogram.getCount());
+      values.put(name + " max", histogram.getMax());
+      values.put(name + " p50", histogram.getValueAtPercentile(50));
+      values.put(name + " p99", histogram.getValueAtPercentile(99));
+    });
+    return values;
+  }
+}
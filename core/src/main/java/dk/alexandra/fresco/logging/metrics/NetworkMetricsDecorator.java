@@ -0,0 +1,69 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import dk.alexandra.fresco.framework.network.Network;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the bytes sent to and received from each party, and the distribution of the time spent
+ * waiting to receive, in a {@link MetricsRegistry}. Each receive is also a {@link
+ * FlightRecorderEvents Flight Recorder event}.
+ */
+public class NetworkMetricsDecorator implements Network, Closeable {
+
+  public static final String SENT_BYTES = "network.sent.bytes";
+  public static final String RECEIVED_BYTES = "network.received.bytes";
+  public static final String RECEIVE_NANOS = "network.receive.nanos";
+
+  private final Network delegate;
+  private final LongAdder[] sentBytes;
+  private final LongAdder[] receivedBytes;
+  private final Histogram receiveNanos;
+
+  /**
+   * Creates a new decorator. The bytes of each party are counted by the counters named {@link
+   * #SENT_BYTES} and {@link #RECEIVED_BYTES} kept per party.
+   *
+   * @param delegate the network to decorate
+   * @param registry the registry to record in
+   */
+  public NetworkMetricsDecorator(Network delegate, MetricsRegistry registry) {
+    this.delegate = delegate;
+    int noOfParties = delegate.getNoOfParties();
+    this.sentBytes = new LongAdder[noOfParties];
+    this.receivedBytes = new LongAdder[noOfParties];
+    for (int i = 0; i < noOfParties; i++) {
+      sentBytes[i] = registry.counter(SENT_BYTES, i + 1);
+      receivedBytes[i] = registry.counter(RECEIVED_BYTES, i + 1);
+    }
+    this.receiveNanos = registry.histogram(RECEIVE_NANOS);
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    delegate.send(partyId, data);
+    sentBytes[partyId - 1].add(data.length);
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    long then = System.nanoTime();
+    byte[] data = FlightRecorderEvents.recordReceive(partyId, () -> delegate.receive(partyId));
+    receiveNanos.record(System.nanoTime() - then);
+    receivedBytes[partyId - 1].add(data.length);
+    return data;
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return delegate.getNoOfParties();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (delegate instanceof Closeable) {
+      ((Closeable) delegate).close();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Exports metrics in the Prometheus text exposition format. Counters are exported as counters and
+ * histograms as summaries with a fixed set of quantiles. Counters kept per party are exported as
+ * a single counter with a <code>party</code> label. Metric names are prefixed with
+ * <code>fresco_</code>, and characters not allowed in Prometheus names are replaced by
+ * underscores.
+ */
+public class PrometheusExporter implements MetricsExporter {
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+  private static final String PREFIX = "fresco_";
+
+  @Override
+  public void export(MetricsRegistry registry, Appendable out) throws IOException {
+    for (Map.Entry<String, Long> counter : registry.getCounters().entrySet()) {
+      String name = sanitize(counter.getKey()) + "_total";
+      out.append("# TYPE ").append(name).append(" counter\n");
+      out.append(name).append(' ').append(Long.toString(counter.getValue())).append('\n');
+    }
+    SortedMap<String, SortedMap<Integer, Long>> partyCounters = registry.getPartyCounters();
+    for (Map.Entry<String, SortedMap<Integer, Long>> family : partyCounters.entrySet()) {
+      String name = sanitize(family.getKey()) + "_total";
+      out.append("# TYPE ").append(name).append(" counter\n");
+      for (Map.Entry<Integer, Long> counter : family.getValue().entrySet()) {
+        out.append(name).append("{party=\"").append(Integer.toString(counter.getKey()))
+            .append("\"} ").append(Long.toString(counter.getValue())).append('\n');
+      }
+    }
+    for (Map.Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+      String name = sanitize(entry.getKey());
+      Histogram histogram = entry.getValue();
+      out.append("# TYPE ").append(name).append(" summary\n");
+      for (double percentile : PERCENTILES) {
+        out.append(name).append("{quantile=\"").append(formatQuantile(percentile))
+            .append("\"} ").append(Long.toString(histogram.getValueAtPercentile(percentile)))
+            .append('\n');
+      }
+      out.append(name).append("_sum ").append(Long.toString(histogram.getSum())).append('\n');
+      out.append(name).append("_count ").append(Long.toString(histogram.getCount()))
+          .append('\n');
+    }
+  }
+
+  private static String formatQuantile(double percentile) {
+    // 99.9 -> "0.999" without the rounding error of 99.9 / 100
+    return BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString();
+  }
+
+  static String sanitize(String name) {
+    StringBuilder builder = new StringBuilder(PREFIX);
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+          || (c >= '0' && c <= '9') || c == '_' || c == ':';
+      builder.append(allowed ? c : '_');
+    }
+    return builder.toString();
+  }
+}
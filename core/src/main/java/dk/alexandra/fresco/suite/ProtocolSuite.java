@@ -27,6 +27,18 @@ public interface ProtocolSuite<ResourcePoolT extends ResourcePool,
    */
   RoundSynchronization<ResourcePoolT> createRoundSynchronization();
 
+  /**
+   * Tells whether the native protocols of this suite may be evaluated more than once, as when
+   * replaying a {@link dk.alexandra.fresco.framework.sce.evaluator.CompiledCircuit}. This requires
+   * that each evaluation takes fresh preprocessed material, and that no material is bound to a
+   * protocol when it is created.
+   *
+   * @return true if native protocols may be evaluated more than once, false by default
+   */
+  default boolean supportsReplay() {
+    return false;
+  }
+
   interface RoundSynchronization<ResourcePoolT extends ResourcePool> {
 
     /**
@@ -47,6 +59,9 @@ public interface ProtocolSuite<ResourcePoolT extends ResourcePool,
      * is that all threads are done executing. This means that no network connections are busy any
      * more as all gates up until now has been evaluated.
      *
+     * <p>This is called once for each call to {@link #beforeBatch}, in the same order. Evaluators
+     * that pipeline batches may start new batches before this is called for earlier batches.
+     *
      * @param gatesEvaluated Indicates how many gates was evaluated since last call to
      *     synchronize.
      *     It is therefore _not_ indicative of a total amount.
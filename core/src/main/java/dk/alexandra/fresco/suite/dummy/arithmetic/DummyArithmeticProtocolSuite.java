@@ -35,6 +35,11 @@ public class DummyArithmeticProtocolSuite
     return new DummyArithmeticBuilderFactory(basicNumericContext);
   }
 
+  @Override
+  public boolean supportsReplay() {
+    return true;
+  }
+
   @Override
   public RoundSynchronization<DummyArithmeticResourcePool> createRoundSynchronization() {
     return new RoundSynchronization<DummyArithmeticResourcePool>() {
@@ -36,8 +36,7 @@ public class DummyBooleanBuilderFactory implements BuilderFactoryBinary {
       @Override
       public DRes<SBool> input(boolean value, int inputParty) {
         DummyBooleanCloseProtocol c = new DummyBooleanCloseProtocol(inputParty, () -> value);
-        builder.append(c);
-        return c;
+        return builder.append(c);
       }
 
       @Override
@@ -58,43 +57,37 @@ public class DummyBooleanBuilderFactory implements BuilderFactoryBinary {
             return bit;
           }
         };
-        builder.append(c);
-        return c;
+        return builder.append(c);
       }
 
       @Override
       public DRes<Boolean> open(DRes<SBool> secretShare) {
         DummyBooleanOpenProtocol c = new DummyBooleanOpenProtocol(secretShare);
-        builder.append(c);
-        return c;
+        return builder.append(c);
       }
 
       @Override
       public DRes<Boolean> open(DRes<SBool> secretShare, int outputParty) {
         DummyBooleanOpenProtocol c = new DummyBooleanOpenProtocol(secretShare, outputParty);
-        builder.append(c);
-        return c;
+        return builder.append(c);
       }
 
       @Override
       public DRes<SBool> and(DRes<SBool> a, DRes<SBool> b) {
         DummyBooleanAndProtocol c = new DummyBooleanAndProtocol(a, b);
-        builder.append(c);
-        return c;
+        return builder.append(c);
       }
 
       @Override
       public DRes<SBool> xor(DRes<SBool> a, DRes<SBool> b) {
         DummyBooleanXorProtocol c = new DummyBooleanXorProtocol(a, b);
-        builder.append(c);
-        return c;
+        return builder.append(c);
       }
 
       @Override
       public DRes<SBool> not(DRes<SBool> a) {
         DummyBooleanNotProtocol c = new DummyBooleanNotProtocol(a);
-        builder.append(c);
-        return c;
+        return builder.append(c);
       }
     };
   }
@@ -13,6 +13,11 @@ import dk.alexandra.fresco.suite.ProtocolSuiteBinary;
 public class DummyBooleanProtocolSuite
     implements ProtocolSuiteBinary<ResourcePoolImpl> {
 
+  @Override
+  public boolean supportsReplay() {
+    return true;
+  }
+
   @Override
   public RoundSynchronization<ResourcePoolImpl> createRoundSynchronization() {
     return new DummyRoundSynchronization<>();
@@ -1,8 +1,10 @@
 package dk.alexandra.fresco.framework.builder.numeric;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Test;
 
@@ -29,6 +31,12 @@ public class TestAddable {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void testPairWiseSumNoRows() {
+    List<MockAddable> actual = Addable.sumRows(Collections.<List<MockAddable>>emptyList());
+    assertTrue(actual.isEmpty());
+  }
+
   private class MockAddable implements Addable<MockAddable> {
     int value;
 
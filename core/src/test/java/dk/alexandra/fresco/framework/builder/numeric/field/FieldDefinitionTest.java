@@ -43,14 +43,17 @@ public final class FieldDefinitionTest {
       BiConsumer<FieldDefinition, Function<FieldElement, BigInteger>> test) {
     test.accept(new BigIntegerFieldDefinition(modulusValue), FieldElement::toBigInteger);
     test.accept(new MersennePrimeFieldDefinition(bitLength, constant), FieldElement::toBigInteger);
+    test.accept(new MersennePrimeLongFieldDefinition(bitLength, constant),
+        FieldElement::toBigInteger);
   }
 
   /**
-   * Runs the test on two field definitions, simple and mersenne
+   * Runs the test on three field definitions, simple, mersenne and mersenne on limbs
    */
   private void testDefinition(Consumer<FieldDefinition> test) {
     test.accept(new BigIntegerFieldDefinition(modulusValue));
     test.accept(new MersennePrimeFieldDefinition(bitLength, constant));
+    test.accept(new MersennePrimeLongFieldDefinition(bitLength, constant));
   }
 
   private List<BigInteger> toBigIntegers(List<FieldElement> elements,
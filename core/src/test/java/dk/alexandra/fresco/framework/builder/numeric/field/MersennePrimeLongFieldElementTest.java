@@ -0,0 +1,191 @@
+package dk.alexandra.fresco.framework.builder.numeric.field;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.StringContains;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MersennePrimeLongFieldElementTest {
+
+  private static final int[][] moduli = {
+      {7, 15}, {8, 5}, {16, 17}, {32, 5}, {61, 1}, {64, 59}, {127, 1}, {128, 173}, {255, 19},
+      {256, 587}, {384, 317}, {512, 569}
+  };
+  private MersennePrimeLongModulus modulus;
+  private MersennePrimeLongModulus bigModulus;
+  private Random random;
+
+  @Before
+  public void setUp() {
+    //prime=113
+    modulus = new MersennePrimeLongModulus(7, 15);
+    //prime=340282366920938463463374607431768211283
+    bigModulus = new MersennePrimeLongModulus(128, 173);
+    random = new Random(42);
+  }
+
+  @Test
+  public void creators() {
+    testCreation(27, 27, modulus);
+    testCreation(27 + 113, 27, modulus);
+    testCreation(27 - 113, 27, modulus);
+    testCreation(-1, 113 - 1, modulus);
+    testCreation(0, 0, modulus);
+  }
+
+  private void testCreation(int value, int expected, MersennePrimeLongModulus modulus) {
+    FieldElement element1 = MersennePrimeLongFieldElement.create(value, modulus);
+    FieldElement element2 = MersennePrimeLongFieldElement.create("" + value, modulus);
+    FieldElement element3 =
+        MersennePrimeLongFieldElement.create(BigInteger.valueOf(value), modulus);
+    assertThat(element1.toBigInteger(), Is.is(BigInteger.valueOf(expected)));
+    assertThat(element2.toBigInteger(), Is.is(BigInteger.valueOf(expected)));
+    assertThat(element3.toBigInteger(), Is.is(BigInteger.valueOf(expected)));
+  }
+
+  @Test
+  public void arithmeticMatchesBigInteger() {
+    for (int[] parameters : moduli) {
+      MersennePrimeLongModulus modulus =
+          new MersennePrimeLongModulus(parameters[0], parameters[1]);
+      BigInteger prime = modulus.getPrime();
+      List<BigInteger> values = edgeValues(prime);
+      for (int i = 0; i < 200; i++) {
+        values.add(new BigInteger(prime.bitLength(), random).mod(prime));
+      }
+      for (BigInteger left : values) {
+        FieldElement a = MersennePrimeLongFieldElement.create(left, modulus);
+        assertThat(a.negate().toBigInteger(), Is.is(left.negate().mod(prime)));
+        for (int i = 0; i < 10; i++) {
+          BigInteger right = values.get(random.nextInt(values.size()));
+          FieldElement b = MersennePrimeLongFieldElement.create(right, modulus);
+          assertThat(a.add(b).toBigInteger(), Is.is(left.add(right).mod(prime)));
+          assertThat(a.subtract(b).toBigInteger(), Is.is(left.subtract(right).mod(prime)));
+          assertThat(a.multiply(b).toBigInteger(), Is.is(left.multiply(right).mod(prime)));
+        }
+      }
+    }
+  }
+
+  private List<BigInteger> edgeValues(BigInteger prime) {
+    BigInteger one = BigInteger.ONE;
+    return new ArrayList<>(Arrays.asList(BigInteger.ZERO, one, BigInteger.valueOf(2),
+        prime.subtract(one), prime.subtract(BigInteger.valueOf(2)), prime.shiftRight(1),
+        prime.shiftRight(1).add(one)));
+  }
+
+  @Test
+  public void mixedOperands() {
+    MersennePrimeFieldDefinition definition = MersennePrimeFieldDefinition.find(128);
+    FieldElement other = definition.createElement(-5);
+    FieldElement element = MersennePrimeLongFieldElement.create(7, bigModulus);
+    BigInteger prime = bigModulus.getPrime();
+    assertThat(element.add(other).toBigInteger(), Is.is(BigInteger.valueOf(2)));
+    assertThat(element.subtract(other).toBigInteger(), Is.is(BigInteger.valueOf(12)));
+    assertThat(element.multiply(other).toBigInteger(),
+        Is.is(prime.subtract(BigInteger.valueOf(35))));
+  }
+
+  @Test
+  public void serializationCompatible() {
+    for (int bitLength : new int[]{8, 16, 32, 64, 128, 256, 384, 512}) {
+      MersennePrimeFieldDefinition reference = MersennePrimeFieldDefinition.find(bitLength);
+      MersennePrimeLongFieldDefinition definition = MersennePrimeLongFieldDefinition.find(bitLength);
+      BigInteger prime = definition.getModulus();
+      assertThat(prime, Is.is(reference.getModulus()));
+      List<FieldElement> elements = new ArrayList<>();
+      List<FieldElement> referenceElements = new ArrayList<>();
+      for (BigInteger value : edgeValues(prime)) {
+        elements.add(definition.createElement(value));
+        referenceElements.add(reference.createElement(value));
+      }
+      for (int i = 0; i < 20; i++) {
+        BigInteger value = new BigInteger(bitLength, random).mod(prime);
+        elements.add(definition.createElement(value));
+        referenceElements.add(reference.createElement(value));
+      }
+      for (int i = 0; i < elements.size(); i++) {
+        byte[] bytes = definition.serialize(elements.get(i));
+        assertArrayEquals(reference.serialize(referenceElements.get(i)), bytes);
+        assertThat(definition.deserialize(bytes).toBigInteger(),
+            Is.is(elements.get(i).toBigInteger()));
+      }
+      byte[] bytes = definition.serialize(elements);
+      assertArrayEquals(reference.serialize(referenceElements), bytes);
+      List<FieldElement> deserialized = definition.deserializeList(bytes);
+      assertThat(deserialized.size(), Is.is(elements.size()));
+      for (int i = 0; i < elements.size(); i++) {
+        assertThat(deserialized.get(i).toBigInteger(), Is.is(elements.get(i).toBigInteger()));
+      }
+    }
+  }
+
+  @Test
+  public void deserializeReducesValue() {
+    MersennePrimeLongFieldDefinition definition = MersennePrimeLongFieldDefinition.find(8);
+    FieldElement element = definition.deserialize(new byte[]{(byte) 0xFF});
+    assertThat(element.toBigInteger(), Is.is(BigInteger.valueOf(255 - 251)));
+  }
+
+  @Test
+  public void multiplyHighUnsigned() {
+    for (int i = 0; i < 1000; i++) {
+      long x = random.nextLong();
+      long y = random.nextLong();
+      BigInteger product = new BigInteger(Long.toUnsignedString(x))
+          .multiply(new BigInteger(Long.toUnsignedString(y)));
+      assertThat(MersennePrimeLongModulus.multiplyHighUnsigned(x, y),
+          Is.is(product.shiftRight(64).longValue()));
+    }
+  }
+
+  @Test
+  public void sqrt() {
+    FieldElement element = MersennePrimeLongFieldElement.create(2, modulus);
+    assertThat(element.sqrt().toBigInteger(), Is.is(BigInteger.valueOf(62)));
+
+    element = MersennePrimeLongFieldElement
+        .create("180740608519057052622341767564917758093", bigModulus);
+    BigInteger expected = element.toBigInteger();
+    BigInteger value = element.sqrt().toBigInteger();
+    assertThat(value.pow(2).mod(bigModulus.getPrime()), Is.is(expected));
+  }
+
+  @Test
+  public void modInverse() {
+    for (int bitLength : new int[]{8, 16, 32, 64, 128, 256, 384, 512}) {
+      MersennePrimeLongFieldDefinition definition = MersennePrimeLongFieldDefinition.find(bitLength);
+      for (int value : new int[]{-123, -12, -1, 1, 12, 123, 1234, 12345, 123456, 1234567}) {
+        BigInteger expected = BigInteger.valueOf(value).modInverse(definition.getModulus());
+        assertThat(definition.createElement(value).modInverse().toBigInteger(), Is.is(expected));
+      }
+    }
+  }
+
+  @Test
+  public void toStringTest() {
+    FieldElement element = MersennePrimeLongFieldElement.create(BigInteger.valueOf(7854),
+        bigModulus);
+    assertThat(element.toString(), StringContains.containsString("7854"));
+  }
+
+  @Test
+  public void testIsZero() {
+    assertTrue(MersennePrimeLongFieldElement.create(BigInteger.valueOf(0), bigModulus).isZero());
+    assertTrue(MersennePrimeLongFieldElement.create(bigModulus.getPrime(), bigModulus).isZero());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownBitLength() {
+    MersennePrimeLongFieldDefinition.find(7);
+  }
+}
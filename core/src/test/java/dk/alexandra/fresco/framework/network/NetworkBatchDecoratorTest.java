@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.framework.network;
 
 import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -65,25 +66,81 @@ public class NetworkBatchDecoratorTest {
     Assert.assertArrayEquals(new byte[]{1, 123}, transmissions.get(3));
   }
 
-  @Test(expected = RuntimeException.class)
-  public void errorOnBigPackets() throws Exception {
-    networkBatchDecorator.sendToAll(
-        new byte[]{
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-            123, 123, 123, 123, 123, 123, 123, 123, 123, 123,
-        });
+  @Test
+  public void sendBigPackets() throws Exception {
+    byte[] big = new byte[300];
+    Arrays.fill(big, (byte) 123);
+    networkBatchDecorator.send(1, big);
+    networkBatchDecorator.flush();
+    byte[] sent = transmissions.get(1);
+    Assert.assertEquals(big.length + 2, sent.length);
+    Assert.assertEquals((byte) 0xAC, sent[0]);
+    Assert.assertEquals((byte) 0x02, sent[1]);
+    Assert.assertArrayEquals(big, networkBatchDecorator.receive(1));
+  }
+
+  @Test
+  public void sendAndReceiveMixedSizes() throws Exception {
+    int[] sizes = {0, 1, 127, 128, 16383, 16384, 100000, 5};
+    for (int size : sizes) {
+      byte[] data = new byte[size];
+      Arrays.fill(data, (byte) size);
+      networkBatchDecorator.send(2, data);
+    }
+    networkBatchDecorator.flush();
+    for (int size : sizes) {
+      byte[] expected = new byte[size];
+      Arrays.fill(expected, (byte) size);
+      Assert.assertArrayEquals(expected, networkBatchDecorator.receive(2));
+    }
+  }
+
+  @Test
+  public void buffersReusedAfterFlush() throws Exception {
+    networkBatchDecorator.send(1, new byte[]{1, 2});
+    networkBatchDecorator.flush();
+    byte[] first = transmissions.get(1);
+    networkBatchDecorator.send(1, new byte[]{3});
+    networkBatchDecorator.flush();
+    Assert.assertArrayEquals(new byte[]{2, 1, 2}, first);
+    Assert.assertArrayEquals(new byte[]{1, 3}, transmissions.get(1));
+  }
+
+  @Test
+  public void headerReadBeforeOtherMessages() throws Exception {
+    networkBatchDecorator.expectHeader(1);
+    networkBatchDecorator.flush();
+    transmissions.put(1, new byte[]{1, 7, 2, 2, 23});
+    Assert.assertArrayEquals(new byte[]{2, 23}, networkBatchDecorator.receive(1));
+    networkBatchDecorator.flush();
+    Assert.assertArrayEquals(new byte[]{7}, networkBatchDecorator.takeHeader());
+  }
+
+  @Test
+  public void headerReadAtFlush() throws Exception {
+    networkBatchDecorator.expectHeader(1);
+    networkBatchDecorator.flush();
+    transmissions.put(1, new byte[]{1, 7});
+    networkBatchDecorator.flush();
+    transmissions.put(1, new byte[]{1, 8});
+    Assert.assertArrayEquals(new byte[]{7}, networkBatchDecorator.takeHeader());
+    Assert.assertArrayEquals(new byte[]{8}, networkBatchDecorator.receive(1));
+  }
+
+  @Test
+  public void headerReadAfterSingleFlush() throws Exception {
+    networkBatchDecorator.expectHeader(1);
+    networkBatchDecorator.flush();
+    transmissions.put(1, new byte[]{1, 7});
+    Assert.assertArrayEquals(new byte[]{7}, networkBatchDecorator.takeHeader());
+    transmissions.put(1, new byte[]{1, 8});
+    Assert.assertArrayEquals(new byte[]{8}, networkBatchDecorator.receive(1));
+  }
 
+  @Test(expected = IllegalStateException.class)
+  public void headerNotSent() throws Exception {
+    networkBatchDecorator.expectHeader(1);
+    networkBatchDecorator.takeHeader();
   }
 
   private class DummyNetwork implements Network {
@@ -0,0 +1,137 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import static dk.alexandra.fresco.framework.network.socket.Connector.DEFAULT_CONNECTION_TIMEOUT;
+import static org.junit.Assert.assertArrayEquals;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.AbstractCloseableNetworkTest;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import java.io.IOException;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class TestNioNetwork extends AbstractCloseableNetworkTest {
+
+  @Override
+  protected CloseableNetwork newCloseableNetwork(NetworkConfiguration conf) {
+    return newCloseableNetwork(conf, DEFAULT_CONNECTION_TIMEOUT);
+  }
+
+  @Override
+  protected CloseableNetwork newCloseableNetwork(NetworkConfiguration conf, Duration timeout) {
+    return new NioNetwork(conf, timeout);
+  }
+
+  private List<Future<NetworkConnector>> connect(List<NetworkConfiguration> confs,
+      ExecutorService es, boolean channels) {
+    List<Future<NetworkConnector>> fs = new ArrayList<>(confs.size());
+    for (NetworkConfiguration conf : confs) {
+      if (channels) {
+        fs.add(es.submit(() -> new Connector(conf, DEFAULT_CONNECTION_TIMEOUT,
+            new ChannelSocketFactory(), new ChannelServerSocketFactory())));
+      } else {
+        fs.add(es.submit(() -> new Connector(conf, DEFAULT_CONNECTION_TIMEOUT)));
+      }
+    }
+    return fs;
+  }
+
+  private void closeSockets(List<Future<NetworkConnector>> fs)
+      throws InterruptedException, ExecutionException {
+    for (Future<NetworkConnector> futureConn : fs) {
+      for (Socket s : futureConn.get().getSocketMap().values()) {
+        try {
+          s.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingParty() throws InterruptedException, ExecutionException {
+    final int numParties = 3;
+    List<NetworkConfiguration> confs = getNetConfs(numParties);
+    ExecutorService es = Executors.newFixedThreadPool(numParties);
+    List<Future<NetworkConnector>> fs = connect(confs, es, true);
+    try {
+      Map<Integer, Socket> missingPartyMap = fs.get(0).get().getSocketMap();
+      missingPartyMap.remove(2);
+      new NioNetwork(confs.get(0), missingPartyMap);
+    } finally {
+      closeSockets(fs);
+      es.shutdownNow();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIdOutOfRange() throws InterruptedException, ExecutionException {
+    final int numParties = 3;
+    List<NetworkConfiguration> confs = getNetConfs(numParties);
+    ExecutorService es = Executors.newFixedThreadPool(numParties);
+    List<Future<NetworkConnector>> fs = connect(confs, es, true);
+    try {
+      Map<Integer, Socket> extraPartyMap = fs.get(0).get().getSocketMap();
+      extraPartyMap.put(numParties + 1, extraPartyMap.get(numParties));
+      new NioNetwork(confs.get(0), extraPartyMap);
+    } finally {
+      closeSockets(fs);
+      es.shutdownNow();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSocketWithoutChannel() throws InterruptedException, ExecutionException {
+    final int numParties = 2;
+    List<NetworkConfiguration> confs = getNetConfs(numParties);
+    ExecutorService es = Executors.newFixedThreadPool(numParties);
+    List<Future<NetworkConnector>> fs = connect(confs, es, false);
+    try {
+      new NioNetwork(confs.get(0), fs.get(0).get().getSocketMap());
+    } finally {
+      closeSockets(fs);
+      es.shutdownNow();
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testReceiveFromStoppedParty() throws Exception {
+    networks = createNetworks(2);
+    networks.get(2).close();
+    networks.get(1).receive(2);
+  }
+
+  @Test
+  public void testCompatibleWithSocketNetwork() throws Exception {
+    final int numParties = 2;
+    List<NetworkConfiguration> confs = getNetConfs(numParties);
+    ExecutorService es = Executors.newFixedThreadPool(numParties);
+    List<Future<NetworkConnector>> fs = connect(confs, es, true);
+    try (CloseableNetwork nio = new NioNetwork(confs.get(0), fs.get(0).get().getSocketMap());
+        CloseableNetwork socket =
+            new SocketNetwork(confs.get(1), fs.get(1).get().getSocketMap())) {
+      byte[] small = new byte[] {0x01, 0x02};
+      byte[] large = new byte[1 << 20];
+      large[large.length - 1] = 0x03;
+      nio.send(2, small);
+      nio.send(2, large);
+      socket.send(1, large);
+      socket.send(1, small);
+      assertArrayEquals(small, socket.receive(1));
+      assertArrayEquals(large, socket.receive(1));
+      assertArrayEquals(large, nio.receive(2));
+      assertArrayEquals(small, nio.receive(2));
+    } finally {
+      es.shutdownNow();
+    }
+  }
+}
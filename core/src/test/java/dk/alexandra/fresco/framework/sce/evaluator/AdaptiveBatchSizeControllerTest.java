@@ -0,0 +1,203 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolEvaluator.EvaluationStatistics;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import dk.alexandra.fresco.lib.helper.ParallelProtocolProducer;
+import dk.alexandra.fresco.lib.helper.SingleProtocolProducer;
+import dk.alexandra.fresco.suite.dummy.bool.DummyBooleanProtocolSuite;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class AdaptiveBatchSizeControllerTest {
+
+  private static final long BUDGET = 1000;
+
+  @Test
+  public void testIncreaseUntilMax() {
+    AdaptiveBatchSizeController controller =
+        new AdaptiveBatchSizeController(10, 35, 10, 10, BUDGET);
+    controller.batchEvaluated(10, 1000, 0);
+    assertEquals(20, controller.getBatchSize());
+    controller.batchEvaluated(20, 1000, 0);
+    assertEquals(30, controller.getBatchSize());
+    controller.batchEvaluated(30, 1000, 0);
+    assertEquals(35, controller.getBatchSize());
+    controller.batchEvaluated(35, 1000, 0);
+    assertEquals(35, controller.getBatchSize());
+    Map<String, Long> values = controller.getLoggedValues();
+    assertEquals(35L, values.get(AdaptiveBatchSizeController.BATCH_SIZE).longValue());
+    assertEquals(3L, values.get(AdaptiveBatchSizeController.BATCH_SIZE_INCREASES).longValue());
+    assertEquals(0L, values.get(AdaptiveBatchSizeController.BATCH_SIZE_DECREASES).longValue());
+    assertEquals(4L, values.get(AdaptiveBatchSizeController.BATCHES_MEASURED).longValue());
+  }
+
+  @Test
+  public void testIgnoreBatchesNotFull() {
+    AdaptiveBatchSizeController controller =
+        new AdaptiveBatchSizeController(10, 100, 20, 10, BUDGET);
+    controller.batchEvaluated(19, 1000, 2 * BUDGET);
+    assertEquals(20, controller.getBatchSize());
+    assertEquals(0L,
+        controller.getLoggedValues().get(AdaptiveBatchSizeController.BATCHES_MEASURED)
+            .longValue());
+  }
+
+  @Test
+  public void testDecreaseOnByteBudget() {
+    AdaptiveBatchSizeController controller =
+        new AdaptiveBatchSizeController(10, 100, 50, 10, BUDGET);
+    controller.batchEvaluated(50, 1000, BUDGET + 1);
+    assertEquals(25, controller.getBatchSize());
+    controller.batchEvaluated(25, 500, BUDGET + 1);
+    assertEquals(12, controller.getBatchSize());
+    controller.batchEvaluated(12, 240, BUDGET + 1);
+    assertEquals(10, controller.getBatchSize());
+    controller.batchEvaluated(10, 200, BUDGET + 1);
+    assertEquals(10, controller.getBatchSize());
+    assertEquals(3L,
+        controller.getLoggedValues().get(AdaptiveBatchSizeController.BATCH_SIZE_DECREASES)
+            .longValue());
+  }
+
+  @Test
+  public void testDecreaseOnSlowdown() {
+    AdaptiveBatchSizeController controller =
+        new AdaptiveBatchSizeController(10, 100, 40, 10, BUDGET);
+    // time per protocol drops as the batch grows, as on a high latency network
+    controller.batchEvaluated(40, 4000, 0);
+    assertEquals(50, controller.getBatchSize());
+    controller.batchEvaluated(50, 4000, 0);
+    assertEquals(60, controller.getBatchSize());
+    // time per protocol grows by more than the tolerance
+    controller.batchEvaluated(60, 4000 * 60 / 50 * 2, 0);
+    assertEquals(30, controller.getBatchSize());
+  }
+
+  @Test
+  public void testReset() {
+    AdaptiveBatchSizeController controller = new AdaptiveBatchSizeController(10, 100);
+    controller.batchEvaluated(10, 1000, 0);
+    controller.reset();
+    Map<String, Long> values = controller.getLoggedValues();
+    assertEquals(0L, values.get(AdaptiveBatchSizeController.BATCH_SIZE_INCREASES).longValue());
+    assertEquals(0L, values.get(AdaptiveBatchSizeController.BATCHES_MEASURED).longValue());
+    // the batch size itself is kept
+    assertEquals(controller.getBatchSize(),
+        values.get(AdaptiveBatchSizeController.BATCH_SIZE).intValue());
+  }
+
+  @Test
+  public void testDecideWithoutUsing() {
+    AdaptiveBatchSizeController controller =
+        new AdaptiveBatchSizeController(10, 100, 50, 10, BUDGET);
+    assertEquals(25, controller.decideBatchSize(50, 1000, BUDGET + 1));
+    assertEquals(50, controller.getBatchSize());
+    assertEquals(0L,
+        controller.getLoggedValues().get(AdaptiveBatchSizeController.BATCHES_MEASURED)
+            .longValue());
+  }
+
+  @Test
+  public void testSetBatchSize() {
+    AdaptiveBatchSizeController controller =
+        new AdaptiveBatchSizeController(10, 100, 50, 10, BUDGET);
+    controller.setBatchSize(60);
+    controller.setBatchSize(60);
+    assertEquals(60, controller.getBatchSize());
+    Map<String, Long> values = controller.getLoggedValues();
+    assertEquals(1L, values.get(AdaptiveBatchSizeController.BATCH_SIZE_INCREASES).longValue());
+    assertEquals(0L, values.get(AdaptiveBatchSizeController.BATCH_SIZE_DECREASES).longValue());
+    assertEquals(2L, values.get(AdaptiveBatchSizeController.BATCHES_MEASURED).longValue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetBatchSizeOutOfBounds() {
+    new AdaptiveBatchSizeController(10, 100).setBatchSize(101);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalBounds() {
+    new AdaptiveBatchSizeController(10, 5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalInitialBatchSize() {
+    new AdaptiveBatchSizeController(10, 100, 200, 10, BUDGET);
+  }
+
+  @Test
+  public void testEvaluator() {
+    List<AdaptiveBatchSizeController> controllers = new ArrayList<>();
+    BatchedProtocolEvaluator<ResourcePoolImpl> evaluator = new BatchedProtocolEvaluator<>(
+        new BatchedStrategy<>(), new DummyBooleanProtocolSuite(), () -> {
+          AdaptiveBatchSizeController controller =
+              new AdaptiveBatchSizeController(10, 40, 10, 10, BUDGET);
+          controllers.add(controller);
+          return controller;
+        }, false);
+    for (int run = 0; run < 2; run++) {
+      EvaluationStatistics statistics = evaluator.eval(createProducer(100),
+          new ResourcePoolImpl(1, 1), mock(Network.class));
+      assertEquals(100, statistics.getNativeProtocols());
+      // batches of 10, 10, 20, 20, 30 and 10 protocols
+      assertEquals(6, statistics.getBatches());
+    }
+    // each evaluation starts over with a controller of its own
+    assertEquals(2, controllers.size());
+    for (AdaptiveBatchSizeController controller : controllers) {
+      Map<String, Long> values = controller.getLoggedValues();
+      assertEquals(40L, values.get(AdaptiveBatchSizeController.BATCH_SIZE).longValue());
+      assertEquals(3L, values.get(AdaptiveBatchSizeController.BATCHES_MEASURED).longValue());
+    }
+  }
+
+  @Test
+  public void testEvaluatorSendsDecisionWithNextBatch() {
+    Network network = mock(Network.class);
+    when(network.getNoOfParties()).thenReturn(2);
+    BatchedProtocolEvaluator<ResourcePoolImpl> evaluator = new BatchedProtocolEvaluator<>(
+        new BatchedStrategy<>(), new DummyBooleanProtocolSuite(),
+        () -> new AdaptiveBatchSizeController(10, 40, 10, 10, BUDGET), false);
+    evaluator.eval(createProducer(30), new ResourcePoolImpl(1, 2), network);
+    // the decision after the first batch is sent with the second, and no other messages are sent
+    byte[] header = ByteBuffer.allocate(Integer.BYTES).putInt(20).array();
+    byte[] expected = new byte[header.length + 1];
+    expected[0] = (byte) header.length;
+    System.arraycopy(header, 0, expected, 1, header.length);
+    verify(network).send(2, expected);
+    verify(network, never()).receive(1);
+  }
+
+  private static ProtocolProducer createProducer(int protocols) {
+    List<ProtocolProducer> producers = new ArrayList<>();
+    for (int i = 0; i < protocols; i++) {
+      producers.add(new SingleProtocolProducer<>(new NoOpProtocol()));
+    }
+    return new ParallelProtocolProducer(producers);
+  }
+
+  private static class NoOpProtocol implements NativeProtocol<Void, ResourcePoolImpl> {
+
+    @Override
+    public EvaluationStatus evaluate(int round, ResourcePoolImpl resourcePool, Network network) {
+      return EvaluationStatus.IS_DONE;
+    }
+
+    @Override
+    public Void out() {
+      return null;
+    }
+  }
+}
@@ -131,4 +131,36 @@ public class TestAesCtrDrbg {
 
   }
 
+  @Test
+  public void testNextBytesRangeMatchesNextBytes() {
+    byte[] seed = new byte[32];
+    new Random(42).nextBytes(seed);
+    AesCtrDrbg drbg1 = new AesCtrDrbg(seed);
+    AesCtrDrbg drbg2 = new AesCtrDrbg(seed);
+    // Requests crossing the limit of bytes between state updates
+    int[] lengths = {17, (1 << 16) + 3, 1, (1 << 17) - 5, 0, 1000};
+    for (int length : lengths) {
+      byte[] expected = new byte[length];
+      drbg1.nextBytes(expected);
+      byte[] actual = new byte[length + 10];
+      Arrays.fill(actual, (byte) 0x5A);
+      drbg2.nextBytes(actual, 7, length);
+      assertArrayEquals(expected, Arrays.copyOfRange(actual, 7, 7 + length));
+      assertArrayEquals(new byte[] {0x5A, 0x5A, 0x5A, 0x5A, 0x5A, 0x5A, 0x5A},
+          Arrays.copyOfRange(actual, 0, 7));
+      assertArrayEquals(new byte[] {0x5A, 0x5A, 0x5A},
+          Arrays.copyOfRange(actual, 7 + length, actual.length));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testNextBytesRangeOutOfBounds() {
+    new AesCtrDrbg(new byte[32]).nextBytes(new byte[10], 5, 6);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testNextBytesRangeNegativeOffset() {
+    new AesCtrDrbg(new byte[32]).nextBytes(new byte[10], -1, 2);
+  }
+
 }
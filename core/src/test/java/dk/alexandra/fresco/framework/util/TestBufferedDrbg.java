@@ -0,0 +1,51 @@
+package dk.alexandra.fresco.framework.util;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+public class TestBufferedDrbg {
+
+  @Test
+  public void testBufferedStreamMatchesUnderlying() {
+    byte[] seed = new byte[32];
+    seed[0] = 1;
+    byte[] expected = new byte[1000];
+    new AesCtrDrbg(seed).nextBytes(expected);
+    // Small and large requests crossing the end of the buffer
+    BufferedDrbg drbg = new BufferedDrbg(new AesCtrDrbg(seed), 64);
+    byte[] actual = new byte[expected.length];
+    int[] lengths = {1, 7, 100, 3, 0, 500};
+    int offset = 0;
+    for (int length : lengths) {
+      drbg.nextBytes(actual, offset, length);
+      offset += length;
+    }
+    byte[] rest = new byte[actual.length - offset];
+    drbg.nextBytes(rest);
+    System.arraycopy(rest, 0, actual, offset, rest.length);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testDefaultBufferSize() {
+    byte[] expected = new byte[3 * BufferedDrbg.DEFAULT_BUFFER_SIZE];
+    new AesCtrDrbg(new byte[32]).nextBytes(expected);
+    BufferedDrbg drbg = new BufferedDrbg(new AesCtrDrbg(new byte[32]));
+    byte[] actual = new byte[expected.length];
+    for (int i = 0; i < actual.length; i += 16) {
+      drbg.nextBytes(actual, i, 16);
+    }
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveBufferSize() {
+    new BufferedDrbg(new AesCtrDrbg(new byte[32]), 0);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testOutOfBounds() {
+    new BufferedDrbg(new AesCtrDrbg(new byte[32])).nextBytes(new byte[4], 2, 3);
+  }
+}
@@ -1,12 +1,24 @@
 package dk.alexandra.fresco.lib.helper;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import dk.alexandra.fresco.framework.NativeProtocol;
 import dk.alexandra.fresco.framework.ProtocolCollection;
 import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.sce.evaluator.ProtocolCollectionList;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.suite.dummy.bool.DummyBooleanNotProtocol;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -34,4 +46,93 @@ public class ParallelProtocolProducerTest {
 
     verify(iterator, times(1)).remove();
   }
+
+  @Test
+  public void getNextIndependentProtocols() {
+    NativeProtocol<?, ResourcePool> first = new DummyBooleanNotProtocol(null);
+    NativeProtocol<?, ResourcePool> second = new DummyBooleanNotProtocol(null);
+    NativeProtocol<?, ResourcePool> third = new DummyBooleanNotProtocol(null);
+    NativeProtocol<?, ResourcePool> fourth = new DummyBooleanNotProtocol(null);
+    ParallelProtocolProducer producer = new ParallelProtocolProducer(Arrays.asList(
+        new SequentialProtocolProducer(Arrays.asList(
+            new SingleProtocolProducer<>(first), new SingleProtocolProducer<>(second))),
+        new SingleProtocolProducer<>(third),
+        new SingleProtocolProducer<>(fourth)));
+
+    ProtocolCollectionList<ResourcePool> batch = new ProtocolCollectionList<>(1);
+    producer.getNextProtocols(batch);
+    assertThat(batch, contains(first));
+    // The second protocol depends on the first, so the next independent protocol is the third
+    batch = new ProtocolCollectionList<>(1);
+    producer.getNextIndependentProtocols(batch);
+    assertThat(batch, contains(third));
+    batch = new ProtocolCollectionList<>(10);
+    producer.getNextIndependentProtocols(batch);
+    assertThat(batch, contains(fourth));
+    batch = new ProtocolCollectionList<>(10);
+    producer.getNextIndependentProtocols(batch);
+    assertThat(batch, emptyIterable());
+
+    assertTrue(producer.hasNextProtocols());
+    batch = new ProtocolCollectionList<>(10);
+    producer.getNextProtocols(batch);
+    assertThat(batch, contains(second));
+    assertFalse(producer.hasNextProtocols());
+  }
+
+  @Test
+  public void prioritizeCriticalPath() {
+    assertEquals(6, countBatches(false));
+    assertEquals(4, countBatches(true));
+  }
+
+  @Test
+  public void estimateRemainingDepthOnce() {
+    List<ProtocolProducer> producers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ProtocolProducer child = mock(ProtocolProducer.class);
+      when(child.hasNextProtocols()).thenReturn(true);
+      when(child.estimateRemainingDepth(ParallelProtocolProducer.LOOKAHEAD)).thenReturn(i);
+      producers.add(child);
+    }
+    ParallelProtocolProducer producer = new ParallelProtocolProducer(producers);
+    for (int batch = 0; batch < 5; batch++) {
+      producer.getNextProtocols(new ProtocolCollectionList<>(3, true));
+    }
+    for (ProtocolProducer child : producers) {
+      verify(child, times(1)).estimateRemainingDepth(ParallelProtocolProducer.LOOKAHEAD);
+      verify(child, times(5)).getNextProtocols(any());
+    }
+  }
+
+  /**
+   * Counts the batches needed to hand out six independent protocols and a chain of four dependent
+   * protocols in batches of three.
+   */
+  private int countBatches(boolean prioritizeCriticalPath) {
+    List<ProtocolProducer> producers = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      producers.add(new SingleProtocolProducer<>(new DummyBooleanNotProtocol(null)));
+    }
+    List<ProtocolProducer> chain = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      chain.add(new SingleProtocolProducer<>(new DummyBooleanNotProtocol(null)));
+    }
+    producers.add(new SequentialProtocolProducer(chain));
+    ParallelProtocolProducer producer = new ParallelProtocolProducer(producers);
+    assertEquals(4, producer.estimateRemainingDepth(ParallelProtocolProducer.LOOKAHEAD));
+    assertEquals(2, producer.estimateRemainingDepth(2));
+
+    int batches = 0;
+    while (producer.hasNextProtocols()) {
+      ProtocolCollectionList<ResourcePool> batch =
+          new ProtocolCollectionList<>(3, prioritizeCriticalPath);
+      producer.getNextProtocols(batch);
+      batches++;
+    }
+    assertEquals(0, producer.estimateRemainingDepth(ParallelProtocolProducer.LOOKAHEAD));
+    // the critical path is the chain, regardless of how the protocols were scheduled
+    assertEquals(4, producer.getDepth());
+    return batches;
+  }
 }
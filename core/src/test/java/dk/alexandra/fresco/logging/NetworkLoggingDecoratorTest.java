@@ -9,6 +9,7 @@ import static org.mockito.Mockito.verify;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.logging.NetworkLoggingDecorator.PartyStats;
 import java.util.HashMap;
+import java.util.Map;
 import org.junit.Test;
 
 public class NetworkLoggingDecoratorTest {
@@ -44,4 +45,18 @@ public class NetworkLoggingDecoratorTest {
 
     verify(partyStatsMap, times(1)).clear();
   }
+
+  @Test
+  public void sentBytes() {
+    NetworkLoggingDecorator decorator = new NetworkLoggingDecorator(mock(Network.class));
+    decorator.send(1, new byte[3]);
+    decorator.send(2, new byte[5]);
+    decorator.send(2, new byte[7]);
+    Map<String, Long> loggedValues = decorator.getLoggedValues();
+    assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_PARTY_SENT_BYTES + "_1"), is(3L));
+    assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_PARTY_SENT_BYTES + "_2"), is(12L));
+    assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_SENT_BYTES), is(15L));
+    assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_SENT_BATCHES), is(3L));
+    assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_BYTES), is(0L));
+  }
 }
@@ -0,0 +1,60 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+public class FlightRecorderEventsTest {
+
+  @Test
+  public void testEvents() throws IOException {
+    assumeTrue(FlightRecorderEvents.isAvailable());
+    Path file = Files.createTempFile("fresco", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("dk.alexandra.fresco.Batch");
+      recording.enable("dk.alexandra.fresco.NetworkReceive");
+      recording.enable("dk.alexandra.fresco.PreprocessingStall");
+      recording.start();
+      int[] batches = new int[1];
+      FlightRecorderEvents.recordBatch(42, () -> batches[0]++);
+      byte[] data = FlightRecorderEvents.recordReceive(2, () -> new byte[7]);
+      FlightRecorderEvents.recordStall(() -> { });
+      recording.stop();
+      recording.dump(file);
+      assertEquals(1, batches[0]);
+      assertArrayEquals(new byte[7], data);
+      Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().startsWith("dk.alexandra.fresco"))
+          .collect(Collectors.toMap(event -> event.getEventType().getName(),
+              Function.identity()));
+      assertEquals(42, events.get("dk.alexandra.fresco.Batch").getInt("protocols"));
+      RecordedEvent receive = events.get("dk.alexandra.fresco.NetworkReceive");
+      assertEquals(2, receive.getInt("partyId"));
+      assertEquals(7, receive.getInt("bytes"));
+      assertTrue(events.containsKey("dk.alexandra.fresco.PreprocessingStall"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testNotRecording() {
+    int[] calls = new int[1];
+    FlightRecorderEvents.recordBatch(1, () -> calls[0]++);
+    FlightRecorderEvents.recordStall(() -> calls[0]++);
+    byte[] data = FlightRecorderEvents.recordReceive(1, () -> new byte[calls[0]]);
+    assertEquals(2, data.length);
+  }
+}
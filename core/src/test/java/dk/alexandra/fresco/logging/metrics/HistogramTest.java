@@ -0,0 +1,96 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void testEmpty() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMin());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0.0, histogram.getMean(), 0.0);
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 50; i++) {
+      histogram.record(i);
+    }
+    assertEquals(50, histogram.getCount());
+    assertEquals(1275, histogram.getSum());
+    assertEquals(1, histogram.getMin());
+    assertEquals(50, histogram.getMax());
+    assertEquals(25.5, histogram.getMean(), 1e-9);
+    assertEquals(25, histogram.getValueAtPercentile(50));
+    assertEquals(45, histogram.getValueAtPercentile(90));
+    assertEquals(50, histogram.getValueAtPercentile(100));
+    assertEquals(1, histogram.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void testRelativeError() {
+    Histogram histogram = new Histogram();
+    Random random = new Random(42);
+    long[] values = new long[10000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) Math.exp(random.nextDouble() * 40);
+      histogram.record(values[i]);
+    }
+    java.util.Arrays.sort(values);
+    for (double percentile : new double[]{1, 25, 50, 75, 99, 99.9}) {
+      long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+      long estimate = histogram.getValueAtPercentile(percentile);
+      assertTrue(estimate >= exact);
+      assertTrue(estimate - exact <= exact / 32);
+    }
+  }
+
+  @Test
+  public void testBuckets() {
+    assertEquals(63, Histogram.bucketOf(63));
+    assertEquals(64, Histogram.bucketOf(64));
+    assertEquals(64, Histogram.bucketOf(65));
+    assertEquals(65, Histogram.bucketOf(66));
+    assertEquals(65, Histogram.highestValueIn(Histogram.bucketOf(64)));
+    for (long value : new long[]{127, 128, 1000, 123456789, Long.MAX_VALUE}) {
+      int bucket = Histogram.bucketOf(value);
+      assertTrue(Histogram.highestValueIn(bucket) >= value);
+      assertTrue(bucket == 0 || Histogram.highestValueIn(bucket - 1) < value);
+    }
+  }
+
+  @Test
+  public void testNegativeAndReset() {
+    Histogram histogram = new Histogram();
+    histogram.record(-5);
+    assertEquals(0, histogram.getMax());
+    assertEquals(1, histogram.getCount());
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    histogram.record(7);
+    assertEquals(7, histogram.getMin());
+  }
+
+  @Test
+  public void testConcurrentRecording() {
+    Histogram histogram = new Histogram();
+    IntStream.range(0, 100000).parallel().forEach(i -> histogram.record(i % 1000));
+    assertEquals(100000, histogram.getCount());
+    assertEquals(0, histogram.getMin());
+    assertEquals(999, histogram.getMax());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPercentile() {
+    new Histogram().getValueAtPercentile(101);
+  }
+}
@@ -0,0 +1,57 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.util.Map;
+import org.junit.Test;
+
+public class MetricsDecoratorTest {
+
+  @Test
+  public void testNetwork() {
+    Network network = mock(Network.class);
+    when(network.getNoOfParties()).thenReturn(3);
+    when(network.receive(2)).thenReturn(new byte[7]);
+    MetricsRegistry registry = new MetricsRegistry();
+    NetworkMetricsDecorator decorator = new NetworkMetricsDecorator(network, registry);
+    decorator.send(1, new byte[5]);
+    decorator.send(3, new byte[11]);
+    decorator.send(3, new byte[2]);
+    decorator.receive(2);
+    Map<Integer, Long> sent = registry.getPartyCounters().get(NetworkMetricsDecorator.SENT_BYTES);
+    assertEquals(5L, sent.get(1).longValue());
+    assertEquals(0L, sent.get(2).longValue());
+    assertEquals(13L, sent.get(3).longValue());
+    assertEquals(7L, registry.getPartyCounters().get(NetworkMetricsDecorator.RECEIVED_BYTES)
+        .get(2).longValue());
+    assertEquals(1, registry.histogram(NetworkMetricsDecorator.RECEIVE_NANOS).getCount());
+    assertEquals(3, decorator.getNoOfParties());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchEvaluation() {
+    BatchEvaluationStrategy<ResourcePool> delegate = mock(BatchEvaluationStrategy.class);
+    ProtocolCollection<ResourcePool> protocols = mock(ProtocolCollection.class);
+    when(protocols.size()).thenReturn(42);
+    MetricsRegistry registry = new MetricsRegistry();
+    BatchEvaluationMetricsDecorator<ResourcePool> decorator =
+        new BatchEvaluationMetricsDecorator<>(delegate, registry);
+    ResourcePool resourcePool = mock(ResourcePool.class);
+    NetworkBatchDecorator network = mock(NetworkBatchDecorator.class);
+    decorator.processBatch(protocols, resourcePool, network);
+    verify(delegate).processBatch(protocols, resourcePool, network);
+    Histogram sizes = registry.histogram(BatchEvaluationMetricsDecorator.BATCH_SIZE);
+    assertEquals(1, sizes.getCount());
+    assertEquals(42, sizes.getMax());
+    assertEquals(1, registry.histogram(BatchEvaluationMetricsDecorator.BATCH_NANOS).getCount());
+  }
+}
@@ -0,0 +1,91 @@
+package dk.alexandra.fresco.logging.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsExporterTest {
+
+  private MetricsRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new MetricsRegistry();
+    registry.counter("preprocessing.triples").add(3);
+    registry.counter("network.sent.bytes", 2).add(1024);
+    registry.counter("network.sent.bytes", 1);
+    for (int i = 1; i <= 10; i++) {
+      registry.histogram("evaluator.batch.nanos").record(i);
+    }
+  }
+
+  @Test
+  public void testJsonLines() throws IOException {
+    StringBuilder out = new StringBuilder();
+    new JsonLinesExporter().export(registry, out);
+    String line = out.toString();
+    assertTrue(line.endsWith("}}\n"));
+    assertEquals(1, line.split("\n").length);
+    assertTrue(line.contains("\"counters\":{\"preprocessing.triples\":3},"
+        + "\"partyCounters\":{\"network.sent.bytes\":{\"1\":0,\"2\":1024}}"));
+    assertTrue(line.contains("\"evaluator.batch.nanos\":{\"count\":10,\"min\":1,\"max\":10,"
+        + "\"mean\":5.5,\"p50\":5,\"p90\":9,\"p99\":10,\"p999\":10}"));
+  }
+
+  @Test
+  public void testJsonEscaping() throws IOException {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.counter("a \"quoted\"\\name").increment();
+    StringBuilder out = new StringBuilder();
+    new JsonLinesExporter().export(registry, out);
+    assertTrue(out.toString().contains("\"a \\\"quoted\\\"\\\\name\":1"));
+  }
+
+  @Test
+  public void testPrometheus() throws IOException {
+    StringBuilder out = new StringBuilder();
+    new PrometheusExporter().export(registry, out);
+    String text = out.toString();
+    assertTrue(text.contains("# TYPE fresco_preprocessing_triples_total counter\n"
+        + "fresco_preprocessing_triples_total 3\n"));
+    assertTrue(text.contains("# TYPE fresco_network_sent_bytes_total counter\n"
+        + "fresco_network_sent_bytes_total{party=\"1\"} 0\n"
+        + "fresco_network_sent_bytes_total{party=\"2\"} 1024\n"));
+    assertTrue(text.contains("# TYPE fresco_evaluator_batch_nanos summary\n"));
+    assertTrue(text.contains("fresco_evaluator_batch_nanos{quantile=\"0.5\"} 5\n"));
+    assertTrue(text.contains("fresco_evaluator_batch_nanos{quantile=\"0.999\"} 10\n"));
+    assertTrue(text.contains("fresco_evaluator_batch_nanos_sum 55\n"));
+    assertTrue(text.contains("fresco_evaluator_batch_nanos_count 10\n"));
+  }
+
+  @Test
+  public void testRegistryLoggedValuesAndReset() {
+    Map<String, Long> values = registry.getLoggedValues();
+    assertEquals(3L, values.get("preprocessing.triples").longValue());
+    assertEquals(1024L, values.get("network.sent.bytes party 2").longValue());
+    assertEquals(10L, values.get("evaluator.batch.nanos count").longValue());
+    assertEquals(10L, values.get("evaluator.batch.nanos max").longValue());
+    registry.reset();
+    values = registry.getLoggedValues();
+    assertEquals(0L, values.get("preprocessing.triples").longValue());
+    assertEquals(0L, values.get("network.sent.bytes party 2").longValue());
+    assertEquals(0L, values.get("evaluator.batch.nanos count").longValue());
+  }
+
+  @Test
+  public void testRegister() {
+    Histogram histogram = new Histogram();
+    registry.register("preprocessing.stall.nanos", histogram);
+    registry.register("preprocessing.stall.nanos", histogram);
+    assertTrue(registry.getHistograms().get("preprocessing.stall.nanos") == histogram);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegisterConflict() {
+    registry.register("evaluator.batch.nanos", new Histogram());
+  }
+}
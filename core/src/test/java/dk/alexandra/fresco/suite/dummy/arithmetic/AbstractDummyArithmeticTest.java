@@ -14,6 +14,7 @@ import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.PipelinedProtocolEvaluator;
 import dk.alexandra.fresco.logging.BatchEvaluationLoggingDecorator;
 import dk.alexandra.fresco.logging.DefaultPerformancePrinter;
 import dk.alexandra.fresco.logging.EvaluatorLoggingDecorator;
@@ -45,6 +46,8 @@ public abstract class AbstractDummyArithmeticTest {
   protected static final EvaluationStrategy DEFAULT_EVALUATION_STRATEGY
       = EvaluationStrategy.SEQUENTIAL_BATCHED;
   protected static final boolean DEFAULT_PERFORMANCE_LOGGING = false;
+  protected static final int DEFAULT_MAX_BATCH_SIZE = 4096;
+  protected static final int DEFAULT_PIPELINE_DEPTH = 0;
 
   /**
    * Runs test using the {@link TestParameters} class to set parameters.
@@ -61,7 +64,9 @@ public abstract class AbstractDummyArithmeticTest {
         p.modulus,
         p.maxBitLength,
         p.fixedPointPrecesion,
-        p.performanceLogging);
+        p.performanceLogging,
+        p.maxBatchSize,
+        p.pipelineDepth);
   }
 
   /**
@@ -72,14 +77,15 @@ public abstract class AbstractDummyArithmeticTest {
       TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, int noOfParties) {
     runTest(f, evalStrategy, noOfParties, DEFAULT_FIELD, DEFAULT_MAX_BIT_LENGTH,
-        DEFAULT_FIXED_POINT_PRECISION, DEFAULT_PERFORMANCE_LOGGING);
+        DEFAULT_FIXED_POINT_PRECISION, DEFAULT_PERFORMANCE_LOGGING, DEFAULT_MAX_BATCH_SIZE,
+        DEFAULT_PIPELINE_DEPTH);
   }
 
   private void runTest(
       TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, int noOfParties, FieldDefinition fieldDefinition,
       int maxBitLength,
-      int fixedPointPrecision, boolean logPerformance) {
+      int fixedPointPrecision, boolean logPerformance, int maxBatchSize, int pipelineDepth) {
     List<Integer> ports = new ArrayList<>(noOfParties);
     for (int i = 1; i <= noOfParties; i++) {
       ports.add(9000 + i * (noOfParties - 1));
@@ -107,8 +113,12 @@ public abstract class AbstractDummyArithmeticTest {
         batchEvaluationStrategy = new BatchEvaluationLoggingDecorator<>(batchEvaluationStrategy);
         aggregate.add((PerformanceLogger) batchEvaluationStrategy);
       }
-      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator =
-          new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps);
+      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator;
+      if (pipelineDepth > 0) {
+        evaluator = new PipelinedProtocolEvaluator<>(ps, maxBatchSize, pipelineDepth);
+      } else {
+        evaluator = new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps, maxBatchSize);
+      }
       if (logPerformance) {
         evaluator = new EvaluatorLoggingDecorator<>(evaluator);
         aggregate.add((PerformanceLogger) evaluator);
@@ -155,6 +165,8 @@ public abstract class AbstractDummyArithmeticTest {
     private int numParties = DEFAULT_PARTIES;
     private EvaluationStrategy evaluationStrategy = DEFAULT_EVALUATION_STRATEGY;
     private boolean performanceLogging = DEFAULT_PERFORMANCE_LOGGING;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private int pipelineDepth = DEFAULT_PIPELINE_DEPTH;
 
     public TestParameters field(FieldDefinition field) {
       this.modulus = field;
@@ -185,5 +197,19 @@ public abstract class AbstractDummyArithmeticTest {
       this.performanceLogging = performanceLogging;
       return this;
     }
+
+    public TestParameters maxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /**
+     * Evaluate using a {@link PipelinedProtocolEvaluator} with the given depth. The evaluation
+     * strategy is ignored in this case.
+     */
+    public TestParameters pipelineDepth(int pipelineDepth) {
+      this.pipelineDepth = pipelineDepth;
+      return this;
+    }
   }
 }
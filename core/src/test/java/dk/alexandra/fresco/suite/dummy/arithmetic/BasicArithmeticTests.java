@@ -635,6 +635,49 @@ public class BasicArithmeticTests {
     }
   }
 
+  /**
+   * Test multiplying and opening lists of values using the list versions of
+   * {@link Numeric#mult(List, List)} and {@link Numeric#open(List)}.
+   */
+  public static class TestMultAndOpenList<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      final int size = 1000;
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() {
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app =
+              producer -> producer.par(par -> {
+                Numeric numeric = par.numeric();
+                List<DRes<SInt>> left = new ArrayList<>(size);
+                List<DRes<SInt>> right = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                  left.add(numeric.known(i));
+                  right.add(numeric.known(3 * i + 1));
+                }
+                return Pair.lazy(left, right);
+              }).seq((seq, pair) -> {
+                Numeric numeric = seq.numeric();
+                return numeric.mult(pair.getFirst(), pair.getSecond());
+              }).seq((seq, products) -> {
+                Numeric numeric = seq.numeric();
+                return numeric.open(products);
+              }).seq((seq, opened) ->
+                  () -> opened.stream().map(DRes::out).collect(Collectors.toList()));
+          List<BigInteger> output = runApplication(app);
+
+          Assert.assertThat(output.size(), Is.is(size));
+          for (int i = 0; i < size; i++) {
+            Assert.assertEquals(BigInteger.valueOf((long) i * (3 * i + 1)), output.get(i));
+          }
+        }
+      };
+    }
+  }
+
   public static class TestRandomBit<ResourcePoolT extends ResourcePool>
       extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
 
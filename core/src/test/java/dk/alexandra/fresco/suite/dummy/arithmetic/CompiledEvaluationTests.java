@@ -0,0 +1,148 @@
+package dk.alexandra.fresco.suite.dummy.arithmetic;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.CompilableApplication;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.CompiledCircuit;
+import dk.alexandra.fresco.framework.sce.evaluator.CompiledProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+
+/**
+ * Generic tests of replaying compiled applications with the {@link CompiledProtocolEvaluator},
+ * for arithmetic protocol suites which support replay.
+ */
+public class CompiledEvaluationTests {
+
+  private static Application<List<SInt>, ProtocolBuilderNumeric> input(List<Integer> values) {
+    return builder -> {
+      Numeric numeric = builder.numeric();
+      List<DRes<SInt>> inputs = values.stream()
+          .map(value -> numeric.input(BigInteger.valueOf(value), 1))
+          .collect(Collectors.toList());
+      return () -> inputs.stream().map(DRes::out).collect(Collectors.toList());
+    };
+  }
+
+  /**
+   * Multiplies each input by a public weight, opens the sum and the product of the terms, and
+   * replays the application on several sets of inputs, such that every run takes fresh
+   * preprocessed material and is MAC checked.
+   */
+  public static class TestReplayMultiplications<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private static final List<Integer> WEIGHTS = Arrays.asList(3, 1, 4, 1, 5);
+    private final Supplier<ProtocolSuite<ResourcePoolT, ProtocolBuilderNumeric>> suite;
+
+    public TestReplayMultiplications(
+        Supplier<ProtocolSuite<ResourcePoolT, ProtocolBuilderNumeric>> suite) {
+      this.suite = suite;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          CompilableApplication<SInt, List<BigInteger>, ProtocolBuilderNumeric> score =
+              (builder, inputs) -> builder.seq(seq -> {
+                Numeric numeric = seq.numeric();
+                DRes<SInt> sum = numeric.known(BigInteger.ZERO);
+                DRes<SInt> product = numeric.known(BigInteger.ONE);
+                for (int i = 0; i < inputs.size(); i++) {
+                  DRes<SInt> term = numeric.mult(BigInteger.valueOf(WEIGHTS.get(i)),
+                      inputs.get(i));
+                  sum = numeric.add(sum, term);
+                  product = numeric.mult(product, term);
+                }
+                DRes<BigInteger> openSum = numeric.open(sum);
+                DRes<BigInteger> openProduct = numeric.open(product);
+                return () -> Arrays.asList(openSum.out(), openProduct.out());
+              });
+          CompiledProtocolEvaluator<ResourcePoolT, ProtocolBuilderNumeric> evaluator =
+              new CompiledProtocolEvaluator<>(new BatchedStrategy<>(), suite.get(), 4);
+          CompiledCircuit<?, ?, ResourcePoolT> circuit = null;
+          for (int run = 0; run < 3; run++) {
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < WEIGHTS.size(); i++) {
+              values.add(run * 5 + i + 1);
+            }
+            List<BigInteger> output = evaluator.run(score, runApplication(input(values)),
+                conf.getResourcePool(), conf.getNetwork());
+            BigInteger sum = BigInteger.ZERO;
+            BigInteger product = BigInteger.ONE;
+            for (int i = 0; i < values.size(); i++) {
+              BigInteger term = BigInteger.valueOf((long) WEIGHTS.get(i) * values.get(i));
+              sum = sum.add(term);
+              product = product.multiply(term);
+            }
+            Assert.assertEquals(Arrays.asList(sum, product), output);
+            Assert.assertTrue(evaluator.getCircuit(score).isPresent());
+            if (circuit == null) {
+              circuit = evaluator.getCircuit(score).get();
+            }
+            // the circuit is recorded once and then replayed
+            Assert.assertSame(circuit, evaluator.getCircuit(score).get());
+          }
+        }
+      };
+    }
+  }
+
+  /**
+   * Opens the first input and either multiplies or adds the two other inputs depending on whether
+   * it is zero, which must therefore be built for every run instead of being replayed.
+   */
+  public static class TestBranchOnOpenedNotCompiled<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final Supplier<ProtocolSuite<ResourcePoolT, ProtocolBuilderNumeric>> suite;
+
+    public TestBranchOnOpenedNotCompiled(
+        Supplier<ProtocolSuite<ResourcePoolT, ProtocolBuilderNumeric>> suite) {
+      this.suite = suite;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          CompilableApplication<SInt, BigInteger, ProtocolBuilderNumeric> branch =
+              (builder, inputs) -> builder.seq(seq -> seq.numeric().open(inputs.get(0)))
+                  .seq((seq, opened) -> {
+                    Numeric numeric = seq.numeric();
+                    DRes<SInt> result = opened.signum() == 0
+                        ? numeric.add(inputs.get(1), inputs.get(2))
+                        : numeric.mult(inputs.get(1), inputs.get(2));
+                    return numeric.open(result);
+                  });
+          CompiledProtocolEvaluator<ResourcePoolT, ProtocolBuilderNumeric> evaluator =
+              new CompiledProtocolEvaluator<>(new BatchedStrategy<>(), suite.get());
+          int[] selectors = {0, 1, 0, 1};
+          for (int selector : selectors) {
+            List<SInt> inputs = runApplication(input(Arrays.asList(selector, 5, 7)));
+            BigInteger output = evaluator.run(branch, inputs, conf.getResourcePool(),
+                conf.getNetwork());
+            Assert.assertEquals(BigInteger.valueOf(selector == 0 ? 12 : 35), output);
+            Assert.assertFalse(evaluator.getCircuit(branch).isPresent());
+          }
+        }
+      };
+    }
+  }
+}
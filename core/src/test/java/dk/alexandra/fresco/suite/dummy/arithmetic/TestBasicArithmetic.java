@@ -54,6 +54,11 @@ public class TestBasicArithmetic extends AbstractDummyArithmeticTest {
     runTest(new BasicArithmeticTests.TestSimpleMultAndAdd<>(), new TestParameters());
   }
 
+  @Test
+  public void test_MultAndOpenList() {
+    runTest(new BasicArithmeticTests.TestMultAndOpenList<>(), new TestParameters());
+  }
+
   @Test
   public void test_TestAdd() {
     runTest(new BasicArithmeticTests.TestAdd<>(), new TestParameters());
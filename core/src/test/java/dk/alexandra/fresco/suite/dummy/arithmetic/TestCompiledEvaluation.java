@@ -0,0 +1,205 @@
+package dk.alexandra.fresco.suite.dummy.arithmetic;
+
+import static org.mockito.Mockito.mock;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.CompilableApplication;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.CompiledCircuit;
+import dk.alexandra.fresco.framework.sce.evaluator.CompiledProtocolEvaluator;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests recording applications once and replaying them with other inputs.
+ */
+public class TestCompiledEvaluation extends AbstractDummyArithmeticTest {
+
+  @Test
+  public void test_Replay_Score() {
+    runTest(new TestReplayScore(), new TestParameters().numParties(2).maxBatchSize(4));
+  }
+
+  @Test
+  public void test_While_Loop_Not_Compiled() {
+    runTest(new TestWhileLoopNotCompiled(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_Opened_Constant_Not_Compiled() {
+    runTest(new TestOpenedConstantNotCompiled(), new TestParameters().numParties(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @SuppressWarnings("unchecked")
+  public void testSuiteWithoutReplay() {
+    ProtocolSuite<DummyArithmeticResourcePool, ProtocolBuilderNumeric> suite =
+        mock(ProtocolSuite.class);
+    new CompiledProtocolEvaluator<>(new BatchedStrategy<>(), suite);
+  }
+
+  private static CompiledProtocolEvaluator<DummyArithmeticResourcePool, ProtocolBuilderNumeric>
+      createEvaluator(FieldDefinition fieldDefinition, int maxBatchSize) {
+    DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(fieldDefinition,
+        DEFAULT_MAX_BIT_LENGTH, DEFAULT_FIXED_POINT_PRECISION);
+    return new CompiledProtocolEvaluator<>(new BatchedStrategy<>(), suite, maxBatchSize);
+  }
+
+  private static Application<List<SInt>, ProtocolBuilderNumeric> input(List<Integer> values) {
+    return builder -> {
+      Numeric numeric = builder.numeric();
+      List<DRes<SInt>> inputs = values.stream()
+          .map(value -> numeric.input(BigInteger.valueOf(value), 1))
+          .collect(Collectors.toList());
+      return () -> inputs.stream().map(DRes::out).collect(Collectors.toList());
+    };
+  }
+
+  /**
+   * Computes the weighted sum and the product of the inputs with a fixed set of weights, and opens
+   * them, replaying the application on several sets of inputs.
+   */
+  private static class TestReplayScore
+      extends TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> {
+
+    private static final List<Integer> WEIGHTS = Arrays.asList(3, 1, 4, 1, 5, 9);
+
+    @Override
+    public TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric> next() {
+      return new TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          CompilableApplication<SInt, List<BigInteger>, ProtocolBuilderNumeric> score =
+              (builder, inputs) -> builder.par(par -> {
+                Numeric numeric = par.numeric();
+                List<DRes<SInt>> terms = new ArrayList<>();
+                for (int i = 0; i < inputs.size(); i++) {
+                  terms.add(numeric.mult(BigInteger.valueOf(WEIGHTS.get(i)), inputs.get(i)));
+                }
+                return () -> terms;
+              }).seq((seq, terms) -> {
+                Numeric numeric = seq.numeric();
+                DRes<SInt> sum = numeric.known(BigInteger.ZERO);
+                DRes<SInt> product = numeric.known(BigInteger.ONE);
+                for (DRes<SInt> term : terms) {
+                  sum = numeric.add(sum, term);
+                  product = numeric.mult(product, term);
+                }
+                DRes<BigInteger> openSum = numeric.open(sum);
+                DRes<BigInteger> openProduct = numeric.open(product);
+                return () -> Arrays.asList(openSum.out(), openProduct.out());
+              });
+          CompiledProtocolEvaluator<DummyArithmeticResourcePool, ProtocolBuilderNumeric>
+              evaluator = createEvaluator(getFieldDefinition(), 4);
+          CompiledCircuit<?, ?, DummyArithmeticResourcePool> circuit = null;
+          for (int run = 0; run < 4; run++) {
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < WEIGHTS.size(); i++) {
+              values.add(run * 7 + i + 1);
+            }
+            List<BigInteger> output = evaluator.run(score, runApplication(input(values)),
+                conf.getResourcePool(), conf.getNetwork());
+            BigInteger sum = BigInteger.ZERO;
+            BigInteger product = BigInteger.ONE;
+            for (int i = 0; i < values.size(); i++) {
+              BigInteger term = BigInteger.valueOf((long) WEIGHTS.get(i) * values.get(i));
+              sum = sum.add(term);
+              product = product.multiply(term);
+            }
+            Assert.assertEquals(Arrays.asList(sum, product), output);
+            Assert.assertTrue(evaluator.getCircuit(score).isPresent());
+            if (circuit == null) {
+              circuit = evaluator.getCircuit(score).get();
+            }
+            // the circuit is recorded once and then replayed
+            Assert.assertSame(circuit, evaluator.getCircuit(score).get());
+          }
+          Assert.assertEquals(WEIGHTS.size(), circuit.getNumberOfInputs());
+          Assert.assertTrue(circuit.getBatches() > 1);
+          Assert.assertTrue(circuit.getCriticalPathLength() > 1);
+          Assert.assertTrue(circuit.getCriticalPathLength() <= circuit.getBatches());
+          Assert.assertTrue(circuit.getNativeProtocols() >= 3 * WEIGHTS.size());
+        }
+      };
+    }
+  }
+
+  /**
+   * Runs an application doubling its input until it exceeds a bound, which is data dependent and
+   * must therefore be built for every run.
+   */
+  private static class TestWhileLoopNotCompiled
+      extends TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric> next() {
+      return new TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          CompilableApplication<SInt, BigInteger, ProtocolBuilderNumeric> doubling =
+              (builder, inputs) -> builder.seq(seq -> seq.numeric().open(inputs.get(0)))
+                  .whileLoop(value -> value.compareTo(BigInteger.valueOf(100)) < 0,
+                      (seq, value) -> seq.numeric().open(
+                          seq.numeric().known(value.shiftLeft(1))));
+          CompiledProtocolEvaluator<DummyArithmeticResourcePool, ProtocolBuilderNumeric>
+              evaluator = createEvaluator(getFieldDefinition(), 4096);
+          for (int value : new int[]{3, 7, 50}) {
+            List<SInt> inputs = runApplication(input(Arrays.asList(value)));
+            BigInteger output = evaluator.run(doubling, inputs, conf.getResourcePool(),
+                conf.getNetwork());
+            BigInteger expected = BigInteger.valueOf(value);
+            while (expected.compareTo(BigInteger.valueOf(100)) < 0) {
+              expected = expected.shiftLeft(1);
+            }
+            Assert.assertEquals(expected, output);
+            Assert.assertFalse(evaluator.getCircuit(doubling).isPresent());
+          }
+        }
+      };
+    }
+  }
+
+  /**
+   * Runs an application which opens its first input and adds it as a public constant to its second
+   * input, which depends on the value opened while building and must therefore be built for every
+   * run.
+   */
+  private static class TestOpenedConstantNotCompiled
+      extends TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric> next() {
+      return new TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          CompilableApplication<SInt, BigInteger, ProtocolBuilderNumeric> addOpened =
+              (builder, inputs) -> builder.seq(seq -> seq.numeric().open(inputs.get(0)))
+                  .seq((seq, opened) -> seq.numeric().open(
+                      seq.numeric().add(opened, inputs.get(1))));
+          CompiledProtocolEvaluator<DummyArithmeticResourcePool, ProtocolBuilderNumeric>
+              evaluator = createEvaluator(getFieldDefinition(), 4096);
+          for (int run = 0; run < 3; run++) {
+            List<SInt> inputs = runApplication(input(Arrays.asList(run * 10, run + 1)));
+            BigInteger output = evaluator.run(addOpened, inputs, conf.getResourcePool(),
+                conf.getNetwork());
+            Assert.assertEquals(BigInteger.valueOf(run * 11 + 1), output);
+            Assert.assertFalse(evaluator.getCircuit(addOpened).isPresent());
+          }
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package dk.alexandra.fresco.suite.dummy.arithmetic;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.dummy.arithmetic.ParallelAndSequenceTests.TestSumAndProduct;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs tests using the pipelined evaluator with batch sizes small enough to make several batches
+ * be in the pipeline at the same time.
+ */
+public class TestPipelinedEvaluation extends AbstractDummyArithmeticTest {
+
+  @Test
+  public void test_Lots_Of_Inputs_Pipelined() {
+    runTest(new TestLotsOfInputs<>(), new TestParameters()
+        .numParties(2)
+        .maxBatchSize(16)
+        .pipelineDepth(3));
+  }
+
+  @Test
+  public void test_Lots_Of_Inputs_Depth_One() {
+    runTest(new TestLotsOfInputs<>(), new TestParameters()
+        .numParties(2)
+        .maxBatchSize(16)
+        .pipelineDepth(1));
+  }
+
+  @Test
+  public void test_Lots_Of_Mults_Pipelined() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), new TestParameters()
+        .numParties(2)
+        .maxBatchSize(128)
+        .pipelineDepth(2));
+  }
+
+  @Test
+  public void test_Alternating_Mult_Add_Pipelined() {
+    runTest(new BasicArithmeticTests.TestAlternatingMultAdd<>(), new TestParameters()
+        .maxBatchSize(8)
+        .pipelineDepth(4));
+  }
+
+  @Test
+  public void test_Sum_And_Product_Pipelined() {
+    runTest(new TestSumAndProduct<>(), new TestParameters()
+        .numParties(2)
+        .maxBatchSize(2)
+        .pipelineDepth(2));
+  }
+
+  /**
+   * Inputs many values from alternating parties in parallel and then sums them sequentially.
+   */
+  private static class TestLotsOfInputs<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private static final int INPUTS = 500;
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app =
+              producer -> producer.par(par -> {
+                Numeric numeric = par.numeric();
+                int noOfParties = par.getBasicNumericContext().getNoOfParties();
+                List<DRes<SInt>> inputs = new ArrayList<>();
+                for (int i = 0; i < INPUTS; i++) {
+                  inputs.add(numeric.input(BigInteger.valueOf(i), 1 + i % noOfParties));
+                }
+                return () -> inputs;
+              }).seq((seq, inputs) -> {
+                Numeric numeric = seq.numeric();
+                DRes<SInt> sum = numeric.known(BigInteger.ZERO);
+                for (DRes<SInt> input : inputs) {
+                  sum = numeric.add(sum, input);
+                }
+                return numeric.open(sum);
+              }).par((par, sum) -> {
+                List<DRes<BigInteger>> opened = new ArrayList<>();
+                for (int i = 0; i < INPUTS; i++) {
+                  opened.add(par.seq(seq -> {
+                    Numeric numeric = seq.numeric();
+                    DRes<SInt> one = numeric.input(BigInteger.ONE, 1);
+                    return seq.seq(inner -> inner.numeric().open(inner.numeric().add(sum, one)));
+                  }));
+                }
+                return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+              });
+          List<BigInteger> output = runApplication(app);
+          BigInteger expected = BigInteger.valueOf(INPUTS * (INPUTS - 1) / 2 + 1);
+          Assert.assertEquals(INPUTS, output.size());
+          for (BigInteger result : output) {
+            Assert.assertEquals(expected, result);
+          }
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package dk.alexandra.fresco.suite.dummy.bool;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.CompilableApplication;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.binary.Binary;
+import dk.alexandra.fresco.framework.builder.binary.ProtocolBuilderBinary;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.CompiledCircuit;
+import dk.alexandra.fresco.framework.sce.evaluator.CompiledProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
+import dk.alexandra.fresco.framework.value.SBool;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests recording boolean applications once and replaying them with other inputs.
+ */
+public class TestCompiledBooleanEvaluation extends AbstractDummyBooleanTest {
+
+  @Test
+  public void test_Replay_Circuit() {
+    runTest(new TestReplayCircuit(), EvaluationStrategy.SEQUENTIAL_BATCHED, false, 2);
+  }
+
+  @Test
+  public void test_Branch_On_Opened_Not_Compiled() {
+    runTest(new TestBranchOnOpenedNotCompiled(), EvaluationStrategy.SEQUENTIAL_BATCHED, false, 2);
+  }
+
+  private static CompiledProtocolEvaluator<ResourcePoolImpl, ProtocolBuilderBinary>
+      createEvaluator() {
+    return new CompiledProtocolEvaluator<>(new BatchedStrategy<>(),
+        new DummyBooleanProtocolSuite(), 4);
+  }
+
+  private static Application<List<SBool>, ProtocolBuilderBinary> input(Boolean... values) {
+    return builder -> {
+      Binary binary = builder.binary();
+      List<DRes<SBool>> inputs = Arrays.stream(values)
+          .map(value -> binary.input(value, 1))
+          .collect(Collectors.toList());
+      return () -> inputs.stream().map(DRes::out).collect(Collectors.toList());
+    };
+  }
+
+  /**
+   * Computes (a AND b) XOR NOT c and a XOR c, and opens them, replaying the application on all
+   * combinations of inputs.
+   */
+  private static class TestReplayCircuit
+      extends TestThreadFactory<ResourcePoolImpl, ProtocolBuilderBinary> {
+
+    @Override
+    public TestThread<ResourcePoolImpl, ProtocolBuilderBinary> next() {
+      return new TestThread<ResourcePoolImpl, ProtocolBuilderBinary>() {
+        @Override
+        public void test() {
+          CompilableApplication<SBool, List<Boolean>, ProtocolBuilderBinary> circuit =
+              (builder, inputs) -> builder.seq(seq -> {
+                Binary binary = seq.binary();
+                DRes<SBool> and = binary.and(inputs.get(0), inputs.get(1));
+                DRes<SBool> first = binary.xor(and, binary.not(inputs.get(2)));
+                DRes<SBool> second = binary.xor(inputs.get(0), inputs.get(2));
+                DRes<Boolean> openFirst = binary.open(first);
+                DRes<Boolean> openSecond = binary.open(second);
+                return () -> Arrays.asList(openFirst.out(), openSecond.out());
+              });
+          CompiledProtocolEvaluator<ResourcePoolImpl, ProtocolBuilderBinary> evaluator =
+              createEvaluator();
+          CompiledCircuit<?, ?, ResourcePoolImpl> compiled = null;
+          for (int run = 0; run < 8; run++) {
+            boolean a = (run & 1) != 0;
+            boolean b = (run & 2) != 0;
+            boolean c = (run & 4) != 0;
+            List<Boolean> output = evaluator.run(circuit, runApplication(input(a, b, c)),
+                conf.getResourcePool(), conf.getNetwork());
+            Assert.assertEquals(Arrays.asList((a && b) ^ !c, a ^ c), output);
+            Assert.assertTrue(evaluator.getCircuit(circuit).isPresent());
+            if (compiled == null) {
+              compiled = evaluator.getCircuit(circuit).get();
+            }
+            // the circuit is recorded once and then replayed
+            Assert.assertSame(compiled, evaluator.getCircuit(circuit).get());
+          }
+          Assert.assertEquals(3, compiled.getNumberOfInputs());
+          Assert.assertTrue(compiled.getNativeProtocols() >= 6);
+        }
+      };
+    }
+  }
+
+  /**
+   * Opens the first input and computes either the AND or the XOR of the other two inputs depending
+   * on the opened value, which must therefore be built for every run.
+   */
+  private static class TestBranchOnOpenedNotCompiled
+      extends TestThreadFactory<ResourcePoolImpl, ProtocolBuilderBinary> {
+
+    @Override
+    public TestThread<ResourcePoolImpl, ProtocolBuilderBinary> next() {
+      return new TestThread<ResourcePoolImpl, ProtocolBuilderBinary>() {
+        @Override
+        public void test() {
+          CompilableApplication<SBool, Boolean, ProtocolBuilderBinary> branch =
+              (builder, inputs) -> builder.seq(seq -> seq.binary().open(inputs.get(0)))
+                  .seq((seq, opened) -> {
+                    Binary binary = seq.binary();
+                    DRes<SBool> result = opened
+                        ? binary.and(inputs.get(1), inputs.get(2))
+                        : binary.xor(inputs.get(1), inputs.get(2));
+                    return binary.open(result);
+                  });
+          CompiledProtocolEvaluator<ResourcePoolImpl, ProtocolBuilderBinary> evaluator =
+              createEvaluator();
+          boolean[] selectors = {false, true, false, true};
+          for (boolean selector : selectors) {
+            Boolean output = evaluator.run(branch, runApplication(input(selector, true, true)),
+                conf.getResourcePool(), conf.getNetwork());
+            Assert.assertEquals(selector, output);
+            Assert.assertFalse(evaluator.getCircuit(branch).isPresent());
+          }
+        }
+      };
+    }
+  }
+}
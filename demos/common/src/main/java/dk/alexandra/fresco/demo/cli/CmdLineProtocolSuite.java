@@ -250,7 +250,7 @@ public class CmdLineProtocolSuite {
   private ProtocolSuite<?, ?> tinyTablesFromCmdLine(Properties properties) {
     String tinytablesFileOption = "tinytables.file";
     String tinyTablesFilePath = properties.getProperty(tinytablesFileOption, "tinytables");
-    return new TinyTablesProtocolSuite(myId, new File(tinyTablesFilePath));
+    return new TinyTablesProtocolSuite(new File(tinyTablesFilePath));
   }
 
 }
@@ -230,7 +230,7 @@ public class TestPrivateSetDemo {
 
   private ProtocolSuite<?, ?> getTinyTablesProtocolSuite(int playerId) {
     TinyTablesProtocolSuite config =
-        new TinyTablesProtocolSuite(playerId, getTinyTablesFile(playerId));
+        new TinyTablesProtocolSuite(getTinyTablesFile(playerId));
     return config;
   }
 
@@ -0,0 +1,72 @@
+package dk.alexandra.fresco.lib.common.compare;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.CompilableApplication;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.CompiledProtocolEvaluator;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.dummy.arithmetic.AbstractDummyArithmeticTest;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that comparisons, which open masked values and use them as public constants while
+ * building, are not replayed by the {@link CompiledProtocolEvaluator}.
+ */
+public class TestCompiledComparison extends AbstractDummyArithmeticTest {
+
+  @Test
+  public void testCompareLeqNotCompiled() {
+    runTest(new TestCompareLeqNotCompiled(), new TestParameters().numParties(2));
+  }
+
+  private static class TestCompareLeqNotCompiled
+      extends TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric> next() {
+      return new TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          CompilableApplication<SInt, BigInteger, ProtocolBuilderNumeric> leq =
+              (builder, inputs) -> builder.seq(seq -> Comparison.using(seq)
+                  .compareLEQ(inputs.get(0), inputs.get(1)))
+                  .seq((seq, result) -> seq.numeric().open(result));
+          DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(
+              getFieldDefinition(), DEFAULT_MAX_BIT_LENGTH, DEFAULT_FIXED_POINT_PRECISION);
+          CompiledProtocolEvaluator<DummyArithmeticResourcePool, ProtocolBuilderNumeric>
+              evaluator = new CompiledProtocolEvaluator<>(new BatchedStrategy<>(), suite);
+          int[][] pairs = {{3, 5}, {5, 3}, {-7, 2}, {4, 4}, {100, -100}, {-2, -3}};
+          for (int[] pair : pairs) {
+            List<SInt> inputs = runApplication(input(Arrays.asList(pair[0], pair[1])));
+            BigInteger output = evaluator.run(leq, inputs, conf.getResourcePool(),
+                conf.getNetwork());
+            Assert.assertEquals(pair[0] <= pair[1] ? BigInteger.ONE : BigInteger.ZERO, output);
+            Assert.assertFalse(evaluator.getCircuit(leq).isPresent());
+          }
+        }
+      };
+    }
+  }
+
+  private static Application<List<SInt>, ProtocolBuilderNumeric> input(List<Integer> values) {
+    return builder -> {
+      Numeric numeric = builder.numeric();
+      List<DRes<SInt>> inputs = values.stream()
+          .map(value -> numeric.input(BigInteger.valueOf(value), 1))
+          .collect(Collectors.toList());
+      return () -> inputs.stream().map(DRes::out).collect(Collectors.toList());
+    };
+  }
+}
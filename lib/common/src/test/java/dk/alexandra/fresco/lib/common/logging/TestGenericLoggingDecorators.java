@@ -126,12 +126,23 @@ public class TestGenericLoggingDecorators {
     assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_BYTES), is(130L));
     assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_BATCHES), is(2L));
     assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_PARTY_BYTES + "_1"), is(130L));
+    // Only party 1 sends in this computation, but the order of the loggers is not fixed
+    long sentBytes = 0;
+    long sentBatches = 0;
+    for (PerformanceLogger logger : decoratedLoggers) {
+      sentBytes += logger.getLoggedValues().get(NetworkLoggingDecorator.NETWORK_TOTAL_SENT_BYTES);
+      sentBatches += logger.getLoggedValues()
+          .get(NetworkLoggingDecorator.NETWORK_TOTAL_SENT_BATCHES);
+    }
+    assertThat(sentBytes, is(260L));
+    assertThat(sentBatches, is(4L));
     performanceLogger.reset();
 
     loggedValues = performanceLogger.getLoggedValues();
     assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_BYTES), is(0L));
     assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_BATCHES), is(0L));
-    assertThat(loggedValues.size(), is(2));
+    assertThat(loggedValues.get(NetworkLoggingDecorator.NETWORK_TOTAL_SENT_BYTES), is(0L));
+    assertThat(loggedValues.size(), is(4));
   }
 
   @Test
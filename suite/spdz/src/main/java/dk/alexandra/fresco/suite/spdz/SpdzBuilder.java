@@ -13,13 +13,16 @@ import dk.alexandra.fresco.suite.spdz.gates.SpdzInputProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzKnownSIntProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMultProtocolKnownLeft;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzMultVectorProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputSingleProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputToAllProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputToAllVectorProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzRandomProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractProtocolKnownLeft;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzSubtractProtocolKnownRight;
 import java.math.BigInteger;
+import java.util.List;
 
 /**
  * Basic native builder for the SPDZ protocol suite.
@@ -87,6 +90,12 @@ public class SpdzBuilder implements BuilderFactoryNumeric {
         return protocolBuilder.append(spdzMultProtocol);
       }
 
+      @Override
+      public DRes<List<DRes<SInt>>> mult(List<DRes<SInt>> a, List<DRes<SInt>> b) {
+        SpdzMultVectorProtocol spdzMultVectorProtocol = new SpdzMultVectorProtocol(a, b);
+        return protocolBuilder.append(spdzMultVectorProtocol);
+      }
+
       @Override
       public DRes<SInt> mult(BigInteger a, DRes<SInt> b) {
         SpdzMultProtocolKnownLeft spdzMultProtocol4 = new SpdzMultProtocolKnownLeft(a, b);
@@ -120,6 +129,13 @@ public class SpdzBuilder implements BuilderFactoryNumeric {
         return protocolBuilder.append(openProtocol);
       }
 
+      @Override
+      public DRes<List<DRes<BigInteger>>> open(List<DRes<SInt>> secretShares) {
+        SpdzOutputToAllVectorProtocol openProtocol =
+            new SpdzOutputToAllVectorProtocol(secretShares);
+        return protocolBuilder.append(openProtocol);
+      }
+
       @Override
       public DRes<BigInteger> open(DRes<SInt> secretShare, int outputParty) {
         SpdzOutputSingleProtocol openProtocol = new SpdzOutputSingleProtocol(secretShare,
@@ -29,6 +29,11 @@ public class SpdzProtocolSuite implements ProtocolSuiteNumeric<SpdzResourcePool>
         resourcePool.getNoOfParties(), resourcePool.getFieldDefinition(),fixedPointPrecision);
   }
 
+  @Override
+  public boolean supportsReplay() {
+    return true;
+  }
+
   @Override
   public RoundSynchronization<SpdzResourcePool> createRoundSynchronization() {
     return new SpdzRoundSynchronization(this);
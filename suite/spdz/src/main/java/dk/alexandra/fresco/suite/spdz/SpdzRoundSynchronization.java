@@ -1,23 +1,35 @@
 package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.suite.ProtocolSuite.DummyRoundSynchronization;
 import dk.alexandra.fresco.suite.ProtocolSuite.RoundSynchronization;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMacCheckProtocol;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzOutputProtocol;
+import dk.alexandra.fresco.suite.spdz.gates.SpdzStreamingMacCheckProtocol;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStreamingOpenedValueStore;
+import dk.alexandra.fresco.tools.commitment.CoinTossingComputation;
+import dk.alexandra.fresco.tools.commitment.HashBasedCommitmentSerializer;
 import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.stream.StreamSupport;
 
 /**
  * A default implementation of the round synchronization for spdz - mostly doing the MAC check if
- * needed.
+ * needed. If the opened values are accumulated by a {@link SpdzStreamingOpenedValueStore}, the
+ * complete chunks of values opened in a batch are folded after the batch, and only the accumulated
+ * value is checked.
  */
 public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResourcePool> {
 
@@ -26,7 +38,8 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
   private final int openValueThreshold;
   private final SpdzProtocolSuite spdzProtocolSuite;
   private final SecureRandom secRand;
-  private boolean isCheckRequired = false;
+  // One entry for each batch started but not yet finished, telling if the batch requires a check
+  private final Deque<Boolean> isCheckRequired = new ArrayDeque<>();
   private final int batchSize;
 
   /**
@@ -55,29 +68,65 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
     SpdzBuilder spdzBuilder = new SpdzBuilder(
         spdzProtocolSuite.createNumericContext(resourcePool));
     BatchEvaluationStrategy<SpdzResourcePool> batchStrategy = new BatchedStrategy<>();
-    BatchedProtocolEvaluator<SpdzResourcePool> evaluator =
-        new BatchedProtocolEvaluator<>(batchStrategy, spdzProtocolSuite, batchSize);
     OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
-    SpdzMacCheckProtocol macCheck = new SpdzMacCheckProtocol(
-        store.popValues(),
-        resourcePool.getModulus(),
-        resourcePool::createRandomGenerator,
-        resourcePool.getDataSupplier().getSecretSharedKey(),
-        resourcePool.getDrbgSeedBitLength());
+    BatchedProtocolEvaluator<SpdzResourcePool> evaluator;
     ProtocolBuilderNumeric sequential = spdzBuilder.createSequential();
-    macCheck.buildComputation(sequential);
+    if (store instanceof SpdzStreamingOpenedValueStore) {
+      if (!store.hasPendingValues()) {
+        return;
+      }
+      evaluator = new BatchedProtocolEvaluator<>(batchStrategy, uncheckedSuite(), batchSize);
+      new SpdzStreamingMacCheckProtocol(
+          (SpdzStreamingOpenedValueStore) store,
+          resourcePool::createRandomGenerator,
+          resourcePool.getDataSupplier().getSecretSharedKey(),
+          resourcePool.getDrbgSeedBitLength()).buildComputation(sequential);
+    } else {
+      evaluator = new BatchedProtocolEvaluator<>(batchStrategy, spdzProtocolSuite, batchSize);
+      SpdzMacCheckProtocol macCheck = new SpdzMacCheckProtocol(
+          store.popValues(),
+          resourcePool.getModulus(),
+          resourcePool::createRandomGenerator,
+          resourcePool.getDataSupplier().getSecretSharedKey(),
+          resourcePool.getDrbgSeedBitLength());
+      macCheck.buildComputation(sequential);
+    }
+    evaluator.eval(sequential.build(), resourcePool, network);
+  }
+
+  /**
+   * Tosses a seed for the challenges of the complete chunks of opened values in a {@link
+   * SpdzStreamingOpenedValueStore} and folds them.
+   */
+  protected void foldChunks(SpdzResourcePool resourcePool, Network network) {
+    SpdzBuilder spdzBuilder = new SpdzBuilder(
+        spdzProtocolSuite.createNumericContext(resourcePool));
+    BatchEvaluationStrategy<SpdzResourcePool> batchStrategy = new BatchedStrategy<>();
+    BatchedProtocolEvaluator<SpdzResourcePool> evaluator =
+        new BatchedProtocolEvaluator<>(batchStrategy, uncheckedSuite(), batchSize);
+    SpdzStreamingOpenedValueStore store =
+        (SpdzStreamingOpenedValueStore) resourcePool.getOpenedValueStore();
+    ProtocolBuilderNumeric sequential = spdzBuilder.createSequential();
+    sequential.seq(new CoinTossingComputation(resourcePool.getDrbgSeedBitLength() / 8,
+        new HashBasedCommitmentSerializer(), new AesCtrDrbg()))
+        .seq((seq, seed) -> {
+          store.foldChunks(resourcePool.createRandomGenerator(seed));
+          return null;
+        });
     evaluator.eval(sequential.build(), resourcePool, network);
   }
 
   @Override
   public void finishedBatch(int gatesEvaluated, SpdzResourcePool resourcePool, Network network) {
     OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
-    if (isCheckRequired) {
+    if (Boolean.TRUE.equals(isCheckRequired.poll())) {
       doMacCheck(resourcePool, network);
-      isCheckRequired = false;
     } else if (store.exceedsThreshold(openValueThreshold)) {
       doMacCheck(resourcePool, network);
-      isCheckRequired = false;
+    } else if (store instanceof SpdzStreamingOpenedValueStore
+        && ((SpdzStreamingOpenedValueStore) store).hasCompleteChunks()) {
+      // The values of the batch are now fixed, so the challenges for their chunks can be tossed
+      foldChunks(resourcePool, network);
     }
   }
 
@@ -93,14 +142,34 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
   public void beforeBatch(
       ProtocolCollection<SpdzResourcePool> protocols, SpdzResourcePool resourcePool,
       Network network) {
-    isCheckRequired = StreamSupport.stream(protocols.spliterator(), false)
+    boolean checkRequired = StreamSupport.stream(protocols.spliterator(), false)
         .anyMatch(p -> p instanceof SpdzOutputProtocol);
+    isCheckRequired.add(checkRequired);
     OpenedValueStore<SpdzSInt, FieldElement> store = resourcePool.getOpenedValueStore();
-    if (store.hasPendingValues() && isCheckRequired) {
+    if (store.hasPendingValues() && checkRequired) {
       doMacCheck(resourcePool, network);
     }
   }
 
+  /**
+   * Creates a suite evaluating as the spdz suite, but without a round synchronization. This is used
+   * for computations handling the values of a {@link SpdzStreamingOpenedValueStore}, which open no
+   * values themselves and must not trigger a check of values that are not yet folded.
+   */
+  private ProtocolSuiteNumeric<SpdzResourcePool> uncheckedSuite() {
+    return new ProtocolSuiteNumeric<SpdzResourcePool>() {
+      @Override
+      public BuilderFactoryNumeric init(SpdzResourcePool resourcePool) {
+        return spdzProtocolSuite.init(resourcePool);
+      }
+
+      @Override
+      public RoundSynchronization<SpdzResourcePool> createRoundSynchronization() {
+        return new DummyRoundSynchronization<>();
+      }
+    };
+  }
+
   protected int getBatchSize() {
     return batchSize;
   }
@@ -0,0 +1,103 @@
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multiplies two lists of secret values entry-wise using one triple per product. This is the same
+ * as a {@link SpdzMultProtocol} for each pair of entries, but the shares of the differences of all
+ * products are sent to each party in a single message and the opened differences are pushed to the
+ * opened value store in bulk.
+ */
+public class SpdzMultVectorProtocol extends SpdzNativeProtocol<List<DRes<SInt>>> {
+
+  private final List<DRes<SInt>> left;
+  private final List<DRes<SInt>> right;
+  private List<SpdzTriple> triples;
+  private List<SpdzSInt> differences;  // my shares of [x]-[a] followed by those of [y]-[b]
+  private List<DRes<SInt>> out;
+
+  /**
+   * Creates a new protocol multiplying {@code left} and {@code right} entry-wise.
+   *
+   * @param left the left factors
+   * @param right the right factors, must have the same size as {@code left}
+   */
+  public SpdzMultVectorProtocol(List<DRes<SInt>> left, List<DRes<SInt>> right) {
+    if (left.size() != right.size()) {
+      throw new IllegalArgumentException(
+          "Lists must have the same size, was " + left.size() + " and " + right.size());
+    }
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, SpdzResourcePool spdzResourcePool,
+      Network network) {
+    SpdzDataSupplier dataSupplier = spdzResourcePool.getDataSupplier();
+    FieldDefinition definition = spdzResourcePool.getFieldDefinition();
+    int size = left.size();
+    if (round == 0) {
+      triples = dataSupplier.getNextTriples(size);
+      differences = new ArrayList<>(2 * size);
+      List<FieldElement> shares = new ArrayList<>(2 * size);
+      for (int i = 0; i < size; i++) {
+        SpdzSInt epsilon = ((SpdzSInt) left.get(i).out()).subtract(triples.get(i).getA());
+        differences.add(epsilon);
+        shares.add(epsilon.getShare());
+      }
+      for (int i = 0; i < size; i++) {
+        SpdzSInt delta = ((SpdzSInt) right.get(i).out()).subtract(triples.get(i).getB());
+        differences.add(delta);
+        shares.add(delta.getShare());
+      }
+      network.sendToAll(definition.serialize(shares));
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      List<FieldElement> opened = null;
+      for (byte[] bytes : network.receiveFromAll()) {
+        List<FieldElement> shares = definition.deserializeList(bytes);
+        if (opened == null) {
+          opened = new ArrayList<>(shares);
+        } else {
+          for (int i = 0; i < shares.size(); i++) {
+            opened.set(i, opened.get(i).add(shares.get(i)));
+          }
+        }
+      }
+      FieldElement key = dataSupplier.getSecretSharedKey();
+      int myId = spdzResourcePool.getMyId();
+      out = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        FieldElement e = opened.get(i);
+        FieldElement d = opened.get(size + i);
+        FieldElement product = e.multiply(d);
+        SpdzSInt ed = new SpdzSInt(product, key.multiply(product));
+        SpdzTriple triple = triples.get(i);
+        out.add(triple.getC()
+            .add(triple.getB().multiply(e))
+            .add(triple.getA().multiply(d))
+            .add(ed, myId));
+      }
+      spdzResourcePool.getOpenedValueStore().pushOpenedValues(differences, opened);
+      triples = null;
+      differences = null;
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public List<DRes<SInt>> out() {
+    return out;
+  }
+}
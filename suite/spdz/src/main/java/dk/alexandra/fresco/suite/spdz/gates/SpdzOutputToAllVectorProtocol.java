@@ -0,0 +1,71 @@
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens a list of secret values to all parties. This is the same as a
+ * {@link SpdzOutputToAllProtocol} for each value, but the shares of all values are sent to each
+ * party in a single message and the opened values are pushed to the opened value store in bulk.
+ */
+public class SpdzOutputToAllVectorProtocol extends SpdzNativeProtocol<List<DRes<BigInteger>>>
+    implements SpdzOutputProtocol {
+
+  private final List<DRes<SInt>> in;
+  private List<SpdzSInt> closed;
+  private List<DRes<BigInteger>> out;
+
+  public SpdzOutputToAllVectorProtocol(List<DRes<SInt>> in) {
+    this.in = in;
+  }
+
+  @Override
+  public EvaluationStatus evaluate(int round, SpdzResourcePool spdzResourcePool,
+      Network network) {
+    FieldDefinition definition = spdzResourcePool.getFieldDefinition();
+    if (round == 0) {
+      closed = new ArrayList<>(in.size());
+      List<FieldElement> shares = new ArrayList<>(in.size());
+      for (DRes<SInt> value : in) {
+        SpdzSInt sint = (SpdzSInt) value.out();
+        closed.add(sint);
+        shares.add(sint.getShare());
+      }
+      network.sendToAll(definition.serialize(shares));
+      return EvaluationStatus.HAS_MORE_ROUNDS;
+    } else {
+      List<FieldElement> opened = null;
+      for (byte[] bytes : network.receiveFromAll()) {
+        List<FieldElement> shares = definition.deserializeList(bytes);
+        if (opened == null) {
+          opened = new ArrayList<>(shares);
+        } else {
+          for (int i = 0; i < shares.size(); i++) {
+            opened.set(i, opened.get(i).add(shares.get(i)));
+          }
+        }
+      }
+      spdzResourcePool.getOpenedValueStore().pushOpenedValues(closed, opened);
+      out = new ArrayList<>(opened.size());
+      for (FieldElement value : opened) {
+        BigInteger unsigned = definition.convertToUnsigned(value);
+        out.add(() -> unsigned);
+      }
+      closed = null;
+      return EvaluationStatus.IS_DONE;
+    }
+  }
+
+  @Override
+  public List<DRes<BigInteger>> out() {
+    return out;
+  }
+}
@@ -0,0 +1,87 @@
+package dk.alexandra.fresco.suite.spdz.gates;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStreamingOpenedValueStore;
+import dk.alexandra.fresco.tools.commitment.CoinTossingComputation;
+import dk.alexandra.fresco.tools.commitment.CommitmentComputation;
+import dk.alexandra.fresco.tools.commitment.HashBasedCommitmentSerializer;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Protocol which handles the MAC check of values accumulated by a {@link
+ * SpdzStreamingOpenedValueStore}. The parties first toss a seed for the challenges of the values
+ * not yet folded, and the check is then a single commit and open of this party's share of the
+ * difference between the accumulated mac and the key times the accumulated opened value. If this
+ * protocol reaches the end, no malicious activity was detected.
+ */
+public class SpdzStreamingMacCheckProtocol implements Computation<Void, ProtocolBuilderNumeric> {
+
+  private final SpdzStreamingOpenedValueStore store;
+  private final Function<byte[], Drbg> jointDrbgSupplier;
+  private final FieldElement alpha;
+  private final int drbgByteLength;
+
+  /**
+   * Protocol which handles the MAC check of values accumulated by a {@link
+   * SpdzStreamingOpenedValueStore}.
+   *
+   * @param store the store holding the opened values to check
+   * @param jointDrbgSupplier supplier of DRBG to be used for joint randomness
+   * @param alpha this party's key share
+   * @param drbgSeedBitLength seed length for the joint DRBG
+   */
+  public SpdzStreamingMacCheckProtocol(SpdzStreamingOpenedValueStore store,
+      Function<byte[], Drbg> jointDrbgSupplier, FieldElement alpha, int drbgSeedBitLength) {
+    this.store = store;
+    this.jointDrbgSupplier = jointDrbgSupplier;
+    this.alpha = alpha;
+    this.drbgByteLength = drbgSeedBitLength / 8;
+  }
+
+  @Override
+  public DRes<Void> buildComputation(ProtocolBuilderNumeric builder) {
+    final AesCtrDrbg localDrbg = new AesCtrDrbg();
+    final HashBasedCommitmentSerializer commitmentSerializer = new HashBasedCommitmentSerializer();
+    final FieldDefinition definition = builder
+        .getBasicNumericContext()
+        .getFieldDefinition();
+    return builder
+        .seq(new CoinTossingComputation(drbgByteLength, commitmentSerializer, localDrbg))
+        .seq((seq, seed) -> {
+          store.foldAll(jointDrbgSupplier.apply(seed));
+          Pair<List<SpdzSInt>, List<FieldElement>> toCheck = store.popValues();
+          if (toCheck.getFirst().size() != 1 || toCheck.getSecond().size() != 1) {
+            throw new IllegalStateException("Expected a single accumulated value to check, but got "
+                + toCheck.getSecond().size());
+          }
+          // compute delta_i as: gamma_i - alpha_i*a
+          FieldElement delta = toCheck.getFirst().get(0).getMac()
+              .subtract(alpha.multiply(toCheck.getSecond().get(0)));
+          return seq.seq(new CommitmentComputation(commitmentSerializer,
+              definition.serialize(delta), localDrbg));
+        })
+        .seq((seq, commitmentsRaw) -> {
+          FieldElement deltaSum =
+              definition.deserializeList(commitmentsRaw)
+                  .stream()
+                  .reduce(definition.createElement(0), FieldElement::add);
+          if (!BigInteger.ZERO.equals(definition.convertToUnsigned(deltaSum))) {
+            throw new MaliciousException(
+                "The sum of delta's was not 0. Someone was corrupting something amongst the "
+                    + "accumulated macs. Sum was " + deltaSum.toString() + " Aborting!");
+          }
+          return null;
+        });
+  }
+}
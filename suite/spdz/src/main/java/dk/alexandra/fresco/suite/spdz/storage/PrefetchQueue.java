@@ -0,0 +1,221 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.logging.metrics.FlightRecorderEvents;
+import dk.alexandra.fresco.logging.metrics.Histogram;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * A queue of preprocessed values which are produced in batches by a background producer.
+ *
+ * <p>
+ * Whenever the number of values available or requested drops to the low watermark, a batch
+ * bringing it back up to the high watermark is requested from the producer. The decision to
+ * request a batch only depends on the number of values taken from the queue, not on timing. Hence,
+ * as long as all parties take values in the same order and use the same watermarks, all parties
+ * request the same batches in the same order, which is needed since the batches are produced by an
+ * interactive protocol.
+ * </p>
+ *
+ * <p>
+ * The queue may be backed by several producers, e.g., independent instances of an interactive
+ * protocol. A request is then split into one batch per producer, and the batches are handed to the
+ * producers in round-robin order and taken from in the order they were requested. Thus the values
+ * are merged in the same order by all parties.
+ * </p>
+ *
+ * <p>
+ * The queue must only be used by a single consumer thread. Each producer must run the batch
+ * requests one at a time in the order in which they are submitted.
+ * </p>
+ *
+ * @param <T> the type of values in the queue
+ */
+class PrefetchQueue<T> {
+
+  private final List<ExecutorService> producers;
+  private final BatchProducer<T> batchProducer;
+  private final int lowWatermark;
+  private final int highWatermark;
+  private final ArrayDeque<T> ready;
+  private final ArrayDeque<Batch<T>> pending;
+  private int pendingAmount;
+  private int nextProducer;
+  private final Histogram stallTimes;
+  private long stalls;
+  private long stallNanos;
+
+  /**
+   * Creates a new queue with a single producer.
+   *
+   * @param producer single threaded executor running the batch requests
+   * @param batchProducer produces a batch of a given number of values, called by the producer
+   * @param lowWatermark a new batch is requested when no more than this many values are available
+   *     or requested
+   * @param highWatermark the number of values available or requested after requesting a batch
+   */
+  PrefetchQueue(ExecutorService producer, IntFunction<List<T>> batchProducer, int lowWatermark,
+      int highWatermark) {
+    this(Collections.singletonList(producer), (index, amount) -> batchProducer.apply(amount),
+        lowWatermark, highWatermark);
+  }
+
+  /**
+   * Creates a new queue with several producers.
+   *
+   * @param producers single threaded executors running the batch requests
+   * @param batchProducer produces a batch of a given number of values, called by the producer
+   *     with the given index
+   * @param lowWatermark new batches are requested when no more than this many values are
+   *     available or requested
+   * @param highWatermark the number of values available or requested after requesting batches
+   */
+  PrefetchQueue(List<ExecutorService> producers, BatchProducer<T> batchProducer,
+      int lowWatermark, int highWatermark) {
+    this(producers, batchProducer, lowWatermark, highWatermark, new Histogram());
+  }
+
+  /**
+   * Creates a new queue with several producers, recording the time spent waiting for the producers
+   * in the given histogram, which may be shared with other queues. Each wait is also a {@link
+   * FlightRecorderEvents Flight Recorder event}.
+   *
+   * @param producers single threaded executors running the batch requests
+   * @param batchProducer produces a batch of a given number of values, called by the producer
+   *     with the given index
+   * @param lowWatermark new batches are requested when no more than this many values are
+   *     available or requested
+   * @param highWatermark the number of values available or requested after requesting batches
+   * @param stallTimes histogram of the time in nanoseconds spent waiting for the producers
+   */
+  PrefetchQueue(List<ExecutorService> producers, BatchProducer<T> batchProducer,
+      int lowWatermark, int highWatermark, Histogram stallTimes) {
+    this.stallTimes = stallTimes;
+    this.producers = producers;
+    this.batchProducer = batchProducer;
+    this.lowWatermark = lowWatermark;
+    this.highWatermark = highWatermark;
+    this.ready = new ArrayDeque<>();
+    this.pending = new ArrayDeque<>();
+  }
+
+  /**
+   * Takes the next value from the queue, blocking until it has been produced.
+   *
+   * @return the next value
+   */
+  T next() {
+    int level = ready.size() + pendingAmount;
+    if (level <= lowWatermark) {
+      request(highWatermark - level);
+    }
+    if (ready.isEmpty()) {
+      Batch<T> batch = pending.remove();
+      if (!batch.values.isDone()) {
+        long start = System.nanoTime();
+        FlightRecorderEvents.recordStall(() -> waitFor(batch.values));
+        long stall = System.nanoTime() - start;
+        stallTimes.record(stall);
+        stallNanos += stall;
+        stalls++;
+      }
+      ready.addAll(waitFor(batch.values));
+      pendingAmount -= batch.amount;
+    }
+    return ready.pop();
+  }
+
+  private void request(int amount) {
+    int numProducers = producers.size();
+    for (int i = 0; i < numProducers; i++) {
+      int batchAmount = amount / numProducers + (i < amount % numProducers ? 1 : 0);
+      if (batchAmount > 0) {
+        int index = nextProducer;
+        nextProducer = (nextProducer + 1) % numProducers;
+        pending.add(new Batch<>(producers.get(index)
+            .submit(() -> batchProducer.produce(index, batchAmount)), batchAmount));
+        pendingAmount += batchAmount;
+      }
+    }
+  }
+
+  private List<T> waitFor(Future<List<T>> batch) {
+    return ExceptionConverter.safe(batch::get, "Preprocessing failed");
+  }
+
+  /**
+   * Gets the number of values produced and not yet taken.
+   */
+  int getAvailable() {
+    int available = ready.size();
+    for (Batch<T> batch : pending) {
+      if (batch.values.isDone()) {
+        available += batch.amount;
+      }
+    }
+    return available;
+  }
+
+  /**
+   * Gets the number of values requested and not yet produced.
+   */
+  int getPending() {
+    return ready.size() + pendingAmount - getAvailable();
+  }
+
+  /**
+   * Gets the number of times taking a value had to wait for the producer.
+   */
+  long getStalls() {
+    return stalls;
+  }
+
+  /**
+   * Gets the total time in nanoseconds spent waiting for the producer.
+   */
+  long getStallNanos() {
+    return stallNanos;
+  }
+
+  /**
+   * Resets the stall statistics.
+   */
+  void resetStatistics() {
+    stalls = 0;
+    stallNanos = 0;
+  }
+
+  /**
+   * Produces batches of values for a queue with several producers.
+   *
+   * @param <T> the type of values produced
+   */
+  @FunctionalInterface
+  interface BatchProducer<T> {
+
+    /**
+     * Produces a batch of values. Called by the producer with the given index.
+     *
+     * @param index the index of the producer
+     * @param amount the number of values to produce
+     * @return the values produced
+     */
+    List<T> produce(int index, int amount);
+  }
+
+  private static final class Batch<T> {
+
+    private final Future<List<T>> values;
+    private final int amount;
+
+    private Batch(Future<List<T>> values, int amount) {
+      this.values = values;
+      this.amount = amount;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.logging.PerformanceLogger;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A data supplier based on the Mascot protocol, which produces the preprocessed material in the
+ * background.
+ *
+ * <p>
+ * Unlike {@link SpdzMascotDataSupplier}, which runs Mascot whenever it runs out of a kind of
+ * preprocessed material, this supplier runs Mascot on a dedicated thread using its own network.
+ * Triples, random elements, bits and input masks are kept in separate queues. When a queue holds no
+ * more than the low watermark of values, including values requested but not yet produced, a batch
+ * bringing it up to the high watermark is requested. The online phase thus only waits for Mascot
+ * if it consumes values faster than they are produced. The time spent waiting is reported through
+ * {@link PerformanceLogger}.
+ * </p>
+ *
+ * <p>
+ * When a batch is requested only depends on the number of values consumed, so all parties must
+ * use the same watermarks. This ensures all parties run the Mascot protocol for the same batches in
+ * the same order.
+ * </p>
+ *
+ * <p>
+ * This is a {@link SpdzParallelMascotDataSupplier} with a single instance of Mascot.
+ * </p>
+ */
+public class SpdzAsyncMascotDataSupplier extends SpdzParallelMascotDataSupplier {
+
+  /**
+   * Creates {@link SpdzAsyncMascotDataSupplier}.
+   *
+   * @param myId this party's id
+   * @param numberOfPlayers number of players
+   * @param instanceId identifier used to distinguish parallel instances of Mascot
+   * @param tripleNetwork network supplier for network to be used by Mascot instance. The network
+   *     is created and used by the background thread only
+   * @param fieldDefinition field definition
+   * @param modBitLength bit length of modulus
+   * @param preprocessedValues callback to generate exponentiation pipes. Nullable.
+   * @param prgSeedLength bit length of prg
+   * @param lowWatermark a batch is requested when no more than this many values of a kind are
+   *     available or requested
+   * @param highWatermark the number of values of a kind available or requested after requesting
+   *     a batch
+   * @param ssk mac key share
+   * @param seedOts pre-computed base OTs
+   * @param drbg source of randomness
+   */
+  public SpdzAsyncMascotDataSupplier(int myId, int numberOfPlayers, int instanceId,
+      Supplier<Network> tripleNetwork, FieldDefinition fieldDefinition, int modBitLength,
+      Function<Integer, SpdzSInt[]> preprocessedValues, int prgSeedLength, int lowWatermark,
+      int highWatermark, FieldElement ssk, Map<Integer, RotList> seedOts, Drbg drbg) {
+    super(myId, numberOfPlayers, instanceId, index -> tripleNetwork.get(), fieldDefinition,
+        modBitLength, preprocessedValues, prgSeedLength, lowWatermark, highWatermark, ssk,
+        Collections.singletonList(Objects.requireNonNull(seedOts)),
+        Collections.singletonList(Objects.requireNonNull(drbg)));
+    Objects.requireNonNull(tripleNetwork);
+  }
+
+  /**
+   * Creates instance of {@link SpdzAsyncMascotDataSupplier}.
+   */
+  public static SpdzAsyncMascotDataSupplier createSimpleSupplier(int myId, int numberOfPlayers,
+      Supplier<Network> tripleNetwork, int modBitLength, FieldDefinition fieldDefinition,
+      Function<Integer, SpdzSInt[]> preprocessedValues, int lowWatermark, int highWatermark,
+      Map<Integer, RotList> seedOts, Drbg drbg, FieldElement ssk) {
+    int prgSeedLength = 256;
+    return new SpdzAsyncMascotDataSupplier(myId, numberOfPlayers, 1, tripleNetwork,
+        fieldDefinition, modBitLength, preprocessedValues, prgSeedLength, lowWatermark,
+        highWatermark, ssk, seedOts, drbg);
+  }
+}
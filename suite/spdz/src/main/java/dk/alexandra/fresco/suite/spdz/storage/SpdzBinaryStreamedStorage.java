@@ -0,0 +1,375 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.sce.resources.storage.Storage;
+import dk.alexandra.fresco.framework.sce.resources.storage.StreamedStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Streamed storage for SPDZ preprocessed material using a compact binary format, as a faster
+ * alternative to the Java serialization used by
+ * {@link dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl}.
+ *
+ * <p>
+ * Each named store is a file holding a single kind of value. The file starts with a header holding
+ * a magic number, a format version, the kind of the values, the byte length of a serialized field
+ * element and the modulus of the field. The header is followed by the values, where each field
+ * element is serialized to a fixed number of bytes using the field definition. Triples, bits, input
+ * masks and field elements thus take up a fixed number of bytes each. Exponentiation pipes and
+ * moduli are prefixed by their length.
+ * </p>
+ *
+ * <p>
+ * Stores are read through memory mapped windows of the file, which are loaded into memory as a
+ * whole when mapped so that the values are read sequentially from memory. The storage supports the
+ * values stored by the SPDZ preprocessing, i.e., {@link SpdzTriple}, {@link SpdzSInt}, {@link
+ * SpdzInputMask}, arrays of {@link SpdzSInt}, {@link FieldElement} and {@link BigInteger}, so it can
+ * be used with {@link SpdzStorageDataSupplier}. Use {@link SpdzStorageConverter} to convert stores
+ * written using Java serialization.
+ * </p>
+ */
+public class SpdzBinaryStreamedStorage implements StreamedStorage {
+
+  static final int MAGIC = 0x46535044;
+  static final byte VERSION = 1;
+  static final byte KIND_MODULUS = 1;
+  static final byte KIND_ELEMENT = 2;
+  static final byte KIND_SINT = 3;
+  static final byte KIND_TRIPLE = 4;
+  static final byte KIND_INPUT_MASK = 5;
+  static final byte KIND_SINT_ARRAY = 6;
+  private static final int WINDOW_SIZE = 1 << 24;
+
+  private final Storage storage;
+  private final FieldDefinition definition;
+  private final int elementLength;
+  private final byte[] modulus;
+  private final Map<String, Reader> readers;
+  private final Map<String, Writer> writers;
+
+  /**
+   * Creates a new binary streamed storage. For non-streamable objects, the given internal storage
+   * is used.
+   *
+   * @param internalStorage the storage used for non-streamable objects
+   * @param definition the definition of the field of the stored values
+   */
+  public SpdzBinaryStreamedStorage(Storage internalStorage, FieldDefinition definition) {
+    this.storage = Objects.requireNonNull(internalStorage);
+    this.definition = Objects.requireNonNull(definition);
+    this.elementLength = definition.serialize(definition.createElement(0)).length;
+    this.modulus = definition.getModulus().toByteArray();
+    this.readers = new HashMap<>();
+    this.writers = new HashMap<>();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T extends Serializable> T getNext(String name) throws NoMoreElementsException {
+    Writer writer = writers.get(name);
+    if (writer != null) {
+      writer.flush();
+    }
+    Reader reader = readers.get(name);
+    if (reader == null) {
+      reader = new Reader(name);
+      readers.put(name, reader);
+    }
+    return (T) reader.next();
+  }
+
+  @Override
+  public boolean putNext(String name, Serializable o) {
+    Writer writer = writers.get(name);
+    if (writer == null) {
+      writer = new Writer(name, kindOf(o));
+      writers.put(name, writer);
+    }
+    writer.write(o);
+    return true;
+  }
+
+  @Override
+  public void shutdown() {
+    for (Writer writer : writers.values()) {
+      writer.close();
+    }
+    for (Reader reader : readers.values()) {
+      reader.close();
+    }
+    writers.clear();
+    readers.clear();
+  }
+
+  @Override
+  public boolean putObject(String name, String key, Serializable o) {
+    return this.storage.putObject(name, key, o);
+  }
+
+  @Override
+  public <T extends Serializable> T getObject(String name, String key) {
+    return this.storage.getObject(name, key);
+  }
+
+  private static byte kindOf(Serializable o) {
+    if (o instanceof BigInteger) {
+      return KIND_MODULUS;
+    } else if (o instanceof FieldElement) {
+      return KIND_ELEMENT;
+    } else if (o instanceof SpdzSInt) {
+      return KIND_SINT;
+    } else if (o instanceof SpdzTriple) {
+      return KIND_TRIPLE;
+    } else if (o instanceof SpdzInputMask) {
+      return KIND_INPUT_MASK;
+    } else if (o instanceof SpdzSInt[]) {
+      return KIND_SINT_ARRAY;
+    }
+    throw new IllegalArgumentException("Cannot store values of type " + o.getClass().getName());
+  }
+
+  /**
+   * Writes the values of a single store.
+   */
+  private final class Writer {
+
+    private final String name;
+    private final byte kind;
+    private final DataOutputStream output;
+
+    private Writer(String name, byte kind) {
+      this.name = name;
+      this.kind = kind;
+      try {
+        this.output =
+            new DataOutputStream(new BufferedOutputStream(new FileOutputStream(name), 1 << 16));
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeByte(kind);
+        output.writeInt(elementLength);
+        output.writeInt(modulus.length);
+        output.write(modulus);
+      } catch (IOException e) {
+        throw new RuntimeException("IOException accessing store name: " + name, e);
+      }
+    }
+
+    private void write(Serializable o) {
+      if (kindOf(o) != kind) {
+        throw new IllegalArgumentException(
+            "Cannot store " + o.getClass().getName() + " in store name " + name);
+      }
+      try {
+        switch (kind) {
+          case KIND_MODULUS:
+            byte[] bytes = ((BigInteger) o).toByteArray();
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            break;
+          case KIND_ELEMENT:
+            writeElement((FieldElement) o);
+            break;
+          case KIND_SINT:
+            writeSInt((SpdzSInt) o);
+            break;
+          case KIND_TRIPLE:
+            SpdzTriple triple = (SpdzTriple) o;
+            writeSInt(triple.getA());
+            writeSInt(triple.getB());
+            writeSInt(triple.getC());
+            break;
+          case KIND_INPUT_MASK:
+            SpdzInputMask mask = (SpdzInputMask) o;
+            writeSInt(mask.getMask());
+            if (mask.getRealValue() == null) {
+              output.writeByte(0);
+              output.write(new byte[elementLength]);
+            } else {
+              output.writeByte(1);
+              writeElement(mask.getRealValue());
+            }
+            break;
+          default:
+            SpdzSInt[] values = (SpdzSInt[]) o;
+            output.writeInt(values.length);
+            for (SpdzSInt value : values) {
+              writeSInt(value);
+            }
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("IOException writing to store name " + name, e);
+      }
+    }
+
+    private void writeElement(FieldElement element) throws IOException {
+      output.write(definition.serialize(element));
+    }
+
+    private void writeSInt(SpdzSInt value) throws IOException {
+      writeElement(value.getShare());
+      writeElement(value.getMac());
+    }
+
+    private void flush() {
+      try {
+        output.flush();
+      } catch (IOException e) {
+        throw new RuntimeException("IOException writing to store name " + name, e);
+      }
+    }
+
+    private void close() {
+      try {
+        output.close();
+      } catch (IOException e) {
+        // Do nothing - nothing can be done
+      }
+    }
+  }
+
+  /**
+   * Reads the values of a single store through memory mapped windows of the file.
+   */
+  private final class Reader {
+
+    private final String name;
+    private final FileChannel channel;
+    private final byte kind;
+    private long position;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private Reader(String name) throws NoMoreElementsException {
+      this.name = name;
+      try {
+        this.channel = FileChannel.open(Paths.get(name), StandardOpenOption.READ);
+      } catch (NoSuchFileException e) {
+        throw new NoMoreElementsException(
+            "IOException accessing store name: " + name + ". Likely the file does not exist", e);
+      } catch (IOException e) {
+        throw new NoMoreElementsException("IOException accessing store name: " + name, e);
+      }
+      ByteBuffer header = view(0, 14);
+      if (header.getInt() != MAGIC || header.get() != VERSION) {
+        close();
+        throw new IllegalArgumentException("Store name " + name + " is not a binary SPDZ store");
+      }
+      this.kind = header.get();
+      int storedElementLength = header.getInt();
+      byte[] storedModulus = new byte[header.getInt()];
+      view(14, storedModulus.length).get(storedModulus);
+      if (storedElementLength != elementLength || !Arrays.equals(storedModulus, modulus)) {
+        close();
+        throw new IllegalArgumentException(
+            "Store name " + name + " holds values of a different field");
+      }
+      this.position = 14 + storedModulus.length;
+    }
+
+    private Serializable next() throws NoMoreElementsException {
+      switch (kind) {
+        case KIND_MODULUS:
+          int length = view(position, 4).getInt();
+          byte[] bytes = new byte[length];
+          view(position + 4, length).get(bytes);
+          position += 4 + length;
+          return new BigInteger(bytes);
+        case KIND_ELEMENT:
+          FieldElement element = readElement(view(position, elementLength));
+          position += elementLength;
+          return element;
+        case KIND_SINT:
+          SpdzSInt value = readSInt(view(position, 2 * elementLength));
+          position += 2 * elementLength;
+          return value;
+        case KIND_TRIPLE:
+          ByteBuffer buffer = view(position, 6 * elementLength);
+          position += 6 * elementLength;
+          return new SpdzTriple(readSInt(buffer), readSInt(buffer), readSInt(buffer));
+        case KIND_INPUT_MASK:
+          int maskLength = 3 * elementLength + 1;
+          ByteBuffer maskBuffer = view(position, maskLength);
+          position += maskLength;
+          SpdzSInt mask = readSInt(maskBuffer);
+          if (maskBuffer.get() == 0) {
+            return new SpdzInputMask(mask);
+          } else {
+            return new SpdzInputMask(mask, readElement(maskBuffer));
+          }
+        default:
+          int count = view(position, 4).getInt();
+          ByteBuffer pipeBuffer = view(position + 4, 2 * elementLength * count);
+          position += 4 + 2 * elementLength * count;
+          SpdzSInt[] values = new SpdzSInt[count];
+          for (int i = 0; i < count; i++) {
+            values[i] = readSInt(pipeBuffer);
+          }
+          return values;
+      }
+    }
+
+    private FieldElement readElement(ByteBuffer buffer) {
+      byte[] bytes = new byte[elementLength];
+      buffer.get(bytes);
+      return definition.deserialize(bytes);
+    }
+
+    private SpdzSInt readSInt(ByteBuffer buffer) {
+      return new SpdzSInt(readElement(buffer), readElement(buffer));
+    }
+
+    /**
+     * Gets the mapped window positioned at the given offset of the file, with at least the given
+     * number of bytes remaining. A new window is mapped and loaded if the current one does not
+     * cover the bytes.
+     */
+    private ByteBuffer view(long offset, int length) throws NoMoreElementsException {
+      if (window == null || offset < windowStart
+          || offset + length > windowStart + window.limit()) {
+        try {
+          long size = channel.size();
+          if (offset + length > size) {
+            throw new NoMoreElementsException(
+                "No more elements available in store name " + name, null);
+          }
+          long mapped = Math.min(size - offset, Math.max(WINDOW_SIZE, length));
+          window = channel.map(FileChannel.MapMode.READ_ONLY, offset, mapped);
+          window.load();
+          windowStart = offset;
+        } catch (IOException e) {
+          throw new NoMoreElementsException("IOException reading store name: " + name, e);
+        }
+      }
+      window.position((int) (offset - windowStart));
+      return window;
+    }
+
+    private void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Do nothing - nothing can be done
+      }
+    }
+  }
+}
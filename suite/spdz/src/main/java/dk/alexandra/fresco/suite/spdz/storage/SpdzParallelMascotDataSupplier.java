@@ -0,0 +1,338 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ValidationUtils;
+import dk.alexandra.fresco.logging.PerformanceLogger;
+import dk.alexandra.fresco.logging.metrics.Histogram;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.preprocessing.MascotFormatConverter;
+import dk.alexandra.fresco.tools.mascot.Mascot;
+import dk.alexandra.fresco.tools.mascot.MascotResourcePoolImpl;
+import dk.alexandra.fresco.tools.mascot.MascotSecurityParameters;
+import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
+import dk.alexandra.fresco.tools.mascot.field.InputMask;
+import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A data supplier based on the Mascot protocol, which produces the preprocessed material in the
+ * background using several independent instances of Mascot.
+ *
+ * <p>
+ * Each instance has its own seed OTs, its own network and its own thread, so the instances run
+ * concurrently and do not share any state other than the mac key share. Each instance must be
+ * given its own seed OTs and its own DRBG: the OT extension of Mascot is only secure if its seed
+ * OTs are used by a single instance, so sets of seed OTs or DRBGs given to more than one instance
+ * are rejected. Triples, random elements,
+ * bits and input masks are kept in separate queues. When a queue holds no more than the low
+ * watermark of values, including values requested but not yet produced, batches bringing it up to
+ * the high watermark are requested, split evenly between the instances. The online phase thus only
+ * waits for Mascot if it consumes values faster than the instances together produce them. The time
+ * spent waiting is reported through {@link PerformanceLogger}, and its distribution is kept in a
+ * {@link Histogram}, see {@link #getStallTimes()}.
+ * </p>
+ *
+ * <p>
+ * When a batch is requested, and which instance produces it, only depends on the number of values
+ * consumed, so all parties must use the same watermarks and the same number of instances. This
+ * ensures that each instance runs the Mascot protocol for the same batches in the same order at all
+ * parties, and that the output of the instances is merged in the same order.
+ * </p>
+ */
+public class SpdzParallelMascotDataSupplier implements SpdzDataSupplier, PerformanceLogger,
+    Closeable {
+
+  public static final String TRIPLES_AVAILABLE = "Triples available";
+  public static final String RANDOM_ELEMENTS_AVAILABLE = "Random elements available";
+  public static final String BITS_AVAILABLE = "Bits available";
+  public static final String INPUT_MASKS_AVAILABLE = "Input masks available";
+  public static final String PENDING = "Values requested and not yet produced";
+  public static final String STALLS = "Times waited for preprocessing";
+  public static final String STALL_TIME = "Time waited for preprocessing (ms)";
+  /**
+   * The number of seconds {@link #close()} waits for the instances to finish requested batches.
+   */
+  public static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(SpdzParallelMascotDataSupplier.class);
+  private final Histogram stallTimes = new Histogram();
+  private final int myId;
+  private final int firstInstanceId;
+  private final int numberOfPlayers;
+  private final IntFunction<Network> tripleNetworks;
+  private final FieldDefinition fieldDefinition;
+  private final Function<Integer, SpdzSInt[]> preprocessedValues;
+  private final FieldElement ssk;
+  private final int prgSeedLength;
+  private final int modBitLength;
+  private final List<Drbg> drbgs;
+  private final List<Map<Integer, RotList>> seedOts;
+  private final List<ExecutorService> producers;
+  private final Mascot[] mascots;
+
+  private final PrefetchQueue<MultiplicationTriple> triples;
+  private final Map<Integer, PrefetchQueue<InputMask>> masks;
+  private final PrefetchQueue<AuthenticatedElement> randomElements;
+  private final PrefetchQueue<AuthenticatedElement> randomBits;
+
+  /**
+   * Creates {@link SpdzParallelMascotDataSupplier}. The number of Mascot instances is the number
+   * of seed OT sets given.
+   *
+   * @param myId this party's id
+   * @param numberOfPlayers number of players
+   * @param firstInstanceId identifier of the first Mascot instance. The instances are numbered
+   *     consecutively from this
+   * @param tripleNetworks creates the network to be used by the Mascot instance with the given
+   *     index, counting from 0. Each network is created and used by the thread of its instance
+   *     only
+   * @param fieldDefinition field definition
+   * @param modBitLength bit length of modulus
+   * @param preprocessedValues callback to generate exponentiation pipes. Nullable.
+   * @param prgSeedLength bit length of prg
+   * @param lowWatermark batches are requested when no more than this many values of a kind are
+   *     available or requested
+   * @param highWatermark the number of values of a kind available or requested after requesting
+   *     batches
+   * @param ssk mac key share, which is shared by all instances
+   * @param seedOts pre-computed base OTs, one set per instance. The sets must be distinct, and
+   *     must not be used by any other Mascot instance
+   * @param drbgs sources of randomness, one per instance. The DRBGs must be distinct
+   */
+  public SpdzParallelMascotDataSupplier(int myId, int numberOfPlayers, int firstInstanceId,
+      IntFunction<Network> tripleNetworks, FieldDefinition fieldDefinition, int modBitLength,
+      Function<Integer, SpdzSInt[]> preprocessedValues, int prgSeedLength, int lowWatermark,
+      int highWatermark, FieldElement ssk, List<Map<Integer, RotList>> seedOts,
+      List<Drbg> drbgs) {
+    ValidationUtils.assertValidId(myId, numberOfPlayers);
+    if (lowWatermark < 0 || highWatermark <= lowWatermark) {
+      throw new IllegalArgumentException("Watermarks must satisfy 0 <= low < high, but were "
+          + lowWatermark + " and " + highWatermark);
+    }
+    if (seedOts.isEmpty() || seedOts.size() != drbgs.size()) {
+      throw new IllegalArgumentException("Need seed OTs and a DRBG for each of at least one "
+          + "instance, but got " + seedOts.size() + " and " + drbgs.size());
+    }
+    assertDistinctSeedOts(seedOts);
+    assertDistinct(drbgs, "DRBG");
+    this.myId = myId;
+    this.numberOfPlayers = numberOfPlayers;
+    this.firstInstanceId = firstInstanceId;
+    this.tripleNetworks = Objects.requireNonNull(tripleNetworks);
+    this.fieldDefinition = Objects.requireNonNull(fieldDefinition);
+    this.preprocessedValues = preprocessedValues; // Allow null.
+    this.prgSeedLength = prgSeedLength;
+    this.modBitLength = modBitLength;
+    this.ssk = Objects.requireNonNull(ssk);
+    this.seedOts = new ArrayList<>(seedOts);
+    this.drbgs = new ArrayList<>(drbgs);
+    this.mascots = new Mascot[seedOts.size()];
+    this.producers = new ArrayList<>(seedOts.size());
+    for (int i = 0; i < seedOts.size(); i++) {
+      String name = "Mascot-" + myId + "-" + (firstInstanceId + i);
+      producers.add(Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+      }));
+    }
+    this.triples = createQueue((index, amount) -> getMascot(index).getTriples(amount),
+        lowWatermark, highWatermark);
+    this.masks = new HashMap<>();
+    for (int partyId = 1; partyId <= numberOfPlayers; partyId++) {
+      int towardsPartyId = partyId;
+      masks.put(partyId, createQueue(
+          (index, amount) -> getMascot(index).getInputMasks(towardsPartyId, amount),
+          lowWatermark, highWatermark));
+    }
+    this.randomElements = createQueue(
+        (index, amount) -> getMascot(index).getRandomElements(amount), lowWatermark,
+        highWatermark);
+    this.randomBits = createQueue((index, amount) -> getMascot(index).getRandomBits(amount),
+        lowWatermark, highWatermark);
+  }
+
+  /**
+   * Checks that no two instances, and no two parties of the same instance, use the same base OTs.
+   * Different maps may still hold the same {@link RotList}, so the lists themselves are checked.
+   */
+  private static void assertDistinctSeedOts(List<Map<Integer, RotList>> seedOts) {
+    assertDistinct(seedOts, "seed OTs");
+    Map<RotList, Integer> owners = new IdentityHashMap<>();
+    for (int i = 0; i < seedOts.size(); i++) {
+      for (RotList rotList : seedOts.get(i).values()) {
+        Integer owner = owners.putIfAbsent(rotList, i);
+        if (owner != null) {
+          throw new IllegalArgumentException("Each instance needs its own seed OTs, but a seed OT"
+              + " list of instance " + i + " is also used by instance " + owner);
+        }
+      }
+    }
+  }
+
+  private static void assertDistinct(List<?> perInstance, String kind) {
+    Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < perInstance.size(); i++) {
+      if (!seen.add(perInstance.get(i))) {
+        throw new IllegalArgumentException("Each instance needs its own " + kind
+            + ", but the " + kind + " of instance " + i + " is shared with another instance");
+      }
+    }
+  }
+
+  private <T> PrefetchQueue<T> createQueue(PrefetchQueue.BatchProducer<T> batchProducer,
+      int lowWatermark, int highWatermark) {
+    return new PrefetchQueue<>(producers, (index, amount) -> {
+      logger.trace("Producing batch of {} on instance {}", amount, firstInstanceId + index);
+      return batchProducer.produce(index, amount);
+    }, lowWatermark, highWatermark, stallTimes);
+  }
+
+  /**
+   * Gets the histogram of the time in nanoseconds spent waiting for preprocessed values, which can
+   * be registered in a {@link dk.alexandra.fresco.logging.metrics.MetricsRegistry}.
+   */
+  public Histogram getStallTimes() {
+    return stallTimes;
+  }
+
+  /**
+   * Gets the number of Mascot instances.
+   */
+  public int getNumberOfInstances() {
+    return mascots.length;
+  }
+
+  @Override
+  public SpdzTriple getNextTriple() {
+    return MascotFormatConverter.toSpdzTriple(triples.next());
+  }
+
+  @Override
+  public SpdzSInt getNextRandomFieldElement() {
+    return MascotFormatConverter.toSpdzSInt(randomElements.next());
+  }
+
+  @Override
+  public SpdzSInt[] getNextExpPipe() {
+    logger.trace("Getting another exp pipe");
+    SpdzSInt[] pipe = preprocessedValues.apply(modBitLength);
+    logger.trace("Got another exp pipe");
+    return pipe;
+  }
+
+  @Override
+  public SpdzInputMask getNextInputMask(int towardsPlayerId) {
+    return MascotFormatConverter.toSpdzInputMask(masks.get(towardsPlayerId).next());
+  }
+
+  @Override
+  public SpdzSInt getNextBit() {
+    return MascotFormatConverter.toSpdzSInt(randomBits.next());
+  }
+
+  @Override
+  public FieldDefinition getFieldDefinition() {
+    return fieldDefinition;
+  }
+
+  @Override
+  public FieldElement getSecretSharedKey() {
+    return ssk;
+  }
+
+  /**
+   * Gets the Mascot instance with the given index, creating it on first use. Only called by the
+   * thread of that instance.
+   */
+  private Mascot getMascot(int index) {
+    if (mascots[index] == null) {
+      int numCandidatesPerTriple = 3;
+      mascots[index] = new Mascot(
+          new MascotResourcePoolImpl(myId, numberOfPlayers, firstInstanceId + index,
+              drbgs.get(index), seedOts.get(index),
+              new MascotSecurityParameters(modBitLength, prgSeedLength,
+                  numCandidatesPerTriple), this.fieldDefinition),
+          tripleNetworks.apply(index), ssk);
+    }
+    return mascots[index];
+  }
+
+  @Override
+  public void reset() {
+    triples.resetStatistics();
+    randomElements.resetStatistics();
+    randomBits.resetStatistics();
+    masks.values().forEach(PrefetchQueue::resetStatistics);
+    stallTimes.reset();
+  }
+
+  @Override
+  public Map<String, Long> getLoggedValues() {
+    Map<String, Long> values = new HashMap<>();
+    long inputMasksAvailable = 0;
+    long pending = triples.getPending() + randomElements.getPending() + randomBits.getPending();
+    long stalls = triples.getStalls() + randomElements.getStalls() + randomBits.getStalls();
+    long stallNanos =
+        triples.getStallNanos() + randomElements.getStallNanos() + randomBits.getStallNanos();
+    for (PrefetchQueue<InputMask> queue : masks.values()) {
+      inputMasksAvailable += queue.getAvailable();
+      pending += queue.getPending();
+      stalls += queue.getStalls();
+      stallNanos += queue.getStallNanos();
+    }
+    values.put(TRIPLES_AVAILABLE, (long) triples.getAvailable());
+    values.put(RANDOM_ELEMENTS_AVAILABLE, (long) randomElements.getAvailable());
+    values.put(BITS_AVAILABLE, (long) randomBits.getAvailable());
+    values.put(INPUT_MASKS_AVAILABLE, inputMasksAvailable);
+    values.put(PENDING, pending);
+    values.put(STALLS, stalls);
+    values.put(STALL_TIME, TimeUnit.NANOSECONDS.toMillis(stallNanos));
+    return values;
+  }
+
+  /**
+   * Stops the background threads. Batches already requested are still produced, as interrupting
+   * an instance in the middle of a batch would leave the instances of the parties out of step.
+   * Waits at most {@link #CLOSE_TIMEOUT_SECONDS} seconds in total for this.
+   */
+  @Override
+  public void close() {
+    producers.forEach(ExecutorService::shutdown);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CLOSE_TIMEOUT_SECONDS);
+    try {
+      for (ExecutorService producer : producers) {
+        long remaining = deadline - System.nanoTime();
+        if (!producer.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+          logger.warn("Mascot instances did not finish within {} seconds",
+              CLOSE_TIMEOUT_SECONDS);
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
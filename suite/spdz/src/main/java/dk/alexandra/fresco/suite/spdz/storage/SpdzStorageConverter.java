@@ -0,0 +1,73 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * Converts stores of preprocessed material written using Java serialization, e.g., by
+ * {@link dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl}, to the
+ * binary format of {@link SpdzBinaryStreamedStorage}.
+ */
+public final class SpdzStorageConverter {
+
+  private SpdzStorageConverter() {
+  }
+
+  /**
+   * Converts a single store.
+   *
+   * @param source the name of the store using Java serialization
+   * @param target the name of the binary store to write
+   * @param definition the definition of the field of the stored values
+   * @return the number of values converted
+   */
+  public static long convert(String source, String target, FieldDefinition definition) {
+    SpdzBinaryStreamedStorage storage =
+        new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition);
+    long count = 0;
+    try (ObjectInputStream input =
+        new ObjectInputStream(new BufferedInputStream(new FileInputStream(source)))) {
+      while (true) {
+        Serializable value;
+        try {
+          value = (Serializable) input.readObject();
+        } catch (EOFException e) {
+          break;
+        }
+        storage.putNext(target, value);
+        count++;
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      throw new RuntimeException("Could not convert store name " + source, e);
+    } finally {
+      storage.shutdown();
+    }
+    return count;
+  }
+
+  /**
+   * Converts stores from the command line.
+   *
+   * @param args the modulus of the field followed by pairs of source and target store names
+   */
+  public static void main(String[] args) {
+    if (args.length < 3 || args.length % 2 == 0) {
+      System.err.println("Usage: SpdzStorageConverter <modulus> <source> <target> "
+          + "[<source> <target> ...]");
+      System.exit(1);
+    }
+    FieldDefinition definition = new BigIntegerFieldDefinition(new BigInteger(args[0]));
+    for (int i = 1; i < args.length; i += 2) {
+      long count = convert(args[i], args[i + 1], definition);
+      System.out.println("Converted " + count + " values from " + args[i] + " to " + args[i + 1]);
+    }
+  }
+}
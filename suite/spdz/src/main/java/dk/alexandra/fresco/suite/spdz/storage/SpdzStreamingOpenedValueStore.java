@@ -0,0 +1,190 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link OpenedValueStore} for SPDZ which does not keep the opened values until they are
+ * checked, but folds them into a random linear combination <i>a</i> of the opened values and the
+ * corresponding combination <i>gamma</i> of the mac shares. The memory used is thus bounded by the
+ * values opened in a single batch rather than all values opened between two mac checks.
+ *
+ * <p>
+ * Opened values are folded in chunks. The coefficients of a chunk of <i>n</i> values are the
+ * powers <i>c<sup>n</sup>, ..., c<sup>1</sup></i> of a challenge <i>c</i> drawn from a joint
+ * {@link Drbg} seeded by a coin toss made after the values of the chunk are opened. No value thus
+ * gets a constant coefficient, and since each chunk is weighted by its own challenge, errors in
+ * different chunks cannot be made to cancel out. An error in a chunk goes undetected only if the
+ * challenge of the chunk is a root of a non-zero polynomial of degree at most <i>n</i> fixed before
+ * the challenge is known, i.e., with probability at most <i>n/p</i> for a field of size <i>p</i>.
+ * </p>
+ *
+ * <p>
+ * Complete chunks are kept until {@link #foldChunks(Drbg)} is called, which {@link
+ * dk.alexandra.fresco.suite.spdz.SpdzRoundSynchronization} does after each batch closing a chunk.
+ * The values of the last incomplete chunk are folded by {@link #foldAll(Drbg)} with a seed tossed
+ * when the values are checked, after which the single pair (<i>gamma</i>, <i>a</i>) returned by
+ * {@link #popValues()} is checked by {@link
+ * dk.alexandra.fresco.suite.spdz.gates.SpdzStreamingMacCheckProtocol}.
+ * </p>
+ *
+ * <p>
+ * All parties must use this store with the same chunk size, since the coefficients depend on how
+ * opened values are chunked.
+ * </p>
+ */
+public class SpdzStreamingOpenedValueStore implements OpenedValueStore<SpdzSInt, FieldElement> {
+
+  /**
+   * The default number of opened values folded at a time.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+  // Extra random bytes for a challenge, such that it is statistically close to uniform
+  private static final int EXTRA_CHALLENGE_BYTES = 8;
+  private final FieldDefinition definition;
+  private final int chunkSize;
+  private final int challengeByteLength;
+  private final List<SpdzSInt> unfoldedMacs;
+  private final List<FieldElement> unfoldedOpened;
+  private FieldElement accumulatedOpened;
+  private FieldElement accumulatedMac;
+  private long pending;
+
+  /**
+   * Creates a new streaming store folding {@value #DEFAULT_CHUNK_SIZE} opened values at a time.
+   *
+   * @param definition the definition of the field of the opened values
+   */
+  public SpdzStreamingOpenedValueStore(FieldDefinition definition) {
+    this(definition, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates a new streaming store.
+   *
+   * @param definition the definition of the field of the opened values
+   * @param chunkSize the number of opened values folded at a time
+   */
+  public SpdzStreamingOpenedValueStore(FieldDefinition definition, int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive, but is " + chunkSize);
+    }
+    this.definition = definition;
+    this.chunkSize = chunkSize;
+    this.challengeByteLength =
+        (definition.getModulus().bitLength() + Byte.SIZE - 1) / Byte.SIZE + EXTRA_CHALLENGE_BYTES;
+    this.unfoldedMacs = new ArrayList<>();
+    this.unfoldedOpened = new ArrayList<>();
+    this.accumulatedOpened = definition.createElement(0);
+    this.accumulatedMac = definition.createElement(0);
+  }
+
+  @Override
+  public void pushOpenedValues(List<SpdzSInt> newSharesWithMacs,
+      List<FieldElement> newOpenedValues) {
+    unfoldedMacs.addAll(newSharesWithMacs);
+    unfoldedOpened.addAll(newOpenedValues);
+    pending += newSharesWithMacs.size();
+  }
+
+  @Override
+  public void pushOpenedValue(SpdzSInt newShareWithMac, FieldElement newOpenedValue) {
+    unfoldedMacs.add(newShareWithMac);
+    unfoldedOpened.add(newOpenedValue);
+    pending++;
+  }
+
+  /**
+   * Tells if at least one complete chunk of opened values is waiting to be folded.
+   *
+   * @return true if a chunk is complete
+   */
+  public boolean hasCompleteChunks() {
+    return unfoldedOpened.size() >= chunkSize;
+  }
+
+  /**
+   * Folds the complete chunks of opened values, drawing a challenge for each chunk. The values of
+   * an incomplete chunk are kept.
+   *
+   * @param jointDrbg a joint drbg seeded after the values of the chunks were opened
+   */
+  public void foldChunks(Drbg jointDrbg) {
+    fold(jointDrbg, unfoldedOpened.size() - unfoldedOpened.size() % chunkSize);
+  }
+
+  /**
+   * Folds all opened values not yet folded, drawing a challenge for each chunk including the last
+   * incomplete chunk.
+   *
+   * @param jointDrbg a joint drbg seeded after the values were opened
+   */
+  public void foldAll(Drbg jointDrbg) {
+    fold(jointDrbg, unfoldedOpened.size());
+  }
+
+  /**
+   * Returns the random linear combinations of the mac shares and the opened values accumulated
+   * since the last call, as a single pair to check. The share of the returned element is zero,
+   * since only its mac is used in the check.
+   *
+   * @throws IllegalStateException if some opened values are not yet folded
+   */
+  @Override
+  public Pair<List<SpdzSInt>, List<FieldElement>> popValues() {
+    if (!unfoldedOpened.isEmpty()) {
+      throw new IllegalStateException(
+          unfoldedOpened.size() + " opened values must be folded before they are checked");
+    }
+    List<SpdzSInt> macs = new ArrayList<>(1);
+    List<FieldElement> opened = new ArrayList<>(1);
+    if (pending > 0) {
+      macs.add(new SpdzSInt(definition.createElement(0), accumulatedMac));
+      opened.add(accumulatedOpened);
+    }
+    accumulatedOpened = definition.createElement(0);
+    accumulatedMac = definition.createElement(0);
+    pending = 0;
+    return new Pair<>(macs, opened);
+  }
+
+  @Override
+  public boolean hasPendingValues() {
+    return pending > 0;
+  }
+
+  @Override
+  public boolean exceedsThreshold(int threshold) {
+    return pending > threshold;
+  }
+
+  /**
+   * Folds the first values into the accumulated values. Each chunk is evaluated as a polynomial in
+   * its challenge using Horner's rule, adding before multiplying such that the coefficients are
+   * <i>c<sup>n</sup>, ..., c<sup>1</sup></i>.
+   */
+  private void fold(Drbg jointDrbg, int count) {
+    byte[] bytes = new byte[challengeByteLength];
+    for (int from = 0; from < count; from += chunkSize) {
+      jointDrbg.nextBytes(bytes);
+      FieldElement challenge = definition.createElement(new BigInteger(1, bytes));
+      FieldElement opened = definition.createElement(0);
+      FieldElement mac = definition.createElement(0);
+      for (int i = from; i < Math.min(from + chunkSize, count); i++) {
+        opened = opened.add(unfoldedOpened.get(i)).multiply(challenge);
+        mac = mac.add(unfoldedMacs.get(i).getMac()).multiply(challenge);
+      }
+      accumulatedOpened = accumulatedOpened.add(opened);
+      accumulatedMac = accumulatedMac.add(mac);
+    }
+    unfoldedOpened.subList(0, count).clear();
+    unfoldedMacs.subList(0, count).clear();
+  }
+}
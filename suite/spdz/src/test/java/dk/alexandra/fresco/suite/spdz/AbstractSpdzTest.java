@@ -8,6 +8,7 @@ import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.TestThreadRunner;
 import dk.alexandra.fresco.framework.builder.numeric.DefaultPreprocessedValues;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.builder.numeric.field.MersennePrimeFieldDefinition;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
@@ -27,6 +28,7 @@ import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.util.OpenedValueStore;
 import dk.alexandra.fresco.framework.util.OpenedValueStoreImpl;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
@@ -124,7 +126,7 @@ public abstract class AbstractSpdzTest {
       }
 
       ProtocolEvaluator<SpdzResourcePool> evaluator =
-          new BatchedProtocolEvaluator<>(batchEvalStrat, protocolSuite);
+          createEvaluator(playerId, batchEvalStrat, protocolSuite);
 
       if (logPerformance) {
         evaluator = new EvaluatorLoggingDecorator<>(evaluator);
@@ -162,6 +164,12 @@ public abstract class AbstractSpdzTest {
     return new SpdzProtocolSuite(maxBitLength);
   }
 
+  protected ProtocolEvaluator<SpdzResourcePool> createEvaluator(int playerId,
+      BatchEvaluationStrategy<SpdzResourcePool> batchEvalStrat,
+      ProtocolSuiteNumeric<SpdzResourcePool> protocolSuite) {
+    return new BatchedProtocolEvaluator<>(batchEvalStrat, protocolSuite);
+  }
+
   protected void runTest(
       TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, PreprocessingStrategy preProStrat, int noOfParties,
@@ -199,14 +207,20 @@ public abstract class AbstractSpdzTest {
     return exponentiationPipe;
   }
 
-  private Drbg getDrbg(int myId, int prgSeedLength) {
+  /**
+   * Creates a DRBG with a seed derived deterministically from the given value.
+   */
+  public static Drbg getDrbg(int seedValue, int prgSeedLength) {
     byte[] seed = new byte[prgSeedLength / 8];
-    new Random(myId).nextBytes(seed);
+    new Random(seedValue).nextBytes(seed);
     return AesCtrDrbgFactory.fromDerivedSeed(seed);
   }
 
-  private Map<Integer, RotList> getSeedOts(int myId, List<Integer> partyIds, int prgSeedLength,
-      Drbg drbg, Network network) {
+  /**
+   * Runs dummy base OTs with each other party to get the seed OTs for a Mascot instance.
+   */
+  public static Map<Integer, RotList> getSeedOts(int myId, List<Integer> partyIds,
+      int prgSeedLength, Drbg drbg, Network network) {
     Map<Integer, RotList> seedOts = new HashMap<>();
     for (Integer otherId : partyIds) {
       if (myId != otherId) {
@@ -275,8 +289,19 @@ public abstract class AbstractSpdzTest {
           new FilebasedStreamedStorageImpl(new InMemoryStorage());
       supplier = new SpdzStorageDataSupplier(storage, storageName, numberOfParties);
     }
-    return new SpdzResourcePoolImpl(myId, numberOfParties, new OpenedValueStoreImpl<>(), supplier,
-        AesCtrDrbg::new);
+    return new SpdzResourcePoolImpl(myId, numberOfParties, createOpenedValueStore(definition),
+        supplier, AesCtrDrbg::new);
+  }
+
+  /**
+   * Creates the store of opened values used by each party.
+   *
+   * @param definition the field definition used
+   * @return the store of opened values
+   */
+  protected OpenedValueStore<SpdzSInt, FieldElement> createOpenedValueStore(
+      FieldDefinition definition) {
+    return new OpenedValueStoreImpl<>();
   }
 
   private SpdzSInt[] computeSInts(DRes<List<DRes<SInt>>> pipe) {
@@ -0,0 +1,82 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchSizeController;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.lib.common.compare.CompareTests.TestCompareLT;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.dummy.arithmetic.BasicArithmeticTests.TestSumAndMult;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+
+/**
+ * Runs SPDZ with adaptive batch sizes, where the parties would choose different batch sizes from
+ * their own measurements. Party 1 is given a large byte budget and party 2 a budget of a single
+ * byte, so the evaluation only succeeds if the parties agree on the batch sizes. Each evaluation
+ * gets controllers of its own.
+ */
+public class TestSpdzAdaptiveBatchSize extends AbstractSpdzTest {
+
+  private final Map<Integer, List<AdaptiveBatchSizeController>> controllers =
+      new ConcurrentHashMap<>();
+
+  @Override
+  protected ProtocolEvaluator<SpdzResourcePool> createEvaluator(int playerId,
+      BatchEvaluationStrategy<SpdzResourcePool> batchEvalStrat,
+      ProtocolSuiteNumeric<SpdzResourcePool> protocolSuite) {
+    long maxBytesPerBatch = playerId == 1 ? Long.MAX_VALUE : 1;
+    List<AdaptiveBatchSizeController> created = new ArrayList<>();
+    controllers.put(playerId, created);
+    return new BatchedProtocolEvaluator<>(batchEvalStrat, protocolSuite, () -> {
+      AdaptiveBatchSizeController controller =
+          new AdaptiveBatchSizeController(2, 64, 8, 4, maxBytesPerBatch);
+      created.add(controller);
+      return controller;
+    }, false);
+  }
+
+  @Test(timeout = 60000)
+  public void testSumAndMult() {
+    runTest(new TestSumAndMult<>(), PreprocessingStrategy.DUMMY, 2);
+    assertAgreement();
+  }
+
+  @Test(timeout = 60000)
+  public void testSumAndMultThreeParties() {
+    runTest(new TestSumAndMult<>(), PreprocessingStrategy.DUMMY, 3);
+    assertAgreement();
+    assertAgreement(1, 3);
+  }
+
+  @Test(timeout = 60000)
+  public void testCompareLT() {
+    runTest(new TestCompareLT<>(), PreprocessingStrategy.DUMMY, 2);
+    assertAgreement();
+  }
+
+  private void assertAgreement() {
+    assertAgreement(1, 2);
+  }
+
+  private void assertAgreement(int firstId, int secondId) {
+    List<AdaptiveBatchSizeController> firsts = controllers.get(firstId);
+    List<AdaptiveBatchSizeController> seconds = controllers.get(secondId);
+    assertEquals(firsts.size(), seconds.size());
+    long measured = 0;
+    for (int i = 0; i < firsts.size(); i++) {
+      Map<String, Long> first = firsts.get(i).getLoggedValues();
+      Map<String, Long> second = seconds.get(i).getLoggedValues();
+      measured += first.get(AdaptiveBatchSizeController.BATCHES_MEASURED);
+      assertEquals(first, second);
+    }
+    assertTrue(measured > 0);
+  }
+}
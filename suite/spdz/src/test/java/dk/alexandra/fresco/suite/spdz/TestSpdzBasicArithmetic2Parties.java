@@ -82,6 +82,12 @@ public class TestSpdzBasicArithmetic2Parties extends AbstractSpdzTest {
         PreprocessingStrategy.DUMMY, 2);
   }
 
+  @Test
+  public void test_MultAndOpenList() {
+    runTest(new BasicArithmeticTests.TestMultAndOpenList<>(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
   @Test
   public void test_Sum_And_Output_Sequential() {
     runTest(new BasicArithmeticTests.TestSumAndMult<>(),
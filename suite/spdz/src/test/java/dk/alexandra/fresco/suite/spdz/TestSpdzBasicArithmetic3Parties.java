@@ -41,6 +41,12 @@ public class TestSpdzBasicArithmetic3Parties extends AbstractSpdzTest {
         PreprocessingStrategy.DUMMY, 3);
   }
 
+  @Test
+  public void test_MultAndOpenList() {
+    runTest(new BasicArithmeticTests.TestMultAndOpenList<>(),
+        PreprocessingStrategy.DUMMY, 3);
+  }
+
   @Test
   public void test_Alternating() {
     runTest(new BasicArithmeticTests.TestAlternatingMultAdd<>(),
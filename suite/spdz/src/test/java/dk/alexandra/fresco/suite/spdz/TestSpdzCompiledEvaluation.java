@@ -0,0 +1,29 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.suite.dummy.arithmetic.CompiledEvaluationTests;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import org.junit.Test;
+
+/**
+ * Tests recording SPDZ applications once and replaying them with other inputs.
+ */
+public class TestSpdzCompiledEvaluation extends AbstractSpdzTest {
+
+  @Test
+  public void testReplayMultiplications() {
+    runTest(new CompiledEvaluationTests.TestReplayMultiplications<>(
+        () -> createProtocolSuite(64)), PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void testReplayMultiplicationsThreeParties() {
+    runTest(new CompiledEvaluationTests.TestReplayMultiplications<>(
+        () -> createProtocolSuite(64)), PreprocessingStrategy.DUMMY, 3);
+  }
+
+  @Test
+  public void testBranchOnOpenedNotCompiled() {
+    runTest(new CompiledEvaluationTests.TestBranchOnOpenedNotCompiled<>(
+        () -> createProtocolSuite(64)), PreprocessingStrategy.DUMMY, 2);
+  }
+}
@@ -0,0 +1,155 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.PipelinedProtocolEvaluator;
+import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.framework.util.OpenedValueStoreImpl;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs SPDZ using the pipelined evaluator with batches small enough to make several batches be in
+ * the pipeline at the same time, while outputs in the batches require MAC checks.
+ */
+public class TestSpdzPipelinedEvaluation extends AbstractSpdzTest {
+
+  private static final int OUTPUTS = 40;
+  private final AtomicInteger macChecks = new AtomicInteger();
+
+  @Before
+  public void reset() {
+    macChecks.set(0);
+  }
+
+  @Override
+  protected ProtocolEvaluator<SpdzResourcePool> createEvaluator(int playerId,
+      BatchEvaluationStrategy<SpdzResourcePool> batchEvalStrat,
+      ProtocolSuiteNumeric<SpdzResourcePool> protocolSuite) {
+    return new PipelinedProtocolEvaluator<>(protocolSuite, 8, 3);
+  }
+
+  @Override
+  protected OpenedValueStore<SpdzSInt, FieldElement> createOpenedValueStore(
+      FieldDefinition definition) {
+    return new OpenedValueStoreImpl<SpdzSInt, FieldElement>() {
+      @Override
+      public Pair<List<SpdzSInt>, List<FieldElement>> popValues() {
+        macChecks.incrementAndGet();
+        return super.popValues();
+      }
+    };
+  }
+
+  @Test
+  public void testOutputsPipelined() {
+    runTest(new TestIndependentOutputs<>(-1), PreprocessingStrategy.DUMMY, 2);
+    // Each party checks after the batches with outputs, not only when the evaluation is done
+    assertTrue("Expected MAC checks during the evaluation, got " + macChecks.get(),
+        macChecks.get() > 2 * 2);
+  }
+
+  @Test
+  public void testOutputsPipelinedThreeParties() {
+    runTest(new TestIndependentOutputs<>(-1), PreprocessingStrategy.DUMMY, 3);
+    assertTrue(macChecks.get() > 3 * 2);
+  }
+
+  @Test
+  public void testModifiedShareFailsMacCheck() {
+    int noOfParties = 2;
+    for (int cheatingPartyId = 1; cheatingPartyId <= noOfParties; cheatingPartyId++) {
+      runTest(new TestIndependentOutputs<>(cheatingPartyId), PreprocessingStrategy.DUMMY,
+          noOfParties);
+    }
+  }
+
+  /**
+   * Inputs, multiplies and opens many independent values. If a cheating party is given, this party
+   * doubles its share of one of the values before opening it, and the evaluation must fail with a
+   * {@link MaliciousException}.
+   */
+  private static class TestIndependentOutputs<ResourcePoolT extends SpdzResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final int cheatingPartyId;
+
+    TestIndependentOutputs(int cheatingPartyId) {
+      this.cheatingPartyId = cheatingPartyId;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = producer -> producer
+              .par(par -> {
+                int noOfParties = par.getBasicNumericContext().getNoOfParties();
+                List<DRes<BigInteger>> outputs = new ArrayList<>();
+                for (int i = 0; i < OUTPUTS; i++) {
+                  int index = i;
+                  outputs.add(par.seq(seq -> {
+                    Numeric numeric = seq.numeric();
+                    DRes<SInt> input =
+                        numeric.input(BigInteger.valueOf(index), 1 + index % noOfParties);
+                    return numeric.mult(input, numeric.known(BigInteger.valueOf(3)));
+                  }).seq((seq, product) -> {
+                    SInt value = product;
+                    if (index == OUTPUTS / 2
+                        && seq.getBasicNumericContext().getMyId() == cheatingPartyId) {
+                      FieldElement two =
+                          seq.getBasicNumericContext().getFieldDefinition().createElement(2);
+                      value = ((SpdzSInt) value).multiply(two);
+                    }
+                    SInt finalValue = value;
+                    return seq.numeric().open(() -> finalValue);
+                  }));
+                }
+                return () -> outputs.stream().map(DRes::out).collect(Collectors.toList());
+              });
+          if (cheatingPartyId > 0) {
+            try {
+              runApplication(app);
+              fail("The modified share should make the MAC check fail");
+            } catch (RuntimeException e) {
+              assertThat(e.getCause(), IsInstanceOf.instanceOf(MaliciousException.class));
+            }
+          } else {
+            List<BigInteger> outputs = runApplication(app);
+            for (int i = 0; i < OUTPUTS; i++) {
+              assertEquals(BigInteger.valueOf(3 * i), outputs.get(i));
+            }
+            assertFalse(conf.getResourcePool().getOpenedValueStore().hasPendingValues());
+          }
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package dk.alexandra.fresco.suite.spdz.maccheck;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.lib.common.math.integer.division.DivisionTests.TestDivision;
+import dk.alexandra.fresco.suite.dummy.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.suite.spdz.AbstractSpdzTest;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzStreamingOpenedValueStore;
+import org.junit.Test;
+
+/**
+ * Runs computations with the opened values accumulated by a {@link SpdzStreamingOpenedValueStore}.
+ */
+public class TestSpdzStreamingMacCheck extends AbstractSpdzTest {
+
+  @Override
+  protected OpenedValueStore<SpdzSInt, FieldElement> createOpenedValueStore(
+      FieldDefinition definition) {
+    // A small chunk size to fold several chunks between checks
+    return new SpdzStreamingOpenedValueStore(definition, 7);
+  }
+
+  @Test
+  public void testInputFromAll() {
+    runTest(new BasicArithmeticTests.TestInputFromAll<>(), PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void testMultiplications() {
+    runTest(new BasicArithmeticTests.TestLotsMult<>(), PreprocessingStrategy.DUMMY, 3);
+  }
+
+  @Test
+  public void testDivision() {
+    runTest(new TestDivision<>(), PreprocessingStrategy.DUMMY, 2, 512, 150, 16);
+  }
+}
@@ -0,0 +1,157 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.builder.numeric.field.MersennePrimeFieldDefinition;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.suite.spdz.AbstractSpdzTest;
+import dk.alexandra.fresco.suite.spdz.NetManager;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Runs two parties each with a data supplier producing preprocessed values with Mascot, and checks
+ * that the values of the parties fit together.
+ */
+public abstract class AbstractMascotDataSupplierTest {
+
+  static final int PRG_SEED_LENGTH = 256;
+  static final int MOD_BIT_LENGTH = 64;
+  static final int NO_OF_PARTIES = 2;
+  final MersennePrimeFieldDefinition definition =
+      MersennePrimeFieldDefinition.find(MOD_BIT_LENGTH);
+  private final List<Integer> ports;
+  private ExecutorService executorService;
+
+  AbstractMascotDataSupplierTest(List<Integer> ports) {
+    this.ports = ports;
+  }
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * The values a party got from its supplier.
+   */
+  static class Result {
+
+    final List<SpdzTriple> triples = new ArrayList<>();
+    final List<SpdzSInt> bits = new ArrayList<>();
+    final List<SpdzInputMask> masks = new ArrayList<>();
+    FieldElement ssk;
+    Map<String, Long> loggedValues;
+  }
+
+  /**
+   * Creates the supplier of a party, gets values from it using {@link #getValues(SpdzDataSupplier,
+   * int, Result)} and closes it again.
+   *
+   * @param myId the id of the party
+   * @param otManager networks for the base OTs
+   * @param tripleManagers networks for Mascot, one per instance
+   * @return the values of the party
+   */
+  abstract Result run(int myId, NetManager otManager, List<NetManager> tripleManagers);
+
+  /**
+   * Runs {@link #run(int, NetManager, List)} for all parties at the same time.
+   *
+   * @param noOfInstances the number of Mascot instances of each party
+   * @return the values of each party, ordered by party id
+   */
+  List<Result> runParties(int noOfInstances) throws Exception {
+    NetManager otManager = new NetManager(ports);
+    List<NetManager> tripleManagers = new ArrayList<>();
+    for (int instance = 0; instance < noOfInstances; instance++) {
+      tripleManagers.add(new NetManager(ports));
+    }
+    List<Future<Result>> futures = new ArrayList<>();
+    for (int myId = 1; myId <= NO_OF_PARTIES; myId++) {
+      int finalMyId = myId;
+      futures.add(executorService.submit(() -> run(finalMyId, otManager, tripleManagers)));
+    }
+    List<Result> results = new ArrayList<>();
+    for (Future<Result> future : futures) {
+      results.add(future.get());
+    }
+    otManager.close();
+    tripleManagers.forEach(NetManager::close);
+    return results;
+  }
+
+  /**
+   * Gets triples from a supplier, and some other values after every fourth triple.
+   */
+  void getValues(SpdzDataSupplier supplier, int noOfTriples, Result result) {
+    for (int i = 0; i < noOfTriples; i++) {
+      result.triples.add(supplier.getNextTriple());
+      if (i % 4 == 0) {
+        result.bits.add(supplier.getNextBit());
+        result.masks.add(supplier.getNextInputMask(1));
+        supplier.getNextRandomFieldElement();
+      }
+    }
+  }
+
+  Map<Integer, RotList> getSeedOts(int myId, Drbg drbg, Network network) {
+    List<Integer> partyIds =
+        IntStream.rangeClosed(1, NO_OF_PARTIES).boxed().collect(Collectors.toList());
+    return AbstractSpdzTest.getSeedOts(myId, partyIds, PRG_SEED_LENGTH, drbg, network);
+  }
+
+  /**
+   * Checks that the shares of the two parties open to valid triples, bits and input masks, all
+   * authenticated under the same mac key.
+   */
+  void assertValid(Result first, Result second, int noOfTriples) {
+    BigInteger modulus = definition.getModulus();
+    BigInteger alpha = open(first.ssk, second.ssk);
+    assertEquals(noOfTriples, first.triples.size());
+    for (int i = 0; i < first.triples.size(); i++) {
+      SpdzTriple one = first.triples.get(i);
+      SpdzTriple two = second.triples.get(i);
+      BigInteger a = open(one.getA().getShare(), two.getA().getShare());
+      BigInteger b = open(one.getB().getShare(), two.getB().getShare());
+      BigInteger c = open(one.getC().getShare(), two.getC().getShare());
+      assertEquals(c, a.multiply(b).mod(modulus));
+      assertEquals(open(one.getC().getMac(), two.getC().getMac()),
+          c.multiply(alpha).mod(modulus));
+    }
+    for (int i = 0; i < first.bits.size(); i++) {
+      BigInteger bit = open(first.bits.get(i).getShare(), second.bits.get(i).getShare());
+      assertTrue(bit.equals(BigInteger.ZERO) || bit.equals(BigInteger.ONE));
+    }
+    for (int i = 0; i < first.masks.size(); i++) {
+      BigInteger mask = open(first.masks.get(i).getMask().getShare(),
+          second.masks.get(i).getMask().getShare());
+      assertEquals(definition.convertToUnsigned(first.masks.get(i).getRealValue()), mask);
+    }
+  }
+
+  private BigInteger open(FieldElement first, FieldElement second) {
+    return definition.convertToUnsigned(first.add(second));
+  }
+}
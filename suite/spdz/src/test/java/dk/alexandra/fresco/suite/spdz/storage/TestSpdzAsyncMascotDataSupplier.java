@@ -0,0 +1,56 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.suite.spdz.AbstractSpdzTest;
+import dk.alexandra.fresco.suite.spdz.NetManager;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class TestSpdzAsyncMascotDataSupplier extends AbstractMascotDataSupplierTest {
+
+  public TestSpdzAsyncMascotDataSupplier() {
+    super(Arrays.asList(11001, 11002));
+  }
+
+  @Override
+  Result run(int myId, NetManager otManager, List<NetManager> tripleManagers) {
+    Drbg drbg = AbstractSpdzTest.getDrbg(myId, PRG_SEED_LENGTH);
+    Map<Integer, RotList> seedOts = getSeedOts(myId, drbg, otManager.createExtraNetwork(myId));
+    Result result = new Result();
+    result.ssk = SpdzMascotDataSupplier.createRandomSsk(definition, PRG_SEED_LENGTH);
+    try (SpdzAsyncMascotDataSupplier supplier = SpdzAsyncMascotDataSupplier
+        .createSimpleSupplier(myId, NO_OF_PARTIES,
+            () -> tripleManagers.get(0).createExtraNetwork(myId), MOD_BIT_LENGTH, definition,
+            null, 4, 16, seedOts, drbg, result.ssk)) {
+      getValues(supplier, 40, result);
+      result.loggedValues = supplier.getLoggedValues();
+    }
+    return result;
+  }
+
+  @Test
+  public void testPreprocessedValuesAreValid() throws Exception {
+    List<Result> results = runParties(1);
+    assertValid(results.get(0), results.get(1), 40);
+    for (Result result : results) {
+      assertTrue(result.loggedValues.get(SpdzAsyncMascotDataSupplier.STALLS) >= 1);
+      assertTrue(result.loggedValues.containsKey(SpdzAsyncMascotDataSupplier.STALL_TIME));
+      assertTrue(result.loggedValues.get(SpdzAsyncMascotDataSupplier.TRIPLES_AVAILABLE)
+          + result.loggedValues.get(SpdzAsyncMascotDataSupplier.PENDING) > 0);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWatermarks() {
+    SpdzAsyncMascotDataSupplier.createSimpleSupplier(1, NO_OF_PARTIES, () -> null,
+        MOD_BIT_LENGTH, definition, null, 16, 16, new HashMap<>(),
+        AesCtrDrbgFactory.fromDerivedSeed(new byte[32]), definition.createElement(1));
+  }
+}
@@ -0,0 +1,168 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.sce.resources.storage.FilebasedStreamedStorageImpl;
+import dk.alexandra.fresco.framework.sce.resources.storage.InMemoryStorage;
+import dk.alexandra.fresco.framework.sce.resources.storage.exceptions.NoMoreElementsException;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.File;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestSpdzBinaryStreamedStorage {
+
+  private static final BigInteger MODULUS = new BigInteger(
+      "6703903964971298549787012499123814115273848577471136527425966013026501536706464354255445443244279389455058889493431223951165286470575994074291745908195329");
+  private final FieldDefinition definition = new BigIntegerFieldDefinition(MODULUS);
+  private final List<String> fileNames = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    for (String fileName : fileNames) {
+      new File(fileName).delete();
+    }
+  }
+
+  private String name(String name) {
+    String fileName = "binary_" + name;
+    fileNames.add(fileName);
+    return fileName;
+  }
+
+  private SpdzSInt sint(int share, int mac) {
+    return new SpdzSInt(definition.createElement(share), definition.createElement(mac));
+  }
+
+  private void assertSIntEquals(SpdzSInt expected, SpdzSInt actual) {
+    assertEquals(expected.getShare().toBigInteger(), actual.getShare().toBigInteger());
+    assertEquals(expected.getMac().toBigInteger(), actual.getMac().toBigInteger());
+  }
+
+  @Test
+  public void testRoundTrip() throws NoMoreElementsException {
+    SpdzBinaryStreamedStorage storage =
+        new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition);
+    String triples = name("triples");
+    String masks = name("masks");
+    String pipes = name("pipes");
+    for (int i = 0; i < 100; i++) {
+      storage.putNext(triples, new SpdzTriple(sint(i, 1), sint(2, i), sint(-i, 3)));
+    }
+    storage.putNext(masks, new SpdzInputMask(sint(1, 2)));
+    storage.putNext(masks, new SpdzInputMask(sint(3, 4), definition.createElement(5)));
+    storage.putNext(pipes, new SpdzSInt[]{sint(1, 2), sint(3, 4)});
+    storage.putNext(pipes, new SpdzSInt[0]);
+    for (int i = 0; i < 100; i++) {
+      SpdzTriple triple = storage.getNext(triples);
+      assertSIntEquals(sint(i, 1), triple.getA());
+      assertSIntEquals(sint(2, i), triple.getB());
+      assertSIntEquals(sint(-i, 3), triple.getC());
+    }
+    SpdzInputMask first = storage.getNext(masks);
+    assertSIntEquals(sint(1, 2), first.getMask());
+    assertNull(first.getRealValue());
+    SpdzInputMask second = storage.getNext(masks);
+    assertSIntEquals(sint(3, 4), second.getMask());
+    assertEquals(BigInteger.valueOf(5), second.getRealValue().toBigInteger());
+    SpdzSInt[] pipe = storage.getNext(pipes);
+    assertEquals(2, pipe.length);
+    assertSIntEquals(sint(3, 4), pipe[1]);
+    assertEquals(0, storage.<SpdzSInt[]>getNext(pipes).length);
+    storage.shutdown();
+  }
+
+  @Test(expected = NoMoreElementsException.class)
+  public void testMissingStore() throws NoMoreElementsException {
+    new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition).getNext(name("missing"));
+  }
+
+  @Test(expected = NoMoreElementsException.class)
+  public void testEndOfStore() throws NoMoreElementsException {
+    SpdzBinaryStreamedStorage storage =
+        new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition);
+    String bits = name("bits");
+    storage.putNext(bits, sint(1, 2));
+    storage.getNext(bits);
+    storage.getNext(bits);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDifferentField() throws NoMoreElementsException {
+    String bits = name("field");
+    SpdzBinaryStreamedStorage storage =
+        new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition);
+    storage.putNext(bits, sint(1, 2));
+    storage.shutdown();
+    new SpdzBinaryStreamedStorage(new InMemoryStorage(),
+        new BigIntegerFieldDefinition(BigInteger.valueOf(65521))).getNext(bits);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMixedKinds() {
+    SpdzBinaryStreamedStorage storage =
+        new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition);
+    String mixed = name("mixed");
+    storage.putNext(mixed, sint(1, 2));
+    try {
+      storage.putNext(mixed, new SpdzTriple(sint(1, 1), sint(1, 1), sint(1, 1)));
+    } finally {
+      storage.shutdown();
+    }
+  }
+
+  @Test
+  public void testConvertAndUseWithDataSupplier() {
+    String prefix = "binary_supplier_";
+    FilebasedStreamedStorageImpl serialized =
+        new FilebasedStreamedStorageImpl(new InMemoryStorage());
+    String[] stores = {SpdzStorageDataSupplier.MODULUS_KEY, SpdzStorageDataSupplier.SSK_KEY,
+        SpdzStorageDataSupplier.TRIPLE_STORAGE, SpdzStorageDataSupplier.BIT_STORAGE,
+        SpdzStorageDataSupplier.INPUT_STORAGE + 1, SpdzStorageDataSupplier.EXP_PIPE_STORAGE};
+    serialized.putNext(name("old_" + stores[0]), MODULUS);
+    serialized.putNext(name("old_" + stores[1]), definition.createElement(42));
+    serialized.putNext(name("old_" + stores[2]), new SpdzTriple(sint(1, 2), sint(3, 4),
+        sint(5, 6)));
+    serialized.putNext(name("old_" + stores[3]), sint(1, 7));
+    serialized.putNext(name("old_" + stores[4]), new SpdzInputMask(sint(8, 9),
+        definition.createElement(10)));
+    serialized.putNext(name("old_" + stores[5]), new SpdzSInt[]{sint(11, 12)});
+    serialized.shutdown();
+    for (String store : stores) {
+      assertEquals(1, SpdzStorageConverter.convert("binary_old_" + store,
+          name("supplier_" + store), definition));
+    }
+
+    SpdzStorageDataSupplier supplier = new SpdzStorageDataSupplier(
+        new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition), prefix, 2);
+    assertEquals(MODULUS, supplier.getFieldDefinition().getModulus());
+    FieldElement ssk = supplier.getSecretSharedKey();
+    assertEquals(BigInteger.valueOf(42), ssk.toBigInteger());
+    assertSIntEquals(sint(5, 6), supplier.getNextTriple().getC());
+    assertSIntEquals(sint(1, 7), supplier.getNextBit());
+    assertEquals(BigInteger.valueOf(10),
+        supplier.getNextInputMask(1).getRealValue().toBigInteger());
+    assertSIntEquals(sint(11, 12), supplier.getNextExpPipe()[0]);
+  }
+
+  @Test
+  public void testSerializedWidth() {
+    SpdzBinaryStreamedStorage storage =
+        new SpdzBinaryStreamedStorage(new InMemoryStorage(), definition);
+    String bits = name("width");
+    storage.putNext(bits, sint(1, 2));
+    storage.shutdown();
+    byte[] modulus = MODULUS.toByteArray();
+    int elementLength = definition.serialize(definition.createElement(0)).length;
+    assertEquals(14 + modulus.length + 2 * elementLength, new File(bits).length());
+  }
+}
@@ -0,0 +1,109 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.suite.spdz.AbstractSpdzTest;
+import dk.alexandra.fresco.suite.spdz.NetManager;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class TestSpdzParallelMascotDataSupplier extends AbstractMascotDataSupplierTest {
+
+  private static final int NO_OF_INSTANCES = 3;
+
+  public TestSpdzParallelMascotDataSupplier() {
+    super(Arrays.asList(11011, 11012));
+  }
+
+  @Override
+  Result run(int myId, NetManager otManager, List<NetManager> tripleManagers) {
+    Network otNetwork = otManager.createExtraNetwork(myId);
+    List<Map<Integer, RotList>> seedOts = new ArrayList<>();
+    List<Drbg> drbgs = new ArrayList<>();
+    for (int instance = 0; instance < NO_OF_INSTANCES; instance++) {
+      Drbg drbg = AbstractSpdzTest.getDrbg(myId * NO_OF_INSTANCES + instance, PRG_SEED_LENGTH);
+      drbgs.add(drbg);
+      seedOts.add(getSeedOts(myId, drbg, otNetwork));
+    }
+    Result result = new Result();
+    result.ssk = SpdzMascotDataSupplier.createRandomSsk(definition, PRG_SEED_LENGTH);
+    try (SpdzParallelMascotDataSupplier supplier = new SpdzParallelMascotDataSupplier(myId,
+        NO_OF_PARTIES, 1, index -> tripleManagers.get(index).createExtraNetwork(myId), definition,
+        MOD_BIT_LENGTH, null, PRG_SEED_LENGTH, 4, 24, result.ssk, seedOts, drbgs)) {
+      assertEquals(NO_OF_INSTANCES, supplier.getNumberOfInstances());
+      getValues(supplier, 60, result);
+      result.loggedValues = supplier.getLoggedValues();
+    }
+    return result;
+  }
+
+  @Test
+  public void testPreprocessedValuesAreValid() throws Exception {
+    List<Result> results = runParties(NO_OF_INSTANCES);
+    // the values of all instances are authenticated under the same key
+    assertValid(results.get(0), results.get(1), 60);
+    for (Result result : results) {
+      assertTrue(result.loggedValues.get(SpdzParallelMascotDataSupplier.STALLS) >= 1);
+      assertTrue(result.loggedValues.get(SpdzParallelMascotDataSupplier.TRIPLES_AVAILABLE)
+          + result.loggedValues.get(SpdzParallelMascotDataSupplier.PENDING) > 0);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingDrbg() {
+    new SpdzParallelMascotDataSupplier(1, NO_OF_PARTIES, 1, index -> null, definition,
+        MOD_BIT_LENGTH, null, PRG_SEED_LENGTH, 4, 16, definition.createElement(1),
+        Arrays.asList(new HashMap<>(), new HashMap<>()),
+        Collections.singletonList(AesCtrDrbgFactory.fromDerivedSeed(new byte[32])));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoInstances() {
+    new SpdzParallelMascotDataSupplier(1, NO_OF_PARTIES, 1, index -> null, definition,
+        MOD_BIT_LENGTH, null, PRG_SEED_LENGTH, 4, 16, definition.createElement(1),
+        Collections.emptyList(), Collections.emptyList());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSharedSeedOts() {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    new SpdzParallelMascotDataSupplier(1, NO_OF_PARTIES, 1, index -> null, definition,
+        MOD_BIT_LENGTH, null, PRG_SEED_LENGTH, 4, 16, definition.createElement(1),
+        Arrays.asList(seedOts, seedOts),
+        Arrays.asList(AesCtrDrbgFactory.fromDerivedSeed(new byte[32]),
+            AesCtrDrbgFactory.fromDerivedSeed(new byte[32])));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSharedRotListInDistinctMaps() {
+    RotList rotList =
+        new RotList(AesCtrDrbgFactory.fromDerivedSeed(new byte[32]), PRG_SEED_LENGTH);
+    Map<Integer, RotList> first = new HashMap<>();
+    first.put(2, rotList);
+    Map<Integer, RotList> second = new HashMap<>();
+    second.put(2, rotList);
+    new SpdzParallelMascotDataSupplier(1, NO_OF_PARTIES, 1, index -> null, definition,
+        MOD_BIT_LENGTH, null, PRG_SEED_LENGTH, 4, 16, definition.createElement(1),
+        Arrays.asList(first, second),
+        Arrays.asList(AesCtrDrbgFactory.fromDerivedSeed(new byte[32]),
+            AesCtrDrbgFactory.fromDerivedSeed(new byte[32])));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSharedDrbg() {
+    Drbg drbg = AesCtrDrbgFactory.fromDerivedSeed(new byte[32]);
+    new SpdzParallelMascotDataSupplier(1, NO_OF_PARTIES, 1, index -> null, definition,
+        MOD_BIT_LENGTH, null, PRG_SEED_LENGTH, 4, 16, definition.createElement(1),
+        Arrays.asList(new HashMap<>(), new HashMap<>()), Arrays.asList(drbg, drbg));
+  }
+}
@@ -0,0 +1,168 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.builder.numeric.field.MersennePrimeFieldDefinition;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class TestSpdzStreamingOpenedValueStore {
+
+  private final FieldDefinition definition = MersennePrimeFieldDefinition.find(128);
+  private final FieldElement alpha = definition.createElement(1234567);
+
+  private static Drbg drbg(int seed) {
+    byte[] bytes = new byte[32];
+    bytes[0] = (byte) seed;
+    return new AesCtrDrbg(bytes);
+  }
+
+  private SpdzSInt authenticate(FieldElement value) {
+    return new SpdzSInt(value, value.multiply(alpha));
+  }
+
+  private BigInteger delta(Pair<List<SpdzSInt>, List<FieldElement>> popped) {
+    FieldElement delta = popped.getFirst().get(0).getMac()
+        .subtract(alpha.multiply(popped.getSecond().get(0)));
+    return definition.convertToUnsigned(delta);
+  }
+
+  private void push(SpdzStreamingOpenedValueStore store, int from, int to, int tampered) {
+    push(store, from, to, tampered, -1);
+  }
+
+  /**
+   * Pushes values where the value at index <code>added</code> is opened as one too large and the
+   * value at index <code>subtracted</code> as one too small.
+   */
+  private void push(SpdzStreamingOpenedValueStore store, int from, int to, int added,
+      int subtracted) {
+    List<SpdzSInt> macs = new ArrayList<>();
+    List<FieldElement> opened = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      FieldElement value = definition.createElement(i * 31 + 7);
+      macs.add(authenticate(value));
+      if (i == added) {
+        opened.add(value.add(definition.createElement(1)));
+      } else if (i == subtracted) {
+        opened.add(value.subtract(definition.createElement(1)));
+      } else {
+        opened.add(value);
+      }
+    }
+    if (to - from == 1) {
+      store.pushOpenedValue(macs.get(0), opened.get(0));
+    } else {
+      store.pushOpenedValues(macs, opened);
+    }
+  }
+
+  @Test
+  public void testCorrectValues() {
+    SpdzStreamingOpenedValueStore store = new SpdzStreamingOpenedValueStore(definition, 16);
+    assertFalse(store.hasPendingValues());
+    push(store, 0, 1, -1);
+    push(store, 1, 40, -1);
+    assertTrue(store.hasPendingValues());
+    assertTrue(store.exceedsThreshold(39));
+    assertFalse(store.exceedsThreshold(40));
+    store.foldChunks(drbg(1));
+    assertTrue(store.hasPendingValues());
+    store.foldAll(drbg(2));
+    Pair<List<SpdzSInt>, List<FieldElement>> popped = store.popValues();
+    assertEquals(1, popped.getFirst().size());
+    assertEquals(1, popped.getSecond().size());
+    assertEquals(BigInteger.ZERO, delta(popped));
+    assertFalse(store.hasPendingValues());
+    // Values after a check are checked on their own
+    push(store, 40, 45, -1);
+    store.foldAll(drbg(3));
+    assertEquals(BigInteger.ZERO, delta(store.popValues()));
+  }
+
+  @Test
+  public void testCompleteChunks() {
+    SpdzStreamingOpenedValueStore store = new SpdzStreamingOpenedValueStore(definition, 16);
+    push(store, 0, 15, -1);
+    assertFalse(store.hasCompleteChunks());
+    push(store, 15, 40, -1);
+    assertTrue(store.hasCompleteChunks());
+    store.foldChunks(drbg(1));
+    assertFalse(store.hasCompleteChunks());
+    assertTrue(store.exceedsThreshold(39));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPopUnfolded() {
+    SpdzStreamingOpenedValueStore store = new SpdzStreamingOpenedValueStore(definition, 16);
+    push(store, 0, 40, -1);
+    store.foldChunks(drbg(1));
+    store.popValues();
+  }
+
+  @Test
+  public void testTamperedValue() {
+    for (int tampered : new int[]{0, 15, 16, 39}) {
+      SpdzStreamingOpenedValueStore store = new SpdzStreamingOpenedValueStore(definition, 16);
+      push(store, 0, 40, tampered);
+      store.foldChunks(drbg(1));
+      store.foldAll(drbg(2));
+      assertNotEquals(BigInteger.ZERO, delta(store.popValues()));
+    }
+  }
+
+  @Test
+  public void testCancellingErrors() {
+    // Errors cancelling out if the coefficients of the two values were equal, both in the same
+    // chunk and in different chunks, in particular at the ends of the chunks
+    int[][] tampered = {{15, 31}, {0, 16}, {31, 15}, {14, 15}, {15, 39}};
+    for (int[] indices : tampered) {
+      SpdzStreamingOpenedValueStore store = new SpdzStreamingOpenedValueStore(definition, 16);
+      push(store, 0, 40, indices[0], indices[1]);
+      store.foldAll(drbg(1));
+      assertNotEquals(BigInteger.ZERO, delta(store.popValues()));
+    }
+  }
+
+  @Test
+  public void testSameCoefficientsForSameChallenges() {
+    SpdzStreamingOpenedValueStore first = new SpdzStreamingOpenedValueStore(definition, 64);
+    SpdzStreamingOpenedValueStore second = new SpdzStreamingOpenedValueStore(definition, 64);
+    push(first, 0, 200, -1);
+    first.foldAll(drbg(1));
+    Drbg challenges = drbg(1);
+    for (int i = 0; i < 200; i++) {
+      push(second, i, i + 1, -1);
+      if (second.hasCompleteChunks()) {
+        second.foldChunks(challenges);
+      }
+    }
+    second.foldAll(challenges);
+    assertEquals(definition.convertToUnsigned(first.popValues().getSecond().get(0)),
+        definition.convertToUnsigned(second.popValues().getSecond().get(0)));
+  }
+
+  @Test
+  public void testPopEmpty() {
+    SpdzStreamingOpenedValueStore store = new SpdzStreamingOpenedValueStore(definition);
+    Pair<List<SpdzSInt>, List<FieldElement>> popped = store.popValues();
+    assertTrue(popped.getFirst().isEmpty());
+    assertTrue(popped.getSecond().isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalChunkSize() {
+    new SpdzStreamingOpenedValueStore(definition, 0);
+  }
+}
@@ -53,6 +53,11 @@ public abstract class Spdz2kProtocolSuite<
     return new Spdz2kBuilder<>(resourcePool.getFactory(), createBasicNumericContext(resourcePool));
   }
 
+  @Override
+  public boolean supportsReplay() {
+    return true;
+  }
+
   @Override
   public RoundSynchronization<Spdz2kResourcePool<PlainT>> createRoundSynchronization() {
     return new Spdz2kRoundSynchronization<>(this, converter);
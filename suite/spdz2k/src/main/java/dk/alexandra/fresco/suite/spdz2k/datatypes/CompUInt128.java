@@ -168,6 +168,13 @@ public class CompUInt128 implements CompUInt<UInt64, UInt64, CompUInt128> {
     return low;
   }
 
+  /**
+   * Returns the 64 most significant bits as a long, without wrapping them in {@link UInt64}.
+   */
+  long getHigh() {
+    return high;
+  }
+
   @Override
   public CompUInt128 shiftLowIntoHigh() {
     return new CompUInt128(toLong(), 0, 0);
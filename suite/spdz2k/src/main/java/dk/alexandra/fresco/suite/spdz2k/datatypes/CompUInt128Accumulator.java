@@ -0,0 +1,69 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+/**
+ * In-place accumulator for {@link CompUInt128}. <p>The value is kept as two longs holding the 64
+ * most and least significant bits, so adding and multiplying into the accumulator does not
+ * allocate.</p>
+ */
+public final class CompUInt128Accumulator implements CompUIntAccumulator<CompUInt128> {
+
+  private long high;
+  private long low;
+
+  @Override
+  public void addInPlace(CompUInt128 value) {
+    add(value.getHigh(), value.toLong());
+  }
+
+  @Override
+  public void subtractInPlace(CompUInt128 value) {
+    long otherLow = value.toLong();
+    long borrow = Long.compareUnsigned(low, otherLow) < 0 ? 1L : 0L;
+    low -= otherLow;
+    high -= value.getHigh() + borrow;
+  }
+
+  @Override
+  public void multiplyAddInPlace(CompUInt128 left, CompUInt128 right) {
+    long leftLow = left.toLong();
+    long rightLow = right.toLong();
+    // the product of the high parts overflows 2^128 and is not needed
+    long productHigh = multiplyHighUnsigned(leftLow, rightLow)
+        + leftLow * right.getHigh()
+        + left.getHigh() * rightLow;
+    add(productHigh, leftLow * rightLow);
+  }
+
+  @Override
+  public void reset() {
+    high = 0;
+    low = 0;
+  }
+
+  @Override
+  public CompUInt128 get() {
+    return new CompUInt128(high, (int) (low >>> 32), (int) low);
+  }
+
+  private void add(long otherHigh, long otherLow) {
+    long newLow = low + otherLow;
+    long carry = Long.compareUnsigned(newLow, low) < 0 ? 1L : 0L;
+    low = newLow;
+    high += otherHigh + carry;
+  }
+
+  /**
+   * Computes the 64 most significant bits of the unsigned 128-bit product of two longs.
+   */
+  static long multiplyHighUnsigned(long left, long right) {
+    long leftLow = left & 0xffffffffL;
+    long leftHigh = left >>> 32;
+    long rightLow = right & 0xffffffffL;
+    long rightHigh = right >>> 32;
+    long lowLow = leftLow * rightLow;
+    long highLow = leftHigh * rightLow + (lowLow >>> 32);
+    long lowHigh = leftLow * rightHigh + (highLow & 0xffffffffL);
+    return leftHigh * rightHigh + (highLow >>> 32) + (lowHigh >>> 32);
+  }
+
+}
@@ -94,4 +94,9 @@ public class CompUInt128Factory implements CompUIntFactory<CompUInt128> {
     return ZERO;
   }
 
+  @Override
+  public CompUInt128Accumulator createAccumulator() {
+    return new CompUInt128Accumulator();
+  }
+
 }
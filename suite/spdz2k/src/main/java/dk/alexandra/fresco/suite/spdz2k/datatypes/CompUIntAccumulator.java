@@ -0,0 +1,37 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+/**
+ * Mutable accumulator for sums of {@link CompT} values. <p>Unlike the arithmetic on {@link CompT},
+ * which creates a new instance for every operation, the accumulator updates its value in place, so
+ * sums and inner products only create an instance when the result is read.</p>
+ *
+ * @param <CompT> type of values accumulated
+ */
+public interface CompUIntAccumulator<CompT extends CompUInt<?, ?, CompT>> {
+
+  /**
+   * Adds {@code value} to the accumulated value.
+   */
+  void addInPlace(CompT value);
+
+  /**
+   * Subtracts {@code value} from the accumulated value.
+   */
+  void subtractInPlace(CompT value);
+
+  /**
+   * Adds the product of {@code left} and {@code right} to the accumulated value.
+   */
+  void multiplyAddInPlace(CompT left, CompT right);
+
+  /**
+   * Sets the accumulated value to zero.
+   */
+  void reset();
+
+  /**
+   * Returns the accumulated value.
+   */
+  CompT get();
+
+}
@@ -45,6 +45,14 @@ public interface CompUIntFactory<CompT extends CompUInt<?, ?, CompT>> extends Fi
    */
   CompT zero();
 
+  /**
+   * Creates a new accumulator whose value is zero. <p>Factories for types supporting in-place
+   * arithmetic should override this.</p>
+   */
+  default CompUIntAccumulator<CompT> createAccumulator() {
+    return new DefaultCompUIntAccumulator<>(zero());
+  }
+
   /**
    * Creates new {@link CompT} from a {@link BigInteger}.
    */
@@ -0,0 +1,43 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+/**
+ * Accumulator based on the arithmetic of {@link CompT}, used for types without a dedicated
+ * in-place accumulator.
+ */
+class DefaultCompUIntAccumulator<CompT extends CompUInt<?, ?, CompT>> implements
+    CompUIntAccumulator<CompT> {
+
+  private final CompT zero;
+  private CompT value;
+
+  DefaultCompUIntAccumulator(CompT zero) {
+    this.zero = zero;
+    this.value = zero;
+  }
+
+  @Override
+  public void addInPlace(CompT value) {
+    this.value = this.value.add(value);
+  }
+
+  @Override
+  public void subtractInPlace(CompT value) {
+    this.value = this.value.subtract(value);
+  }
+
+  @Override
+  public void multiplyAddInPlace(CompT left, CompT right) {
+    this.value = this.value.add(left.multiply(right));
+  }
+
+  @Override
+  public void reset() {
+    this.value = zero;
+  }
+
+  @Override
+  public CompT get() {
+    return value;
+  }
+
+}
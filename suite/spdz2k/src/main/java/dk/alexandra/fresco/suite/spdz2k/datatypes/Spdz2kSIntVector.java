@@ -0,0 +1,91 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import java.util.List;
+
+/**
+ * A fixed-size vector of authenticated, secret-shared elements. <p>The value shares and mac shares
+ * are kept in separate arrays, so that linear combinations of either can be computed directly into
+ * a {@link CompUIntAccumulator} without creating intermediate {@link Spdz2kSInt} instances.</p>
+ *
+ * @param <PlainT> type of underlying plain value
+ */
+public class Spdz2kSIntVector<PlainT extends CompUInt<?, ?, PlainT>> {
+
+  private final PlainT[] shares;
+  private final PlainT[] macShares;
+
+  /**
+   * Creates a {@link Spdz2kSIntVector} holding the given elements.
+   */
+  @SuppressWarnings("unchecked")
+  public Spdz2kSIntVector(List<Spdz2kSInt<PlainT>> elements) {
+    int size = elements.size();
+    this.shares = (PlainT[]) new CompUInt[size];
+    this.macShares = (PlainT[]) new CompUInt[size];
+    for (int i = 0; i < size; i++) {
+      Spdz2kSInt<PlainT> element = elements.get(i);
+      shares[i] = element.getShare();
+      macShares[i] = element.getMacShare();
+    }
+  }
+
+  /**
+   * Returns the number of elements.
+   */
+  public int size() {
+    return shares.length;
+  }
+
+  /**
+   * Returns the share of the i-th element.
+   */
+  public PlainT getShare(int i) {
+    return shares[i];
+  }
+
+  /**
+   * Returns the mac share of the i-th element.
+   */
+  public PlainT getMacShare(int i) {
+    return macShares[i];
+  }
+
+  /**
+   * Returns the i-th element.
+   */
+  public Spdz2kSInt<PlainT> get(int i) {
+    return new Spdz2kSInt<>(shares[i], macShares[i]);
+  }
+
+  /**
+   * Computes the inner product of the shares and the given coefficients using the given
+   * accumulator, which is reset first.
+   */
+  public PlainT shareInnerProduct(List<PlainT> coefficients,
+      CompUIntAccumulator<PlainT> accumulator) {
+    return innerProduct(shares, coefficients, accumulator);
+  }
+
+  /**
+   * Computes the inner product of the mac shares and the given coefficients using the given
+   * accumulator, which is reset first.
+   */
+  public PlainT macShareInnerProduct(List<PlainT> coefficients,
+      CompUIntAccumulator<PlainT> accumulator) {
+    return innerProduct(macShares, coefficients, accumulator);
+  }
+
+  private PlainT innerProduct(PlainT[] values, List<PlainT> coefficients,
+      CompUIntAccumulator<PlainT> accumulator) {
+    if (coefficients.size() != values.length) {
+      throw new IllegalArgumentException("Number of coefficients " + coefficients.size()
+          + " does not match vector size " + values.length);
+    }
+    accumulator.reset();
+    for (int i = 0; i < values.length; i++) {
+      accumulator.multiplyAddInPlace(values[i], coefficients.get(i));
+    }
+    return accumulator.get();
+  }
+
+}
@@ -11,9 +11,11 @@ import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.lib.generic.BroadcastComputation;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntAccumulator;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntConverter;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSIntVector;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
 import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDataSupplier;
@@ -34,6 +36,8 @@ public class Spdz2kMacCheckComputation<
   private final ByteSerializer<PlainT> serializer;
   private final Spdz2kDataSupplier<PlainT> supplier;
   private final List<Spdz2kSInt<PlainT>> authenticatedElements;
+  private final Spdz2kSIntVector<PlainT> authenticatedVector;
+  private final CompUIntAccumulator<PlainT> accumulator;
   private final List<PlainT> openValues;
   private final List<PlainT> randomCoefficients;
   private ByteSerializer<HashBasedCommitment> commitmentSerializer;
@@ -52,7 +56,9 @@ public class Spdz2kMacCheckComputation<
       Spdz2kResourcePool<PlainT> resourcePool,
       CompUIntConverter<HighT, LowT, PlainT> converter) {
     this.authenticatedElements = toCheck.getFirst();
+    this.authenticatedVector = new Spdz2kSIntVector<>(authenticatedElements);
     this.openValues = toCheck.getSecond();
+    this.accumulator = resourcePool.getFactory().createAccumulator();
     this.converter = converter;
     this.serializer = resourcePool.getFactory().getSerializer();
     this.supplier = resourcePool.getDataSupplier();
@@ -68,25 +74,33 @@ public class Spdz2kMacCheckComputation<
   @Override
   public DRes<Void> buildComputation(ProtocolBuilderNumeric builder) {
     PlainT macKeyShare = supplier.getSecretSharedKey();
-    PlainT y = UInt.innerProduct(openValues, randomCoefficients);
+    accumulator.reset();
+    for (int i = 0; i < openValues.size(); i++) {
+      accumulator.multiplyAddInPlace(openValues.get(i), randomCoefficients.get(i));
+    }
+    PlainT y = accumulator.get();
     Spdz2kSInt<PlainT> r = supplier.getNextRandomElementShare();
     return builder
         .seq(seq -> {
           if (noOfParties > 2) {
-            List<byte[]> sharesLowBits = authenticatedElements.stream()
-                .map(element -> element.getShare().getLeastSignificant().toByteArray())
-                .collect(Collectors.toList());
+            List<byte[]> sharesLowBits = new ArrayList<>(authenticatedVector.size());
+            for (int i = 0; i < authenticatedVector.size(); i++) {
+              sharesLowBits.add(authenticatedVector.getShare(i).getLeastSignificant().toByteArray());
+            }
             return new BroadcastComputation<ProtocolBuilderNumeric>(sharesLowBits, true)
                 .buildComputation(seq);
           } else {
             return () -> null;
           }
         })
-        .seq((seq, ignored) -> computePValues(seq, authenticatedElements, r))
-        .seq((seq, broadcastPjs) -> computeZValues(seq, authenticatedElements, macKeyShare, y, r,
-            broadcastPjs))
+        .seq((seq, ignored) -> computePValues(seq, r))
+        .seq((seq, broadcastPjs) -> computeZValues(seq, macKeyShare, y, r, broadcastPjs))
         .seq((seq, commitZjs) -> {
-          if (!UInt.sum(serializer.deserializeList(commitZjs)).isZero()) {
+          accumulator.reset();
+          for (PlainT zj : serializer.deserializeList(commitZjs)) {
+            accumulator.addInPlace(zj);
+          }
+          if (!accumulator.get().isZero()) {
             throw new MaliciousException("Mac check failed");
           }
           authenticatedElements.clear();
@@ -102,11 +116,10 @@ public class Spdz2kMacCheckComputation<
   }
 
   private DRes<List<byte[]>> computePValues(ProtocolBuilderNumeric builder,
-      List<Spdz2kSInt<PlainT>> authenticatedElements,
       Spdz2kSInt<PlainT> r) {
-    HighT pj = computePj(authenticatedElements.get(0).getShare(), randomCoefficients.get(0));
-    for (int i = 1; i < authenticatedElements.size(); i++) {
-      PlainT share = authenticatedElements.get(i).getShare();
+    HighT pj = computePj(authenticatedVector.getShare(0), randomCoefficients.get(0));
+    for (int i = 1; i < authenticatedVector.size(); i++) {
+      PlainT share = authenticatedVector.getShare(i);
       PlainT randomCoefficient = randomCoefficients.get(i);
       pj = pj.add(computePj(share, randomCoefficient));
     }
@@ -115,21 +128,19 @@ public class Spdz2kMacCheckComputation<
   }
 
   private DRes<List<byte[]>> computeZValues(ProtocolBuilderNumeric builder,
-      List<Spdz2kSInt<PlainT>> authenticatedElements,
       PlainT macKeyShare, PlainT y, Spdz2kSInt<PlainT> r,
       List<byte[]> broadcastPjs) {
     List<PlainT> pjList = serializer.deserializeList(broadcastPjs);
     HighT pLow = UInt.sum(
         pjList.stream().map(PlainT::getLeastSignificantAsHigh).collect(Collectors.toList()));
     PlainT p = converter.createFromHigh(pLow);
-    List<PlainT> macShares = authenticatedElements.stream()
-        .map(Spdz2kSInt::getMacShare)
-        .collect(Collectors.toList());
-    PlainT mj = UInt.innerProduct(macShares, randomCoefficients);
-    PlainT zj = macKeyShare.multiply(y)
-        .subtract(mj)
-        .subtract(p.multiply(macKeyShare).shiftLowIntoHigh())
-        .add(r.getMacShare().shiftLowIntoHigh());
+    PlainT mj = authenticatedVector.macShareInnerProduct(randomCoefficients, accumulator);
+    accumulator.reset();
+    accumulator.multiplyAddInPlace(macKeyShare, y);
+    accumulator.subtractInPlace(mj);
+    accumulator.subtractInPlace(p.multiply(macKeyShare).shiftLowIntoHigh());
+    accumulator.addInPlace(r.getMacShare().shiftLowIntoHigh());
+    PlainT zj = accumulator.get();
     return new CommitmentComputation(commitmentSerializer, serializer.serialize(zj),
         localDrbg).buildComputation(builder);
   }
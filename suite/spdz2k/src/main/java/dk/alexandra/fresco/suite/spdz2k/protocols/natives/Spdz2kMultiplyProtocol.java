@@ -6,6 +6,7 @@ import dk.alexandra.fresco.framework.network.serializers.ByteSerializer;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntAccumulator;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
 import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kTriple;
@@ -60,13 +61,20 @@ public class Spdz2kMultiplyProtocol<PlainT extends CompUInt<?, ?, PlainT>> exten
       Spdz2kSInt<PlainT> tripleLeft = triple.getLeft();
       Spdz2kSInt<PlainT> tripleProduct = triple.getProduct();
       CompUIntFactory<PlainT> factory = resourcePool.getFactory();
-      this.product = tripleProduct
-          .add(tripleRight.multiply(e))
-          .add(tripleLeft.multiply(d))
-          .addConstant(ed,
-              macKeyShare,
-              factory.zero(),
-              resourcePool.getMyId() == 1);
+      CompUIntAccumulator<PlainT> share = factory.createAccumulator();
+      share.addInPlace(tripleProduct.getShare());
+      share.multiplyAddInPlace(tripleRight.getShare(), e);
+      share.multiplyAddInPlace(tripleLeft.getShare(), d);
+      // only party one adds the public value to its share, all parties add its mac share
+      if (resourcePool.getMyId() == 1) {
+        share.addInPlace(ed);
+      }
+      CompUIntAccumulator<PlainT> macShare = factory.createAccumulator();
+      macShare.addInPlace(tripleProduct.getMacShare());
+      macShare.multiplyAddInPlace(tripleRight.getMacShare(), e);
+      macShare.multiplyAddInPlace(tripleLeft.getMacShare(), d);
+      macShare.multiplyAddInPlace(ed, macKeyShare);
+      this.product = new Spdz2kSInt<>(share.get(), macShare.get());
       resourcePool.getOpenedValueStore().pushOpenedValues(
           Arrays.asList(epsilon, delta),
           Arrays.asList(e, d)
@@ -80,13 +88,13 @@ public class Spdz2kMultiplyProtocol<PlainT extends CompUInt<?, ?, PlainT>> exten
    */
   private Pair<PlainT, PlainT> receiveAndReconstruct(Network network,
       CompUIntFactory<PlainT> factory, int noOfParties) {
-    PlainT e = factory.zero();
-    PlainT d = factory.zero();
+    CompUIntAccumulator<PlainT> e = factory.createAccumulator();
+    CompUIntAccumulator<PlainT> d = factory.createAccumulator();
     for (int i = 1; i <= noOfParties; i++) {
-      e = e.add(factory.deserialize(network.receive(i)));
-      d = d.add(factory.deserialize(network.receive(i)));
+      e.addInPlace(factory.deserialize(network.receive(i)));
+      d.addInPlace(factory.deserialize(network.receive(i)));
     }
-    return new Pair<>(e, d);
+    return new Pair<>(e.get(), d.get());
   }
 
   @Override
@@ -17,6 +17,8 @@ import dk.alexandra.fresco.suite.spdz2k.datatypes.UInt;
 import dk.alexandra.fresco.suite.spdz2k.protocols.computations.Spdz2kMacCheckComputation;
 import dk.alexandra.fresco.suite.spdz2k.protocols.natives.RequiresMacCheck;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.stream.StreamSupport;
 
 /**
@@ -31,7 +33,8 @@ public class Spdz2kRoundSynchronization<
 
   private final int openValueThreshold;
   private final int batchSize;
-  private boolean isCheckRequired;
+  // One entry for each batch started but not yet finished, telling if the batch requires a check
+  private final Deque<Boolean> isCheckRequired;
   private final Spdz2kProtocolSuite<HighT, LowT, PlainT> protocolSuite;
   private final CompUIntConverter<HighT, LowT, PlainT> converter;
 
@@ -48,7 +51,7 @@ public class Spdz2kRoundSynchronization<
     this.converter = converter;
     this.openValueThreshold = openValueThreshold;
     this.batchSize = batchSize;
-    this.isCheckRequired = false;
+    this.isCheckRequired = new ArrayDeque<>();
   }
 
   private void doMacCheck(Spdz2kResourcePool<PlainT> resourcePool, Network network) {
@@ -72,9 +75,9 @@ public class Spdz2kRoundSynchronization<
   public void finishedBatch(int gatesEvaluated, Spdz2kResourcePool<PlainT> resourcePool,
       Network network) {
     OpenedValueStore<Spdz2kSInt<PlainT>, PlainT> store = resourcePool.getOpenedValueStore();
-    if (isCheckRequired || store.exceedsThreshold(openValueThreshold)) {
+    boolean checkRequired = Boolean.TRUE.equals(isCheckRequired.poll());
+    if (checkRequired || store.exceedsThreshold(openValueThreshold)) {
       doMacCheck(resourcePool, network);
-      isCheckRequired = false;
     }
   }
 
@@ -90,10 +93,11 @@ public class Spdz2kRoundSynchronization<
   public void beforeBatch(
       ProtocolCollection<Spdz2kResourcePool<PlainT>> nativeProtocols,
       Spdz2kResourcePool<PlainT> resourcePool, Network network) {
-    isCheckRequired = StreamSupport.stream(nativeProtocols.spliterator(), false)
+    boolean checkRequired = StreamSupport.stream(nativeProtocols.spliterator(), false)
         .anyMatch(p -> p instanceof RequiresMacCheck);
+    isCheckRequired.add(checkRequired);
     OpenedValueStore<Spdz2kSInt<PlainT>, PlainT> store = resourcePool.getOpenedValueStore();
-    if (store.hasPendingValues() && isCheckRequired) {
+    if (store.hasPendingValues() && checkRequired) {
       doMacCheck(resourcePool, network);
     }
   }
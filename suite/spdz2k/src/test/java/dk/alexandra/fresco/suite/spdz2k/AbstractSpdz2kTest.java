@@ -51,7 +51,7 @@ public abstract class AbstractSpdz2kTest<Spdz2kResourcePoolT extends Spdz2kResou
       BatchEvaluationStrategy<Spdz2kResourcePoolT> batchEvaluationStrategy =
           evalStrategy.getStrategy();
       ProtocolEvaluator<Spdz2kResourcePoolT> evaluator =
-          new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps);
+          createEvaluator(batchEvaluationStrategy, ps);
 
       SecureComputationEngine<Spdz2kResourcePoolT, ProtocolBuilderNumeric> sce =
           new SecureComputationEngineImpl<>(ps, evaluator);
@@ -68,6 +68,12 @@ public abstract class AbstractSpdz2kTest<Spdz2kResourcePoolT extends Spdz2kResou
     TestThreadRunner.run(f, conf);
   }
 
+  protected ProtocolEvaluator<Spdz2kResourcePoolT> createEvaluator(
+      BatchEvaluationStrategy<Spdz2kResourcePoolT> batchEvaluationStrategy,
+      ProtocolSuiteNumeric<Spdz2kResourcePoolT> protocolSuite) {
+    return new BatchedProtocolEvaluator<>(batchEvaluationStrategy, protocolSuite);
+  }
+
   protected abstract Spdz2kResourcePoolT createResourcePool(int playerId, int noOfParties,
       Supplier<Network> networkSupplier);
 
@@ -3,6 +3,7 @@ package dk.alexandra.fresco.suite.spdz2k;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.lib.common.collections.io.CloseListTests.TestCloseAndOpenList;
 import dk.alexandra.fresco.suite.dummy.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.suite.dummy.arithmetic.CompiledEvaluationTests;
 import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
 import org.junit.Test;
 
@@ -132,4 +133,16 @@ public abstract class Spdz2kTestSuite<Spdz2kResourcePoolT extends Spdz2kResource
         EvaluationStrategy.SEQUENTIAL_BATCHED);
   }
 
+  @Test
+  public void testReplayMultiplications() {
+    runTest(new CompiledEvaluationTests.TestReplayMultiplications<>(this::createProtocolSuite),
+        EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
+  @Test
+  public void testBranchOnOpenedNotCompiled() {
+    runTest(new CompiledEvaluationTests.TestBranchOnOpenedNotCompiled<>(
+        this::createProtocolSuite), EvaluationStrategy.SEQUENTIAL_BATCHED);
+  }
+
 }
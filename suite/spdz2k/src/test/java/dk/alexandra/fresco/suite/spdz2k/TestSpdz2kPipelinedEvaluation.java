@@ -0,0 +1,174 @@
+package dk.alexandra.fresco.suite.spdz2k;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.PipelinedProtocolEvaluator;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUInt128Factory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.CompUIntFactory;
+import dk.alexandra.fresco.suite.spdz2k.datatypes.Spdz2kSInt;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePool;
+import dk.alexandra.fresco.suite.spdz2k.resource.Spdz2kResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz2k.resource.storage.Spdz2kOpenedValueStoreImpl;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs SPDZ2k using the pipelined evaluator with batches small enough to make several batches be
+ * in the pipeline at the same time, while outputs in the batches require MAC checks.
+ */
+public class TestSpdz2kPipelinedEvaluation
+    extends AbstractSpdz2kTest<Spdz2kResourcePool<CompUInt128>> {
+
+  private static final int OUTPUTS = 40;
+  private final AtomicInteger macChecks = new AtomicInteger();
+
+  @Before
+  public void reset() {
+    macChecks.set(0);
+  }
+
+  @Test
+  public void testOutputsPipelined() {
+    runTest(new TestIndependentOutputs<>(-1), EvaluationStrategy.SEQUENTIAL_BATCHED, 2);
+    // Each party checks after the batches with outputs, not only when the evaluation is done
+    assertTrue("Expected MAC checks during the evaluation, got " + macChecks.get(),
+        macChecks.get() > 2 * 2);
+  }
+
+  @Test
+  public void testOutputsPipelinedThreeParties() {
+    runTest(new TestIndependentOutputs<>(-1), EvaluationStrategy.SEQUENTIAL_BATCHED, 3);
+    assertTrue(macChecks.get() > 3 * 2);
+  }
+
+  @Test
+  public void testModifiedShareFailsMacCheck() {
+    int noOfParties = 2;
+    for (int cheatingPartyId = 1; cheatingPartyId <= noOfParties; cheatingPartyId++) {
+      runTest(new TestIndependentOutputs<>(cheatingPartyId),
+          EvaluationStrategy.SEQUENTIAL_BATCHED, noOfParties);
+    }
+  }
+
+  @Override
+  protected ProtocolEvaluator<Spdz2kResourcePool<CompUInt128>> createEvaluator(
+      BatchEvaluationStrategy<Spdz2kResourcePool<CompUInt128>> batchEvaluationStrategy,
+      ProtocolSuiteNumeric<Spdz2kResourcePool<CompUInt128>> protocolSuite) {
+    return new PipelinedProtocolEvaluator<>(protocolSuite, 8, 3);
+  }
+
+  @Override
+  protected Spdz2kResourcePool<CompUInt128> createResourcePool(int playerId, int noOfParties,
+      Supplier<Network> networkSupplier) {
+    CompUIntFactory<CompUInt128> factory = new CompUInt128Factory();
+    Spdz2kResourcePool<CompUInt128> resourcePool =
+        new Spdz2kResourcePoolImpl<>(
+            playerId,
+            noOfParties, null,
+            new Spdz2kOpenedValueStoreImpl<CompUInt128>() {
+              @Override
+              public Pair<List<Spdz2kSInt<CompUInt128>>, List<CompUInt128>> popValues() {
+                macChecks.incrementAndGet();
+                return super.popValues();
+              }
+            },
+            new Spdz2kDummyDataSupplier<>(playerId, noOfParties, factory.createRandom(), factory),
+            factory);
+    resourcePool.initializeJointRandomness(networkSupplier, AesCtrDrbg::new, 32);
+    return resourcePool;
+  }
+
+  @Override
+  protected ProtocolSuiteNumeric<Spdz2kResourcePool<CompUInt128>> createProtocolSuite() {
+    return new Spdz2kProtocolSuiteK64();
+  }
+
+  /**
+   * Inputs, multiplies and opens many independent values. If a cheating party is given, this party
+   * doubles its share of one of the values before opening it, and the evaluation must fail with a
+   * {@link MaliciousException}.
+   */
+  private static class TestIndependentOutputs<
+      ResourcePoolT extends Spdz2kResourcePool<CompUInt128>>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    private final int cheatingPartyId;
+
+    TestIndependentOutputs(int cheatingPartyId) {
+      this.cheatingPartyId = cheatingPartyId;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() {
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = producer -> producer
+              .par(par -> {
+                int noOfParties = par.getBasicNumericContext().getNoOfParties();
+                List<DRes<BigInteger>> outputs = new ArrayList<>();
+                for (int i = 0; i < OUTPUTS; i++) {
+                  int index = i;
+                  outputs.add(par.seq(seq -> {
+                    Numeric numeric = seq.numeric();
+                    DRes<SInt> input =
+                        numeric.input(BigInteger.valueOf(index), 1 + index % noOfParties);
+                    return numeric.mult(input, numeric.known(BigInteger.valueOf(3)));
+                  }).seq((seq, product) -> {
+                    SInt value = product;
+                    if (index == OUTPUTS / 2
+                        && seq.getBasicNumericContext().getMyId() == cheatingPartyId) {
+                      value = ((Spdz2kSInt<CompUInt128>) value).multiply(
+                          new CompUInt128(BigInteger.valueOf(2)));
+                    }
+                    SInt finalValue = value;
+                    return seq.numeric().open(() -> finalValue);
+                  }));
+                }
+                return () -> outputs.stream().map(DRes::out).collect(Collectors.toList());
+              });
+          if (cheatingPartyId > 0) {
+            try {
+              runApplication(app);
+              fail("The modified share should make the MAC check fail");
+            } catch (RuntimeException e) {
+              assertTrue(e.getCause() instanceof MaliciousException);
+            }
+          } else {
+            List<BigInteger> outputs = runApplication(app);
+            for (int i = 0; i < OUTPUTS; i++) {
+              assertEquals(BigInteger.valueOf(3 * i), outputs.get(i));
+            }
+            assertFalse(conf.getResourcePool().getOpenedValueStore().hasPendingValues());
+          }
+        }
+      };
+    }
+  }
+}
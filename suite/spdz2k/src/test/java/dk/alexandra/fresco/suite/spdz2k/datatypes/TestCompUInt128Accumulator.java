@@ -0,0 +1,118 @@
+package dk.alexandra.fresco.suite.spdz2k.datatypes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestCompUInt128Accumulator {
+
+  private final BigInteger twoTo64 = BigInteger.ONE.shiftLeft(64);
+  private final BigInteger twoTo128 = BigInteger.ONE.shiftLeft(128);
+  private final Random random = new Random(42);
+
+  private BigInteger randomValue() {
+    switch (random.nextInt(4)) {
+      case 0:
+        return twoTo128.subtract(BigInteger.valueOf(random.nextInt(3) + 1));
+      case 1:
+        return twoTo64.subtract(BigInteger.valueOf(random.nextInt(3)));
+      default:
+        return new BigInteger(128, random);
+    }
+  }
+
+  @Test
+  public void testMatchesImmutableArithmetic() {
+    CompUInt128Accumulator accumulator = new CompUInt128Accumulator();
+    BigInteger expected = BigInteger.ZERO;
+    for (int i = 0; i < 1000; i++) {
+      BigInteger left = randomValue();
+      BigInteger right = randomValue();
+      switch (i % 3) {
+        case 0:
+          accumulator.addInPlace(new CompUInt128(left));
+          expected = expected.add(left);
+          break;
+        case 1:
+          accumulator.subtractInPlace(new CompUInt128(left));
+          expected = expected.subtract(left);
+          break;
+        default:
+          accumulator.multiplyAddInPlace(new CompUInt128(left), new CompUInt128(right));
+          expected = expected.add(left.multiply(right));
+      }
+      assertEquals(expected.mod(twoTo128), accumulator.get().toBigInteger());
+    }
+  }
+
+  @Test
+  public void testMultiplyHighUnsigned() {
+    for (int i = 0; i < 1000; i++) {
+      long left = random.nextLong();
+      long right = random.nextLong();
+      BigInteger product = new BigInteger(1, new CompUInt128(left).toByteArray())
+          .multiply(new BigInteger(1, new CompUInt128(right).toByteArray()));
+      assertEquals(product.shiftRight(64).longValue(),
+          CompUInt128Accumulator.multiplyHighUnsigned(left, right));
+    }
+    assertEquals(-2L, CompUInt128Accumulator.multiplyHighUnsigned(-1L, -1L));
+  }
+
+  @Test
+  public void testReset() {
+    CompUInt128Accumulator accumulator = new CompUInt128Accumulator();
+    accumulator.addInPlace(new CompUInt128(twoTo128.subtract(BigInteger.ONE)));
+    accumulator.reset();
+    assertTrue(accumulator.get().isZero());
+  }
+
+  @Test
+  public void testFactoryAccumulators() {
+    CompUInt128Factory factory = new CompUInt128Factory();
+    List<CompUIntAccumulator<CompUInt128>> accumulators = Arrays.asList(
+        factory.createAccumulator(), new DefaultCompUIntAccumulator<>(factory.zero()));
+    for (CompUIntAccumulator<CompUInt128> accumulator : accumulators) {
+      accumulator.multiplyAddInPlace(factory.createElement(3), factory.createElement(5));
+      accumulator.subtractInPlace(factory.createElement(20));
+      assertEquals(twoTo128.subtract(BigInteger.valueOf(5)), accumulator.get().toBigInteger());
+    }
+  }
+
+  @Test
+  public void testVectorInnerProducts() {
+    List<Spdz2kSInt<CompUInt128>> elements = new ArrayList<>();
+    List<CompUInt128> coefficients = new ArrayList<>();
+    CompUInt128 expectedShare = new CompUInt128(0);
+    CompUInt128 expectedMac = new CompUInt128(0);
+    for (int i = 0; i < 100; i++) {
+      Spdz2kSInt<CompUInt128> element =
+          new Spdz2kSInt<>(new CompUInt128(randomValue()), new CompUInt128(randomValue()));
+      CompUInt128 coefficient = new CompUInt128(randomValue());
+      elements.add(element);
+      coefficients.add(coefficient);
+      expectedShare = expectedShare.add(element.getShare().multiply(coefficient));
+      expectedMac = expectedMac.add(element.getMacShare().multiply(coefficient));
+    }
+    Spdz2kSIntVector<CompUInt128> vector = new Spdz2kSIntVector<>(elements);
+    CompUInt128Accumulator accumulator = new CompUInt128Accumulator();
+    assertEquals(100, vector.size());
+    assertEquals(elements.get(7).getMacShare(), vector.get(7).getMacShare());
+    assertEquals(expectedShare.toBigInteger(),
+        vector.shareInnerProduct(coefficients, accumulator).toBigInteger());
+    assertEquals(expectedMac.toBigInteger(),
+        vector.macShareInnerProduct(coefficients, accumulator).toBigInteger());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testVectorInnerProductWrongSize() {
+    Spdz2kSIntVector<CompUInt128> vector = new Spdz2kSIntVector<>(Arrays.asList(
+        new Spdz2kSInt<>(new CompUInt128(1), new CompUInt128(2))));
+    vector.shareInnerProduct(new ArrayList<>(), new CompUInt128Accumulator());
+  }
+}
@@ -0,0 +1,76 @@
+package dk.alexandra.fresco.suite.tinytables.datatypes;
+
+import dk.alexandra.fresco.framework.util.ByteArrayHelper;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A batch of shares of multiplication triples stored in packed form, holding the shares of
+ * <i>a</i>, <i>b</i> and <i>c</i> of all triples in a bit vector each. The bits are indexed as the
+ * bits of a {@link dk.alexandra.fresco.framework.util.StrictBitVector} read as little-endian, so
+ * the shares of a batch can be computed from the choices and messages of the OTs a byte at a time.
+ */
+public class TinyTablesTripleVector {
+
+  private final byte[] a;
+  private final byte[] b;
+  private final byte[] c;
+  private final int size;
+
+  /**
+   * Creates a batch of triples from packed shares.
+   *
+   * @param a the shares of <i>a</i>
+   * @param b the shares of <i>b</i>
+   * @param c the shares of <i>c</i>
+   * @param size the number of triples, which must fit in each of the arrays of shares
+   */
+  public TinyTablesTripleVector(byte[] a, byte[] b, byte[] c, int size) {
+    int bytes = (size + Byte.SIZE - 1) / Byte.SIZE;
+    if (size < 0 || a.length < bytes || b.length < bytes || c.length < bytes) {
+      throw new IllegalArgumentException("Shares do not hold " + size + " triples");
+    }
+    this.a = a;
+    this.b = b;
+    this.c = c;
+    this.size = size;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Gets the triple at the given index.
+   *
+   * @param index the index of the triple
+   * @return the shares of the triple
+   */
+  public TinyTablesTriple get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return TinyTablesTriple.fromShares(ByteArrayHelper.getBit(a, index),
+        ByteArrayHelper.getBit(b, index), ByteArrayHelper.getBit(c, index));
+  }
+
+  /**
+   * Returns a list view of the triples of this batch. The triples are not unpacked until they are
+   * read from the list.
+   *
+   * @return the triples of this batch
+   */
+  public List<TinyTablesTriple> asList() {
+    return new AbstractList<TinyTablesTriple>() {
+      @Override
+      public TinyTablesTriple get(int index) {
+        return TinyTablesTripleVector.this.get(index);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+}
@@ -12,12 +12,22 @@ import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesCloseProt
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesNOTProtocol;
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesOpenToAllProtocol;
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesXORProtocol;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
 
 public class TinyTablesBuilderFactory implements BuilderFactoryBinary {
 
+  private final TinyTablesStorage storage;
   private int counter = 0;
 
-  public TinyTablesBuilderFactory() {}
+  /**
+   * Creates a builder factory for protocols using the TinyTables and mask shares of the given
+   * storage.
+   *
+   * @param storage the storage holding the values computed in the preprocessing phase
+   */
+  public TinyTablesBuilderFactory(TinyTablesStorage storage) {
+    this.storage = storage;
+  }
 
   private int getNextId() {
     return counter++;
@@ -48,7 +58,7 @@ public class TinyTablesBuilderFactory implements BuilderFactoryBinary {
 
       @Override
       public DRes<Boolean> open(DRes<SBool> toOpen) {
-        TinyTablesOpenToAllProtocol p = new TinyTablesOpenToAllProtocol(getNextId(), toOpen);
+        TinyTablesOpenToAllProtocol p = new TinyTablesOpenToAllProtocol(getNextId(), toOpen, storage);
         builder.append(p);
         return p;
       }
@@ -67,14 +77,15 @@ public class TinyTablesBuilderFactory implements BuilderFactoryBinary {
 
       @Override
       public DRes<SBool> input(boolean in, int inputter) {
-        TinyTablesCloseProtocol p = new TinyTablesCloseProtocol(getNextId(), inputter, in);
+        TinyTablesCloseProtocol p = new TinyTablesCloseProtocol(getNextId(), inputter, in,
+            storage);
         builder.append(p);
         return p;
       }
 
       @Override
       public DRes<SBool> and(DRes<SBool> left, DRes<SBool> right) {
-        TinyTablesANDProtocol p = new TinyTablesANDProtocol(getNextId(), left, right);
+        TinyTablesANDProtocol p = new TinyTablesANDProtocol(getNextId(), left, right, storage);
         builder.append(p);
         return p;
       }
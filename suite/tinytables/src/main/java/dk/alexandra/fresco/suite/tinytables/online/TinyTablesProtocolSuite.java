@@ -1,9 +1,11 @@
 package dk.alexandra.fresco.suite.tinytables.online;
 
 import dk.alexandra.fresco.framework.BuilderFactory;
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.ProtocolCollection;
 import dk.alexandra.fresco.framework.builder.binary.ProtocolBuilderBinary;
+import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
-import dk.alexandra.fresco.framework.util.ExceptionConverter;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesANDProtocol;
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesCloseProtocol;
@@ -11,13 +13,11 @@ import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesNOTProtoc
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesOpenToAllProtocol;
 import dk.alexandra.fresco.suite.tinytables.online.protocols.TinyTablesXORProtocol;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesFileStorage;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,48 +39,114 @@ import org.slf4j.LoggerFactory;
  * {@link TinyTablesOpenToAllProtocol} and {@link TinyTablesXORProtocol}.
  * </p>
  *
+ * <p>
+ * All AND protocols of a batch are evaluated together before the batch is evaluated (see
+ * {@link #createRoundSynchronization}), so the players exchange a single packed message per batch
+ * of AND protocols.
+ * </p>
+ *
+ * <p>
+ * The TinyTables are passed to the protocols by the builder factory, so any number of evaluations
+ * using the same or different suites can run concurrently in one process. A suite created from a
+ * file opens the file again for each evaluation, so an evaluation always uses the TinyTables most
+ * recently written to the file, even if it has been preprocessed again since the suite was
+ * created.
+ * </p>
+ *
  * @author Jonas Lindstrøm (jonas.lindstrom@alexandra.dk)
  */
 public class TinyTablesProtocolSuite
     implements ProtocolSuite<ResourcePoolImpl, ProtocolBuilderBinary> {
 
   private final File tinyTablesFile;
-  private TinyTablesStorage storage;
-  private static volatile Map<Integer, TinyTablesProtocolSuite> instances = new HashMap<>();
+  private final TinyTablesStorage storage;
   private static final Logger logger = LoggerFactory.getLogger(TinyTablesProtocolSuite.class);
 
-  public static TinyTablesProtocolSuite getInstance(int id) {
-    return instances.get(id);
+  /**
+   * Creates a protocol suite using the TinyTables written to the given file in the preprocessing
+   * phase. The file is opened on each call to {@link #init}, which maps it into memory without
+   * reading it.
+   *
+   * @param tinyTablesFile the file holding the TinyTables
+   */
+  public TinyTablesProtocolSuite(File tinyTablesFile) {
+    this.tinyTablesFile = tinyTablesFile;
+    this.storage = null;
+  }
+
+  /**
+   * Creates a protocol suite using the TinyTables of the given storage.
+   *
+   * @param storage the storage holding the values computed in the preprocessing phase
+   */
+  public TinyTablesProtocolSuite(TinyTablesStorage storage) {
+    this.tinyTablesFile = null;
+    this.storage = storage;
   }
 
+  /**
+   * Creates a protocol suite using the TinyTables written to the given file.
+   *
+   * @param id the id of this party, which is no longer needed
+   * @param tinyTablesFile the file holding the TinyTables
+   * @deprecated use {@link #TinyTablesProtocolSuite(File)} instead
+   */
+  @Deprecated
   public TinyTablesProtocolSuite(int id, File tinyTablesFile) {
-    this.tinyTablesFile = tinyTablesFile;
-    instances.put(id, this);
+    this(tinyTablesFile);
   }
 
   @Override
   public BuilderFactory<ProtocolBuilderBinary> init(ResourcePoolImpl resourcePool) {
-    this.storage =
-        ExceptionConverter.safe(() -> loadTinyTables(tinyTablesFile), "Unable to load TinyTables");
-    BuilderFactory<ProtocolBuilderBinary> b = new TinyTablesBuilderFactory();
-    return b;
+    return new TinyTablesBuilderFactory(getStorage());
   }
 
-  private TinyTablesStorage loadTinyTables(File file) throws IOException, ClassNotFoundException {
-    FileInputStream fin = new FileInputStream(file);
-    ObjectInputStream is = new ObjectInputStream(fin);
-    logger.info("Loading TinyTabels from " + file);
-    TinyTablesStorage storage = (TinyTablesStorage) is.readObject();
-    is.close();
-    return storage;
+  private TinyTablesStorage loadTinyTables(File file) {
+    logger.debug("Loading TinyTables from " + file);
+    return TinyTablesFileStorage.open(file);
   }
 
+  /**
+   * Gets the storage holding the TinyTables. If this suite was created from a file, the file is
+   * opened again on each call, such that the storage holds the TinyTables currently in the file.
+   */
   public TinyTablesStorage getStorage() {
-    return this.storage;
+    if (tinyTablesFile != null) {
+      return loadTinyTables(tinyTablesFile);
+    }
+    return storage;
   }
 
   @Override
   public RoundSynchronization<ResourcePoolImpl> createRoundSynchronization() {
-    return new DummyRoundSynchronization<>();
+    return new OnlineRoundSync();
+  }
+
+  private static class OnlineRoundSync implements RoundSynchronization<ResourcePoolImpl> {
+
+    @Override
+    public void beforeBatch(ProtocolCollection<ResourcePoolImpl> protocols,
+        ResourcePoolImpl resourcePool, Network network) {
+      List<TinyTablesANDProtocol> gates = new ArrayList<>();
+      for (NativeProtocol<?, ResourcePoolImpl> protocol : protocols) {
+        if (protocol instanceof TinyTablesANDProtocol) {
+          gates.add((TinyTablesANDProtocol) protocol);
+        }
+      }
+      if (!gates.isEmpty()) {
+        TinyTablesANDProtocol.evaluateBatch(gates, network);
+      }
+    }
+
+    @Override
+    public void finishedBatch(int gatesEvaluated, ResourcePoolImpl resourcePool,
+        Network network) {
+      // Ignore
+    }
+
+    @Override
+    public void finishedEval(ResourcePoolImpl resourcePool, Network network) {
+      // Ignore
+    }
   }
 }
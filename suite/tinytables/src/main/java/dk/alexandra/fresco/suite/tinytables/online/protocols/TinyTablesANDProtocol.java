@@ -5,13 +5,10 @@ import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.network.serializers.BooleanSerializer;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.value.SBool;
-import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
-import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.online.datatypes.TinyTablesSBool;
-import java.util.ArrayList;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * <p>
@@ -29,6 +26,10 @@ import java.util.Objects;
  * Both players now add their share with the other players share to get the masked value of the
  * output wire.
  * </p>
+ * <p>
+ * The AND protocols of a batch are evaluated together using {@link #evaluateBatch}, exchanging one
+ * packed message per batch instead of one message per protocol.
+ * </p>
  *
  * @author Jonas Lindstrøm (jonas.lindstrom@alexandra.dk)
  */
@@ -36,38 +37,88 @@ public class TinyTablesANDProtocol extends TinyTablesProtocol<SBool> {
 
   private int id;
   private DRes<SBool> inLeft, inRight;
+  private TinyTablesStorage storage;
   private TinyTablesSBool out;
 
-  public TinyTablesANDProtocol(int id, DRes<SBool> inLeft, DRes<SBool> inRight) {
+  public TinyTablesANDProtocol(int id, DRes<SBool> inLeft, DRes<SBool> inRight,
+      TinyTablesStorage storage) {
     this.id = id;
     this.inLeft = inLeft;
     this.inRight = inRight;
+    this.storage = storage;
   }
 
   @Override
   public EvaluationStatus evaluate(int round, ResourcePoolImpl resourcePool, Network network) {
-    TinyTablesProtocolSuite ps = TinyTablesProtocolSuite.getInstance(resourcePool.getMyId());
-
+    if (out != null) {
+      // Already evaluated as part of a batch, see evaluateBatch
+      return EvaluationStatus.IS_DONE;
+    }
     if (round == 0) {
-      TinyTable tinyTable = Objects.requireNonNull(ps.getStorage().getTinyTable(id),
-          "Unable to find TinyTable for gate with id " + id);
-      TinyTablesElement myShare = tinyTable.getValue(((TinyTablesSBool) inLeft.out()).getValue(),
-          ((TinyTablesSBool) inRight.out()).getValue());
-
-      network.sendToAll(new byte[]{BooleanSerializer.toBytes(myShare.getShare())});
+      boolean myShare = lookup();
+      network.sendToAll(new byte[]{BooleanSerializer.toBytes(myShare)});
       return EvaluationStatus.HAS_MORE_ROUNDS;
     } else {
       List<byte[]> buffers = network.receiveFromAll();
-      List<TinyTablesElement> shares = new ArrayList<>();
+      boolean open = false;
       for (byte[] bytes : buffers) {
-        shares.add(TinyTablesElement.getInstance(BooleanSerializer.fromBytes(bytes[0])));
+        open ^= BooleanSerializer.fromBytes(bytes[0]);
       }
-      boolean open = TinyTablesElement.open(shares);
       this.out = TinyTablesSBool.getInstance(TinyTablesElement.getInstance(open));
       return EvaluationStatus.IS_DONE;
     }
   }
 
+  private boolean lookup() {
+    return storage.lookupTinyTable(id,
+        ((TinyTablesSBool) inLeft.out()).getValue().getShare(),
+        ((TinyTablesSBool) inRight.out()).getValue().getShare());
+  }
+
+  /**
+   * Evaluates a number of AND protocols in a single round. <p>The shares of the TinyTable entries of
+   * all the protocols are packed into one bit vector, which is sent as a single message to each
+   * party, rather than sending one byte per protocol. The inputs of all the protocols must be
+   * available, which is the case for protocols of the same batch. After this call, the protocols
+   * are done and return their output without communicating when evaluated.</p>
+   *
+   * @param gates the protocols to evaluate
+   * @param network the network to use. This should not be a network batching messages between
+   *     rounds, since both sending and receiving happens in this call.
+   */
+  public static void evaluateBatch(List<TinyTablesANDProtocol> gates, Network network) {
+    int size = gates.size();
+    long[] shares = new long[(size + Long.SIZE - 1) / Long.SIZE];
+    for (int i = 0; i < size; i++) {
+      if (gates.get(i).lookup()) {
+        shares[i >>> 6] |= 1L << i;
+      }
+    }
+    network.sendToAll(toBytes(shares, size));
+    long[] opened = new long[shares.length];
+    for (byte[] bytes : network.receiveFromAll()) {
+      xorInto(opened, bytes);
+    }
+    for (int i = 0; i < size; i++) {
+      boolean open = (opened[i >>> 6] & (1L << i)) != 0;
+      gates.get(i).out = TinyTablesSBool.getInstance(TinyTablesElement.getInstance(open));
+    }
+  }
+
+  private static byte[] toBytes(long[] bits, int size) {
+    byte[] bytes = new byte[(size + Byte.SIZE - 1) / Byte.SIZE];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (bits[i >>> 3] >>> (Byte.SIZE * (i & 7)));
+    }
+    return bytes;
+  }
+
+  private static void xorInto(long[] bits, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      bits[i >>> 3] ^= (bytes[i] & 0xFFL) << (Byte.SIZE * (i & 7));
+    }
+  }
+
   @Override
   public SBool out() {
     return out;
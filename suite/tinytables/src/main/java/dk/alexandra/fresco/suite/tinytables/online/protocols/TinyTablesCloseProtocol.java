@@ -5,9 +5,9 @@ import dk.alexandra.fresco.framework.network.serializers.BooleanSerializer;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.value.SBool;
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
-import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.online.datatypes.TinyTablesSBool;
 import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproCloseProtocol;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
 
 /**
  * <p>
@@ -26,20 +26,21 @@ public class TinyTablesCloseProtocol extends TinyTablesProtocol<SBool> {
   private int id;
   private int inputter;
   private Boolean in;
+  private TinyTablesStorage storage;
   private TinyTablesSBool out;
 
-  public TinyTablesCloseProtocol(int id, int inputter, Boolean in) {
+  public TinyTablesCloseProtocol(int id, int inputter, Boolean in, TinyTablesStorage storage) {
     this.id = id;
     this.inputter = inputter;
     this.in = in;
+    this.storage = storage;
   }
 
   @Override
   public EvaluationStatus evaluate(int round, ResourcePoolImpl resourcePool, Network network) {
-    TinyTablesProtocolSuite ps = TinyTablesProtocolSuite.getInstance(resourcePool.getMyId());
     if (round == 0) {
       if (resourcePool.getMyId() == this.inputter) {
-        TinyTablesElement r = ps.getStorage().getMaskShare(id);
+        TinyTablesElement r = storage.getMaskShare(id);
         TinyTablesElement e = TinyTablesElement.getInstance(this.in ^ r.getShare());
         network.sendToAll(new byte[]{BooleanSerializer.toBytes(e.getShare())});
       }
@@ -6,8 +6,8 @@ import dk.alexandra.fresco.framework.network.serializers.BooleanSerializer;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.value.SBool;
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
-import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.online.datatypes.TinyTablesSBool;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,25 +28,25 @@ public class TinyTablesOpenToAllProtocol extends TinyTablesProtocol<Boolean> {
 
   private int id;
   private DRes<SBool> toOpen;
+  private TinyTablesStorage storage;
   private Boolean opened;
 
-  public TinyTablesOpenToAllProtocol(int id, DRes<SBool> toOpen) {
+  public TinyTablesOpenToAllProtocol(int id, DRes<SBool> toOpen, TinyTablesStorage storage) {
     super();
     this.id = id;
     this.toOpen = toOpen;
+    this.storage = storage;
   }
 
   @Override
   public EvaluationStatus evaluate(int round, ResourcePoolImpl resourcePool, Network network) {
-    TinyTablesProtocolSuite ps = TinyTablesProtocolSuite.getInstance(resourcePool.getMyId());
-
     /*
      * When opening a value, all players send their shares of the masking value r to the other
      * players, and each player can then calculate the unmasked value as the XOR of the masked value
      * and all the shares of the mask.
      */
     if (round == 0) {
-      TinyTablesElement myR = ps.getStorage().getMaskShare(id);
+      TinyTablesElement myR = storage.getMaskShare(id);
       network.sendToAll(new byte[]{BooleanSerializer.toBytes(myR.getShare())});
       return EvaluationStatus.HAS_MORE_ROUNDS;
     } else {
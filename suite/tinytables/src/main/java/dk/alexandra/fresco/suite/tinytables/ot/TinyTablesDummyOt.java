@@ -1,8 +1,10 @@
 package dk.alexandra.fresco.suite.tinytables.ot;
 
 import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import java.util.List;
 
 /**
  * Adapter class for the generic dummy OT implementation for use . This adapter allows the user to
@@ -37,4 +39,14 @@ public class TinyTablesDummyOt implements TinyTablesOt {
     return ot.receive(choiceBit);
   }
 
+  @Override
+  public void sendBatch(List<Pair<StrictBitVector, StrictBitVector>> messages) {
+    ot.sendBatch(messages);
+  }
+
+  @Override
+  public List<StrictBitVector> receiveBatch(StrictBitVector choices) {
+    return ot.receiveBatch(choices);
+  }
+
 }
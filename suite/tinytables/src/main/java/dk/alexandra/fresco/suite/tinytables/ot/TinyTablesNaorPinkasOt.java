@@ -5,7 +5,9 @@ import dk.alexandra.fresco.tools.ot.base.BigIntNaorPinkas;
 
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.List;
 
 public class TinyTablesNaorPinkasOt implements TinyTablesOt {
 
@@ -39,4 +41,14 @@ public class TinyTablesNaorPinkasOt implements TinyTablesOt {
     return ot.receive(choiceBit);
   }
 
+  @Override
+  public void sendBatch(List<Pair<StrictBitVector, StrictBitVector>> messages) {
+    ot.sendBatch(messages);
+  }
+
+  @Override
+  public List<StrictBitVector> receiveBatch(StrictBitVector choices) {
+    return ot.receiveBatch(choices);
+  }
+
 }
\ No newline at end of file
@@ -11,10 +11,10 @@ import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesOt;
 import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproANDProtocol;
 import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproProtocol;
 import dk.alexandra.fresco.suite.tinytables.storage.BatchTinyTablesTripleProvider;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesFileStorage;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
-import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorageImpl;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesTripleProvider;
-import dk.alexandra.fresco.suite.tinytables.util.TinyTablesTripleGenerator;
+import dk.alexandra.fresco.suite.tinytables.util.TinyTablesRotTripleGenerator;
 import dk.alexandra.fresco.suite.tinytables.util.Util;
 import dk.alexandra.fresco.tools.cointossing.CoinTossing;
 import dk.alexandra.fresco.tools.ot.otextension.*;
@@ -22,9 +22,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,8 +36,8 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
 
   private final Drng drng;
   private final List<TinyTablesPreproANDProtocol> unprocessedAnds;
-  private final TinyTablesStorage storage;
   private final File tinyTablesFile;
+  private TinyTablesFileStorage storage;
   private final Supplier<TinyTablesTripleProvider> supplier;
   private TinyTablesTripleProvider tinyTablesTripleProvider;
 
@@ -51,15 +48,16 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
    * @param myId The ID of the MPC party.
    * @param baseOt OT functionality for the base OTs
    * @param drbg Secure bit randomness generator
-   * @param otBatchSize The amount of OTs to preprocess in a batch
-   * @param tinyTablesFile file for data
+   * @param otBatchSize The amount of OTs to preprocess in a batch. Not used, since the triples
+   *     are generated from batches of random OTs of the size of the triple batches
+   * @param tinyTablesFile file for data. The file is created when the first value is stored,
+   *     and the TinyTables are written to it as they are computed
    */
   public TinyTablesPreproResourcePool(int myId, TinyTablesOt baseOt, Drbg drbg,
       int computationalSecurity, int statisticalSecurity,
       int otBatchSize, File tinyTablesFile, Supplier<Network> network) {
     super(myId, 2);
     this.unprocessedAnds = Collections.synchronizedList(new ArrayList<>());
-    this.storage = new TinyTablesStorageImpl();
     this.tinyTablesFile = tinyTablesFile;
     this.drng = new DrngImpl(drbg);
     this.supplier = () -> {
@@ -81,11 +79,9 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
       ct.initialize(network.get());
       // Setup the OT extension
       RotFactory rotFactory = new RotFactory(otExtRes, network.get());
-      BristolOtFactory otFactory = new BristolOtFactory(rotFactory, otExtRes, network.get(),
-          otBatchSize);
-      TinyTablesTripleGenerator generator =
-          new TinyTablesTripleGenerator(getMyId(), getDrng(), otFactory);
-      return new BatchTinyTablesTripleProvider(generator, TRIP_BATCH_SIZE);
+      TinyTablesRotTripleGenerator generator =
+          new TinyTablesRotTripleGenerator(getMyId(), drbg, rotFactory);
+      return new BatchTinyTablesTripleProvider(generator::generate, TRIP_BATCH_SIZE);
     };
   }
 
@@ -153,35 +149,44 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
 
       TinyTable tinyTable = gate.calculateTinyTable(getMyId(), product);
 
-      this.storage.storeTinyTable(gate.getId(), tinyTable);
+      getStorage().storeTinyTable(gate.getId(), tinyTable);
     }
 
     this.unprocessedAnds.clear();
   }
 
-  public void closeEvaluation() {
-    if (tinyTablesTripleProvider != null) {
-      tinyTablesTripleProvider.close();
-    }
-    /*
-     * Store the TinyTables to a file.
-     */
-    ExceptionConverter.safe(() -> {
-      storeTinyTables(storage, tinyTablesFile);
+  /**
+   * Completes the file holding the TinyTables at the end of an evaluation, such that it can be read
+   * by the online phase. The file is kept open, so this resource pool can be used for further
+   * evaluations.
+   */
+  public synchronized void closeEvaluation() {
+    if (storage != null) {
+      storage.flush();
       LOGGER.info("TinyTables stored to {}", tinyTablesFile);
-      return null;
-    }, "Failed to store TinyTables");
+    }
   }
 
-  private void storeTinyTables(TinyTablesStorage tinyTablesStorage, File file) throws IOException {
-    file.createNewFile();
-    try (FileOutputStream fout = new FileOutputStream(file);
-      ObjectOutputStream oos = new ObjectOutputStream(fout)) {
-      oos.writeObject(tinyTablesStorage);
+  /**
+   * Completes and closes the file holding the TinyTables, and lets the triple provider know that
+   * it is no longer used. The resource pool can not be used for further evaluations.
+   */
+  public synchronized void close() {
+    if (tinyTablesTripleProvider != null) {
+      tinyTablesTripleProvider.close();
+    }
+    if (storage != null) {
+      storage.close();
     }
   }
 
-  public TinyTablesStorage getStorage() {
+  /**
+   * Gets the storage writing the TinyTables to the file, creating the file on the first call.
+   */
+  public synchronized TinyTablesStorage getStorage() {
+    if (storage == null) {
+      storage = TinyTablesFileStorage.create(tinyTablesFile);
+    }
     return storage;
   }
 }
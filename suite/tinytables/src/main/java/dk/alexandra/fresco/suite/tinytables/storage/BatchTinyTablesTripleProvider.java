@@ -3,8 +3,7 @@ package dk.alexandra.fresco.suite.tinytables.storage;
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesTriple;
 import dk.alexandra.fresco.suite.tinytables.util.TinyTablesTripleGenerator;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,11 +16,33 @@ import org.slf4j.LoggerFactory;
 public class BatchTinyTablesTripleProvider implements TinyTablesTripleProvider {
 
   private final static Logger logger = LoggerFactory.getLogger(BatchTinyTablesTripleProvider.class);
-  private Queue<TinyTablesTriple> triples = new ConcurrentLinkedQueue<>();
-  private TinyTablesTripleGenerator generator;
-  private int batchSize;
+  private final IntFunction<List<TinyTablesTriple>> generator;
+  private final int batchSize;
+  private List<TinyTablesTriple> triples;
+  private int next;
 
+  /**
+   * Creates a new provider using a chosen-message OT triple generator.
+   *
+   * @param generator the generator of triples
+   * @param batchSize the number of triples to generate at a time
+   * @deprecated use {@link #BatchTinyTablesTripleProvider(IntFunction, int)} with {@link
+   *     dk.alexandra.fresco.suite.tinytables.util.TinyTablesRotTripleGenerator#generate} instead
+   */
+  @Deprecated
   public BatchTinyTablesTripleProvider(TinyTablesTripleGenerator generator, int batchSize) {
+    this(generator::generate, batchSize);
+  }
+
+  /**
+   * Creates a new provider.
+   *
+   * @param generator generates a given number of triples, e.g.,
+   *     {@link dk.alexandra.fresco.suite.tinytables.util.TinyTablesRotTripleGenerator#generate}
+   * @param batchSize the number of triples to generate at a time
+   */
+  public BatchTinyTablesTripleProvider(IntFunction<List<TinyTablesTriple>> generator,
+      int batchSize) {
     this.generator = generator;
     this.batchSize = batchSize;
     generateNewTriples();
@@ -29,17 +50,16 @@ public class BatchTinyTablesTripleProvider implements TinyTablesTripleProvider {
 
   @Override
   public synchronized TinyTablesTriple getNextTriple() {
-    if (triples.isEmpty()) {
+    if (next == triples.size()) {
       generateNewTriples();
     }
-    return triples.poll();
+    return triples.get(next++);
   }
 
   private void generateNewTriples() {
-    List<TinyTablesTriple> newTriples = generator.generate(batchSize);
-    for (TinyTablesTriple triple : newTriples) {
-      triples.offer(triple);
-    }
+    logger.trace("Generating {} triples", batchSize);
+    triples = generator.apply(batchSize);
+    next = 0;
   }
 
   @Override
@@ -0,0 +1,227 @@
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@link TinyTablesStorage} backed by a memory mapped file, used to carry the
+ * TinyTables from the preprocessing to the online phase without serializing them as objects.
+ *
+ * <p>The file starts with a header holding a magic number, a format version and the number of gate
+ * ids in the file. The header is followed by one byte per gate id: the four lowest bits hold the
+ * TinyTable indexed by the masked values of the left and right input wire, the fifth bit holds the
+ * mask share, and the sixth and seventh bit tell whether a TinyTable and a mask share has been
+ * stored for the id. Since gate ids are assigned consecutively starting from zero, the file is
+ * dense.</p>
+ *
+ * <p>A storage created using {@link #create(File)} writes the values to the file as they are stored
+ * during preprocessing. The file is completed on {@link #flush()}, e.g., at the end of each
+ * evaluation, and on {@link #close()}. A storage opened using {@link #open(File)} maps the file into
+ * memory without reading it, so the time it takes to open a storage does not depend on the size of
+ * the file. Storing values is thread safe, while reading values concurrently with storing them is
+ * not.</p>
+ */
+public class TinyTablesFileStorage implements TinyTablesStorage, Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(TinyTablesFileStorage.class);
+  static final int MAGIC = 0x46545453;
+  static final byte VERSION = 1;
+  static final int HEADER_LENGTH = Integer.BYTES + Byte.BYTES + Long.BYTES;
+  private static final int WRITE_WINDOW_SIZE = 1 << 20;
+  private static final int READ_WINDOW_SIZE = 1 << 30;
+  private static final int MASK_SHARE = 1 << 4;
+  private static final int STORED_TABLE = 1 << 5;
+  private static final int STORED_MASK_SHARE = 1 << 6;
+
+  private final File file;
+  private final FileChannel channel;
+  private final List<MappedByteBuffer> windows;
+  private final int windowSize;
+  private long count;
+
+  private TinyTablesFileStorage(File file, FileChannel channel, List<MappedByteBuffer> windows,
+      int windowSize, long count) {
+    this.file = file;
+    this.channel = channel;
+    this.windows = windows;
+    this.windowSize = windowSize;
+    this.count = count;
+  }
+
+  /**
+   * Creates a new storage writing to the given file. An existing file is overwritten.
+   *
+   * @param file the file to write the TinyTables to
+   * @return the new storage
+   */
+  public static TinyTablesFileStorage create(File file) {
+    return ExceptionConverter.safe(() -> {
+      FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      return new TinyTablesFileStorage(file, channel, new ArrayList<>(), WRITE_WINDOW_SIZE, 0);
+    }, "Unable to create TinyTables file " + file);
+  }
+
+  /**
+   * Opens a storage for reading the TinyTables written to the given file by a storage created
+   * using {@link #create(File)}.
+   *
+   * @param file the file to read the TinyTables from
+   * @return the opened storage
+   */
+  public static TinyTablesFileStorage open(File file) {
+    return ExceptionConverter.safe(() -> {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_LENGTH);
+        if (header.getInt() != MAGIC || header.get() != VERSION) {
+          throw new IllegalArgumentException(file + " is not a TinyTables file");
+        }
+        long count = header.getLong();
+        if (count > channel.size() - HEADER_LENGTH) {
+          throw new IllegalArgumentException(file + " is truncated");
+        }
+        List<MappedByteBuffer> windows = new ArrayList<>();
+        for (long position = 0; position < count; position += READ_WINDOW_SIZE) {
+          long size = Math.min(READ_WINDOW_SIZE, count - position);
+          windows.add(channel.map(MapMode.READ_ONLY, HEADER_LENGTH + position, size));
+        }
+        return new TinyTablesFileStorage(file, null, windows, READ_WINDOW_SIZE, count);
+      }
+    }, "Unable to open TinyTables file " + file);
+  }
+
+  @Override
+  public synchronized void storeTinyTable(int id, TinyTable table) {
+    TinyTablesElement f = TinyTablesElement.getInstance(false);
+    TinyTablesElement t = TinyTablesElement.getInstance(true);
+    int bits = STORED_TABLE;
+    bits |= table.getValue(f, f).getShare() ? 1 : 0;
+    bits |= table.getValue(f, t).getShare() ? 1 << 1 : 0;
+    bits |= table.getValue(t, f).getShare() ? 1 << 2 : 0;
+    bits |= table.getValue(t, t).getShare() ? 1 << 3 : 0;
+    store(id, 0x0f | STORED_TABLE, bits);
+  }
+
+  @Override
+  public synchronized void storeMaskShare(int id, TinyTablesElement r) {
+    store(id, MASK_SHARE | STORED_MASK_SHARE,
+        STORED_MASK_SHARE | (r.getShare() ? MASK_SHARE : 0));
+  }
+
+  @Override
+  public TinyTable getTinyTable(int id) {
+    int bits = read(id);
+    if ((bits & STORED_TABLE) == 0) {
+      return null;
+    }
+    TinyTablesElement[] values = new TinyTablesElement[4];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TinyTablesElement.getInstance((bits & (1 << i)) != 0);
+    }
+    return new TinyTable(values);
+  }
+
+  @Override
+  public boolean lookupTinyTable(int id, boolean left, boolean right) {
+    int bits = read(id);
+    if ((bits & STORED_TABLE) == 0) {
+      throw new IllegalStateException("Unable to find TinyTable for gate with id " + id);
+    }
+    return (bits & (1 << ((left ? 2 : 0) + (right ? 1 : 0)))) != 0;
+  }
+
+  @Override
+  public TinyTablesElement getMaskShare(int id) {
+    int bits = read(id);
+    if ((bits & STORED_MASK_SHARE) == 0) {
+      return null;
+    }
+    return TinyTablesElement.getInstance((bits & MASK_SHARE) != 0);
+  }
+
+  /**
+   * Completes the file with the values stored so far if this storage was created for writing, so
+   * it can be opened by {@link #open(File)}. Unlike {@link #close()}, values can still be stored
+   * after the file has been flushed, and are included in the file when it is flushed again.
+   */
+  public synchronized void flush() {
+    if (channel == null || !channel.isOpen()) {
+      return;
+    }
+    ExceptionConverter.safe(() -> {
+      writeHeader();
+      return null;
+    }, "Unable to complete TinyTables file " + file);
+  }
+
+  /**
+   * Completes the file if this storage was created for writing, so it can be opened by {@link
+   * #open(File)}. Values can no longer be stored after the storage has been closed.
+   */
+  @Override
+  public synchronized void close() {
+    if (channel == null || !channel.isOpen()) {
+      return;
+    }
+    ExceptionConverter.safe(() -> {
+      writeHeader();
+      try {
+        channel.truncate(HEADER_LENGTH + count);
+      } catch (IOException e) {
+        // Some platforms do not allow truncating a mapped file. The padding is ignored when read.
+        logger.debug("Unable to truncate TinyTables file {}", file, e);
+      }
+      channel.close();
+      return null;
+    }, "Unable to complete TinyTables file " + file);
+  }
+
+  private void writeHeader() throws IOException {
+    for (MappedByteBuffer window : windows) {
+      window.force();
+    }
+    MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_LENGTH);
+    header.putInt(MAGIC).put(VERSION).putLong(count);
+    header.force();
+  }
+
+  private void store(int id, int mask, int bits) {
+    if (channel == null) {
+      throw new IllegalStateException("TinyTables file " + file + " is opened for reading");
+    }
+    if (!channel.isOpen()) {
+      throw new IllegalStateException("TinyTables file " + file + " is closed");
+    }
+    int window = id / windowSize;
+    while (windows.size() <= window) {
+      long position = HEADER_LENGTH + (long) windows.size() * windowSize;
+      windows.add(ExceptionConverter.safe(() -> channel.map(MapMode.READ_WRITE, position,
+          windowSize), "Unable to extend TinyTables file " + file));
+    }
+    MappedByteBuffer buffer = windows.get(window);
+    int index = id % windowSize;
+    buffer.put(index, (byte) (buffer.get(index) & ~mask | bits));
+    count = Math.max(count, id + 1L);
+  }
+
+  private int read(int id) {
+    if (id < 0 || id >= count) {
+      return 0;
+    }
+    return windows.get(id / windowSize).get(id % windowSize);
+  }
+
+}
@@ -2,7 +2,6 @@ package dk.alexandra.fresco.suite.tinytables.storage;
 
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
-import java.io.Serializable;
 
 /**
  * This class handles the data which has to be carried from the preprocessing to
@@ -11,7 +10,7 @@ import java.io.Serializable;
  * @author Jonas Lindstrøm (jonas.lindstrom@alexandra.dk)
  *
  */
-public interface TinyTablesStorage extends Serializable {
+public interface TinyTablesStorage {
 
 	/**
 	 * Store a {@link TinyTable} for the protocol with the given <code>id</code>
@@ -24,6 +23,21 @@ public interface TinyTablesStorage extends Serializable {
 
 	public TinyTable getTinyTable(int id);
 
+	/**
+	 * Look up a single entry in the {@link TinyTable} for the protocol with
+	 * the given <code>id</code> without creating the table.
+	 * 
+	 * @param id
+	 * @param left
+	 *            the masked value of the left input wire
+	 * @param right
+	 *            the masked value of the right input wire
+	 * @return this player's share of the entry
+	 * @throws IllegalStateException
+	 *             if no table has been stored for the given id
+	 */
+	public boolean lookupTinyTable(int id, boolean left, boolean right);
+
 	/**
 	 * Store a boolean for the protocol with the given ID. Can be used by a
 	 * player to store a mask that he has picked during preprocessing.
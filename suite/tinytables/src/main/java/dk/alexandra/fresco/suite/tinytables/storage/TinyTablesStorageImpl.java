@@ -2,36 +2,96 @@ package dk.alexandra.fresco.suite.tinytables.storage;
 
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-public class TinyTablesStorageImpl implements TinyTablesStorage {
-
-	/**
-	 * 
-	 */
-	private static final long serialVersionUID = -1135044173153933992L;
-	private Map<Integer, TinyTable> tinyTables = new ConcurrentHashMap<>();
-	private Map<Integer, TinyTablesElement> maskShares = new ConcurrentHashMap<>();
-		
-	@Override
-	public TinyTable getTinyTable(int id) {
-		return tinyTables.get(id);
-	}
-
-	@Override
-	public void storeTinyTable(int id, TinyTable table) {
-		tinyTables.put(id, table);
-	}
-
-	@Override
-	public void storeMaskShare(int id, TinyTablesElement r) {
-		maskShares.put(id, r);
-	}
-
-	@Override
-	public TinyTablesElement getMaskShare(int id) {
-		return maskShares.get(id);
-	}
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Dense implementation of {@link TinyTablesStorage}. <p>Since gate ids are assigned consecutively
+ * starting from zero, the TinyTables and mask shares are stored as bits in arrays indexed by the
+ * gate id: four bits per TinyTable and one bit per mask share, plus one bit per id telling whether a
+ * value has been stored. The arrays grow as needed.</p>
+ *
+ * <p>Storing values is thread safe, while reading values concurrently with storing them is not.
+ * This matches the use of the storage, which is written during preprocessing and read during the
+ * online phase.</p>
+ */
+public class TinyTablesStorageImpl implements TinyTablesStorage, Serializable {
+
+  private static final long serialVersionUID = -1135044173153933993L;
+  private static final int INITIAL_CAPACITY = 1024;
+  private long[] tables = new long[INITIAL_CAPACITY * 4 / Long.SIZE];
+  private long[] storedTables = new long[INITIAL_CAPACITY / Long.SIZE];
+  private long[] maskShares = new long[INITIAL_CAPACITY / Long.SIZE];
+  private long[] storedMaskShares = new long[INITIAL_CAPACITY / Long.SIZE];
+
+  @Override
+  public TinyTable getTinyTable(int id) {
+    if (!getBit(storedTables, id)) {
+      return null;
+    }
+    TinyTablesElement[] values = new TinyTablesElement[4];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TinyTablesElement.getInstance(getBit(tables, 4 * id + i));
+    }
+    return new TinyTable(values);
+  }
+
+  @Override
+  public boolean lookupTinyTable(int id, boolean left, boolean right) {
+    if (!getBit(storedTables, id)) {
+      throw new IllegalStateException("Unable to find TinyTable for gate with id " + id);
+    }
+    return getBit(tables, 4 * id + (left ? 2 : 0) + (right ? 1 : 0));
+  }
+
+  @Override
+  public synchronized void storeTinyTable(int id, TinyTable table) {
+    TinyTablesElement f = TinyTablesElement.getInstance(false);
+    TinyTablesElement t = TinyTablesElement.getInstance(true);
+    tables = ensureCapacity(tables, 4 * id + 3);
+    setBit(tables, 4 * id, table.getValue(f, f).getShare());
+    setBit(tables, 4 * id + 1, table.getValue(f, t).getShare());
+    setBit(tables, 4 * id + 2, table.getValue(t, f).getShare());
+    setBit(tables, 4 * id + 3, table.getValue(t, t).getShare());
+    storedTables = ensureCapacity(storedTables, id);
+    setBit(storedTables, id, true);
+  }
+
+  @Override
+  public synchronized void storeMaskShare(int id, TinyTablesElement r) {
+    maskShares = ensureCapacity(maskShares, id);
+    setBit(maskShares, id, r.getShare());
+    storedMaskShares = ensureCapacity(storedMaskShares, id);
+    setBit(storedMaskShares, id, true);
+  }
+
+  @Override
+  public TinyTablesElement getMaskShare(int id) {
+    if (!getBit(storedMaskShares, id)) {
+      return null;
+    }
+    return TinyTablesElement.getInstance(getBit(maskShares, id));
+  }
+
+  private static long[] ensureCapacity(long[] bits, int index) {
+    int words = (index >>> 6) + 1;
+    if (words <= bits.length) {
+      return bits;
+    }
+    return Arrays.copyOf(bits, Math.max(words, 2 * bits.length));
+  }
+
+  private static boolean getBit(long[] bits, int index) {
+    int word = index >>> 6;
+    return word < bits.length && (bits[word] & (1L << index)) != 0;
+  }
+
+  private static void setBit(long[] bits, int index, boolean value) {
+    if (value) {
+      bits[index >>> 6] |= 1L << index;
+    } else {
+      bits[index >>> 6] &= ~(1L << index);
+    }
+  }
 
 }
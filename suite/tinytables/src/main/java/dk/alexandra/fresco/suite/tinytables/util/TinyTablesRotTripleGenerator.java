@@ -0,0 +1,111 @@
+package dk.alexandra.fresco.suite.tinytables.util;
+
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesTriple;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesTripleVector;
+import dk.alexandra.fresco.tools.ot.otextension.RotFactory;
+import dk.alexandra.fresco.tools.ot.otextension.RotReceiver;
+import dk.alexandra.fresco.tools.ot.otextension.RotSender;
+import java.util.List;
+
+/**
+ * Generates Boolean multiplication triples in bulk directly from random OT extension.
+ *
+ * <p>
+ * Instead of running two chosen-message OTs per triple, this generator runs a single random OT
+ * extension in each direction for a whole batch of triples. Each random OT gives the sender two
+ * random bits <i>s<sub>0</sub>, s<sub>1</sub></i> and the receiver the bit
+ * <i>s<sub>b</sub> = s<sub>0</sub> + b(s<sub>0</sub> + s<sub>1</sub>)</i> for its random choice
+ * <i>b</i>. Letting the sender's share of <i>a</i> be <i>s<sub>0</sub> + s<sub>1</sub></i>,
+ * the bits <i>s<sub>0</sub></i> and <i>s<sub>b</sub></i> are an additive sharing of the cross term
+ * of <i>a</i> times the receiver's share of <i>b</i>. With one random OT in each direction, each
+ * player can thus compute its share <i>c = ab + s<sub>0</sub> + s<sub>b</sub></i> of the product of
+ * the shared <i>a</i> and <i>b</i> without further communication.
+ * </p>
+ *
+ * <p>
+ * Hence, a batch of triples takes the constant number of rounds of two random OT extensions.
+ * </p>
+ */
+public class TinyTablesRotTripleGenerator {
+
+  private final int playerId;
+  private final Drbg drbg;
+  private final RotFactory rotFactory;
+  private RotSender sender;
+  private RotReceiver receiver;
+
+  /**
+   * Creates a new triple generator.
+   *
+   * @param playerId the id of the player to generate triples for
+   * @param drbg a source of randomness
+   * @param rotFactory factory for the random OT extension with the other player
+   */
+  public TinyTablesRotTripleGenerator(int playerId, Drbg drbg, RotFactory rotFactory) {
+    this.playerId = playerId;
+    this.drbg = drbg;
+    this.rotFactory = rotFactory;
+  }
+
+  /**
+   * Generate new multiplication triples (a,b,c). The two players need to call this method at the
+   * same time and with the same amount parameter.
+   */
+  public List<TinyTablesTriple> generate(int amount) {
+    return generatePacked(amount).asList();
+  }
+
+  /**
+   * Generate new multiplication triples (a,b,c) in packed form. The two players need to call this
+   * method at the same time and with the same amount parameter.
+   */
+  public TinyTablesTripleVector generatePacked(int amount) {
+    if (sender == null) {
+      sender = rotFactory.createSender();
+      receiver = rotFactory.createReceiver();
+    }
+    // The OT extension works on whole bytes of choices
+    int size = Math.max(Byte.SIZE, (amount + Byte.SIZE - 1) / Byte.SIZE * Byte.SIZE);
+    StrictBitVector choices = new StrictBitVector(size, drbg);
+    Pair<List<StrictBitVector>, List<StrictBitVector>> sent;
+    List<StrictBitVector> received;
+    // The players must act as sender and receiver in opposite order
+    if (playerId == 1) {
+      sent = sender.extend(size);
+      received = receiver.extend(choices);
+    } else {
+      received = receiver.extend(choices);
+      sent = sender.extend(size);
+    }
+    // Each random OT contributes a single bit, which are packed such that the shares of eight
+    // triples are computed at a time
+    byte[] zero = packFirstBits(sent.getFirst(), size);
+    byte[] one = packFirstBits(sent.getSecond(), size);
+    byte[] chosen = packFirstBits(received, size);
+    byte[] b = choices.toByteArray();
+    byte[] a = new byte[size / Byte.SIZE];
+    byte[] c = new byte[size / Byte.SIZE];
+    for (int i = 0; i < a.length; i++) {
+      a[i] = (byte) (zero[i] ^ one[i]);
+      c[i] = (byte) (a[i] & b[i] ^ zero[i] ^ chosen[i]);
+    }
+    return new TinyTablesTripleVector(a, b, c, amount);
+  }
+
+  /**
+   * Packs the first bit of each of the given vectors into a byte array, indexed as the bits of a
+   * {@link StrictBitVector} read as little-endian.
+   */
+  private static byte[] packFirstBits(List<StrictBitVector> vectors, int size) {
+    byte[] packed = new byte[size / Byte.SIZE];
+    for (int i = 0; i < size; i++) {
+      if (vectors.get(i).getBit(0)) {
+        packed[i / Byte.SIZE] |= (byte) (0x80 >>> (i % Byte.SIZE));
+      }
+    }
+    return packed;
+  }
+}
@@ -1,12 +1,20 @@
 package dk.alexandra.fresco.suite.tinytables.util;
 
 import dk.alexandra.fresco.framework.util.Drng;
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesTriple;
 import dk.alexandra.fresco.tools.ot.base.Ot;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Generates Boolean multiplication triples using two chosen-message OTs per triple.
+ *
+ * @deprecated use {@link TinyTablesRotTripleGenerator} instead, which generates a batch of
+ *     triples from one random OT extension in each direction
+ */
+@Deprecated
 public class TinyTablesTripleGenerator {
 
   private final int playerId;
@@ -35,9 +43,8 @@ public class TinyTablesTripleGenerator {
     List<TinyTablesTriple> triples = new ArrayList<>();
 
     if (playerId == 1) {
-      // StrictBitVector only supports bitvectors of and 8 multiple
-      StrictBitVector zeroMessage = new StrictBitVector(8);
-      StrictBitVector oneMessage = new StrictBitVector(8);
+      // The OTs of all triples are done as one batch
+      List<Pair<StrictBitVector, StrictBitVector>> messages = new ArrayList<>(otCount(amount));
       for (int i = 0; i < amount; i++) {
         // Pick random shares of a and b
         boolean a = random.nextBit();
@@ -46,35 +53,58 @@ public class TinyTablesTripleGenerator {
         boolean x = random.nextBit();
         boolean y = random.nextBit();
 
-        zeroMessage.setBit(0, x);
-        oneMessage.setBit(0, x ^ a);
-        ot.send(zeroMessage, oneMessage);
-        zeroMessage.setBit(0, y);
-        oneMessage.setBit(0, y ^ b);
-        ot.send(zeroMessage, oneMessage);
+        messages.add(message(x, x ^ a));
+        messages.add(message(y, y ^ b));
         boolean c = a & b ^ x ^ y;
         triples.add(TinyTablesTriple.fromShares(a, b, c));
 
       }
+      // Pad the batch to match the choices of the receiver
+      while (messages.size() < otCount(amount)) {
+        messages.add(message(false, false));
+      }
+      ot.sendBatch(messages);
     }
     if (playerId == 2) {
+      StrictBitVector choices = new StrictBitVector(otCount(amount));
+      boolean[] as = new boolean[amount];
+      boolean[] bs = new boolean[amount];
       for (int i = 0; i < amount; i++) {
         /*
          * Pick random shares of a and b and use them for sigmas in the OT's:
          */
-        boolean a = random.nextBit();
-        boolean b = random.nextBit();
-        StrictBitVector bMessage = ot.receive(b);
-        StrictBitVector aMessage = ot.receive(a);
+        as[i] = random.nextBit();
+        bs[i] = random.nextBit();
+        choices.setBit(2 * i, bs[i], false);
+        choices.setBit(2 * i + 1, as[i], false);
+      }
+      List<StrictBitVector> received = ot.receiveBatch(choices);
+      for (int i = 0; i < amount; i++) {
+        StrictBitVector bMessage = received.get(2 * i);
+        StrictBitVector aMessage = received.get(2 * i + 1);
 
         // We don't know c until after we have done the OT's
-        TinyTablesTriple trip = TinyTablesTriple.fromShares(a, b, false);
-        boolean c = aMessage.getBit(0) ^ bMessage.getBit(0) ^ trip.getA().getShare() & trip.getB()
-            .getShare();
-        trip = TinyTablesTriple.fromShares(trip.getA().getShare(), trip.getB().getShare(), c);
-        triples.add(trip);
+        boolean c = aMessage.getBit(0) ^ bMessage.getBit(0) ^ as[i] & bs[i];
+        triples.add(TinyTablesTriple.fromShares(as[i], bs[i], c));
       }
     }
     return triples;
   }
+
+  /**
+   * Returns the number of OTs done for a number of triples, which is two per triple rounded up to
+   * a multiple of 8 since StrictBitVector only supports bitvectors of and 8 multiple.
+   */
+  private static int otCount(int amount) {
+    return (2 * amount + 7) / 8 * 8;
+  }
+
+  private static Pair<StrictBitVector, StrictBitVector> message(boolean zero, boolean one) {
+    // StrictBitVector only supports bitvectors of and 8 multiple
+    StrictBitVector zeroMessage = new StrictBitVector(8);
+    zeroMessage.setBit(0, zero);
+    StrictBitVector oneMessage = new StrictBitVector(8);
+    oneMessage.setBit(0, one);
+    return new Pair<>(zeroMessage, oneMessage);
+  }
 }
@@ -1,11 +1,18 @@
 package dk.alexandra.fresco.suite.tinytables;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import dk.alexandra.fresco.IntegrationTest;
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.TestFrameworkException;
 import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadConfiguration;
 import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.binary.Binary;
 import dk.alexandra.fresco.framework.builder.binary.ProtocolBuilderBinary;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.NetworkUtil;
@@ -19,6 +26,7 @@ import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePoolImpl;
 import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.value.SBool;
 import dk.alexandra.fresco.lib.bool.BasicBooleanTests;
 import dk.alexandra.fresco.lib.bristol.BristolCryptoTests;
 import dk.alexandra.fresco.lib.common.compare.ComparisonBooleanTests;
@@ -38,11 +46,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -85,7 +98,7 @@ public class TestTinyTables {
             (SecureComputationEngine) new SecureComputationEngineImpl<>(suite, evaluator);
       } else {
         BatchEvaluationStrategy<ResourcePoolImpl> batchStrategy = evalStrategy.getStrategy();
-        TinyTablesProtocolSuite suite = new TinyTablesProtocolSuite(playerId, tinyTablesFile);
+        TinyTablesProtocolSuite suite = new TinyTablesProtocolSuite(tinyTablesFile);
         resourcePoolSupplier = () -> new ResourcePoolImpl(playerId, noPlayers);
         ProtocolEvaluator<ResourcePoolImpl> evaluator =
             new BatchedProtocolEvaluator<>(batchStrategy, suite);
@@ -284,6 +297,37 @@ public class TestTinyTables {
         false, "testBasicProtocols");
   }
 
+  @Test
+  public void testSeveralPreprocessingEvaluations() {
+    runTest(new TestSeveralEvaluations(true), EvaluationStrategy.SEQUENTIAL_BATCHED, true,
+        "testSeveralEvaluations");
+    runTest(new TestSeveralEvaluations(false), EvaluationStrategy.SEQUENTIAL_BATCHED, false,
+        "testSeveralEvaluations");
+  }
+
+  @Test
+  public void testConcurrentOnlineSessions() throws Exception {
+    int sessions = 4;
+    for (int session = 0; session < sessions; session++) {
+      runTest(new TestSessionOutputs(session, false), EvaluationStrategy.SEQUENTIAL_BATCHED, true,
+          "testSession" + session);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(sessions);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int session = 0; session < sessions; session++) {
+        int finalSession = session;
+        futures.add(executor.submit(() -> runTest(new TestSessionOutputs(finalSession, true),
+            EvaluationStrategy.SEQUENTIAL_BATCHED, false, "testSession" + finalSession)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   /* Bristol tests */
 
   @Category(IntegrationTest.class)
@@ -388,6 +432,98 @@ public class TestTinyTables {
     TestThreadRunner.run(new BristolCryptoTests.DesTest<>(false), conf);
   }
 
+  /**
+   * Preprocesses two applications using the same resource pool, such that the file holding the
+   * TinyTables must be completed after each evaluation, and checks the output of the last one in
+   * the online phase. The second application has more gates than the first, so its TinyTables are
+   * only found if they are all written to the file.
+   */
+  private static class TestSeveralEvaluations
+      extends TestThreadFactory<ResourcePoolImpl, ProtocolBuilderBinary> {
+
+    private final boolean preprocessing;
+
+    TestSeveralEvaluations(boolean preprocessing) {
+      this.preprocessing = preprocessing;
+    }
+
+    private static Application<Boolean, ProtocolBuilderBinary> andOfInputs(int inputs) {
+      return builder -> {
+        Binary binary = builder.binary();
+        DRes<SBool> result = binary.input(true, 1);
+        for (int i = 1; i < inputs; i++) {
+          result = binary.and(result, binary.input(true, 1 + i % 2));
+        }
+        return binary.open(result);
+      };
+    }
+
+    @Override
+    public TestThread<ResourcePoolImpl, ProtocolBuilderBinary> next() {
+      return new TestThread<ResourcePoolImpl, ProtocolBuilderBinary>() {
+        @Override
+        public void test() {
+          if (preprocessing) {
+            runApplication(andOfInputs(2));
+            runApplication(andOfInputs(8));
+          } else {
+            assertTrue(runApplication(andOfInputs(8)));
+          }
+        }
+      };
+    }
+  }
+
+  /**
+   * Computes the AND of the inputs of party 1 with the negated inputs of party 2, where the inputs
+   * depend on the session, such that sessions using the TinyTables of another session or mixing up
+   * their outputs are detected.
+   */
+  private static class TestSessionOutputs
+      extends TestThreadFactory<ResourcePoolImpl, ProtocolBuilderBinary> {
+
+    private static final int BITS = 32;
+    private final int session;
+    private final boolean assertResult;
+
+    TestSessionOutputs(int session, boolean assertResult) {
+      this.session = session;
+      this.assertResult = assertResult;
+    }
+
+    private boolean left(int i) {
+      return ((session * 0x9e3779b9) >>> i & 1) == 1;
+    }
+
+    private boolean right(int i) {
+      return ((session * 0x85ebca6b + 0x5bd1e995) >>> i & 1) == 1;
+    }
+
+    @Override
+    public TestThread<ResourcePoolImpl, ProtocolBuilderBinary> next() {
+      return new TestThread<ResourcePoolImpl, ProtocolBuilderBinary>() {
+        @Override
+        public void test() {
+          List<Boolean> outputs = runApplication(builder -> {
+            Binary binary = builder.binary();
+            List<DRes<Boolean>> opened = new ArrayList<>();
+            for (int i = 0; i < BITS; i++) {
+              DRes<SBool> left = binary.input(left(i), 1);
+              DRes<SBool> right = binary.input(right(i), 2);
+              opened.add(binary.open(binary.xor(binary.and(left, right), left)));
+            }
+            return () -> opened.stream().map(DRes::out).collect(Collectors.toList());
+          });
+          if (assertResult) {
+            for (int i = 0; i < BITS; i++) {
+              assertEquals(left(i) && !right(i), outputs.get(i));
+            }
+          }
+        }
+      };
+    }
+  }
+
   private static class NetworkSupplier implements Supplier<Network> {
 
     private final int playerId;
@@ -0,0 +1,42 @@
+package dk.alexandra.fresco.suite.tinytables.datatypes;
+
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.List;
+import org.junit.Test;
+
+public class TestTinyTablesTripleVector {
+
+  @Test
+  public void testGet() {
+    StrictBitVector a = new StrictBitVector(16);
+    StrictBitVector b = new StrictBitVector(16);
+    StrictBitVector c = new StrictBitVector(16);
+    for (int i = 0; i < 16; i++) {
+      a.setBit(i, i % 2 == 0, false);
+      b.setBit(i, i % 3 == 0, false);
+      c.setBit(i, i % 5 == 0, false);
+    }
+    TinyTablesTripleVector triples =
+        new TinyTablesTripleVector(a.toByteArray(), b.toByteArray(), c.toByteArray(), 13);
+    List<TinyTablesTriple> list = triples.asList();
+    assertEquals(13, triples.getSize());
+    assertEquals(13, list.size());
+    for (int i = 0; i < 13; i++) {
+      TinyTablesTriple expected = TinyTablesTriple.fromShares(i % 2 == 0, i % 3 == 0, i % 5 == 0);
+      assertEquals(expected, triples.get(i));
+      assertEquals(expected, list.get(i));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    new TinyTablesTripleVector(new byte[2], new byte[2], new byte[2], 13).get(13);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooFewShares() {
+    new TinyTablesTripleVector(new byte[1], new byte[2], new byte[2], 13);
+  }
+}
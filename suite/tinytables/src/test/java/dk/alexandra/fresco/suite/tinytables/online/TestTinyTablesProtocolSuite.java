@@ -0,0 +1,39 @@
+package dk.alexandra.fresco.suite.tinytables.online;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesFileStorage;
+import java.io.File;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestTinyTablesProtocolSuite {
+
+  private final File file = new File("TestTinyTablesProtocolSuite");
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  private void preprocess(int count, boolean share) {
+    TinyTablesFileStorage storage = TinyTablesFileStorage.create(file);
+    for (int id = 0; id < count; id++) {
+      storage.storeMaskShare(id, TinyTablesElement.getInstance(share));
+    }
+    storage.close();
+  }
+
+  @Test
+  public void testReloadAfterPreprocessingAgain() {
+    preprocess(2, false);
+    TinyTablesProtocolSuite suite = new TinyTablesProtocolSuite(file);
+    assertEquals(false, suite.getStorage().getMaskShare(1).getShare());
+    assertNull(suite.getStorage().getMaskShare(2));
+    preprocess(4, true);
+    assertEquals(true, suite.getStorage().getMaskShare(1).getShare());
+    assertEquals(true, suite.getStorage().getMaskShare(3).getShare());
+  }
+}
@@ -0,0 +1,125 @@
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestTinyTablesFileStorage {
+
+  private final File file = new File("TestTinyTablesFileStorage");
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  private static TinyTable table(int id) {
+    TinyTablesElement[] values = new TinyTablesElement[4];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TinyTablesElement.getInstance(((id >>> i) & 1) == 1);
+    }
+    return new TinyTable(values);
+  }
+
+  private static void assertStored(TinyTablesStorage storage, int id) {
+    TinyTable expected = table(id);
+    assertEquals(expected.toString(), storage.getTinyTable(id).toString());
+    TinyTablesElement f = TinyTablesElement.getInstance(false);
+    TinyTablesElement t = TinyTablesElement.getInstance(true);
+    assertEquals(expected.getValue(f, f).getShare(), storage.lookupTinyTable(id, false, false));
+    assertEquals(expected.getValue(f, t).getShare(), storage.lookupTinyTable(id, false, true));
+    assertEquals(expected.getValue(t, f).getShare(), storage.lookupTinyTable(id, true, false));
+    assertEquals(expected.getValue(t, t).getShare(), storage.lookupTinyTable(id, true, true));
+    assertEquals(id % 3 == 0, storage.getMaskShare(id).getShare());
+  }
+
+  @Test
+  public void testStoreAndOpen() {
+    TinyTablesFileStorage storage = TinyTablesFileStorage.create(file);
+    // Store out of order and across windows
+    for (int id = 5000; id >= 0; id -= 2) {
+      storage.storeMaskShare(id, TinyTablesElement.getInstance(id % 3 == 0));
+    }
+    for (int id = 0; id <= 5000; id += 2) {
+      storage.storeTinyTable(id, table(id));
+    }
+    storage.storeMaskShare((1 << 20) + 1, TinyTablesElement.getInstance(true));
+    for (int id = 0; id <= 5000; id += 2) {
+      assertStored(storage, id);
+    }
+    storage.close();
+    assertEquals(TinyTablesFileStorage.HEADER_LENGTH + (1 << 20) + 2, file.length());
+
+    TinyTablesFileStorage loaded = TinyTablesFileStorage.open(file);
+    for (int id = 0; id <= 5000; id += 2) {
+      assertStored(loaded, id);
+      assertNull(loaded.getTinyTable(id + 1));
+      assertNull(loaded.getMaskShare(id + 1));
+    }
+    assertNull(loaded.getTinyTable((1 << 20) + 1));
+    assertEquals(true, loaded.getMaskShare((1 << 20) + 1).getShare());
+    assertNull(loaded.getMaskShare(1 << 22));
+  }
+
+  @Test
+  public void testFlushAndStoreMore() {
+    TinyTablesFileStorage storage = TinyTablesFileStorage.create(file);
+    for (int id = 0; id < 10; id++) {
+      storage.storeTinyTable(id, table(id));
+      storage.storeMaskShare(id, TinyTablesElement.getInstance(id % 3 == 0));
+    }
+    storage.flush();
+    TinyTablesFileStorage first = TinyTablesFileStorage.open(file);
+    for (int id = 0; id < 10; id++) {
+      assertStored(first, id);
+    }
+    assertNull(first.getTinyTable(10));
+    for (int id = 10; id < 20; id++) {
+      storage.storeTinyTable(id, table(id));
+      storage.storeMaskShare(id, TinyTablesElement.getInstance(id % 3 == 0));
+    }
+    storage.flush();
+    TinyTablesFileStorage second = TinyTablesFileStorage.open(file);
+    for (int id = 0; id < 20; id++) {
+      assertStored(second, id);
+    }
+    storage.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStoreWhenClosed() {
+    TinyTablesFileStorage storage = TinyTablesFileStorage.create(file);
+    storage.storeMaskShare(1, TinyTablesElement.getInstance(true));
+    storage.close();
+    storage.storeMaskShare(2, TinyTablesElement.getInstance(true));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testLookupMissing() {
+    TinyTablesFileStorage storage = TinyTablesFileStorage.create(file);
+    storage.storeMaskShare(42, TinyTablesElement.getInstance(true));
+    storage.close();
+    TinyTablesFileStorage.open(file).lookupTinyTable(42, true, false);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStoreWhenOpenedForReading() {
+    TinyTablesFileStorage.create(file).close();
+    TinyTablesFileStorage.open(file).storeMaskShare(1, TinyTablesElement.getInstance(true));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testOpenInvalidFile() throws IOException {
+    try (FileOutputStream output = new FileOutputStream(file)) {
+      output.write(new byte[TinyTablesFileStorage.HEADER_LENGTH]);
+    }
+    TinyTablesFileStorage.open(file);
+  }
+}
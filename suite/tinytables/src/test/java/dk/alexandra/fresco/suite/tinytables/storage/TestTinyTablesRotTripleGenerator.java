@@ -0,0 +1,98 @@
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkUtil;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesTriple;
+import dk.alexandra.fresco.suite.tinytables.util.TinyTablesRotTripleGenerator;
+import dk.alexandra.fresco.suite.tinytables.util.Util;
+import dk.alexandra.fresco.tools.cointossing.CoinTossing;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.otextension.BristolOtExtensionResourcePool;
+import dk.alexandra.fresco.tools.ot.otextension.RotFactory;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class TestTinyTablesRotTripleGenerator {
+
+  private static final int COMPUTATIONAL_SECURITY = 128;
+  private static final int STATISTICAL_SECURITY = 40;
+  // Amounts which are not multiples of 8, generated one after another by the same generator
+  private static final int[] AMOUNTS = {13, 1, 21, 64};
+
+  private List<List<TinyTablesTriple>> generate(int myId, NetworkConfiguration conf) {
+    try (SocketNetwork network = new SocketNetwork(conf)) {
+      int otherId = Util.otherPlayerId(myId);
+      byte[] seed = new byte[32];
+      seed[0] = (byte) myId;
+      Drbg drbg = new AesCtrDrbg(seed);
+      DummyOt baseOt = new DummyOt(otherId, network);
+      RotList seedOts = new RotList(drbg, COMPUTATIONAL_SECURITY);
+      if (myId < otherId) {
+        seedOts.send(baseOt);
+        seedOts.receive(baseOt);
+      } else {
+        seedOts.receive(baseOt);
+        seedOts.send(baseOt);
+      }
+      CoinTossing ct = new CoinTossing(myId, otherId, drbg);
+      ct.initialize(network);
+      RotFactory rotFactory = new RotFactory(new BristolOtExtensionResourcePool(myId, otherId,
+          COMPUTATIONAL_SECURITY, STATISTICAL_SECURITY, 1, drbg, ct, seedOts), network);
+      TinyTablesRotTripleGenerator generator =
+          new TinyTablesRotTripleGenerator(myId, drbg, rotFactory);
+      List<List<TinyTablesTriple>> batches = new ArrayList<>();
+      for (int amount : AMOUNTS) {
+        batches.add(generator.generate(amount));
+      }
+      return batches;
+    }
+  }
+
+  @Test
+  public void testTriples() throws Exception {
+    Map<Integer, NetworkConfiguration> confs =
+        NetworkUtil.getNetworkConfigurations(NetworkUtil.getFreePorts(2));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<List<TinyTablesTriple>>> first = executor.submit(() -> generate(1, confs.get(1)));
+      Future<List<List<TinyTablesTriple>>> second =
+          executor.submit(() -> generate(2, confs.get(2)));
+      List<List<TinyTablesTriple>> firstBatches = first.get();
+      List<List<TinyTablesTriple>> secondBatches = second.get();
+      Set<Boolean> as = new HashSet<>();
+      Set<Boolean> bs = new HashSet<>();
+      for (int batch = 0; batch < AMOUNTS.length; batch++) {
+        assertEquals(AMOUNTS[batch], firstBatches.get(batch).size());
+        assertEquals(AMOUNTS[batch], secondBatches.get(batch).size());
+        for (int i = 0; i < AMOUNTS[batch]; i++) {
+          TinyTablesTriple mine = firstBatches.get(batch).get(i);
+          TinyTablesTriple other = secondBatches.get(batch).get(i);
+          boolean a = mine.getA().getShare() ^ other.getA().getShare();
+          boolean b = mine.getB().getShare() ^ other.getB().getShare();
+          boolean c = mine.getC().getShare() ^ other.getC().getShare();
+          assertEquals("Triple " + i + " of batch " + batch, a & b, c);
+          as.add(a);
+          bs.add(b);
+        }
+      }
+      // The triples are random, so both values of a and b must occur in this many triples
+      assertEquals(2, as.size());
+      assertEquals(2, bs.size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
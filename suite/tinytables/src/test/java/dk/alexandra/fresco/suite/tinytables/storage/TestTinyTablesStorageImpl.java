@@ -0,0 +1,65 @@
+package dk.alexandra.fresco.suite.tinytables.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.Test;
+
+public class TestTinyTablesStorageImpl {
+
+  private static TinyTable table(int id) {
+    TinyTablesElement[] values = new TinyTablesElement[4];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = TinyTablesElement.getInstance(((id >>> i) & 1) == 1);
+    }
+    return new TinyTable(values);
+  }
+
+  private static void assertStored(TinyTablesStorage storage, int id) {
+    TinyTable expected = table(id);
+    assertEquals(expected.toString(), storage.getTinyTable(id).toString());
+    TinyTablesElement f = TinyTablesElement.getInstance(false);
+    TinyTablesElement t = TinyTablesElement.getInstance(true);
+    assertEquals(expected.getValue(f, f).getShare(), storage.lookupTinyTable(id, false, false));
+    assertEquals(expected.getValue(f, t).getShare(), storage.lookupTinyTable(id, false, true));
+    assertEquals(expected.getValue(t, f).getShare(), storage.lookupTinyTable(id, true, false));
+    assertEquals(expected.getValue(t, t).getShare(), storage.lookupTinyTable(id, true, true));
+    assertEquals(id % 3 == 0, storage.getMaskShare(id + 1).getShare());
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    TinyTablesStorageImpl storage = new TinyTablesStorageImpl();
+    for (int id = 0; id < 5000; id += 2) {
+      storage.storeTinyTable(id, table(id));
+      storage.storeMaskShare(id + 1, TinyTablesElement.getInstance(id % 3 == 0));
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(storage);
+    }
+    TinyTablesStorage loaded;
+    try (ObjectInputStream input =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      loaded = (TinyTablesStorage) input.readObject();
+    }
+    for (int id = 0; id < 5000; id += 2) {
+      assertStored(storage, id);
+      assertStored(loaded, id);
+      assertNull(loaded.getTinyTable(id + 1));
+      assertNull(loaded.getMaskShare(id));
+    }
+    assertNull(loaded.getTinyTable(1 << 20));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testLookupMissing() {
+    new TinyTablesStorageImpl().lookupTinyTable(42, true, false);
+  }
+}
@@ -8,6 +8,7 @@ import dk.alexandra.fresco.tools.mascot.bit.BitConverter;
 import dk.alexandra.fresco.tools.mascot.cointossing.CoinTossingMpc;
 import dk.alexandra.fresco.tools.mascot.elgen.ElementGeneration;
 import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.field.InputMask;
 import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
 import dk.alexandra.fresco.tools.mascot.online.OnlinePhase;
@@ -94,7 +95,8 @@ public class Mascot {
         resourcePool.getNoOfParties());
     for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
       if (partyId == resourcePool.getMyId()) {
-        List<FieldElement> randomElements = resourcePool.getLocalSampler().getNext(numElements);
+        FieldElementVector randomElements =
+            resourcePool.getLocalSampler().getNextVector(numElements);
         perPartyElements.add(elementGeneration.input(randomElements));
       } else {
         perPartyElements.add(elementGeneration.input(partyId, numElements));
@@ -112,8 +114,8 @@ public class Mascot {
    */
   public List<InputMask> getInputMasks(Integer maskerId, int numMasks) {
     if (maskerId.equals(resourcePool.getMyId())) {
-      List<FieldElement> randomMasks = resourcePool.getLocalSampler().getNext(numMasks);
-      List<AuthenticatedElement> authenticated = input(randomMasks);
+      FieldElementVector randomMasks = resourcePool.getLocalSampler().getNextVector(numMasks);
+      List<AuthenticatedElement> authenticated = elementGeneration.input(randomMasks);
       return IntStream.range(0, numMasks)
           .mapToObj(idx -> new InputMask(randomMasks.get(idx), authenticated.get(idx)))
           .collect(Collectors.toList());
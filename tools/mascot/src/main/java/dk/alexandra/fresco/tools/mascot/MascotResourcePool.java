@@ -12,6 +12,7 @@ import dk.alexandra.fresco.tools.commitment.HashBasedCommitmentSerializer;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.ot.base.RotBatch;
 import java.security.MessageDigest;
+import java.util.concurrent.ForkJoinPool;
 
 public interface MascotResourcePool extends NumericResourcePool {
 
@@ -100,4 +101,15 @@ public interface MascotResourcePool extends NumericResourcePool {
    * @return An instance of a DRBG.
    */
   Drbg getRandomGenerator();
+
+  /**
+   * Gets the pool on which the local computations of the protocols are run in parallel. Network
+   * interaction and sampling of randomness is always done by the calling thread, in order. By
+   * default there is no pool and all computations are done by the calling thread.
+   *
+   * @return the compute pool, or null to compute sequentially
+   */
+  default ForkJoinPool getComputePool() {
+    return null;
+  }
 }
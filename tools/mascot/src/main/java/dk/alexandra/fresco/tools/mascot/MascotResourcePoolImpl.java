@@ -16,6 +16,7 @@ import dk.alexandra.fresco.tools.ot.otextension.*;
 import java.security.MessageDigest;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 public class MascotResourcePoolImpl extends ResourcePoolImpl implements MascotResourcePool {
 
@@ -26,9 +27,10 @@ public class MascotResourcePoolImpl extends ResourcePoolImpl implements MascotRe
   private final MessageDigest messageDigest;
   private final MascotSecurityParameters mascotSecurityParameters;
   private final Drbg drbg;
+  private final ForkJoinPool computePool;
 
   /**
-   * Creates new {@link MascotResourcePoolImpl}.
+   * Creates new {@link MascotResourcePoolImpl} doing all local computations on the calling thread.
    *
    * @param myId this party's id
    * @param noOfParties number of parties
@@ -44,7 +46,30 @@ public class MascotResourcePoolImpl extends ResourcePoolImpl implements MascotRe
   public MascotResourcePoolImpl(int myId, int noOfParties, int instanceId, Drbg drbg,
       Map<Integer, RotList> seedOts, MascotSecurityParameters mascotSecurityParameters,
       FieldDefinition fieldDefinition) {
+    this(myId, noOfParties, instanceId, drbg, seedOts, mascotSecurityParameters, fieldDefinition,
+        null);
+  }
+
+  /**
+   * Creates new {@link MascotResourcePoolImpl} running local computations on the given pool.
+   *
+   * @param myId this party's id
+   * @param noOfParties number of parties
+   * @param instanceId the instance ID which is unique for this particular resource pool object,
+   *     but only in the given execution.
+   * @param drbg source of randomness
+   * @param seedOts pre-computed base OTs
+   * @param mascotSecurityParameters mascot security parameters ({@link
+   *     MascotSecurityParameters})
+   * @param fieldDefinition field used for calculations
+   * @param computePool pool for the local computations ({@link #getComputePool()}), or null to
+   *     compute sequentially
+   */
+  public MascotResourcePoolImpl(int myId, int noOfParties, int instanceId, Drbg drbg,
+      Map<Integer, RotList> seedOts, MascotSecurityParameters mascotSecurityParameters,
+      FieldDefinition fieldDefinition, ForkJoinPool computePool) {
     super(myId, noOfParties);
+    this.computePool = computePool;
     ValidationUtils.assertValidId(myId, noOfParties);
     this.drbg = Objects.requireNonNull(drbg);
     this.instanceId = instanceId;
@@ -101,6 +126,11 @@ public class MascotResourcePoolImpl extends ResourcePoolImpl implements MascotRe
       return new BristolRotBatch(new RotFactory(otResources, network));
   }
 
+  @Override
+  public ForkJoinPool getComputePool() {
+    return computePool;
+  }
+
   @Override
   public Drbg getRandomGenerator() {
     return drbg;
@@ -1,12 +1,12 @@
 package dk.alexandra.fresco.tools.mascot.cope;
 
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
-import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.framework.util.ValidationUtils;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.mult.MultiplyRightHelper;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
@@ -14,8 +14,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * Actively-secure implementation of the inputter party's side of the Correlated Oblivious Product
@@ -59,39 +57,24 @@ public class CopeInputter {
    * @param inputElements input field elements
    * @return shares of products of mac key share and input elements
    */
-  public List<FieldElement> extend(List<FieldElement> inputElements) {
+  public FieldElementVector extend(FieldElementVector inputElements) {
     // use seeds to generate mask pairs
-    List<Pair<FieldElement, FieldElement>> maskPairs = generateMaskPairs(inputElements.size());
+    FieldElementVector zeroMasks = generateMasks(leftPrgs, inputElements.size());
+    FieldElementVector oneMasks = generateMasks(rightPrgs, inputElements.size());
     // compute t0 - t1 + x for each input x for each mask pair
-    List<FieldElement> diffs = helper.computeDiffs(maskPairs, inputElements);
+    FieldElementVector diffs = helper.computeDiffs(zeroMasks, oneMasks, inputElements);
     // send diffs
-    network.send(otherId, resourcePool.getFieldDefinition().serialize(diffs));
-    // get zero index masks
-    List<FieldElement> feZeroSeeds =
-        maskPairs.parallelStream().map(Pair::getFirst).collect(Collectors.toList());
-
+    network.send(otherId, diffs.serialize());
     // compute product shares
-    return helper.computeProductShares(feZeroSeeds, inputElements.size());
-  }
-
-  private List<Pair<FieldElement, FieldElement>> generateMaskPairs(int numInputs) {
-    // for each input pair, we use our prf to get the next set of masks
-    List<Pair<FieldElement, FieldElement>> maskPairs = new ArrayList<>();
-    for (int i = 0; i < numInputs; i++) {
-      // generate masks for single input
-      maskPairs.addAll(generateMaskPairs());
-    }
-    return maskPairs;
+    return helper.computeProductShares(zeroMasks, inputElements.size());
   }
 
-  private List<Pair<FieldElement, FieldElement>> generateMaskPairs() {
-    Stream<Pair<FieldElement, FieldElement>> maskStream =
-        IntStream.range(0, leftPrgs.size()).parallel().mapToObj(idx -> {
-          FieldElement t0 = this.leftPrgs.get(idx).getNext();
-          FieldElement t1 = this.rightPrgs.get(idx).getNext();
-          return new Pair<>(t0, t1);
-        });
-    return maskStream.collect(Collectors.toList());
+  private FieldElementVector generateMasks(List<FieldElementPrg> prgs, int numInputs) {
+    // each prg gives one mask per input, and the masks of each input go together
+    List<FieldElementVector> perPrgMasks = prgs.parallelStream()
+        .map(prg -> prg.getNextVector(numInputs))
+        .collect(Collectors.toList());
+    return FieldElementVector.interleave(perPrgMasks);
   }
 
   private void seedPrgs(List<Pair<StrictBitVector, StrictBitVector>> seeds) {
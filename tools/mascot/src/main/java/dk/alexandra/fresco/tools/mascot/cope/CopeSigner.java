@@ -4,13 +4,14 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.mult.MultiplyLeftHelper;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Actively-secure implementation of the <i>signer</i> party's side of the Correlated Oblivious
@@ -59,31 +60,25 @@ public class CopeSigner {
    * @param numInputs number of other party's inputs
    * @return shares of product
    */
-  public List<FieldElement> extend(int numInputs) {
+  public FieldElementVector extend(int numInputs) {
     // compute chosen masks
-    List<FieldElement> chosenMasks = generateMasks(numInputs);
+    FieldElementVector chosenMasks = generateMasks(numInputs);
     // use mac share for each input
-    List<FieldElement> macKeyShares =
-        IntStream.range(0, numInputs).mapToObj(idx -> macKeyShare).collect(Collectors.toList());
+    FieldElementVector macKeyShares = FieldElementVector.of(resourcePool.getFieldDefinition(),
+        Collections.singletonList(macKeyShare)).stretch(numInputs);
     // receive diffs from other party
-    List<FieldElement> diffs =
-        resourcePool.getFieldDefinition().deserializeList(network.receive(otherId));
+    FieldElementVector diffs = FieldElementVector.deserialize(resourcePool.getFieldDefinition(),
+        network.receive(otherId));
     // compute product shares
     return multiplier.computeProductShares(macKeyShares, chosenMasks, diffs);
   }
 
-  private List<FieldElement> generateMasks(int numInputs) {
-    // for each input pair, we use our prgs to get the next set of masks
-    List<FieldElement> masks = new ArrayList<>();
-    // generate mask for each input
-    for (int i = 0; i < numInputs; i++) {
-      // generate masks for single input
-      List<FieldElement> singleInputMasks = prgs.parallelStream()
-          .map(FieldElementPrg::getNext)
-          .collect(Collectors.toList());
-      masks.addAll(singleInputMasks);
-    }
-    return masks;
+  private FieldElementVector generateMasks(int numInputs) {
+    // each prg gives one mask per input, and the masks of each input go together
+    List<FieldElementVector> perPrgMasks = prgs.parallelStream()
+        .map(prg -> prg.getNextVector(numInputs))
+        .collect(Collectors.toList());
+    return FieldElementVector.interleave(perPrgMasks);
   }
 
   private void seedPrgs(List<StrictBitVector> seeds) {
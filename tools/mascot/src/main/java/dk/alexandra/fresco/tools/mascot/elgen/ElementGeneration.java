@@ -1,15 +1,14 @@
 package dk.alexandra.fresco.tools.mascot.elgen;
 
-import dk.alexandra.fresco.framework.builder.numeric.Addable;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
-import dk.alexandra.fresco.framework.util.SecretSharer;
-import dk.alexandra.fresco.framework.util.TransposeUtils;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
 import dk.alexandra.fresco.tools.mascot.cope.CopeInputter;
 import dk.alexandra.fresco.tools.mascot.cope.CopeSigner;
 import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
 import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.maccheck.MacCheck;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import java.util.ArrayList;
@@ -18,7 +17,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Actively-secure protocol for generating authentication, secret-shared elements based on the
@@ -33,7 +31,6 @@ public class ElementGeneration {
   private final FieldElement macKeyShare;
   private final FieldElementPrg localSampler;
   private final FieldElementPrg jointSampler;
-  private final SecretSharer<FieldElement> sharer;
   private final Map<Integer, CopeSigner> copeSigners;
   private final Map<Integer, CopeInputter> copeInputters;
   private final MascotResourcePool resourcePool;
@@ -47,12 +44,12 @@ public class ElementGeneration {
       FieldElement macKeyShare, FieldElementPrg jointSampler) {
     this.resourcePool = Objects.requireNonNull(resourcePool);
     this.network = Objects.requireNonNull(network);
-    this.fieldElementUtils = new FieldElementUtils(resourcePool.getFieldDefinition());
+    this.fieldElementUtils = new FieldElementUtils(resourcePool.getFieldDefinition(),
+        resourcePool.getComputePool());
     this.macChecker = new MacCheck(resourcePool, network);
     this.macKeyShare = Objects.requireNonNull(macKeyShare);
     this.localSampler = Objects.requireNonNull(resourcePool.getLocalSampler());
     this.jointSampler = Objects.requireNonNull(jointSampler);
-    this.sharer = new AdditiveSecretSharer(localSampler);
     this.copeSigners = new HashMap<>();
     this.copeInputters = new HashMap<>();
     initializeCope(resourcePool, network);
@@ -66,24 +63,31 @@ public class ElementGeneration {
    * @return authenticated shares of inputs
    */
   public List<AuthenticatedElement> input(List<FieldElement> values) {
-    // make sure we are working with an array list
-    values = new ArrayList<>(values);
+    return input(FieldElementVector.of(resourcePool.getFieldDefinition(), values));
+  }
 
+  /**
+   * Computes this party's authenticated shares of a vector of input, same as {@link
+   * #input(List)}.
+   *
+   * @param inputs values to input
+   * @return authenticated shares of inputs
+   */
+  public List<AuthenticatedElement> input(FieldElementVector inputs) {
     // add extra random element which will later be used to mask inputs (step 1)
-    FieldElement extraElement = localSampler.getNext();
-    values.add(extraElement);
+    FieldElementVector values = inputs.concat(localSampler.getNextVector(1));
 
     // inputter secret-shares input values (step 2)
-    List<FieldElement> shares = secretShare(values, resourcePool.getNoOfParties());
+    FieldElementVector shares = secretShare(values, resourcePool.getNoOfParties());
 
     // compute per element mac share (steps 3, 4, 5)
-    List<FieldElement> macs = macValues(values);
+    FieldElementVector macs = macValues(values);
 
     // generate coefficients for values and macs (step 6)
-    List<FieldElement> coefficients = jointSampler.getNext(values.size());
+    FieldElementVector coefficients = jointSampler.getNextVector(values.size());
 
     // mask and combine values (step 7)
-    FieldElement maskedValue = fieldElementUtils.innerProduct(values, coefficients);
+    FieldElement maskedValue = values.innerProduct(coefficients);
     // send masked value to all other parties
     network.sendToAll(resourcePool.getFieldDefinition().serialize(maskedValue));
     // so that we can use receiveFromAll correctly later
@@ -94,8 +98,7 @@ public class ElementGeneration {
 
     // combine shares and mac shares to authenticated elements
     // (exclude mac and share of extra element) (step 10)
-    List<FieldElement> inputElementMacs = macs.subList(0, shares.size() - 1);
-    return toAuthenticatedElements(shares.subList(0, shares.size() - 1), inputElementMacs);
+    return toAuthenticatedElements(shares, macs, inputs.size());
   }
 
   /**
@@ -108,15 +111,15 @@ public class ElementGeneration {
    */
   public List<AuthenticatedElement> input(Integer inputterId, int numInputs) {
     // receive shares from inputter (step 2)
-    List<FieldElement> shares =
-        resourcePool.getFieldDefinition().deserializeList(network.receive(inputterId));
+    FieldElementVector shares = FieldElementVector.deserialize(
+        resourcePool.getFieldDefinition(), network.receive(inputterId));
 
     // receive per-element mac shares (steps 3 through 5)
     CopeSigner copeSigner = copeSigners.get(inputterId);
-    List<FieldElement> macs = copeSigner.extend(numInputs + 1);
+    FieldElementVector macs = copeSigner.extend(numInputs + 1);
 
     // generate coefficients for macs (step 6)
-    List<FieldElement> coefficients = jointSampler.getNext(numInputs + 1);
+    FieldElementVector coefficients = jointSampler.getNextVector(numInputs + 1);
 
     // receive masked value we will use in mac-check (step 7)
     FieldElement maskedValue =
@@ -127,8 +130,7 @@ public class ElementGeneration {
 
     // combine shares and mac shares to authenticated  elements
     // (exclude mac and share of extra element) (step 10)
-    List<FieldElement> inputElementMacs = macs.subList(0, numInputs);
-    return toAuthenticatedElements(shares.subList(0, numInputs), inputElementMacs);
+    return toAuthenticatedElements(shares, macs, numInputs);
   }
 
   /**
@@ -139,13 +141,14 @@ public class ElementGeneration {
    */
   public void check(List<AuthenticatedElement> sharesWithMacs,
       List<FieldElement> openValues) {
+    FieldDefinition definition = resourcePool.getFieldDefinition();
     // will use this to mask macs
-    List<FieldElement> masks = jointSampler.getNext(sharesWithMacs.size());
+    FieldElementVector masks = jointSampler.getNextVector(sharesWithMacs.size());
     // only need macs
-    List<FieldElement> macs =
-        sharesWithMacs.stream().map(AuthenticatedElement::getMac).collect(Collectors.toList());
+    FieldElementVector macs = FieldElementVector.of(definition,
+        sharesWithMacs.stream().map(AuthenticatedElement::getMac).collect(Collectors.toList()));
     // apply masks to open element so that it matches the macs when we mask them
-    FieldElement open = fieldElementUtils.innerProduct(openValues, masks);
+    FieldElement open = FieldElementVector.of(definition, openValues).innerProduct(masks);
     runMacCheck(open, masks, macs);
   }
 
@@ -165,11 +168,11 @@ public class ElementGeneration {
     // receive others' shares
     List<byte[]> rawShares = network.receiveFromAll();
     // parse
-    List<List<FieldElement>> shares = rawShares.stream()
-        .map(resourcePool.getFieldDefinition()::deserializeList)
+    List<FieldElementVector> shares = rawShares.stream()
+        .map(raw -> FieldElementVector.deserialize(resourcePool.getFieldDefinition(), raw))
         .collect(Collectors.toList());
     // recombine (step 2)
-    return Addable.sumRows(shares);
+    return FieldElementVector.sumRows(shares).asList();
   }
 
   /**
@@ -177,19 +180,19 @@ public class ElementGeneration {
    * computes <i>[v * (alpha<sub>1</sub> + ... + alpha<sub>n</sub>)]</i> where
    * <i>alpha<sub>i</sub></i> is party <i>i</i>'s mac key share.
    */
-  private List<FieldElement> macValues(List<FieldElement> values) {
-    List<FieldElement> selfMacced = selfMac(values);
-    List<List<FieldElement>> maccedByAll = otherPartiesMac(values);
+  private FieldElementVector macValues(FieldElementVector values) {
+    FieldElementVector selfMacced = selfMac(values);
+    List<FieldElementVector> maccedByAll = otherPartiesMac(values);
     maccedByAll.add(selfMacced);
-    return Addable.sumRows(maccedByAll);
+    return FieldElementVector.sumRows(maccedByAll);
   }
 
   /**
    * Uses COPE protocol to multiply unathenticated values with each other party's (i.e., not this
    * party's) mac key share and get a share of the result.
    */
-  private List<List<FieldElement>> otherPartiesMac(List<FieldElement> values) {
-    List<List<FieldElement>> perPartySignatures = new ArrayList<>();
+  private List<FieldElementVector> otherPartiesMac(FieldElementVector values) {
+    List<FieldElementVector> perPartySignatures = new ArrayList<>();
     // note that the order in which this is run does not matter so it's fine to use values().
     for (CopeInputter copeInputter : copeInputters.values()) {
       perPartySignatures.add(copeInputter.extend(values));
@@ -200,41 +203,43 @@ public class ElementGeneration {
   /**
    * Multiplies each unauthenticated value by this party's mac key share.
    */
-  private List<FieldElement> selfMac(List<FieldElement> values) {
-    return fieldElementUtils.scalarMultiply(values, macKeyShare);
+  private FieldElementVector selfMac(FieldElementVector values) {
+    return values.scale(macKeyShare, resourcePool.getComputePool());
   }
 
   /**
    * Computes additive (unauthenticated) shares of values and distributes the shares across
-   * parties.
+   * parties. The last party's shares are the values minus the random shares of the other parties.
    */
-  private List<FieldElement> secretShare(List<FieldElement> values, int numShares) {
-    List<List<FieldElement>> allShares =
-        values.stream().map(value -> sharer.share(value, numShares)).collect(Collectors.toList());
-    List<List<FieldElement>> byParty = TransposeUtils.transpose(allShares);
-    for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
+  private FieldElementVector secretShare(FieldElementVector values, int numShares) {
+    FieldElementVector ownShares = null;
+    FieldElementVector lastShares = values;
+    for (int partyId = 1; partyId <= numShares; partyId++) {
+      FieldElementVector shares;
+      if (partyId < numShares) {
+        shares = localSampler.getNextVector(values.size());
+        lastShares = lastShares.subtract(shares);
+      } else {
+        shares = lastShares;
+      }
       // send shares to everyone but self
       if (partyId != resourcePool.getMyId()) {
-        List<FieldElement> shares = byParty.get(partyId - 1);
-        network.send(partyId, resourcePool.getFieldDefinition().serialize(shares));
+        network.send(partyId, shares.serialize());
+      } else {
+        ownShares = shares;
       }
     }
     // return own shares
-    return byParty.get(resourcePool.getMyId() - 1);
+    return ownShares;
   }
 
   /**
-   * "Zips" raw value shares and mac shares into authenticated elements.
+   * "Zips" the first raw value shares and mac shares into authenticated elements.
    */
-  private List<AuthenticatedElement> toAuthenticatedElements(List<FieldElement> shares,
-      List<FieldElement> macs) {
-    return IntStream.range(0, shares.size())
-        .mapToObj(idx -> {
-          FieldElement share = shares.get(idx);
-          FieldElement mac = macs.get(idx);
-          return new AuthenticatedElement(share, mac);
-        })
-        .collect(Collectors.toList());
+  private List<AuthenticatedElement> toAuthenticatedElements(FieldElementVector shares,
+      FieldElementVector macs, int count) {
+    return fieldElementUtils.parallelMap(count,
+        idx -> new AuthenticatedElement(shares.get(idx), macs.get(idx)));
   }
 
   /**
@@ -245,10 +250,10 @@ public class ElementGeneration {
    * @param randomCoefficients random coefficients
    * @param macs mac shares
    */
-  private void runMacCheck(FieldElement value, List<FieldElement> randomCoefficients,
-      List<FieldElement> macs) {
+  private void runMacCheck(FieldElement value, FieldElementVector randomCoefficients,
+      FieldElementVector macs) {
     // mask and combine macs
-    FieldElement maskedMac = fieldElementUtils.innerProduct(macs, randomCoefficients);
+    FieldElement maskedMac = macs.innerProduct(randomCoefficients);
     // perform mac-check on open masked value
     macChecker.check(value, macKeyShare, maskedMac);
   }
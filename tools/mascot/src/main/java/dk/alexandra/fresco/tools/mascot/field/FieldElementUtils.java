@@ -1,28 +1,47 @@
 package dk.alexandra.fresco.tools.mascot.field;
 
-import dk.alexandra.fresco.framework.builder.numeric.Addable;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 public final class FieldElementUtils {
 
+  /**
+   * The smallest number of elements for which {@link #parallelMap(int, IntFunction)} and {@link
+   * #innerProduct(List, List)} split the work across the compute pool. Below this the overhead of
+   * forking exceeds the arithmetic.
+   */
+  static final int PARALLEL_THRESHOLD = 256;
   private final FieldDefinition definition;
   private final List<FieldElement> generators;
+  private final ForkJoinPool pool;
 
   /**
-   * Creates new {@link FieldElementUtils}.
+   * Creates new {@link FieldElementUtils} which computes sequentially.
    *
    * @param definition field definition for underlying field element operations
    */
   public FieldElementUtils(FieldDefinition definition) {
+    this(definition, null);
+  }
+
+  /**
+   * Creates new {@link FieldElementUtils} which computes data-parallel operations on the given
+   * pool.
+   *
+   * @param definition field definition for underlying field element operations
+   * @param pool the pool to compute on, or null to compute sequentially
+   */
+  public FieldElementUtils(FieldDefinition definition, ForkJoinPool pool) {
     this.definition = definition;
+    this.pool = pool;
     this.generators = precomputeGenerators();
   }
 
@@ -48,23 +67,8 @@ public final class FieldElementUtils {
     if (leftFactors.size() != rightFactors.size()) {
       throw new IllegalArgumentException("Lists must be same size");
     }
-    return pairWiseMultiplyStream(leftFactors, rightFactors).collect(Collectors.toList());
-  }
-
-  /**
-   * Multiplies two lists of field elements, pair-wise.
-   *
-   * @param leftFactors left factors
-   * @param rightFactors right factors
-   * @return stream of products
-   */
-  private Stream<FieldElement> pairWiseMultiplyStream(List<FieldElement> leftFactors,
-      List<FieldElement> rightFactors) {
-    return IntStream.range(0, leftFactors.size()).mapToObj(idx -> {
-      FieldElement l = leftFactors.get(idx);
-      FieldElement r = rightFactors.get(idx);
-      return l.multiply(r);
-    });
+    return parallelMap(leftFactors.size(),
+        i -> leftFactors.get(i).multiply(rightFactors.get(i)));
   }
 
   /**
@@ -78,7 +82,57 @@ public final class FieldElementUtils {
     if (left.size() != right.size()) {
       throw new IllegalArgumentException("Lists must have same size");
     }
-    return Addable.sum(pairWiseMultiplyStream(left, right));
+    if (!isParallel(left.size())) {
+      return innerProduct(left, right, 0, left.size());
+    }
+    int numChunks = Math.min(pool.getParallelism() * 4,
+        (left.size() + PARALLEL_THRESHOLD - 1) / PARALLEL_THRESHOLD);
+    int chunkSize = (left.size() + numChunks - 1) / numChunks;
+    List<FieldElement> partialSums = parallelMap(numChunks, chunk -> {
+      int from = chunk * chunkSize;
+      return innerProduct(left, right, from, Math.min(left.size(), from + chunkSize));
+    });
+    FieldElement sum = partialSums.get(0);
+    for (int i = 1; i < partialSums.size(); i++) {
+      sum = sum.add(partialSums.get(i));
+    }
+    return sum;
+  }
+
+  private FieldElement innerProduct(List<FieldElement> left, List<FieldElement> right, int from,
+      int to) {
+    FieldElement sum = left.get(from).multiply(right.get(from));
+    for (int i = from + 1; i < to; i++) {
+      sum = sum.add(left.get(i).multiply(right.get(i)));
+    }
+    return sum;
+  }
+
+  /**
+   * Computes {@code function} on each index from 0 to {@code size} and collects the results in
+   * index order. If this instance has a compute pool and {@code size} is large enough, the indices
+   * are processed in parallel on that pool. The function must therefore not depend on shared
+   * mutable state, e.g., the network or a PRG.
+   *
+   * @param size the number of indices
+   * @param function the function to compute for each index
+   * @return the results, ordered by index
+   */
+  public <T> List<T> parallelMap(int size, IntFunction<T> function) {
+    if (!isParallel(size)) {
+      List<T> result = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        result.add(function.apply(i));
+      }
+      return result;
+    }
+    // a parallel stream started from within a pool runs on that pool rather than the common pool
+    return pool.submit(() -> IntStream.range(0, size).parallel().mapToObj(function)
+        .collect(Collectors.toCollection(ArrayList::new))).join();
+  }
+
+  private boolean isParallel(int size) {
+    return pool != null && pool.getParallelism() > 1 && size >= PARALLEL_THRESHOLD;
   }
 
   /**
@@ -89,7 +143,7 @@ public final class FieldElementUtils {
    * @return list of products
    */
   public List<FieldElement> scalarMultiply(List<FieldElement> values, FieldElement scalar) {
-    return values.stream().map(scalar::multiply).collect(Collectors.toList());
+    return parallelMap(values.size(), i -> scalar.multiply(values.get(i)));
   }
 
   /**
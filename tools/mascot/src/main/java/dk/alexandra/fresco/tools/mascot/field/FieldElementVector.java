@@ -0,0 +1,529 @@
+package dk.alexandra.fresco.tools.mascot.field;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A fixed length vector of field elements backed by a single array of 64 bit limbs.
+ *
+ * <p>Each entry is stored as the same number of limbs, least significant limb first, holding the
+ * canonical value in <i>0, ..., p - 1</i>. Bulk operations and serialization run directly over the
+ * limbs, without creating a {@link FieldElement} per entry; field elements are only created by
+ * {@link #get(int)} and {@link #asList()}. Vectors are immutable; all operations return new
+ * vectors. The modulus of the field must be odd.</p>
+ *
+ * <p>The entry wise operations can be given a {@link ForkJoinPool} on which the entries are
+ * computed in parallel. Without a pool, or for vectors below {@link
+ * FieldElementUtils#PARALLEL_THRESHOLD} entries, they are computed by the calling thread.</p>
+ */
+public final class FieldElementVector {
+
+  private final FieldDefinition definition;
+  private final MontgomeryModulus modulus;
+  private final int limbs;
+  private final int size;
+  private final long[] values;
+
+  private FieldElementVector(FieldDefinition definition, MontgomeryModulus modulus, int size,
+      long[] values) {
+    this.definition = definition;
+    this.modulus = modulus;
+    this.limbs = modulus.getLimbs();
+    this.size = size;
+    this.values = values;
+  }
+
+  private FieldElementVector(FieldDefinition definition, MontgomeryModulus modulus, int size) {
+    this(definition, modulus, size, new long[size * modulus.getLimbs()]);
+  }
+
+  private FieldElementVector(FieldDefinition definition, int size) {
+    this(definition, MontgomeryModulus.of(definition.getModulus()), size);
+  }
+
+  /**
+   * Creates a vector holding the given elements.
+   *
+   * @param definition the definition of the elements
+   * @param elements the elements
+   * @return the vector
+   */
+  public static FieldElementVector of(FieldDefinition definition, List<FieldElement> elements) {
+    FieldElementVector vector = new FieldElementVector(Objects.requireNonNull(definition),
+        elements.size());
+    for (int i = 0; i < vector.size; i++) {
+      vector.modulus.fromBigInteger(elements.get(i).toBigInteger(), vector.values,
+          i * vector.limbs);
+    }
+    return vector;
+  }
+
+  /**
+   * Reads a vector of serialized field elements from a byte array, in the format of {@link
+   * FieldDefinition#serialize(List)}.
+   *
+   * @param definition the definition used to serialize the elements
+   * @param bytes the serialized elements
+   * @return the vector
+   */
+  public static FieldElementVector deserialize(FieldDefinition definition, byte[] bytes) {
+    int byteLength = MontgomeryModulus.of(definition.getModulus()).getByteLength();
+    if (bytes.length % byteLength != 0) {
+      throw new IllegalArgumentException(
+          "Length " + bytes.length + " is not a multiple of element length " + byteLength);
+    }
+    FieldElementVector vector = new FieldElementVector(definition, bytes.length / byteLength);
+    for (int i = 0; i < vector.size; i++) {
+      vector.modulus.deserialize(bytes, i * byteLength, vector.values, i * vector.limbs);
+    }
+    return vector;
+  }
+
+  /**
+   * Converts bit vectors to field elements, interpreting each bit vector as a big endian number,
+   * reduced modulo the modulus. Each bit vector must have as many bytes as a serialized element.
+   *
+   * @param definition the definition of the elements
+   * @param bits the bit vectors
+   * @return vector with an entry per bit vector
+   */
+  public static FieldElementVector fromBits(FieldDefinition definition,
+      List<StrictBitVector> bits) {
+    FieldElementVector vector = new FieldElementVector(definition, bits.size());
+    int byteLength = vector.modulus.getByteLength();
+    for (int i = 0; i < vector.size; i++) {
+      byte[] bytes = bits.get(i).toByteArray();
+      if (bytes.length != byteLength) {
+        throw new IllegalArgumentException(
+            "Bit vector has " + bytes.length + " bytes, but elements have " + byteLength);
+      }
+      vector.modulus.deserialize(bytes, 0, vector.values, i * vector.limbs);
+    }
+    return vector;
+  }
+
+  /**
+   * Samples uniformly random field elements, drawing the bytes of each element from the given
+   * generator and rejecting values not below the modulus. This draws the same bytes and gives the
+   * same elements as sampling each element by {@link
+   * dk.alexandra.fresco.framework.util.DrngImpl#nextBigInteger(java.math.BigInteger)}.
+   *
+   * @param definition the definition of the elements
+   * @param drbg the source of random bytes
+   * @param size the number of elements to sample
+   * @return vector of random elements
+   */
+  public static FieldElementVector sample(FieldDefinition definition, Drbg drbg, int size) {
+    FieldElementVector vector = new FieldElementVector(definition, size);
+    int bitLength = definition.getModulus().bitLength();
+    int byteLength = vector.modulus.getByteLength();
+    int topBits = bitLength - (byteLength - 1) * Byte.SIZE;
+    byte[] bytes = new byte[byteLength];
+    for (int i = 0; i < size; i++) {
+      do {
+        drbg.nextBytes(bytes);
+        bytes[0] &= ~(0b11111111 << topBits);
+      } while (!vector.modulus.deserializeIfReduced(bytes, 0, vector.values, i * vector.limbs));
+    }
+    return vector;
+  }
+
+  /**
+   * Adds up the entries in each column of a list of vectors of equal length.
+   *
+   * @param rows rows to be added up
+   * @return sum of rows
+   */
+  public static FieldElementVector sumRows(List<FieldElementVector> rows) {
+    FieldElementVector first = rows.get(0);
+    long[] sums = first.values.clone();
+    for (int r = 1; r < rows.size(); r++) {
+      FieldElementVector row = rows.get(r);
+      checkSize(first.size, row.size);
+      for (int i = 0; i < sums.length; i += first.limbs) {
+        first.modulus.add(sums, i, row.values, i, sums, i);
+      }
+    }
+    return first.withValues(first.size, sums);
+  }
+
+  /**
+   * Interleaves vectors of equal length, such that the result holds the first entry of each
+   * vector, followed by the second entry of each vector, and so on. <br> For instance,
+   * interleaving <i>(a0, a1)</i> and <i>(b0, b1)</i> results in <i>(a0, b0, a1, b1)</i>.
+   *
+   * @param vectors the vectors to interleave
+   * @return the interleaved vector
+   */
+  public static FieldElementVector interleave(List<FieldElementVector> vectors) {
+    FieldElementVector first = vectors.get(0);
+    int count = vectors.size();
+    int limbs = first.limbs;
+    long[] result = new long[first.values.length * count];
+    for (int v = 0; v < count; v++) {
+      FieldElementVector vector = vectors.get(v);
+      checkSize(first.size, vector.size);
+      for (int i = 0; i < first.size; i++) {
+        System.arraycopy(vector.values, i * limbs, result, (i * count + v) * limbs, limbs);
+      }
+    }
+    return first.withValues(first.size * count, result);
+  }
+
+  /**
+   * Gets the number of elements in the vector.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the element at the given index.
+   */
+  public FieldElement get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return definition.createElement(modulus.toBigInteger(values, index * limbs));
+  }
+
+  /**
+   * Adds two vectors entry wise.
+   *
+   * @param other the other vector
+   * @return vector of sums
+   */
+  public FieldElementVector add(FieldElementVector other) {
+    return add(other, null);
+  }
+
+  /**
+   * Adds two vectors entry wise, computing the entries on the given pool.
+   *
+   * @param other the other vector
+   * @param pool the pool to compute on, or null to compute sequentially
+   * @return vector of sums
+   */
+  public FieldElementVector add(FieldElementVector other, ForkJoinPool pool) {
+    checkSize(size, other.size);
+    return compute(size,
+        (i, result, offset) -> modulus.add(values, offset, other.values, offset, result, offset),
+        pool);
+  }
+
+  /**
+   * Subtracts another vector from this vector entry wise.
+   *
+   * @param other the other vector
+   * @return vector of differences
+   */
+  public FieldElementVector subtract(FieldElementVector other) {
+    checkSize(size, other.size);
+    return compute(size,
+        (i, result, offset) -> modulus.subtract(values, offset, other.values, offset, result,
+            offset),
+        null);
+  }
+
+  /**
+   * Negates each entry.
+   *
+   * @return vector of negated entries
+   */
+  public FieldElementVector negate() {
+    return compute(size, (i, result, offset) -> modulus.negate(values, offset, result, offset),
+        null);
+  }
+
+  /**
+   * Multiplies two vectors entry wise.
+   *
+   * @param other the other vector
+   * @return vector of products
+   */
+  public FieldElementVector multiply(FieldElementVector other) {
+    return multiply(other, null);
+  }
+
+  /**
+   * Multiplies two vectors entry wise, computing the entries on the given pool.
+   *
+   * @param other the other vector
+   * @param pool the pool to compute on, or null to compute sequentially
+   * @return vector of products
+   */
+  public FieldElementVector multiply(FieldElementVector other, ForkJoinPool pool) {
+    checkSize(size, other.size);
+    return compute(size,
+        (i, result, offset) -> modulus.multiply(values, offset, other.values, offset, result,
+            offset),
+        pool);
+  }
+
+  /**
+   * Multiplies each entry by a scalar.
+   *
+   * @param scalar scalar factor
+   * @return vector of products
+   */
+  public FieldElementVector scale(FieldElement scalar) {
+    return scale(scalar, null);
+  }
+
+  /**
+   * Multiplies each entry by a scalar, computing the entries on the given pool.
+   *
+   * @param scalar scalar factor
+   * @param pool the pool to compute on, or null to compute sequentially
+   * @return vector of products
+   */
+  public FieldElementVector scale(FieldElement scalar, ForkJoinPool pool) {
+    long[] factor = new long[limbs];
+    modulus.fromBigInteger(scalar.toBigInteger(), factor, 0);
+    // with the factor times R, a single reduction gives the plain product
+    modulus.fromReduced(factor, 0, factor, 0);
+    return compute(size,
+        (i, result, offset) -> modulus.multiplyReduced(values, offset, factor, 0, result, offset),
+        pool);
+  }
+
+  /**
+   * Computes the inner product of two vectors.
+   *
+   * @param other the other vector
+   * @return the inner product
+   */
+  public FieldElement innerProduct(FieldElementVector other) {
+    checkSize(size, other.size);
+    long[] sum = new long[limbs];
+    innerProduct(other, 0, size, sum, 0);
+    return definition.createElement(modulus.toBigInteger(sum, 0));
+  }
+
+  /**
+   * Splits both vectors into consecutive groups of the given size and computes the inner product
+   * of each pair of groups. <br> For instance, for <i>(a0, a1, a2, a3)</i> and <i>(b0, b1, b2,
+   * b3)</i> and group size 2 the result is <i>(a0 * b0 + a1 * b1, a2 * b2 + a3 * b3)</i>.
+   *
+   * @param other the other vector
+   * @param groupSize the number of entries in each group
+   * @return vector of inner products, one per group
+   */
+  public FieldElementVector groupedInnerProducts(FieldElementVector other, int groupSize) {
+    return groupedInnerProducts(other, groupSize, null);
+  }
+
+  /**
+   * Computes the inner products of the groups of two vectors as {@link
+   * #groupedInnerProducts(FieldElementVector, int)}, computing the groups on the given pool.
+   *
+   * @param other the other vector
+   * @param groupSize the number of entries in each group
+   * @param pool the pool to compute on, or null to compute sequentially
+   * @return vector of inner products, one per group
+   */
+  public FieldElementVector groupedInnerProducts(FieldElementVector other, int groupSize,
+      ForkJoinPool pool) {
+    checkSize(size, other.size);
+    checkGroupSize(groupSize);
+    return compute(size / groupSize,
+        (g, result, offset) -> innerProduct(other, g * groupSize, groupSize, result, offset),
+        pool);
+  }
+
+  private void innerProduct(FieldElementVector other, int from, int length, long[] result,
+      int offset) {
+    long[] product = new long[limbs];
+    for (int i = 0; i < limbs; i++) {
+      result[offset + i] = 0;
+    }
+    // adds up the reduced products and removes the factor R^-1 from the sum only
+    for (int i = from; i < from + length; i++) {
+      modulus.multiplyReduced(values, i * limbs, other.values, i * limbs, product, 0);
+      modulus.add(result, offset, product, 0, result, offset);
+    }
+    modulus.fromReduced(result, offset, result, offset);
+  }
+
+  /**
+   * Splits the vector into consecutive groups of the given size and computes <i>e0 * 2^0 + e1 *
+   * 2^1 + ... </i> of the entries <i>e0, e1, ...</i> of each group.
+   *
+   * @param groupSize the number of entries in each group, at most the bit length of the modulus
+   * @param pool the pool to compute on, or null to compute sequentially
+   * @return vector of recombined entries, one per group
+   */
+  public FieldElementVector recombine(int groupSize, ForkJoinPool pool) {
+    checkGroupSize(groupSize);
+    if (groupSize > definition.getBitLength()) {
+      throw new IllegalArgumentException("Number of elements cannot exceed bit-length");
+    }
+    return compute(size / groupSize, (g, result, offset) -> {
+      // Horner's rule with doubling by addition
+      int last = (g + 1) * groupSize - 1;
+      System.arraycopy(values, last * limbs, result, offset, limbs);
+      for (int i = last - 1; i >= g * groupSize; i--) {
+        modulus.add(result, offset, result, offset, result, offset);
+        modulus.add(result, offset, values, i * limbs, result, offset);
+      }
+    }, pool);
+  }
+
+  /**
+   * Keeps the entries selected by the bits of some factors and sets the rest to zero. The vector is
+   * split into consecutive groups of the given number of bits, one group per factor, and entry
+   * <i>b</i> of a group is kept if bit <i>b</i> of the factor is set, where bit 0 is the least
+   * significant bit.
+   *
+   * @param factors the factors, one per group
+   * @param bitCount the number of entries in each group
+   * @return the selected entries
+   */
+  public FieldElementVector selectByBits(FieldElementVector factors, int bitCount) {
+    checkSize(size, factors.size * bitCount);
+    return compute(size, (i, result, offset) -> {
+      if (modulus.testBit(factors.values, (i / bitCount) * limbs, i % bitCount)) {
+        System.arraycopy(values, offset, result, offset, limbs);
+      }
+    }, null);
+  }
+
+  /**
+   * Duplicates each element stretchBy times. <br> For instance, stretching [e0, e1, e2] by 2
+   * results in [e0, e0, e1, e1, e2, e2].
+   *
+   * @param stretchBy number of duplications per element
+   * @return stretched vector
+   */
+  public FieldElementVector stretch(int stretchBy) {
+    long[] result = new long[values.length * stretchBy];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < stretchBy; j++) {
+        System.arraycopy(values, i * limbs, result, (i * stretchBy + j) * limbs, limbs);
+      }
+    }
+    return withValues(size * stretchBy, result);
+  }
+
+  /**
+   * Appends the entries of another vector to the entries of this vector.
+   *
+   * @param other the other vector
+   * @return the concatenated vector
+   */
+  public FieldElementVector concat(FieldElementVector other) {
+    long[] result = new long[values.length + other.values.length];
+    System.arraycopy(values, 0, result, 0, values.length);
+    System.arraycopy(other.values, 0, result, values.length, other.values.length);
+    return withValues(size + other.size, result);
+  }
+
+  /**
+   * Gets the vector of the first entries of this vector.
+   *
+   * @param length the number of entries to keep
+   * @return vector of the first entries
+   */
+  public FieldElementVector truncate(int length) {
+    if (length < 0 || length > size) {
+      throw new IllegalArgumentException("Cannot truncate size " + size + " to " + length);
+    }
+    long[] result = new long[length * limbs];
+    System.arraycopy(values, 0, result, 0, result.length);
+    return withValues(length, result);
+  }
+
+  /**
+   * Reverses the order of the entries.
+   *
+   * @return reversed vector
+   */
+  public FieldElementVector reverse() {
+    long[] result = new long[values.length];
+    for (int i = 0; i < size; i++) {
+      System.arraycopy(values, i * limbs, result, (size - 1 - i) * limbs, limbs);
+    }
+    return withValues(size, result);
+  }
+
+  /**
+   * Serializes the elements of this vector, in the format of {@link
+   * FieldDefinition#serialize(List)}.
+   *
+   * @return the serialized elements
+   */
+  public byte[] serialize() {
+    int byteLength = modulus.getByteLength();
+    byte[] bytes = new byte[size * byteLength];
+    for (int i = 0; i < size; i++) {
+      modulus.serialize(values, i * limbs, bytes, i * byteLength);
+    }
+    return bytes;
+  }
+
+  /**
+   * Gets the elements of the vector as a read only list.
+   *
+   * @return list of the elements of the vector
+   */
+  public List<FieldElement> asList() {
+    List<FieldElement> elements = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      elements.add(get(i));
+    }
+    return Collections.unmodifiableList(elements);
+  }
+
+  private FieldElementVector withValues(int size, long[] values) {
+    return new FieldElementVector(definition, modulus, size, values);
+  }
+
+  /**
+   * Computes the limbs of an entry. Implementations must only depend on the index, as entries may
+   * be computed in parallel, and write the limbs at the given offset of the result.
+   */
+  @FunctionalInterface
+  private interface Entry {
+
+    void compute(int index, long[] result, int offset);
+  }
+
+  /**
+   * Creates a vector with the given number of entries, computing each entry by the given function.
+   * Entries start out as zero.
+   */
+  private FieldElementVector compute(int size, Entry entry, ForkJoinPool pool) {
+    long[] result = new long[size * limbs];
+    if (pool == null || pool.getParallelism() < 2 || size < FieldElementUtils.PARALLEL_THRESHOLD) {
+      for (int i = 0; i < size; i++) {
+        entry.compute(i, result, i * limbs);
+      }
+    } else {
+      // a parallel stream started from within a pool runs on that pool rather than the common pool
+      pool.submit(() -> IntStream.range(0, size).parallel()
+          .forEach(i -> entry.compute(i, result, i * limbs))).join();
+    }
+    return withValues(size, result);
+  }
+
+  private void checkGroupSize(int groupSize) {
+    if (groupSize <= 0 || size % groupSize != 0) {
+      throw new IllegalArgumentException(
+          "Size " + size + " is not a multiple of group size " + groupSize);
+    }
+  }
+
+  private static void checkSize(int size, int otherSize) {
+    if (size != otherSize) {
+      throw new IllegalArgumentException("Vectors must have same size");
+    }
+  }
+}
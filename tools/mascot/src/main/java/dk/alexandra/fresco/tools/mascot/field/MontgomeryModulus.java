@@ -0,0 +1,354 @@
+package dk.alexandra.fresco.tools.mascot.field;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Arithmetic modulo an odd modulus <i>p</i> on values represented as a fixed number of 64 bit
+ * limbs, least significant limb first.
+ *
+ * <p>Values are given to and computed by the arithmetic methods in <i>0, ..., p - 1</i>, at an
+ * offset into a caller supplied array. Products are computed by Montgomery multiplication with
+ * <i>R = 2<sup>64 * limbs</sup></i>, but values are never kept in Montgomery form: a product is
+ * reduced twice, once of the plain product and once after multiplying by <i>R<sup>2</sup> mod
+ * p</i>. This keeps the representation canonical, so values serialize exactly as the field
+ * elements of any {@link dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition} with
+ * the same modulus.</p>
+ */
+final class MontgomeryModulus {
+
+  private static final long LOW_MASK = 0xFFFFFFFFL;
+  private static final Map<BigInteger, MontgomeryModulus> moduli = new ConcurrentHashMap<>();
+  /**
+   * Scratch space for products, shared by all moduli used by a thread.
+   */
+  private static final ThreadLocal<long[]> scratch = ThreadLocal.withInitial(() -> new long[0]);
+
+  private final BigInteger modulus;
+  private final int limbs;
+  private final int byteLength;
+  private final long[] prime;
+  private final long[] rSquared;
+  private final long[] one;
+  private final long inverse;
+
+  private MontgomeryModulus(BigInteger modulus) {
+    if (modulus.signum() < 1 || !modulus.testBit(0)) {
+      throw new IllegalArgumentException("Modulus must be odd and positive, but is: " + modulus);
+    }
+    int bitLength = modulus.bitLength();
+    this.modulus = modulus;
+    this.limbs = (bitLength + Long.SIZE - 1) / Long.SIZE;
+    this.byteLength = 1 + (bitLength - 1) / Byte.SIZE;
+    this.prime = toLimbs(modulus);
+    BigInteger r = BigInteger.ONE.shiftLeft(limbs * Long.SIZE);
+    this.rSquared = toLimbs(r.multiply(r).mod(modulus));
+    this.one = toLimbs(BigInteger.ONE);
+    BigInteger word = BigInteger.ONE.shiftLeft(Long.SIZE);
+    this.inverse = modulus.modInverse(word).negate().mod(word).longValue();
+  }
+
+  /**
+   * Gets the arithmetic for the given modulus. The precomputed constants are shared by all users
+   * of the same modulus.
+   *
+   * @param modulus an odd modulus
+   * @return the arithmetic
+   */
+  static MontgomeryModulus of(BigInteger modulus) {
+    return moduli.computeIfAbsent(modulus, MontgomeryModulus::new);
+  }
+
+  /**
+   * Gets the number of limbs of each value.
+   */
+  int getLimbs() {
+    return limbs;
+  }
+
+  /**
+   * Gets the number of bytes of a serialized value.
+   */
+  int getByteLength() {
+    return byteLength;
+  }
+
+  /**
+   * Writes the limbs of a value in <i>0, ..., p - 1</i>.
+   */
+  void fromBigInteger(BigInteger value, long[] result, int offset) {
+    BigInteger reduced = value.mod(modulus);
+    for (int i = 0; i < limbs; i++) {
+      result[offset + i] = reduced.shiftRight(i * Long.SIZE).longValue();
+    }
+  }
+
+  /**
+   * Reads the value of some limbs.
+   */
+  BigInteger toBigInteger(long[] value, int offset) {
+    byte[] bytes = new byte[byteLength];
+    serialize(value, offset, bytes, 0);
+    return new BigInteger(1, bytes);
+  }
+
+  /**
+   * Writes a value as big endian bytes, using {@link #getByteLength()} bytes.
+   */
+  void serialize(long[] value, int offset, byte[] bytes, int byteOffset) {
+    for (int i = 0; i < byteLength; i++) {
+      long limb = value[offset + i / Long.BYTES];
+      bytes[byteOffset + byteLength - 1 - i] = (byte) (limb >>> (Byte.SIZE * (i % Long.BYTES)));
+    }
+  }
+
+  /**
+   * Reads a value from big endian bytes, using {@link #getByteLength()} bytes, and reduces it
+   * modulo p.
+   */
+  void deserialize(byte[] bytes, int byteOffset, long[] result, int offset) {
+    if (!deserializeIfReduced(bytes, byteOffset, result, offset)) {
+      // any value below R is a valid factor, so multiplying by one reduces it
+      multiply(result, offset, one, 0, result, offset);
+    }
+  }
+
+  /**
+   * Reads a value from big endian bytes, using {@link #getByteLength()} bytes, without reducing
+   * it.
+   *
+   * @return whether the value is below p
+   */
+  boolean deserializeIfReduced(byte[] bytes, int byteOffset, long[] result, int offset) {
+    for (int i = 0; i < limbs; i++) {
+      result[offset + i] = 0;
+    }
+    for (int i = 0; i < byteLength; i++) {
+      long current = Byte.toUnsignedLong(bytes[byteOffset + byteLength - 1 - i]);
+      result[offset + i / Long.BYTES] |= current << (Byte.SIZE * (i % Long.BYTES));
+    }
+    return compare(result, offset, prime, 0) < 0;
+  }
+
+  /**
+   * Gets a bit of a value, where bit 0 is the least significant bit.
+   */
+  boolean testBit(long[] value, int offset, int bit) {
+    return ((value[offset + bit / Long.SIZE] >>> (bit % Long.SIZE)) & 1) != 0;
+  }
+
+  boolean isZero(long[] value, int offset) {
+    for (int i = 0; i < limbs; i++) {
+      if (value[offset + i] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  void add(long[] left, int leftOffset, long[] right, int rightOffset, long[] result,
+      int offset) {
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long sum = left[leftOffset + i] + right[rightOffset + i];
+      long carryOut = Long.compareUnsigned(sum, left[leftOffset + i]) < 0 ? 1 : 0;
+      long total = sum + carry;
+      carryOut += Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+      result[offset + i] = total;
+      carry = carryOut;
+    }
+    if (carry != 0 || compare(result, offset, prime, 0) >= 0) {
+      subtractPrime(result, offset);
+    }
+  }
+
+  void subtract(long[] left, int leftOffset, long[] right, int rightOffset, long[] result,
+      int offset) {
+    long borrow = 0;
+    for (int i = 0; i < limbs; i++) {
+      long difference = left[leftOffset + i] - right[rightOffset + i];
+      long borrowOut = Long.compareUnsigned(left[leftOffset + i], right[rightOffset + i]) < 0
+          ? 1 : 0;
+      long total = difference - borrow;
+      borrowOut += Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+      result[offset + i] = total;
+      borrow = borrowOut;
+    }
+    if (borrow != 0) {
+      addPrime(result, offset);
+    }
+  }
+
+  void negate(long[] value, int valueOffset, long[] result, int offset) {
+    if (isZero(value, valueOffset)) {
+      System.arraycopy(value, valueOffset, result, offset, limbs);
+    } else {
+      subtract(prime, 0, value, valueOffset, result, offset);
+    }
+  }
+
+  /**
+   * Computes the product of two values.
+   */
+  void multiply(long[] left, int leftOffset, long[] right, int rightOffset, long[] result,
+      int offset) {
+    long[] work = getScratch();
+    reduce(left, leftOffset, right, rightOffset, work);
+    System.arraycopy(work, 0, work, limbs + 2, limbs);
+    reduce(work, limbs + 2, rSquared, 0, work);
+    System.arraycopy(work, 0, result, offset, limbs);
+  }
+
+  /**
+   * Computes the Montgomery reduction of the product of two values, i.e., <i>left * right *
+   * R<sup>-1</sup> mod p</i>. A sum of such reductions is turned into the sum of the plain
+   * products by {@link #fromReduced(long[], int, long[], int)}, which saves one reduction per
+   * product in inner products.
+   */
+  void multiplyReduced(long[] left, int leftOffset, long[] right, int rightOffset,
+      long[] result, int offset) {
+    long[] work = getScratch();
+    reduce(left, leftOffset, right, rightOffset, work);
+    System.arraycopy(work, 0, result, offset, limbs);
+  }
+
+  /**
+   * Multiplies a value by <i>R mod p</i>, undoing the factor <i>R<sup>-1</sup></i> of {@link
+   * #multiplyReduced(long[], int, long[], int, long[], int)}. Applied to a scalar, the result can
+   * be given as one factor to {@link #multiplyReduced(long[], int, long[], int, long[], int)} to
+   * compute plain products with the scalar by a single reduction.
+   */
+  void fromReduced(long[] value, int valueOffset, long[] result, int offset) {
+    multiplyReduced(value, valueOffset, rSquared, 0, result, offset);
+  }
+
+  private long[] getScratch() {
+    long[] work = scratch.get();
+    if (work.length < 2 * limbs + 2) {
+      work = new long[2 * limbs + 2];
+      scratch.set(work);
+    }
+    return work;
+  }
+
+  /**
+   * Montgomery reduction of a product by coarsely integrated operand scanning. Writes
+   * <i>left * right * R<sup>-1</sup> mod p</i> to the first limbs of product, using its first
+   * <i>limbs + 2</i> entries as work space. The factors must not overlap this space.
+   */
+  private void reduce(long[] left, int leftOffset, long[] right, int rightOffset,
+      long[] product) {
+    for (int i = 0; i < limbs + 2; i++) {
+      product[i] = 0;
+    }
+    for (int i = 0; i < limbs; i++) {
+      long factor = right[rightOffset + i];
+      long carry = 0;
+      for (int j = 0; j < limbs; j++) {
+        long value = left[leftOffset + j];
+        long low = value * factor;
+        long high = multiplyHighUnsigned(value, factor);
+        low += product[j];
+        if (Long.compareUnsigned(low, product[j]) < 0) {
+          high++;
+        }
+        low += carry;
+        if (Long.compareUnsigned(low, carry) < 0) {
+          high++;
+        }
+        product[j] = low;
+        carry = high;
+      }
+      long sum = product[limbs] + carry;
+      product[limbs + 1] = Long.compareUnsigned(sum, carry) < 0 ? 1 : 0;
+      product[limbs] = sum;
+      // add a multiple of p making the lowest limb zero and shift down by one limb
+      long multiple = product[0] * inverse;
+      long low = multiple * prime[0];
+      long high = multiplyHighUnsigned(multiple, prime[0]);
+      low += product[0];
+      if (Long.compareUnsigned(low, product[0]) < 0) {
+        high++;
+      }
+      carry = high;
+      for (int j = 1; j < limbs; j++) {
+        low = multiple * prime[j];
+        high = multiplyHighUnsigned(multiple, prime[j]);
+        low += product[j];
+        if (Long.compareUnsigned(low, product[j]) < 0) {
+          high++;
+        }
+        low += carry;
+        if (Long.compareUnsigned(low, carry) < 0) {
+          high++;
+        }
+        product[j - 1] = low;
+        carry = high;
+      }
+      sum = product[limbs] + carry;
+      product[limbs - 1] = sum;
+      product[limbs] = product[limbs + 1] + (Long.compareUnsigned(sum, carry) < 0 ? 1 : 0);
+    }
+    if (product[limbs] != 0 || compare(product, 0, prime, 0) >= 0) {
+      subtractPrime(product, 0);
+    }
+  }
+
+  private int compare(long[] value, int offset, long[] other, int otherOffset) {
+    for (int i = limbs - 1; i >= 0; i--) {
+      int comparison = Long.compareUnsigned(value[offset + i], other[otherOffset + i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  private void subtractPrime(long[] value, int offset) {
+    long borrow = 0;
+    for (int i = 0; i < limbs; i++) {
+      long difference = value[offset + i] - prime[i];
+      long borrowOut = Long.compareUnsigned(value[offset + i], prime[i]) < 0 ? 1 : 0;
+      long total = difference - borrow;
+      borrowOut += Long.compareUnsigned(difference, borrow) < 0 ? 1 : 0;
+      value[offset + i] = total;
+      borrow = borrowOut;
+    }
+  }
+
+  private void addPrime(long[] value, int offset) {
+    long carry = 0;
+    for (int i = 0; i < limbs; i++) {
+      long sum = value[offset + i] + prime[i];
+      long carryOut = Long.compareUnsigned(sum, value[offset + i]) < 0 ? 1 : 0;
+      long total = sum + carry;
+      carryOut += Long.compareUnsigned(total, sum) < 0 ? 1 : 0;
+      value[offset + i] = total;
+      carry = carryOut;
+    }
+  }
+
+  private long[] toLimbs(BigInteger value) {
+    long[] result = new long[limbs];
+    for (int i = 0; i < limbs; i++) {
+      result[i] = value.shiftRight(i * Long.SIZE).longValue();
+    }
+    return result;
+  }
+
+  /**
+   * Computes the upper 64 bits of the unsigned 128 bit product of two longs. This is
+   * <code>Math.multiplyHigh</code> for unsigned values, which is not available on Java 8.
+   */
+  private static long multiplyHighUnsigned(long x, long y) {
+    long x0 = x & LOW_MASK;
+    long x1 = x >>> 32;
+    long y0 = y & LOW_MASK;
+    long y1 = y >>> 32;
+    long w0 = x0 * y0;
+    long t = x1 * y0 + (w0 >>> 32);
+    long w1 = (t & LOW_MASK) + x0 * y1;
+    return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+  }
+}
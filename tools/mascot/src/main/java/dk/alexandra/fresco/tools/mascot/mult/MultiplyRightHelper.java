@@ -1,13 +1,11 @@
 package dk.alexandra.fresco.tools.mascot.mult;
 
-import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
-import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.ot.base.RotBatch;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,11 +18,9 @@ public class MultiplyRightHelper {
 
   private final RotBatch rot;
   private final MascotResourcePool resourcePool;
-  private final FieldElementUtils fieldElementUtils;
 
   public MultiplyRightHelper(MascotResourcePool resourcePool, Network network, int otherId) {
     this.resourcePool = resourcePool;
-    this.fieldElementUtils = new FieldElementUtils(resourcePool.getFieldDefinition());
     this.rot = resourcePool.createRot(otherId, network);
   }
 
@@ -57,23 +53,16 @@ public class MultiplyRightHelper {
    * <i>q<sub>0</sub> - q<sub>1</sub> + b<sub>n</sub></i> where <i>b<sub>n</sub></i> is the
    * <i>n</i>-th factor of this party's factor. </p>
    *
-   * @param feSeedPairs seed pairs as field elements
+   * @param feZeroSeeds the zero choice seeds as field elements
+   * @param feOneSeeds the one choice seeds as field elements
    * @param rightFactors this party's factors
    * @return masked shares of this party's factor's bits.
    */
-  public List<FieldElement> computeDiffs(List<Pair<FieldElement, FieldElement>> feSeedPairs,
-      List<FieldElement> rightFactors) {
-    List<FieldElement> diffs = new ArrayList<>(feSeedPairs.size());
-    int rightFactorIdx = 0;
-    int seedPairIdx = 0;
-    for (Pair<FieldElement, FieldElement> feSeedPair : feSeedPairs) {
-      FieldElement rightFactor = rightFactors.get(rightFactorIdx);
-      FieldElement diff = computeDiff(feSeedPair, rightFactor);
-      diffs.add(diff);
-      seedPairIdx++;
-      rightFactorIdx = seedPairIdx / (resourcePool.getModBitLength());
-    }
-    return diffs;
+  public FieldElementVector computeDiffs(FieldElementVector feZeroSeeds,
+      FieldElementVector feOneSeeds, FieldElementVector rightFactors) {
+    int modBitLength = resourcePool.getModBitLength();
+    return feZeroSeeds.subtract(feOneSeeds)
+        .add(rightFactors.stretch(modBitLength), resourcePool.getComputePool());
   }
 
   /**
@@ -84,23 +73,12 @@ public class MultiplyRightHelper {
    * @param numRightFactors number of total right factors
    * @return shares of products
    */
-  public List<FieldElement> computeProductShares(List<FieldElement> feZeroSeeds,
+  public FieldElementVector computeProductShares(FieldElementVector feZeroSeeds,
       int numRightFactors) {
-    List<FieldElement> productShares = new ArrayList<>(numRightFactors);
-    for (int rightFactIdx = 0; rightFactIdx < numRightFactors; rightFactIdx++) {
-      int from = rightFactIdx * resourcePool.getModBitLength();
-      int to = (rightFactIdx + 1) * resourcePool.getModBitLength();
-      List<FieldElement> subFactors = feZeroSeeds.subList(from, to);
-      FieldElement recombined = fieldElementUtils.recombine(subFactors);
-      productShares.add(recombined.negate());
+    int modBitLength = resourcePool.getModBitLength();
+    if (feZeroSeeds.size() != numRightFactors * modBitLength) {
+      throw new IllegalArgumentException("Expected " + modBitLength + " seeds per factor");
     }
-    return productShares;
-  }
-
-  private FieldElement computeDiff(Pair<FieldElement, FieldElement> feSeedPair,
-      FieldElement factor) {
-    FieldElement left = feSeedPair.getFirst();
-    FieldElement right = feSeedPair.getSecond();
-    return left.subtract(right).add(factor);
+    return feZeroSeeds.recombine(modBitLength, resourcePool.getComputePool()).negate();
   }
 }
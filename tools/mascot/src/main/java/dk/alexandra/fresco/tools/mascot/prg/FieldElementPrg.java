@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.tools.mascot.prg;
 
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,6 +28,15 @@ public interface FieldElementPrg {
     return samples;
   }
 
+  /**
+   * Generates multiple random field elements as a vector. The elements are the same as the ones
+   * returned by {@link #getNext(int)}.
+   *
+   * @param numSamples number of random elements to generate
+   * @return random field elements
+   */
+  FieldElementVector getNextVector(int numSamples);
+
   /**
    * Generates a matrix of random field elements.
    *
@@ -4,13 +4,17 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.BufferedDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.Drng;
 import dk.alexandra.fresco.framework.util.DrngImpl;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import java.util.Objects;
 
 public class FieldElementPrgImpl implements FieldElementPrg {
 
+  private final Drbg drbg;
   private final Drng drng;
   private FieldDefinition definition;
 
@@ -22,15 +26,22 @@ public class FieldElementPrgImpl implements FieldElementPrg {
   public FieldElementPrgImpl(StrictBitVector seed, FieldDefinition definition) {
     this.definition = Objects.requireNonNull(definition);
     byte[] bytes = seed.toByteArray();
-    if (bytes.length != AesCtrDrbg.SEED_LENGTH) {
-      this.drng = new DrngImpl(AesCtrDrbgFactory.fromDerivedSeed(bytes));
-    } else {
-      this.drng = new DrngImpl(AesCtrDrbgFactory.fromRandomSeed(bytes));
-    }
+    Drbg seeded = bytes.length != AesCtrDrbg.SEED_LENGTH
+        ? AesCtrDrbgFactory.fromDerivedSeed(bytes)
+        : AesCtrDrbgFactory.fromRandomSeed(bytes);
+    // Elements are sampled from a buffer filled in bulk rather than one AES call per element
+    this.drbg = new BufferedDrbg(seeded);
+    this.drng = new DrngImpl(drbg);
   }
 
   @Override
   public FieldElement getNext() {
     return definition.createElement(drng.nextBigInteger(definition.getModulus()));
   }
+
+  @Override
+  public FieldElementVector getNextVector(int numSamples) {
+    // draws from the same bytes as getNext, so the two can be mixed
+    return FieldElementVector.sample(definition, drbg, numSamples);
+  }
 }
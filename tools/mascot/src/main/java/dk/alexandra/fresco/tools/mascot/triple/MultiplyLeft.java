@@ -4,9 +4,9 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.mult.MultiplyLeftHelper;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Left hand side of a two-party protocol for computing a secret sharing of a the entry wise product
@@ -58,27 +58,27 @@ class MultiplyLeft {
    *     ...</i>
    */
   public List<FieldElement> multiply(List<FieldElement> leftFactors) {
-    List<StrictBitVector> seeds = multiplyLeftHelper.generateSeeds(leftFactors,
-        resourcePool.getModBitLength());
-    List<FieldElement> feSeeds = seedsToFieldElements(seeds);
-    // receive diffs from other party
-    List<FieldElement> diffs =
-        resourcePool.getFieldDefinition().deserializeList(network.receive(otherId));
-    return multiplyLeftHelper.computeProductShares(leftFactors, feSeeds, diffs);
+    return multiply(FieldElementVector.of(resourcePool.getFieldDefinition(), leftFactors))
+        .asList();
   }
 
   /**
-   * Converts each seed to field element.
+   * Runs a batch of the entry wise product protocol on a vector of factors, same as {@link
+   * #multiply(List)}.
    *
-   * @param seeds the seeds represented as bit vectors
-   * @return seeds converted to field elements
+   * @param leftFactors this party's vector of factors
+   * @return shares of the products
    */
-  private List<FieldElement> seedsToFieldElements(List<StrictBitVector> seeds) {
-    return seeds.parallelStream().map(this::fromBits).collect(Collectors.toList());
-  }
-
-  private FieldElement fromBits(StrictBitVector vector) {
+  FieldElementVector multiply(FieldElementVector leftFactors) {
+    List<StrictBitVector> seeds = multiplyLeftHelper.generateSeeds(leftFactors,
+        resourcePool.getModBitLength());
     // safe since the modulus is guaranteed to be close enough to 2^modBitLength
-    return resourcePool.getFieldDefinition().deserialize(vector.toByteArray());
+    FieldElementVector feSeeds =
+        FieldElementVector.fromBits(resourcePool.getFieldDefinition(), seeds);
+    // receive diffs from other party
+    FieldElementVector diffs =
+        FieldElementVector.deserialize(resourcePool.getFieldDefinition(),
+            network.receive(otherId));
+    return multiplyLeftHelper.computeProductShares(leftFactors, feSeeds, diffs);
   }
 }
@@ -1,13 +1,15 @@
 package dk.alexandra.fresco.tools.mascot.triple;
 
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.mult.MultiplyRightHelper;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Right hand side of a two-party protocol for computing a secret sharing of a the entry wise
@@ -61,34 +63,37 @@ class MultiplyRight {
    *         </i>
    */
   public List<FieldElement> multiply(List<FieldElement> rightFactors) {
+    return multiply(FieldElementVector.of(resourcePool.getFieldDefinition(), rightFactors))
+        .asList();
+  }
+
+  /**
+   * Runs a batch of the entry wise product protocol on a vector of factors, same as {@link
+   * #multiply(List)}.
+   *
+   * @param rightFactors this party's vector of factors
+   * @return shares of the products
+   */
+  FieldElementVector multiply(FieldElementVector rightFactors) {
     List<Pair<StrictBitVector, StrictBitVector>> seedPairs =
         multiplyRightHelper.generateSeeds(rightFactors.size(), resourcePool.getModBitLength());
     // convert seeds pairs to field elements so we can compute on them
-    List<Pair<FieldElement, FieldElement>> feSeedPairs =
-        seedsToFieldElements(seedPairs);
+    List<StrictBitVector> zeroSeeds = new ArrayList<>(seedPairs.size());
+    List<StrictBitVector> oneSeeds = new ArrayList<>(seedPairs.size());
+    for (Pair<StrictBitVector, StrictBitVector> seedPair : seedPairs) {
+      zeroSeeds.add(seedPair.getFirst());
+      oneSeeds.add(seedPair.getSecond());
+    }
+    // safe since the modulus is guaranteed to be close enough to 2^modBitLength
+    FieldDefinition definition = resourcePool.getFieldDefinition();
+    FieldElementVector feZeroSeeds = FieldElementVector.fromBits(definition, zeroSeeds);
+    FieldElementVector feOneSeeds = FieldElementVector.fromBits(definition, oneSeeds);
     // compute q0 - q1 + b for each seed pair
-    List<FieldElement> diffs = multiplyRightHelper.computeDiffs(feSeedPairs, rightFactors);
+    FieldElementVector diffs =
+        multiplyRightHelper.computeDiffs(feZeroSeeds, feOneSeeds, rightFactors);
     // send diffs over to other party
-    network.send(otherId, resourcePool.getFieldDefinition().serialize(diffs));
-    // get zero index seeds
-    List<FieldElement> feZeroSeeds =
-        feSeedPairs.parallelStream().map(Pair::getFirst).collect(Collectors.toList());
+    network.send(otherId, diffs.serialize());
     // compute product shares
     return multiplyRightHelper.computeProductShares(feZeroSeeds, rightFactors.size());
   }
-
-  private List<Pair<FieldElement, FieldElement>> seedsToFieldElements(
-      List<Pair<StrictBitVector, StrictBitVector>> seedPairs) {
-    return seedPairs.parallelStream().map(pair -> {
-      FieldElement t0 = fromBits(pair.getFirst());
-      FieldElement t1 = fromBits(pair.getSecond());
-      return new Pair<>(t0, t1);
-    }).collect(Collectors.toList());
-  }
-
-  private FieldElement fromBits(StrictBitVector vector) {
-    // safe since the modulus is guaranteed to be close enough to 2^modBitLength
-    return resourcePool.getFieldDefinition().deserialize(vector.toByteArray());
-  }
-
 }
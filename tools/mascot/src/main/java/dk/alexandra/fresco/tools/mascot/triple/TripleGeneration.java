@@ -1,22 +1,21 @@
 package dk.alexandra.fresco.tools.mascot.triple;
 
-import dk.alexandra.fresco.framework.builder.numeric.Addable;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
 import dk.alexandra.fresco.tools.mascot.elgen.ElementGeneration;
 import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
 import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Actively-secure protocol for computing authenticated, secret-shared multiplication triples based
@@ -41,7 +40,8 @@ public class TripleGeneration {
   public TripleGeneration(MascotResourcePool resourcePool, Network network,
       ElementGeneration elementGeneration, FieldElementPrg jointSampler) {
     this.resourcePool = Objects.requireNonNull(resourcePool);
-    this.fieldElementUtils = new FieldElementUtils(resourcePool.getFieldDefinition());
+    this.fieldElementUtils = new FieldElementUtils(resourcePool.getFieldDefinition(),
+        resourcePool.getComputePool());
     this.leftMultipliers = new HashMap<>();
     this.rightMultipliers = new HashMap<>();
     initializeMultipliers(resourcePool, network);
@@ -83,17 +83,14 @@ public class TripleGeneration {
    */
   public List<MultiplicationTriple> triple(int numTriples) {
     // generate random left factor groups
-    List<FieldElement> leftFactorGroups = resourcePool.getLocalSampler()
-        .getNext(numTriples * resourcePool.getNumCandidatesPerTriple());
+    FieldElementVector leftFactorGroups = resourcePool.getLocalSampler()
+        .getNextVector(numTriples * resourcePool.getNumCandidatesPerTriple());
     // generate random right factors
-    List<FieldElement> rightFactors = resourcePool.getLocalSampler().getNext(numTriples);
+    FieldElementVector rightFactors = resourcePool.getLocalSampler().getNextVector(numTriples);
     // compute product groups
-    List<FieldElement> productGroups = multiply(leftFactorGroups, rightFactors);
-    // combine into unauthenticated triples
-    List<UnauthenticatedTriple> unauthTriples =
-        toUnauthenticatedTriple(leftFactorGroups, rightFactors, productGroups);
+    FieldElementVector productGroups = multiply(leftFactorGroups, rightFactors);
     // combine unauthenticated triples into unauthenticated triple candidates
-    List<UnauthenticatedCandidate> candidates = combine(unauthTriples);
+    FieldElementVector candidates = combine(leftFactorGroups, rightFactors, productGroups);
     // use el-gen to input candidates and combine them to the authenticated candidates
     List<AuthenticatedCandidate> authenticated = authenticate(candidates);
     // for each candidate, run sacrifice and get valid triple
@@ -117,17 +114,16 @@ public class TripleGeneration {
    * @param rightFactors the right factors going into product evaluation.
    * @return unauthenticated product shares
    */
-  List<FieldElement> multiply(List<FieldElement> leftFactorGroups,
-      List<FieldElement> rightFactors) {
+  FieldElementVector multiply(FieldElementVector leftFactorGroups,
+      FieldElementVector rightFactors) {
     // step 1 of protocol occurred before this method
     // "stretch" right factors, so we have one right factor for each left factor
-    List<FieldElement> stretched =
-        fieldElementUtils
-            .stretch(rightFactors, resourcePool.getNumCandidatesPerTriple());
+    FieldElementVector stretched =
+        rightFactors.stretch(resourcePool.getNumCandidatesPerTriple());
 
     // step 2 of protocol
     // for each value we will have two sub-factors for each other party
-    List<List<FieldElement>> subFactors = new ArrayList<>();
+    List<FieldElementVector> subFactors = new ArrayList<>();
     for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
       if (partyId != resourcePool.getMyId()) {
         MultiplyLeft leftMult = leftMultipliers.get(partyId);
@@ -144,46 +140,45 @@ public class TripleGeneration {
 
     // step 3 or protocol
     // own part of the product
-    List<FieldElement> localSubFactors =
-        fieldElementUtils.pairWiseMultiply(leftFactorGroups, stretched);
+    FieldElementVector localSubFactors =
+        leftFactorGroups.multiply(stretched, resourcePool.getComputePool());
     subFactors.add(localSubFactors);
 
     // combine all sub-factors into product shares
-    return Addable.sumRows(subFactors);
+    return FieldElementVector.sumRows(subFactors);
   }
 
   /**
-   * Implements batched version of Combine sub-protocol of Protocol 4.
+   * Implements batched version of Combine sub-protocol of Protocol 4. Each unauthenticated triple
+   * candidate (<i>a</i>, <i>b</i>, <i>c</i>, <i>a'</i>, <i>c'</i>) is five consecutive entries of
+   * the result.
    */
-  private List<UnauthenticatedCandidate> combine(List<UnauthenticatedTriple> triples) {
+  private FieldElementVector combine(FieldElementVector leftFactorGroups,
+      FieldElementVector rightFactors, FieldElementVector productGroups) {
     // step 1 of protocol
-    int numTriples = triples.size();
+    int numTriples = rightFactors.size();
+    int groupSize = resourcePool.getNumCandidatesPerTriple();
 
-    List<List<FieldElement>> masks = jointSampler
-        .getNext(numTriples, resourcePool.getNumCandidatesPerTriple());
+    FieldElementVector masks = jointSampler.getNextVector(numTriples * groupSize);
 
-    List<List<FieldElement>> sacrificeMasks = jointSampler
-        .getNext(numTriples, resourcePool.getNumCandidatesPerTriple());
+    FieldElementVector sacrificeMasks = jointSampler.getNextVector(numTriples * groupSize);
 
     // step 2 of protocol
-    return IntStream.range(0, numTriples)
-        .mapToObj(idx -> {
-          UnauthenticatedTriple triple = triples.get(idx);
-          List<FieldElement> m = masks.get(idx);
-          List<FieldElement> ms = sacrificeMasks.get(idx);
-          return triple.toCandidate(m, ms);
-        })
-        .collect(Collectors.toList());
+    ForkJoinPool pool = resourcePool.getComputePool();
+    FieldElementVector left = leftFactorGroups.groupedInnerProducts(masks, groupSize, pool);
+    FieldElementVector prod = productGroups.groupedInnerProducts(masks, groupSize, pool);
+    FieldElementVector leftSac =
+        leftFactorGroups.groupedInnerProducts(sacrificeMasks, groupSize, pool);
+    FieldElementVector prodSac =
+        productGroups.groupedInnerProducts(sacrificeMasks, groupSize, pool);
+    return FieldElementVector.interleave(
+        Arrays.asList(left, rightFactors, prod, leftSac, prodSac));
   }
 
   /**
    * Implements batched version of Authenticate sub-protocol of Protocol 4.
    */
-  private List<AuthenticatedCandidate> authenticate(List<UnauthenticatedCandidate> candidates) {
-    List<FieldElement> flatInputs = candidates.parallelStream()
-        .flatMap(TripleCandidate::stream)
-        .collect(Collectors.toList());
-
+  private List<AuthenticatedCandidate> authenticate(FieldElementVector flatInputs) {
     List<List<AuthenticatedElement>> shares = new ArrayList<>();
     for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
       if (partyId == resourcePool.getMyId()) {
@@ -193,7 +188,13 @@ public class TripleGeneration {
       }
     }
 
-    List<AuthenticatedElement> combined = Addable.sumRows(shares);
+    List<AuthenticatedElement> combined = fieldElementUtils.parallelMap(flatInputs.size(), idx -> {
+      AuthenticatedElement sum = shares.get(0).get(idx);
+      for (int i = 1; i < shares.size(); i++) {
+        sum = sum.add(shares.get(i).get(idx));
+      }
+      return sum;
+    });
     return toAuthenticatedCandidate(combined, 5);
   }
 
@@ -229,91 +230,38 @@ public class TripleGeneration {
     return toMultTriples(candidates);
   }
 
-  private List<UnauthenticatedTriple> toUnauthenticatedTriple(List<FieldElement> left,
-      List<FieldElement> right,
-      List<FieldElement> products) {
-    Stream<UnauthenticatedTriple> stream = IntStream.range(0, right.size()).mapToObj(idx -> {
-      int groupStart = idx * resourcePool.getNumCandidatesPerTriple();
-      int groupEnd = (idx + 1) * resourcePool.getNumCandidatesPerTriple();
-      return new UnauthenticatedTriple(left.subList(groupStart, groupEnd), right.get(idx),
-          products.subList(groupStart, groupEnd));
-    });
-    return stream.collect(Collectors.toList());
-  }
-
   private List<AuthenticatedCandidate> toAuthenticatedCandidate(List<AuthenticatedElement> list,
       int partSize) {
     int numParts = list.size() / partSize;
-    return IntStream.range(0, numParts).mapToObj(idx -> {
+    return fieldElementUtils.parallelMap(numParts, idx -> {
       List<AuthenticatedElement> batch = list.subList(idx * partSize, (idx + 1) * partSize);
       return new AuthenticatedCandidate(batch);
-    }).collect(Collectors.toList());
+    });
   }
 
   private List<AuthenticatedElement> computeRhos(List<AuthenticatedCandidate> candidates,
       List<FieldElement> masks) {
-    return IntStream.range(0, candidates.size()).mapToObj(idx -> {
+    return fieldElementUtils.parallelMap(candidates.size(), idx -> {
       AuthenticatedCandidate cand = candidates.get(idx);
       FieldElement mask = masks.get(idx);
       return cand.computeRho(mask);
-    }).collect(Collectors.toList());
+    });
   }
 
   private List<AuthenticatedElement> computeSigmas(List<AuthenticatedCandidate> candidates,
       List<FieldElement> masks,
       List<FieldElement> openRhos) {
-    return IntStream.range(0, candidates.size()).mapToObj(idx -> {
+    return fieldElementUtils.parallelMap(candidates.size(), idx -> {
       AuthenticatedCandidate cand = candidates.get(idx);
       FieldElement mask = masks.get(idx);
       FieldElement openRho = openRhos.get(idx);
       return cand.computeSigma(openRho, mask);
-    }).collect(Collectors.toList());
+    });
   }
 
   private List<MultiplicationTriple> toMultTriples(List<AuthenticatedCandidate> candidates) {
-    return candidates.stream().map(AuthenticatedCandidate::toTriple).collect(Collectors.toList());
-  }
-
-  /**
-   * Represents single unauthenticated multiplication triple. <p>Contains a single left factor group
-   * <b>a</b>, single right factor <i>b</i>, and product group <b>c</b>. An unauthenticated triple
-   * will go into the Combine sub-protocol of Protocol 4.</p>
-   */
-  private final class UnauthenticatedTriple {
-
-    private final List<FieldElement> leftFactors;
-    private final FieldElement rightFactor;
-    private final List<FieldElement> product;
-
-    UnauthenticatedTriple(List<FieldElement> leftFactors, FieldElement rightFactor,
-        List<FieldElement> product) {
-      super();
-      this.leftFactors = leftFactors;
-      this.rightFactor = rightFactor;
-      this.product = product;
-    }
-
-    UnauthenticatedCandidate toCandidate(List<FieldElement> masks,
-        List<FieldElement> sacrificeMasks) {
-      FieldElement left = fieldElementUtils.innerProduct(leftFactors, masks);
-      FieldElement prod = fieldElementUtils.innerProduct(product, masks);
-      FieldElement leftSac = fieldElementUtils.innerProduct(leftFactors, sacrificeMasks);
-      FieldElement prodSac = fieldElementUtils.innerProduct(product, sacrificeMasks);
-      return new UnauthenticatedCandidate(left, rightFactor, prod, leftSac, prodSac);
-    }
-  }
-
-  /**
-   * Represents single unauthenticated triple candidate (<i>a</i>, <i>b</i>, <i>c</i>, <i>a'</i>,
-   * <i>c'</i>). <p>An unauthenticated triple candidate is the input to the authentication
-   * sub-protocol of Protocol 4.</p>
-   */
-  private final class UnauthenticatedCandidate extends TripleCandidate<FieldElement> {
-
-    UnauthenticatedCandidate(FieldElement leftFactor, FieldElement rightFactor,
-        FieldElement product, FieldElement leftFactorHat, FieldElement productHat) {
-      super(leftFactor, rightFactor, product, leftFactorHat, productHat);
-    }
+    return fieldElementUtils.parallelMap(candidates.size(),
+        idx -> candidates.get(idx).toTriple());
   }
 
   /**
@@ -359,9 +307,5 @@ public class TripleGeneration {
     TripleCandidate(List<T> ordered) {
       this(ordered.get(0), ordered.get(1), ordered.get(2), ordered.get(3), ordered.get(4));
     }
-
-    Stream<T> stream() {
-      return Stream.of(leftFactor, rightFactor, product, leftFactorHat, productHat);
-    }
   }
 }
@@ -0,0 +1,135 @@
+package dk.alexandra.fresco.tools.mascot;
+
+import dk.alexandra.fresco.framework.Party;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkConfigurationImpl;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Measures how MASCOT triple generation scales with the size of the compute pool ({@link
+ * MascotResourcePool#getComputePool()}). For 2 and 3 parties and for each pool size from 1 up to
+ * the given number of cores, all parties are run in this process, connected over loopback, and
+ * the time to generate batches of triples is reported.
+ *
+ * <p>Usage: {@code MascotScalingDemo [maxCores] [numTriples] [numIts]}. Note that all parties share
+ * the cores of the machine, so each party should be given at most its share of the cores.</p>
+ */
+public class MascotScalingDemo {
+
+  private static final int BASE_PORT = 9005;
+  private final MascotSecurityParameters parameters = new MascotSecurityParameters();
+  private final FieldDefinition fieldDefinition =
+      new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(128));
+  private int nextPort = BASE_PORT;
+
+  private long run(int noOfParties, int cores, int numTriples, int numIts) {
+    Map<Integer, Party> parties = new HashMap<>();
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      parties.put(partyId, new Party(partyId, "localhost", nextPort++));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(noOfParties);
+    try {
+      List<Future<Long>> results = new ArrayList<>(noOfParties);
+      for (int myId = 1; myId <= noOfParties; myId++) {
+        NetworkConfiguration conf = new NetworkConfigurationImpl(myId, parties);
+        results.add(executor.submit(() -> runParty(conf, cores, numTriples, numIts)));
+      }
+      long slowest = 0;
+      for (Future<Long> result : results) {
+        slowest = Math.max(slowest, ExceptionConverter.safe(result::get, "Party failed"));
+      }
+      return slowest;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long runParty(NetworkConfiguration conf, int cores, int numTriples, int numIts) {
+    ForkJoinPool computePool = new ForkJoinPool(cores);
+    SocketNetwork network = new SocketNetwork(conf);
+    try {
+      MascotResourcePool resourcePool =
+          resourcePool(conf.getMyId(), conf.noOfParties(), network, computePool);
+      FieldElement macKeyShare = resourcePool.getLocalSampler().getNext();
+      Mascot mascot = new Mascot(resourcePool, network, macKeyShare);
+      // warm up
+      mascot.getTriples(numTriples);
+      long startTime = System.currentTimeMillis();
+      for (int i = 0; i < numIts; i++) {
+        mascot.getTriples(numTriples);
+      }
+      return System.currentTimeMillis() - startTime;
+    } finally {
+      network.close();
+      computePool.shutdown();
+    }
+  }
+
+  private MascotResourcePool resourcePool(int myId, int noOfParties, SocketNetwork network,
+      ForkJoinPool computePool) {
+    // the seed OTs are not what is measured, so insecure dummy OTs are fine here
+    byte[] drbgSeed = new byte[parameters.getPrgSeedLength() / 8];
+    drbgSeed[0] = (byte) myId;
+    Drbg drbg = AesCtrDrbgFactory.fromDerivedSeed(drbgSeed);
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    for (int otherId = 1; otherId <= noOfParties; otherId++) {
+      if (myId != otherId) {
+        Ot ot = new DummyOt(otherId, network);
+        RotList currentSeedOts = new RotList(drbg, parameters.getPrgSeedLength());
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    int instanceId = 1;
+    return new MascotResourcePoolImpl(myId, noOfParties, instanceId, drbg, seedOts, parameters,
+        fieldDefinition, computePool);
+  }
+
+  /**
+   * Runs demo.
+   */
+  public static void main(String[] args) {
+    int maxCores = args.length > 0 ? Integer.parseInt(args[0])
+        : Runtime.getRuntime().availableProcessors();
+    int numTriples = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+    int numIts = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+    MascotScalingDemo demo = new MascotScalingDemo();
+    for (int noOfParties = 2; noOfParties <= 3; noOfParties++) {
+      long baseline = 0;
+      for (int cores = 1; cores <= maxCores; cores++) {
+        long total = demo.run(noOfParties, cores, numTriples, numIts);
+        if (cores == 1) {
+          baseline = total;
+        }
+        System.out.println(String.format(
+            "%d parties, %d cores: %d triples in %d ms (%.0f triples/s, speed-up %.2f)",
+            noOfParties, cores, numIts * numTriples, total,
+            1000.0 * numIts * numTriples / Math.max(1, total), (double) baseline / total));
+      }
+    }
+  }
+}
@@ -6,6 +6,7 @@ import dk.alexandra.fresco.tools.mascot.MascotSecurityParameters;
 import dk.alexandra.fresco.tools.mascot.MascotTestContext;
 import dk.alexandra.fresco.tools.mascot.MascotTestUtils;
 import dk.alexandra.fresco.tools.mascot.NetworkedTest;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -20,13 +21,13 @@ public class TestCope extends NetworkedTest {
       FieldElement macKeyShare, int numExtends) {
     CopeSigner signer =
         new CopeSigner(ctx.getResourcePool(), ctx.getNetwork(), otherId, macKeyShare);
-    return signer.extend(numExtends);
+    return signer.extend(numExtends).asList();
   }
 
   private List<FieldElement> runInputter(MascotTestContext ctx, Integer otherId,
       List<FieldElement> inputs) {
     CopeInputter inputter = new CopeInputter(ctx.getResourcePool(), ctx.getNetwork(), otherId);
-    return inputter.extend(inputs);
+    return inputter.extend(FieldElementVector.of(getFieldDefinition(), inputs)).asList();
   }
 
   @Test
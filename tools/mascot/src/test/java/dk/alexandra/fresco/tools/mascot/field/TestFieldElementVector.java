@@ -0,0 +1,235 @@
+package dk.alexandra.fresco.tools.mascot.field;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.DrngImpl;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.mascot.CustomAsserts;
+import dk.alexandra.fresco.tools.mascot.MascotTestUtils;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFieldElementVector {
+
+  private final BigInteger modulus = new BigInteger("65521");
+  private final BigIntegerFieldDefinition definition = new BigIntegerFieldDefinition(modulus);
+  private final FieldElementVector left = vector(1, 2, 3, 4);
+  private final FieldElementVector right = vector(5, 6, 7, 8);
+
+  private FieldElementVector vector(int... values) {
+    return FieldElementVector.of(definition, list(values));
+  }
+
+  private List<FieldElement> list(int... values) {
+    return MascotTestUtils.generateSingleRow(values, definition);
+  }
+
+  @Test
+  public void testAdd() {
+    CustomAsserts.assertEquals(definition, list(6, 8, 10, 12), left.add(right).asList());
+  }
+
+  @Test
+  public void testMultiply() {
+    CustomAsserts.assertEquals(definition, list(5, 12, 21, 32), left.multiply(right).asList());
+  }
+
+  @Test
+  public void testScale() {
+    CustomAsserts.assertEquals(definition, list(2, 4, 6, 8),
+        left.scale(definition.createElement(2)).asList());
+  }
+
+  @Test
+  public void testInnerProduct() {
+    CustomAsserts.assertEquals(definition, definition.createElement(70),
+        left.innerProduct(right));
+  }
+
+  @Test
+  public void testGroupedInnerProducts() {
+    CustomAsserts.assertEquals(definition, list(17, 53),
+        left.groupedInnerProducts(right, 2).asList());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGroupedInnerProductsBadGroupSize() {
+    left.groupedInnerProducts(right, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLengthMismatch() {
+    left.multiply(vector(1, 2));
+  }
+
+  @Test
+  public void testSubtract() {
+    CustomAsserts.assertEquals(definition, list(4, 4, 4, 4), right.subtract(left).asList());
+    CustomAsserts.assertEquals(definition, list(65517, 65517, 65517, 65517),
+        left.subtract(right).asList());
+  }
+
+  @Test
+  public void testNegate() {
+    CustomAsserts.assertEquals(definition, list(0, 65520, 65519),
+        vector(0, 1, 2).negate().asList());
+  }
+
+  @Test
+  public void testRecombine() {
+    // 1 + 2 * 2 and 3 + 2 * 4
+    CustomAsserts.assertEquals(definition, list(5, 11), left.recombine(2, null).asList());
+    CustomAsserts.assertEquals(definition, list(1 + 2 * 2 + 4 * 3 + 8 * 4),
+        left.recombine(4, null).asList());
+  }
+
+  @Test
+  public void testSelectByBits() {
+    // bits of 5 are 1, 0, 1 and bits of 2 are 0, 1, 0
+    FieldElementVector selected =
+        vector(1, 2, 3, 4, 5, 6).selectByBits(vector(5, 2), 3);
+    CustomAsserts.assertEquals(definition, list(1, 0, 3, 0, 5, 0), selected.asList());
+  }
+
+  @Test
+  public void testInterleave() {
+    FieldElementVector interleaved = FieldElementVector.interleave(Arrays.asList(left, right));
+    CustomAsserts.assertEquals(definition, list(1, 5, 2, 6, 3, 7, 4, 8),
+        interleaved.asList());
+  }
+
+  @Test
+  public void testConcatAndTruncate() {
+    FieldElementVector concatenated = left.concat(right);
+    CustomAsserts.assertEquals(definition, list(1, 2, 3, 4, 5, 6, 7, 8),
+        concatenated.asList());
+    CustomAsserts.assertEquals(definition, left.asList(), concatenated.truncate(4).asList());
+  }
+
+  @Test
+  public void testReverse() {
+    CustomAsserts.assertEquals(definition, list(4, 3, 2, 1), left.reverse().asList());
+  }
+
+  @Test
+  public void testFromBitsReduces() {
+    // 65535 is reduced to 14
+    StrictBitVector bits = new StrictBitVector(new byte[]{(byte) 0xFF, (byte) 0xFF});
+    CustomAsserts.assertEquals(definition, list(14),
+        FieldElementVector.fromBits(definition, Collections.singletonList(bits)).asList());
+  }
+
+  @Test
+  public void testSampleMatchesDrng() {
+    Drbg first = new AesCtrDrbg(new byte[32]);
+    Drbg second = new AesCtrDrbg(new byte[32]);
+    DrngImpl drng = new DrngImpl(first);
+    FieldElementVector sampled = FieldElementVector.sample(definition, second, 100);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(drng.nextBigInteger(modulus), sampled.get(i).toBigInteger());
+    }
+  }
+
+  @Test
+  public void testMultipleLimbsMatchBigInteger() {
+    for (int bitLength : new int[]{64, 128, 136, 192, 256}) {
+      BigInteger prime = ModulusFinder.findSuitableModulus(bitLength);
+      BigIntegerFieldDefinition wide = new BigIntegerFieldDefinition(prime);
+      Random random = new Random(bitLength);
+      List<FieldElement> first = new ArrayList<>();
+      List<FieldElement> second = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+        first.add(wide.createElement(new BigInteger(bitLength, random).mod(prime)));
+        second.add(wide.createElement(new BigInteger(bitLength, random).mod(prime)));
+      }
+      // include the extreme values
+      first.set(0, wide.createElement(prime.subtract(BigInteger.ONE)));
+      second.set(0, wide.createElement(prime.subtract(BigInteger.ONE)));
+      first.set(1, wide.createElement(0));
+      FieldElementVector firstVector = FieldElementVector.of(wide, first);
+      FieldElementVector secondVector = FieldElementVector.of(wide, second);
+      List<FieldElement> sums = firstVector.add(secondVector).asList();
+      List<FieldElement> differences = firstVector.subtract(secondVector).asList();
+      List<FieldElement> products = firstVector.multiply(secondVector).asList();
+      List<FieldElement> scaled = firstVector.scale(second.get(2)).asList();
+      FieldElement innerProduct = wide.createElement(0);
+      for (int i = 0; i < first.size(); i++) {
+        CustomAsserts.assertEquals(wide, first.get(i).add(second.get(i)), sums.get(i));
+        CustomAsserts.assertEquals(wide, first.get(i).subtract(second.get(i)),
+            differences.get(i));
+        CustomAsserts.assertEquals(wide, first.get(i).multiply(second.get(i)), products.get(i));
+        CustomAsserts.assertEquals(wide, first.get(i).multiply(second.get(2)), scaled.get(i));
+        innerProduct = innerProduct.add(first.get(i).multiply(second.get(i)));
+      }
+      CustomAsserts.assertEquals(wide, innerProduct, firstVector.innerProduct(secondVector));
+      byte[] bytes = firstVector.serialize();
+      Assert.assertArrayEquals(wide.serialize(first), bytes);
+      CustomAsserts.assertEquals(wide, first,
+          FieldElementVector.deserialize(wide, bytes).asList());
+    }
+  }
+
+  @Test
+  public void testStretch() {
+    CustomAsserts.assertEquals(definition, list(1, 1, 2, 2, 3, 3, 4, 4),
+        left.stretch(2).asList());
+  }
+
+  @Test
+  public void testSumRows() {
+    FieldElementVector sum = FieldElementVector.sumRows(Arrays.asList(left, right, left));
+    CustomAsserts.assertEquals(definition, list(7, 10, 13, 16), sum.asList());
+  }
+
+  @Test
+  public void testSerialize() {
+    byte[] bytes = left.serialize();
+    CustomAsserts.assertEquals(definition, definition.deserializeList(bytes), left.asList());
+    CustomAsserts.assertEquals(definition, left.asList(),
+        FieldElementVector.deserialize(definition, bytes).asList());
+  }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      int size = 10 * FieldElementUtils.PARALLEL_THRESHOLD;
+      FieldElement[] values = new FieldElement[size];
+      FieldElement[] coefficients = new FieldElement[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = definition.createElement(i * 17 + 1);
+        coefficients[i] = definition.createElement(i * 31 + 5);
+      }
+      FieldElementVector first = FieldElementVector.of(definition, Arrays.asList(values));
+      FieldElementVector second = FieldElementVector.of(definition, Arrays.asList(coefficients));
+      CustomAsserts.assertEquals(definition, first.add(second).asList(),
+          first.add(second, pool).asList());
+      CustomAsserts.assertEquals(definition, first.multiply(second).asList(),
+          first.multiply(second, pool).asList());
+      CustomAsserts.assertEquals(definition, first.scale(definition.createElement(3)).asList(),
+          first.scale(definition.createElement(3), pool).asList());
+      // there are enough groups of two to compute them in parallel
+      CustomAsserts.assertEquals(definition, first.groupedInnerProducts(second, 2).asList(),
+          first.groupedInnerProducts(second, 2, pool).asList());
+      CustomAsserts.assertEquals(definition, first.recombine(2, null).asList(),
+          first.recombine(2, pool).asList());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testListViewReadOnly() {
+    left.asList().set(0, definition.createElement(0));
+  }
+}
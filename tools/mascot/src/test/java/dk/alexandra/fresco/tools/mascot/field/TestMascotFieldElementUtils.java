@@ -5,8 +5,10 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.tools.mascot.CustomAsserts;
 import dk.alexandra.fresco.tools.mascot.MascotTestUtils;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Test;
 
 public class TestMascotFieldElementUtils {
@@ -91,4 +93,30 @@ public class TestMascotFieldElementUtils {
     List<FieldElement> actual = fieldElementUtils.padWith(left, pad, 2);
     CustomAsserts.assertEquals(definition, expected, actual);
   }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      FieldElementUtils parallel = new FieldElementUtils(definition, pool);
+      int size = 10 * FieldElementUtils.PARALLEL_THRESHOLD + 3;
+      List<FieldElement> values = new ArrayList<>(size);
+      List<FieldElement> coefficients = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(definition.createElement(i * 17 + 1));
+        coefficients.add(definition.createElement(i * 31 + 5));
+      }
+      CustomAsserts.assertEquals(definition,
+          fieldElementUtils.innerProduct(values, coefficients),
+          parallel.innerProduct(values, coefficients));
+      CustomAsserts.assertEquals(definition,
+          fieldElementUtils.pairWiseMultiply(values, coefficients),
+          parallel.pairWiseMultiply(values, coefficients));
+      CustomAsserts.assertEquals(definition,
+          fieldElementUtils.scalarMultiply(values, definition.createElement(3)),
+          parallel.scalarMultiply(values, definition.createElement(3)));
+    } finally {
+      pool.shutdown();
+    }
+  }
 }
@@ -9,6 +9,7 @@ import dk.alexandra.fresco.tools.mascot.MascotTestContext;
 import dk.alexandra.fresco.tools.mascot.MascotTestUtils;
 import dk.alexandra.fresco.tools.mascot.NetworkedTest;
 import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
+import dk.alexandra.fresco.tools.mascot.field.FieldElementVector;
 import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
@@ -31,7 +32,8 @@ public class TestTripleGeneration extends NetworkedTest {
       List<FieldElement> leftFactorGroups, List<FieldElement> rightFactors) {
     TripleGeneration tripleGen = new TripleGeneration(ctx.getResourcePool(), ctx.getNetwork(),
         getJointPrg(ctx.getPrgSeedLength()), macKeyShare);
-    return tripleGen.multiply(leftFactorGroups, rightFactors);
+    return tripleGen.multiply(FieldElementVector.of(getFieldDefinition(), leftFactorGroups),
+        FieldElementVector.of(getFieldDefinition(), rightFactors)).asList();
   }
 
   private List<MultiplicationTriple> runSinglePartyTriple(MascotTestContext ctx,
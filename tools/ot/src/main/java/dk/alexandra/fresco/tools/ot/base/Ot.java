@@ -1,6 +1,9 @@
 package dk.alexandra.fresco.tools.ot.base;
 
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Oblivious Transfer interface for 1-out-of-2 oblivious transfer. That is, the sending party inputs
@@ -30,4 +33,33 @@ public interface Ot {
    * @return The message indicated by the choice bit
    */
   StrictBitVector receive(boolean choiceBit);
+
+  /**
+   * Send the messages of a batch of 1-out-of-2 OTs. Implementations may override this to do the
+   * whole batch in fewer rounds than one OT at a time.
+   *
+   * @param messages
+   *          Pairs of message zero and message one to send
+   */
+  default void sendBatch(List<Pair<StrictBitVector, StrictBitVector>> messages) {
+    for (Pair<StrictBitVector, StrictBitVector> message : messages) {
+      send(message.getFirst(), message.getSecond());
+    }
+  }
+
+  /**
+   * Receive one-out-of-two messages from each of a batch of OTs.
+   *
+   * @param choices
+   *          Bits indicating which message to receive, where the choice of the i'th OT is
+   *          <code>choices.getBit(i, false)</code>
+   * @return The messages indicated by the choice bits
+   */
+  default List<StrictBitVector> receiveBatch(StrictBitVector choices) {
+    List<StrictBitVector> messages = new ArrayList<>(choices.getSize());
+    for (int i = 0; i < choices.getSize(); i++) {
+      messages.add(receive(choices.getBit(i, false)));
+    }
+    return messages;
+  }
 }
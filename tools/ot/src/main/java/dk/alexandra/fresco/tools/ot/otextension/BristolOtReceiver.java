@@ -2,8 +2,10 @@ package dk.alexandra.fresco.tools.ot.otextension;
 
 import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.ByteArrayHelper;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
-
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -11,7 +13,8 @@ import java.util.List;
  * functionality works by doing a batch of random OTs the first time the receive
  * command is called and storing these results internally. When it runs out, it
  * automatically processes a new batch. These random OTs are adjusted to work as
- * chosen bit/message 1-out-of-2 OTs.
+ * chosen bit/message 1-out-of-2 OTs, either one at a time or a batch at a
+ * time.
  */
 public class BristolOtReceiver {
   private final RotReceiver receiver;
@@ -55,22 +58,74 @@ public class BristolOtReceiver {
    * @return The serialized message from the OT
    */
   public byte[] receive(boolean choiceBit) {
-    // Check if there is still an unused random OT stored, if not, execute a
-    // random OT extension
-    if (offset < 0 || offset >= batchSize) {
-      choices = new StrictBitVector(batchSize, resources.getRandomGenerator());
-      randomMessages = receiver.extend(choices);
-      offset = 0;
+    return receiveBatch(new boolean[] { choiceBit }).get(0);
+  }
+
+  /**
+   * Receive the serialized messages from a batch of 1-out-of-2 OTs. The
+   * random OTs are adjusted to the choices for the whole batch using one
+   * message to the sender and one message back.
+   *
+   * @param choices
+   *          The choice-bits, where the choice of the i'th OT is
+   *          <code>choices.getBit(i, false)</code>. False for message 0, true
+   *          for message 1.
+   * @return The serialized messages from the OTs
+   */
+  public List<byte[]> receiveBatch(StrictBitVector choices) {
+    boolean[] choiceBits = new boolean[choices.getSize()];
+    for (int i = 0; i < choiceBits.length; i++) {
+      choiceBits[i] = choices.getBit(i, false);
+    }
+    return receiveBatch(choiceBits);
+  }
+
+  private List<byte[]> receiveBatch(boolean[] choiceBits) {
+    int size = choiceBits.length;
+    if (size == 0) {
+      return new ArrayList<>();
+    }
+    boolean[] randomChoices = new boolean[size];
+    List<StrictBitVector> randomMessageList = new ArrayList<>(size);
+    // Bits indicating whether the sender should switch the 0 and 1 messages
+    // around (s.t. the random choice bit in the preprocessed random OTs
+    // matches the true choice bit)
+    byte[] switchBits = new byte[(size + Byte.SIZE - 1) / Byte.SIZE];
+    for (int i = 0; i < size; i++) {
+      // Check if there is still an unused random OT stored, if not, execute a
+      // random OT extension
+      if (offset < 0 || offset >= batchSize) {
+        choices = new StrictBitVector(batchSize, resources.getRandomGenerator());
+        randomMessages = receiver.extend(choices);
+        offset = 0;
+      }
+      randomChoices[i] = choices.getBit(offset, false);
+      randomMessageList.add(randomMessages.get(offset));
+      ByteArrayHelper.setBit(switchBits, i, choiceBits[i] ^ randomChoices[i]);
+      offset++;
+    }
+    network.send(resources.getOtherId(), switchBits);
+    // Receive the serialized adjusted messages of the whole batch
+    ByteBuffer adjustments = ByteBuffer.wrap(network.receive(resources.getOtherId()));
+    List<byte[]> res = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      if (adjustments.remaining() < Integer.BYTES) {
+        throw new MaliciousException("Sender gave too few adjustment messages.");
+      }
+      int length = adjustments.getInt();
+      if (length < 0 || adjustments.remaining() < 2 * (long) length) {
+        throw new MaliciousException("Sender gave too few adjustment messages.");
+      }
+      byte[] zeroAdjustment = new byte[length];
+      adjustments.get(zeroAdjustment);
+      byte[] oneAdjustment = new byte[length];
+      adjustments.get(oneAdjustment);
+      res.add(doActualReceive(randomChoices[i], randomMessageList.get(i), zeroAdjustment,
+          oneAdjustment));
+    }
+    if (adjustments.hasRemaining()) {
+      throw new MaliciousException("Sender gave too many adjustment messages.");
     }
-    // Notify the sender if it should switch the 0 and 1 messages around (s.t.
-    // the random choice bit in the preprocessed random OTs matches the true
-    // choice bit
-    sendSwitchBit(choiceBit);
-    // Receive the serialized adjusted messages
-    byte[] zeroAdjustment = network.receive(resources.getOtherId());
-    byte[] oneAdjustment = network.receive(resources.getOtherId());
-    byte[] res = doActualReceive(zeroAdjustment, oneAdjustment);
-    offset++;
     return res;
   }
 
@@ -78,41 +133,28 @@ public class BristolOtReceiver {
    * Adjust the random, preprocessed message, to fit the specific message sent
    * by the sender.
    *
+   * @param randomChoice
+   *          The choice-bit of the random OT
+   * @param randomMessage
+   *          The message received in the random OT
    * @param zeroAdjustment
    *          The adjustment value for the zero message
    * @param oneAdjustment
    *          The adjustment value for the one message
    * @return The actual message
    */
-  private byte[] doActualReceive(byte[] zeroAdjustment, byte[] oneAdjustment) {
+  private byte[] doActualReceive(boolean randomChoice, StrictBitVector randomMessage,
+      byte[] zeroAdjustment, byte[] oneAdjustment) {
     if (zeroAdjustment.length != oneAdjustment.length) {
       throw new MaliciousException(
           "Sender gave adjustment messages of different length.");
     }
     byte[] adjustment;
-    if (choices.getBit(offset, false) == false) {
+    if (randomChoice == false) {
       adjustment = zeroAdjustment;
     } else {
       adjustment = oneAdjustment;
     }
-    return PseudoOtp.decrypt(adjustment, randomMessages.get(offset).toByteArray());
-  }
-
-  /**
-   * Compute and send a bit indicating whether the sender should switch the zero
-   * and one message around.
-   *
-   * @param choiceBit
-   *          The actual choice bit of the receiver
-   */
-  private void sendSwitchBit(boolean choiceBit) {
-    // Since we can only send a byte array we use 0x00 to indicate a 0-choice
-    // and 0x01 to indicate a 1-choice
-    byte[] switchBit = new byte[] { 0x00 };
-    // Set the choice to 0x01 if the sender should switch the 0 and 1 messages
-    if (choiceBit ^ choices.getBit(offset, false) == true) {
-      switchBit[0] = 0x01;
-    }
-    network.send(resources.getOtherId(), switchBit);
+    return PseudoOtp.decrypt(adjustment, randomMessage.toByteArray());
   }
 }
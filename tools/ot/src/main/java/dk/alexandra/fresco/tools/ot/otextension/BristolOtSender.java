@@ -1,15 +1,21 @@
 package dk.alexandra.fresco.tools.ot.otextension;
 
+import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.ByteArrayHelper;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Protocol class for the party acting as the sender in an OT extension. The functionality works by
  * doing a batch of random OTs the first time the receive command is called and storing these
  * results internally. When it runs out, it automatically processes a new batch. These random OTs
- * are adjusted to work as chosen bit/message 1-out-of-2 OTs.
+ * are adjusted to work as chosen bit/message 1-out-of-2 OTs, either one at a time or a batch at a
+ * time.
  */
 public class BristolOtSender {
   private final RotSender sender;
@@ -46,41 +52,75 @@ public class BristolOtSender {
    * @param messageOne The message to send for choice one
    */
   public void send(byte[] messageZero, byte[] messageOne) {
-    // Check if there is still an unused random OT stored, if not, execute a
-    // random OT extension
-    if (offset < 0 || offset >= batchSize) {
-      randomMessages = sender.extend(batchSize);
-      offset = 0;
+    sendBatch(Collections.singletonList(new Pair<>(messageZero, messageOne)));
+  }
+
+  /**
+   * Send the serialized messages of a batch of 1-out-of-2 OTs. The random OTs are adjusted to the
+   * messages for the whole batch using one message from the receiver and one message back.
+   *
+   * @param messages The pairs of messages to send for choice zero and choice one respectively
+   */
+  public void sendBatch(List<Pair<byte[], byte[]>> messages) {
+    int size = messages.size();
+    if (size == 0) {
+      return;
+    }
+    List<StrictBitVector> randomZeros = new ArrayList<>(size);
+    List<StrictBitVector> randomOnes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      // Check if there is still an unused random OT stored, if not, execute a
+      // random OT extension
+      if (offset < 0 || offset >= batchSize) {
+        randomMessages = sender.extend(batchSize);
+        offset = 0;
+      }
+      randomZeros.add(randomMessages.getFirst().get(offset));
+      randomOnes.add(randomMessages.getSecond().get(offset));
+      offset++;
     }
-    doActualSend(messageZero, messageOne);
-    offset++;
+    doActualSend(messages, randomZeros, randomOnes);
   }
 
   /**
-   * Adjust the random, preprocessed message, to fit the specific messages to send.
+   * Adjust the random, preprocessed messages, to fit the specific messages to send.
    *
-   * @param messageZero The actual zero message to send
-   * @param messageOne The actual one message to send
+   * @param messages The actual messages to send
+   * @param randomZeros The random zero messages to use for each OT
+   * @param randomOnes The random one messages to use for each OT
    */
-  private void doActualSend(byte[] messageZero, byte[] messageOne) {
-    // Find the correct preprocessed random OT messages
-    StrictBitVector randomZero = randomMessages.getFirst().get(offset);
-    StrictBitVector randomOne = randomMessages.getSecond().get(offset);
-    int maxLength = Math.max(messageZero.length, messageOne.length);
-    // Receive a bit from the receiver indicating whether the zero and one
-    // messages should be switched around
-    byte[] switchBit = network.receive(resources.getOtherId());
-    // If false (indicated by byte 0x00), then don't switch around
-    if (switchBit[0] == 0x00) {
-      network.send(resources.getOtherId(),
-          PseudoOtp.encrypt(messageZero, randomZero.toByteArray(), maxLength));
-      network.send(resources.getOtherId(),
-          PseudoOtp.encrypt(messageOne, randomOne.toByteArray(), maxLength));
-    } else {
-      network.send(resources.getOtherId(),
-          PseudoOtp.encrypt(messageOne, randomZero.toByteArray(), maxLength));
-      network.send(resources.getOtherId(),
-          PseudoOtp.encrypt(messageZero, randomOne.toByteArray(), maxLength));
+  private void doActualSend(List<Pair<byte[], byte[]>> messages,
+      List<StrictBitVector> randomZeros, List<StrictBitVector> randomOnes) {
+    int size = messages.size();
+    // Receive bits from the receiver indicating whether the zero and one
+    // messages of each OT should be switched around
+    byte[] switchBits = network.receive(resources.getOtherId());
+    if (switchBits.length != (size + Byte.SIZE - 1) / Byte.SIZE) {
+      throw new MaliciousException("Receiver sent switch bits of the wrong length.");
+    }
+    int length = 0;
+    for (Pair<byte[], byte[]> message : messages) {
+      length += Integer.BYTES
+          + 2 * Math.max(message.getFirst().length, message.getSecond().length);
+    }
+    // The adjusted messages are sent as one message, each pair prefixed by its length
+    ByteBuffer adjustments = ByteBuffer.allocate(length);
+    for (int i = 0; i < size; i++) {
+      byte[] messageZero = messages.get(i).getFirst();
+      byte[] messageOne = messages.get(i).getSecond();
+      int maxLength = Math.max(messageZero.length, messageOne.length);
+      byte[] randomZero = randomZeros.get(i).toByteArray();
+      byte[] randomOne = randomOnes.get(i).toByteArray();
+      adjustments.putInt(maxLength);
+      // If the bit is not set, then don't switch around
+      if (!ByteArrayHelper.getBit(switchBits, i)) {
+        adjustments.put(PseudoOtp.encrypt(messageZero, randomZero, maxLength));
+        adjustments.put(PseudoOtp.encrypt(messageOne, randomOne, maxLength));
+      } else {
+        adjustments.put(PseudoOtp.encrypt(messageOne, randomZero, maxLength));
+        adjustments.put(PseudoOtp.encrypt(messageZero, randomOne, maxLength));
+      }
     }
+    network.send(resources.getOtherId(), adjustments.array());
   }
 }
@@ -7,7 +7,6 @@ import dk.alexandra.fresco.framework.util.StrictBitVector;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -44,61 +43,50 @@ public class CoteReceiver extends CoteShared {
    * Constructs a new batch of correlated OTs with errors.
    *
    * @param choices
-   *          The receivers random choices for this extension. This MUST have
-   *          size 2<sup>x</sup> for some x &ge; 3.
+   *          The receivers random choices for this extension. The size MUST
+   *          be divisible by 8.
    * @return A list of pairs consisting of the bit choices, followed by the
    *         received messages
    */
   public List<StrictBitVector> extend(StrictBitVector choices) {
-    if (choices.getSize() < 1) {
-      throw new IllegalArgumentException(
-          "The amount of OTs must be a positive integer");
-    }
-    int bytesNeeded = choices.getSize() / Byte.SIZE;
-    final List<StrictBitVector>  tlistZero = prgs.parallelStream()
-        .limit(resources.getComputationalSecurityParameter())
-        .map(p -> p.getFirst())
-        .map(drbg -> {
-          byte[] byteBuffer = new byte[bytesNeeded];
-          drbg.nextBytes(byteBuffer);
-          return byteBuffer;
-        })
-        .map(StrictBitVector::new)
-        .collect(Collectors.toList());
-    final List<StrictBitVector> ulist = prgs.parallelStream()
-        .limit(resources.getComputationalSecurityParameter())
-        .map(p -> p.getSecond())
-        .map(drbg -> {
-          byte[] byteBuffer = new byte[bytesNeeded];
-          drbg.nextBytes(byteBuffer);
-          return byteBuffer;
-        })
-        .map(StrictBitVector::new)
-        .collect(Collectors.toList());
-    ulist.parallelStream().forEach(u -> u.xor(choices));
-    IntStream.range(0, resources.getComputationalSecurityParameter()).parallel()
-      .forEach(i -> ulist.get(i).xor(tlistZero.get(i)));
-    sendList(ulist);
-    return Transpose.transpose(tlistZero);
+    return Transpose.toRows(extendFlat(choices), choices.getSize(),
+        resources.getComputationalSecurityParameter());
   }
 
-
   /**
-   * Sends a list of StrictBitVectors to the default (0) channel.
+   * Constructs a new batch of correlated OTs with errors, without creating an
+   * object per OT.
    *
-   * @param list
-   *          List to send, where all elements are required to have the same
-   *          length.
+   * @param choices
+   *          The receivers random choices for this extension. The size MUST
+   *          be divisible by 8.
+   * @return the received messages as a matrix in the flat representation of
+   *         {@link Transpose}, with a row of computational security parameter
+   *         bits per OT
    */
-  private void sendList(List<StrictBitVector> list) {
-    // Find the amount of bytes needed for each bitvector in the list
-    int elementLength = list.get(0).getSize() / 8;
-    // Allocate space for all elements in the list.
-    byte[] toSend = new byte[(list.get(0).getSize() / 8) * list.size()];
-    for (int i = 0; i < list.size(); i++) {
-      System.arraycopy(list.get(i).toByteArray(), 0, toSend, i * elementLength,
-          elementLength);
+  public long[] extendFlat(StrictBitVector choices) {
+    if (choices.getSize() < 1) {
+      throw new IllegalArgumentException(
+          "The amount of OTs must be a positive integer");
     }
-    network.send(resources.getOtherId(), toSend);
+    int rows = resources.getComputationalSecurityParameter();
+    int bytesNeeded = choices.getSize() / Byte.SIZE;
+    int rowWords = Transpose.words(choices.getSize());
+    byte[] choiceBytes = choices.toByteArray();
+    long[] tlistZero = new long[rows * rowWords];
+    // The rows of u are sent as one message
+    byte[] ulist = new byte[rows * bytesNeeded];
+    byte[] zeroes = new byte[rows * bytesNeeded];
+    IntStream.range(0, rows).parallel().forEach(i -> {
+      int from = i * bytesNeeded;
+      prgs.get(i).getFirst().nextBytes(zeroes, from, bytesNeeded);
+      prgs.get(i).getSecond().nextBytes(ulist, from, bytesNeeded);
+      for (int j = 0; j < bytesNeeded; j++) {
+        ulist[from + j] ^= choiceBytes[j] ^ zeroes[from + j];
+      }
+      Transpose.packRow(zeroes, from, bytesNeeded, tlistZero, i * rowWords);
+    });
+    network.send(resources.getOtherId(), ulist);
+    return Transpose.transpose(tlistZero, rows, choices.getSize());
   }
 }
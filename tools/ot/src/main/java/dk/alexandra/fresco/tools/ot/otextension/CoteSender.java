@@ -6,7 +6,6 @@ import dk.alexandra.fresco.framework.util.StrictBitVector;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
@@ -55,6 +54,18 @@ public class CoteSender extends CoteShared {
    * @param size Amount of OTs to construct
    */
   public List<StrictBitVector> extend(int size) {
+    return Transpose.toRows(extendFlat(size), size,
+        resources.getComputationalSecurityParameter());
+  }
+
+  /**
+   * Constructs a new batch of correlated OTs with errors, without creating an object per OT.
+   *
+   * @param size Amount of OTs to construct
+   * @return the OTs as a matrix in the flat representation of {@link Transpose}, with a row of
+   *     computational security parameter bits per OT
+   */
+  public long[] extendFlat(int size) {
     if (size < 1) {
       throw new IllegalArgumentException("The amount of OTs must be a positive integer");
     }
@@ -62,39 +73,23 @@ public class CoteSender extends CoteShared {
       throw new IllegalArgumentException(
           "The amount of OTs must be a positive integer divisible by 8");
     }
+    int rows = resources.getComputationalSecurityParameter();
     int bytesNeeded = size / Byte.SIZE;
-    final List<StrictBitVector> tlist = prgs.parallelStream()
-        .limit(resources.getComputationalSecurityParameter())
-        .map(drbg -> {
-          byte[] bytes = new byte[bytesNeeded];
-          drbg.nextBytes(bytes);
-          return bytes;
-        })
-        .map(StrictBitVector::new)
-        .collect(Collectors.toList());
-    final List<StrictBitVector> ulist = receiveList(resources.getComputationalSecurityParameter());
-    IntStream.range(0, resources.getComputationalSecurityParameter()).parallel()
-        .filter(i -> otChoices.getBit(i, false))
-        .forEach(i -> tlist.get(i).xor(ulist.get(i)));
-    return Transpose.transpose(tlist);
-  }
-
-  /**
-   * Receives a list of StrictBitVectors from the default (0) channel.
-   *
-   * @param size Amount of elements in vector to receive. All of which must be of equal size.
-   * @return The list of received elements, or null in case an error occurred.
-   */
-  private List<StrictBitVector> receiveList(int size) {
-    List<StrictBitVector> list = new ArrayList<>(size);
-    byte[] byteBuffer = network.receive(resources.getOtherId());
-    int elementLength = byteBuffer.length / size;
-    for (int i = 0; i < size; i++) {
-      byte[] currentVector = new byte[elementLength];
-      System.arraycopy(byteBuffer, i * elementLength, currentVector, 0, elementLength);
-      StrictBitVector currentArr = new StrictBitVector(currentVector);
-      list.add(currentArr);
-    }
-    return list;
+    int rowWords = Transpose.words(size);
+    byte[] ulist = network.receive(resources.getOtherId());
+    int elementLength = ulist.length / rows;
+    long[] tlist = new long[rows * rowWords];
+    byte[] bytes = new byte[rows * bytesNeeded];
+    IntStream.range(0, rows).parallel().forEach(i -> {
+      int from = i * bytesNeeded;
+      prgs.get(i).nextBytes(bytes, from, bytesNeeded);
+      if (otChoices.getBit(i, false)) {
+        for (int j = 0; j < bytesNeeded; j++) {
+          bytes[from + j] ^= ulist[i * elementLength + j];
+        }
+      }
+      Transpose.packRow(bytes, from, bytesNeeded, tlist, i * rowWords);
+    });
+    return Transpose.transpose(tlist, rows, size);
   }
 }
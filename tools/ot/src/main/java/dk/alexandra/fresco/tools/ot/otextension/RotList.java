@@ -66,9 +66,7 @@ public class RotList {
     if (sent == true) {
       throw new IllegalStateException("Seed OTs have already been sent.");
     }
-    for (Pair<StrictBitVector, StrictBitVector> pair : sendMessages) {
-      ot.send(pair.getFirst(), pair.getSecond());
-    }
+    ot.sendBatch(sendMessages);
     sent = true;
   }
 
@@ -86,10 +84,7 @@ public class RotList {
     if (received == true) {
       throw new IllegalStateException("Seed OTs have already been received.");
     }
-    for (int i = 0; i < amount; i++) {
-      StrictBitVector message = ot.receive(choices.getBit(i, false));
-      learnedMessages.add(message);
-    }
+    learnedMessages.addAll(ot.receiveBatch(choices));
     received = true;
   }
 
@@ -1,131 +1,188 @@
 package dk.alexandra.fresco.tools.ot.otextension;
 
 import dk.alexandra.fresco.framework.util.StrictBitVector;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
- * Class used to do bit transposition using Eklundhs method. Transposition is carried out in on a
- * row-major matrix represented as a list (rows) of bit vectors.
+ * Class used to do bit transposition using Eklundhs method.
+ *
+ * <p>
+ * Matrices are transposed in a flat representation: a row-major <code>long[]</code>, where each
+ * row is padded to a whole number of 64 bit words and the bits of each word are ordered from the
+ * most significant bit, matching the byte order of {@link StrictBitVector}. The matrix is
+ * transposed one 64 x 64 block at a time, where each block is transposed in place using
+ * Eklundh's swaps on whole words, and the blocks are transposed in parallel.
+ * </p>
  */
 public class Transpose {
 
+  private static final int WORD_SIZE = Long.SIZE;
+  private static final int BYTES_PER_WORD = Long.BYTES;
+  // The number of 64 x 64 blocks transposed by each parallel task
+  private static final int BLOCKS_PER_TASK = 64;
+
   private Transpose() {
     // This class is meant to only contain static helper methods.
   }
 
   /**
-   * Transposes, in-place, a matrix represent in row-major as a list of byte arrays.
+   * Transposes a matrix represent in row-major as a list of bit vectors.
    *
    * @param input The matrix to transpose
+   * @return the transposed matrix
    */
   public static List<StrictBitVector> transpose(List<StrictBitVector> input) {
     // Ensure the is correctly formed
     doSanityCheck(input);
-    int minDim = Math.min(input.get(0).getSize(), input.size());
-    int maxDim = Math.max(input.get(0).getSize(), input.size());
-    // Check if the matrix is tall
-    boolean tall = minDim == input.get(0).getSize();
-    int rows = tall ? minDim : maxDim;
-    int columns = tall ? maxDim : minDim;
-    byte[][] res = new byte[rows][columns / Byte.SIZE];
-    // Process all squares of minDim x minDim
-    List<List<byte[]>> squares = IntStream.range(0, maxDim / minDim).parallel()
-        .mapToObj(i -> extractSquare(input, minDim, tall, i)).map(m -> {
-          transposeAllByteBlocks(m);
-          return m;
-        }).map(m -> {
-          doEklundh(m);
-          return m;
-        }).collect(Collectors.toList());
-    IntStream.range(0, maxDim / minDim).parallel()
-        .forEach(i -> insertSquare(res, squares.get(i), minDim, tall, i));
-    return IntStream.range(0, res.length).parallel().mapToObj(i -> res[i]).map(StrictBitVector::new)
-        .collect(Collectors.toList());
+    int rows = input.size();
+    int columns = input.get(0).getSize();
+    long[] matrix = new long[rows * words(columns)];
+    IntStream.range(0, rows).parallel()
+        .forEach(i -> packRow(input.get(i).toByteArray(), matrix, i * words(columns)));
+    return toRows(transpose(matrix, rows, columns), columns, rows);
   }
 
   /**
-   * Given a matrix <i>M</i> where the smallest dimension, <i>m</i>, divides the largest,<i>n</i>,
-   * we can see <i>M</i> as a matrix consisting of a sequence of <i>n/m</i> square sub matrices of
-   * dimension <i>m x m</i>. This takes such a square matrix an inserts it into the larger matrix
-   * at a given position in the sequence.
-   * @param matrix the larger matrix in which to insert a square
-   * @param square the square matrix
-   * @param minDim the smallest dimension of the larger matrix
-   * @param wide if the matrix is wide, i.e., if the first dimension is smaller than the second.
-   * @param i the position in which to insert the square matrix
+   * Transposes a matrix in the flat representation.
+   *
+   * @param matrix the matrix to transpose, with each of the rows taking up {@link #words(int)} of
+   *     the columns words
+   * @param rows the number of rows of the matrix
+   * @param columns the number of columns of the matrix
+   * @return the transposed matrix, with <code>columns</code> rows each taking up {@link
+   *     #words(int)} of the rows words
    */
-  private static void insertSquare(byte[][] matrix, List<byte[]> square, int minDim, boolean wide,
-      int i) {
-    for (int j = 0; j < minDim; j++) {
-      int rowOffset = wide ? 0 : i * minDim;
-      int columnOffset = wide ? i * minDim / Byte.SIZE : 0;
-      System.arraycopy(square.get(j), 0, matrix[j + rowOffset], columnOffset, minDim / Byte.SIZE);
+  public static long[] transpose(long[] matrix, int rows, int columns) {
+    int inputWords = words(columns);
+    int outputWords = words(rows);
+    if (matrix.length < rows * inputWords) {
+      throw new IllegalArgumentException("The matrix does not hold " + rows + " rows of "
+          + columns + " bits");
     }
+    long[] result = new long[columns * outputWords];
+    int blocks = inputWords * outputWords;
+    int tasks = (blocks + BLOCKS_PER_TASK - 1) / BLOCKS_PER_TASK;
+    IntStream.range(0, tasks).parallel().forEach(task -> {
+      long[] block = new long[WORD_SIZE];
+      int end = Math.min(blocks, (task + 1) * BLOCKS_PER_TASK);
+      for (int i = task * BLOCKS_PER_TASK; i < end; i++) {
+        // Consecutive blocks are next to each other in a row of the input
+        int blockRow = i / inputWords;
+        int blockColumn = i % inputWords;
+        int rowOffset = blockRow * WORD_SIZE;
+        int columnOffset = blockColumn * WORD_SIZE;
+        int blockRows = Math.min(WORD_SIZE, rows - rowOffset);
+        int blockColumns = Math.min(WORD_SIZE, columns - columnOffset);
+        for (int k = 0; k < blockRows; k++) {
+          block[k] = matrix[(rowOffset + k) * inputWords + blockColumn];
+        }
+        for (int k = blockRows; k < WORD_SIZE; k++) {
+          block[k] = 0;
+        }
+        transposeBlock(block);
+        for (int k = 0; k < blockColumns; k++) {
+          result[(columnOffset + k) * outputWords + blockRow] = block[k];
+        }
+      }
+    });
+    return result;
   }
 
   /**
-   * Given a matrix <i>M</i> where the smallest dimension, <i>m</i>, divides the largest,<i>n</i>,
-   * we can see <i>M</i> as a matrix consisting of a sequence of <i>n/m</i> square sub matrices of
-   * dimension <i>m x m</i>. This extracts such a square matrix from a given position in the
-   * sequence of a larger matrix <i>M</i>.
+   * Transposes a 64 x 64 bit block in place using Eklundh's method, swapping sub-blocks of 32,
+   * 16, ..., 1 bits.
    *
-   * @param matrix the matrix from which to extract a square matrix
-   * @param minDim the smallest dimension of the matrix
-   * @param tall if the matrix is tall, i.e., if the first dimension is larger than the second
-   * @param i the position the sequence from which to extract a square matrix
-   * @return the corresponding square matrix
+   * @param block the rows of the block
    */
-  private static List<byte[]> extractSquare(List<StrictBitVector> matrix, int minDim, boolean tall,
-      int i) {
-    byte[][] tempSquare = new byte[minDim][minDim / Byte.SIZE];
-    int rowOffset = tall ? i * minDim : 0;
-    int columnOffset = tall ? 0 : i * minDim / Byte.SIZE;
-    for (int j = 0; j < tempSquare.length; j++) {
-      byte[] row = matrix.get(rowOffset + j).toByteArray();
-      System.arraycopy(row, columnOffset, tempSquare[j], 0, tempSquare[j].length);
+  static void transposeBlock(long[] block) {
+    long mask = 0x00000000FFFFFFFFL;
+    for (int width = WORD_SIZE / 2; width != 0; width >>>= 1, mask ^= mask << width) {
+      for (int k = 0; k < WORD_SIZE; k = (k + width + 1) & ~width) {
+        long swap = (block[k] ^ (block[k + width] >>> width)) & mask;
+        block[k] ^= swap;
+        block[k + width] ^= swap << width;
+      }
     }
-    return Arrays.asList(tempSquare);
   }
 
   /**
-   * Complete the Eklundh algorithm for transposing with initial blocks of 8 bits. That is, assuming
-   * all blocks of 8 bits have already been transposed
+   * Returns the number of words needed for a row of the given number of bits in the flat
+   * representation.
    *
-   * @param input The matrix to transpose. Represented in row-major
+   * @param bits the number of bits of a row
+   * @return the number of words of a row
    */
-  private static void doEklundh(List<byte[]> input) {
-    int rows = input.size();
-    int byteColumns = input.get(0).length;
-    for (int blockSize = 1; blockSize <= byteColumns / 2; blockSize = blockSize * 2) {
-      for (int i = 0; i < rows; i = i + 2 * Byte.SIZE * blockSize) {
-        for (int j = 0; j < byteColumns; j = j + 2 * blockSize) {
-          // swap the blocks
-          swap(input, i, j, blockSize);
-        }
-      }
+  public static int words(int bits) {
+    return (bits + WORD_SIZE - 1) / WORD_SIZE;
+  }
+
+  /**
+   * Packs the bytes of a row, ordered as in {@link StrictBitVector}, into words of a matrix in the
+   * flat representation.
+   *
+   * @param row the bytes of the row
+   * @param matrix the matrix
+   * @param offset the index of the first word of the row in the matrix
+   */
+  public static void packRow(byte[] row, long[] matrix, int offset) {
+    packRow(row, 0, row.length, matrix, offset);
+  }
+
+  /**
+   * Packs a range of bytes holding a row, ordered as in {@link StrictBitVector}, into words of a
+   * matrix in the flat representation.
+   *
+   * @param bytes the array holding the bytes of the row
+   * @param from the index of the first byte of the row
+   * @param length the number of bytes of the row
+   * @param matrix the matrix
+   * @param offset the index of the first word of the row in the matrix
+   */
+  public static void packRow(byte[] bytes, int from, int length, long[] matrix, int offset) {
+    for (int i = 0; i < length; i++) {
+      int shift = WORD_SIZE - Byte.SIZE * (1 + i % BYTES_PER_WORD);
+      matrix[offset + i / BYTES_PER_WORD] |= (bytes[from + i] & 0xFFL) << shift;
     }
   }
 
   /**
-   * Swaps the content of two square blocks, in-place.
+   * Unpacks a row of a matrix in the flat representation into bytes ordered as in {@link
+   * StrictBitVector}.
    *
-   * @param input The list of arrays of which to swap
-   * @param row The row offset
-   * @param column The column offset
-   * @param blockSize The amount of bits in the block to swap
+   * @param matrix the matrix
+   * @param offset the index of the first word of the row in the matrix
+   * @param bits the number of bits of the row. Must be divisible by 8
+   * @return the bytes of the row
    */
-  private static void swap(List<byte[]> input, int row, int column, int blockSize) {
-    for (int k = 0; k < blockSize * Byte.SIZE; k++) {
-      for (int l = 0; l < blockSize; l++) {
-        byte temp = input.get(row + k)[column + blockSize + l];
-        input.get(row + k)[column + blockSize + l] =
-            input.get(row + blockSize * Byte.SIZE + k)[column + l];
-        input.get(row + blockSize * Byte.SIZE + k)[column + l] = temp;
-      }
+  public static byte[] unpackRow(long[] matrix, int offset, int bits) {
+    byte[] row = new byte[bits / Byte.SIZE];
+    for (int i = 0; i < row.length; i++) {
+      int shift = WORD_SIZE - Byte.SIZE * (1 + i % BYTES_PER_WORD);
+      row[i] = (byte) (matrix[offset + i / BYTES_PER_WORD] >>> shift);
     }
+    return row;
+  }
+
+  /**
+   * Converts a matrix in the flat representation to a list of bit vectors.
+   *
+   * @param matrix the matrix
+   * @param rows the number of rows
+   * @param columns the number of columns. Must be divisible by 8
+   * @return the rows of the matrix
+   */
+  public static List<StrictBitVector> toRows(long[] matrix, int rows, int columns) {
+    int rowWords = words(columns);
+    StrictBitVector[] result = new StrictBitVector[rows];
+    IntStream.range(0, rows).parallel().forEach(
+        i -> result[i] = new StrictBitVector(unpackRow(matrix, i * rowWords, columns)));
+    List<StrictBitVector> list = new ArrayList<>(rows);
+    for (StrictBitVector row : result) {
+      list.add(row);
+    }
+    return list;
   }
 
   /**
@@ -154,66 +211,4 @@ public class Transpose {
       }
     }
   }
-
-  /**
-   * Transpose all 8 bit squares in a square matrix, in-place.
-   *
-   * @param input The input
-   */
-  private static void transposeAllByteBlocks(List<byte[]> input) {
-    // Start by transposing one byte and 8 rows at a time using the trivial
-    // O(n^2) algorithm
-    for (int i = 0; i < input.size(); i = i + Byte.SIZE) {
-      for (int j = 0; j < input.get(0).length * Byte.SIZE; j = j + Byte.SIZE) {
-        transposeByteBlock(input, i, j);
-      }
-    }
-  }
-
-  /**
-   * Transposes 8x8 bit blocks of a row-major matrix, at positions "rowOffset", "columnOffset".
-   *
-   * @param input The matrix to transpose
-   * @param rowOffset The row offset
-   * @param columnOffset The column offset
-   */
-  private static void transposeByteBlock(List<byte[]> input, int rowOffset, int columnOffset) {
-    /*
-     * By having 8 variables we hope that the JVM will only access the main memory per iteration, to
-     * read a byte, rather than both reading and writing to 8 bytes at different places in main
-     * memory.
-     */
-    byte newRow0 = 0;
-    byte newRow1 = 0;
-    byte newRow2 = 0;
-    byte newRow3 = 0;
-    byte newRow4 = 0;
-    byte newRow5 = 0;
-    byte newRow6 = 0;
-    byte newRow7 = 0;
-    for (int k = 0; k < Byte.SIZE; k++) {
-      byte currentRow = input.get(rowOffset + k)[columnOffset / Byte.SIZE];
-      /*
-       * First extract the bit of position (column) x for row x using AND (&), then shift it to the
-       * leftmost position and do an unsigned rightshift to move it into the correct position for
-       * the given row. Finally XOR (^) the new bit into the current value for the row
-       */
-      newRow0 ^= (byte) (((currentRow & 0x80) << 24 + 0) >>> (24 + k));
-      newRow1 ^= (byte) (((currentRow & 0x40) << 24 + 1) >>> (24 + k));
-      newRow2 ^= (byte) (((currentRow & 0x20) << 24 + 2) >>> (24 + k));
-      newRow3 ^= (byte) (((currentRow & 0x10) << 24 + 3) >>> (24 + k));
-      newRow4 ^= (byte) (((currentRow & 0x08) << 24 + 4) >>> (24 + k));
-      newRow5 ^= (byte) (((currentRow & 0x04) << 24 + 5) >>> (24 + k));
-      newRow6 ^= (byte) (((currentRow & 0x02) << 24 + 6) >>> (24 + k));
-      newRow7 ^= (byte) (((currentRow & 0x01) << 24 + 7) >>> (24 + k));
-    }
-    input.get(rowOffset + 0)[columnOffset / Byte.SIZE] = newRow0;
-    input.get(rowOffset + 1)[columnOffset / Byte.SIZE] = newRow1;
-    input.get(rowOffset + 2)[columnOffset / Byte.SIZE] = newRow2;
-    input.get(rowOffset + 3)[columnOffset / Byte.SIZE] = newRow3;
-    input.get(rowOffset + 4)[columnOffset / Byte.SIZE] = newRow4;
-    input.get(rowOffset + 5)[columnOffset / Byte.SIZE] = newRow5;
-    input.get(rowOffset + 6)[columnOffset / Byte.SIZE] = newRow6;
-    input.get(rowOffset + 7)[columnOffset / Byte.SIZE] = newRow7;
-  }
 }
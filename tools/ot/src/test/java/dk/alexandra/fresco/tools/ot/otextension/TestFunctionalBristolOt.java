@@ -124,6 +124,61 @@ public class TestFunctionalBristolOt {
         (List<StrictBitVector>) extendResults.get(1), choices);
   }
 
+  private List<Pair<StrictBitVector, StrictBitVector>> bristolOtSendBatch(
+      OtExtensionTestContext ctx, int iterations, int batchSize) {
+    OtExtensionResourcePool resources = ctx.createResources(1);
+    Ot otSender = new BristolOtFactory(new RotFactory(resources, ctx.getNetwork()), resources,
+        ctx.getNetwork(), batchSize);
+    List<Pair<StrictBitVector, StrictBitVector>> messages = new ArrayList<>(iterations);
+    Drbg rand = ctx.createRand(1);
+    for (int i = 0; i < iterations; i++) {
+      messages.add(new Pair<>(new StrictBitVector(messageLength, rand),
+          new StrictBitVector(messageLength, rand)));
+    }
+    // Single OTs followed by the rest as one batch crossing an extension
+    for (int i = 0; i < 8; i++) {
+      otSender.send(messages.get(i).getFirst(), messages.get(i).getSecond());
+    }
+    otSender.sendBatch(messages.subList(8, iterations));
+    return messages;
+  }
+
+  private List<StrictBitVector> bristolOtReceiveBatch(OtExtensionTestContext ctx,
+      StrictBitVector choices, int batchSize) {
+    OtExtensionResourcePool resources = ctx.createResources(1);
+    Ot otReceiver = new BristolOtFactory(new RotFactory(resources, ctx.getNetwork()), resources,
+        ctx.getNetwork(), batchSize);
+    List<StrictBitVector> messages = new ArrayList<>(choices.getSize());
+    for (int i = 0; i < 8; i++) {
+      messages.add(otReceiver.receive(choices.getBit(i, false)));
+    }
+    StrictBitVector restChoices = new StrictBitVector(choices.getSize() - 8);
+    for (int i = 8; i < choices.getSize(); i++) {
+      restChoices.setBit(i - 8, choices.getBit(i, false), false);
+    }
+    messages.addAll(otReceiver.receiveBatch(restChoices));
+    return messages;
+  }
+
+  /**
+   * Verify that batches of OTs can be mixed with single OTs.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testBristolOtBatch() {
+    int batchSize = 800;
+    int iterations = 1032;
+    Drbg rand = new AesCtrDrbg(HelperForTests.seedThree);
+    StrictBitVector choices = new StrictBitVector(iterations, rand);
+    Callable<List<?>> partyOneOt = () -> bristolOtSendBatch(senderContext, iterations, batchSize);
+    Callable<List<?>> partyTwoOt = () -> bristolOtReceiveBatch(receiverContext, choices,
+        batchSize);
+    List<List<?>> extendResults =
+        testRuntime.runPerPartyTasks(Arrays.asList(partyOneOt, partyTwoOt));
+    HelperForTests.verifyOts((List<Pair<StrictBitVector, StrictBitVector>>) extendResults.get(0),
+        (List<StrictBitVector>) extendResults.get(1), choices);
+  }
+
   private List<Pair<StrictBitVector, StrictBitVector>> bristolRotBatchSend(
       OtExtensionTestContext ctx, int batchSize, int id) {
     OtExtensionResourcePool resources = ctx.createResources(id);
@@ -275,11 +330,12 @@ public class TestFunctionalBristolOt {
     Field receiver = BristolOtFactory.class.getDeclaredField("receiver");
     receiver.setAccessible(true);
     Method method = receiver.get(otReceiver).getClass().getDeclaredMethod("doActualReceive",
-        byte[].class, byte[].class);
+        boolean.class, StrictBitVector.class, byte[].class, byte[].class);
     method.setAccessible(true);
     Exception exception = null;
     try {
-      method.invoke(receiver.get(otReceiver), new byte[]{0x42}, new byte[]{0x42, 0x43});
+      method.invoke(receiver.get(otReceiver), false, new StrictBitVector(8), new byte[]{0x42},
+          new byte[]{0x42, 0x43});
     } catch (Exception e) {
       exception = e;
     }
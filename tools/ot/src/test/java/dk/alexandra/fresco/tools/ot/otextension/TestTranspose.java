@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.tools.ot.otextension;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import dk.alexandra.fresco.framework.util.StrictBitVector;
@@ -9,6 +10,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -37,26 +39,6 @@ public class TestTranspose {
             new StrictBitVector(new byte[] { (byte) 0x00, (byte) 0x00 })));
   }
 
-  private static List<byte[]> getSquareByteMatrix() {
-    return new ArrayList<>(Arrays.asList(
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0x00, (byte) 0x00 },
-        new byte[] { (byte) 0x00, (byte) 0x00 },
-        new byte[] { (byte) 0x00, (byte) 0x00 },
-        new byte[] { (byte) 0x00, (byte) 0x00 },
-        new byte[] { (byte) 0x00, (byte) 0x00 },
-        new byte[] { (byte) 0x00, (byte) 0x00 },
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0x00, (byte) 0x00 },
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0xFF, (byte) 0xFF },
-        new byte[] { (byte) 0x00, (byte) 0x00 }));
-  }
-
   /**
    * Setup a local Transpose class.
    */
@@ -105,110 +87,66 @@ public class TestTranspose {
     assertEquals(false, thrown);
   }
 
-  @Test
-  public void testTransposeOneByteBlock() throws NoSuchMethodException,
-      IllegalAccessException, IllegalArgumentException,
-      InvocationTargetException {
-    /**
-     * Construct the following bit matrix
-     * 1 1 1 1 1 1 1 1, 0xFF
-     * 0 0 0 0 0 0 0 0, 0x00
-     * 0 0 0 0 0 0 0 0, 0x00
-     * 0 0 0 0 0 0 0 1, 0x01
-     * 0 0 0 0 0 0 0 0, 0x00
-     * 0 0 0 0 0 0 0 0, 0x00
-     * 0 0 0 0 0 0 0 0, 0x00
-     * 1 1 1 1 1 1 1 1, 0xFF.
-     */
-    List<byte[]> input = new ArrayList<>(
-        Arrays.asList(
-            new byte[] { (byte) 0xFF },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x01 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0x00 },
-            new byte[] { (byte) 0xFF }));
-    Method transposeByteBlock = Transpose.class.getDeclaredMethod(
-        "transposeByteBlock", List.class, int.class, int.class);
-    transposeByteBlock.setAccessible(true);
-    transposeByteBlock.invoke(Transpose.class, input, 0, 0);
-    /**
-     * Verify that the result is
-     * 1 0 0 0 0 0 0 1 0x81
-     * 1 0 0 0 0 0 0 1 0x81
-     * 1 0 0 0 0 0 0 1 0x81
-     * 1 0 0 0 0 0 0 1 0x81
-     * 1 0 0 0 0 0 0 1 0x81
-     * 1 0 0 0 0 0 0 1 0x81
-     * 1 0 0 0 0 0 0 1 0x81
-     * 1 0 0 1 0 0 0 1 0x91
-     */
-    for (int i = 0; i < 7; i++) {
-      assertEquals((byte) 0x81, input.get(i)[0]);
+  private static boolean getBit(long[] matrix, int rowWords, int row, int column) {
+    return (matrix[row * rowWords + column / Long.SIZE] << (column % Long.SIZE)) < 0;
+  }
+
+  private static void assertTransposed(long[] input, int rows, int columns) {
+    long[] output = Transpose.transpose(input, rows, columns);
+    assertEquals(columns * Transpose.words(rows), output.length);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        assertEquals(getBit(input, Transpose.words(columns), i, j),
+            getBit(output, Transpose.words(rows), j, i));
+      }
     }
-    assertEquals((byte) 0x91, input.get(7)[0]);
   }
 
   @Test
-  public void testTransposeFourByteBlocks() throws NoSuchMethodException,
-      SecurityException, IllegalAccessException, IllegalArgumentException,
-      InvocationTargetException {
-    List<byte[]> input = getSquareByteMatrix();
-    Method transposeAllByteBlocks = Transpose.class.getDeclaredMethod(
-        "transposeAllByteBlocks", List.class);
-    transposeAllByteBlocks.setAccessible(true);
-    transposeAllByteBlocks.invoke(Transpose.class, input);
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x81, input.get(i)[0]);
+  public void testTransposeBlock() {
+    Random random = new Random(42);
+    long[] block = new long[64];
+    for (int i = 0; i < block.length; i++) {
+      block[i] = random.nextLong();
     }
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x81, input.get(i)[1]);
-    }
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x7E, input.get(i + 8)[0]);
-    }
-    for (int i = 0; i < 8; i++) {
-      assertEquals((byte) 0x7E, input.get(i + 8)[1]);
+    long[] original = block.clone();
+    Transpose.transposeBlock(block);
+    for (int i = 0; i < 64; i++) {
+      for (int j = 0; j < 64; j++) {
+        assertEquals(getBit(original, 1, i, j), getBit(block, 1, j, i));
+      }
     }
   }
 
   @Test
-  public void testEklundh() throws NoSuchMethodException, SecurityException,
-      IllegalAccessException, IllegalArgumentException,
-      InvocationTargetException {
-    List<byte[]> input = getSquareByteMatrix();
-    Method doEklundh = Transpose.class.getDeclaredMethod("doEklundh",
-        List.class);
-    doEklundh.setAccessible(true);
-    doEklundh.invoke(Transpose.class, input);
-    List<byte[]> referenceMatrix = new ArrayList<>(
-        Arrays.asList(
-            new byte[] { (byte) 0xFF, (byte) 0x00 },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0xFF, (byte) 0x00 },
-            new byte[] { (byte) 0xFF, (byte) 0x00 },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0x00, (byte) 0xFF },
-            new byte[] { (byte) 0xFF, (byte) 0x00 }));
-
-    for (int i = 0; i < 16; i++) {
-      for (int j = 0; j < 2; j++) {
-        assertEquals(referenceMatrix.get(i)[j], input.get(i)[j]);
+  public void testFlatTranspose() {
+    Random random = new Random(42);
+    int[][] shapes = { { 64, 64 }, { 128, 1024 }, { 1024, 128 }, { 128, 8 }, { 8, 16 },
+        { 72, 200 } };
+    for (int[] shape : shapes) {
+      long[] input = new long[shape[0] * Transpose.words(shape[1])];
+      for (int i = 0; i < input.length; i++) {
+        input[i] = random.nextLong();
       }
+      assertTransposed(input, shape[0], shape[1]);
     }
   }
 
+  @Test
+  public void testPackRow() {
+    byte[] row = new byte[] { (byte) 0x80, 1, 2, 3, 4, 5, 6, 7, (byte) 0xFF, 0x7E };
+    long[] matrix = new long[4];
+    Transpose.packRow(row, matrix, 2);
+    assertEquals(0x8001020304050607L, matrix[2]);
+    assertEquals(0xFF7E000000000000L, matrix[3]);
+    assertArrayEquals(row, Transpose.unpackRow(matrix, 2, row.length * Byte.SIZE));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFlatTransposeTooSmall() {
+    Transpose.transpose(new long[127], 128, 64);
+  }
+
   @Test
   public void testSquareTranspose() {
     List<StrictBitVector> input = getSquareMatrix();